@@ -0,0 +1,127 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.benchmark.bulk;
+
+import org.elasticsearch.action.bulk.BulkRequestParser;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.CompositeBytesReference;
+import org.elasticsearch.core.RestApiVersion;
+import org.elasticsearch.index.mapper.SourceToParse;
+import org.elasticsearch.xcontent.XContentType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how fast we turn the body of a bulk request without ingest pipelines into the {@link SourceToParse} of each document. The
+ * body is either in a single buffer or split into chunks like the ones the HTTP layer hands to the incremental bulk handler in
+ * {@code RestBulkAction}, in which case we parse it the same way, chunk by chunk. Documents that span chunks end up as composite
+ * references that {@link SourceToParse} has to copy, all others are slices of the chunks.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 7)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@SuppressWarnings("unused") // invoked by benchmarking framework
+public class BulkRequestParserBenchmark {
+    @Param({ "5000" })
+    private int docs;
+
+    @Param({ "100", "1000" })
+    private int docSize;
+
+    /**
+     * The size of the chunks the body arrives in. {@code 0} keeps the body in a single buffer.
+     */
+    @Param({ "0", "8192", "65536" })
+    private int chunkSize;
+
+    private final BulkRequestParser parser = new BulkRequestParser(false, true, RestApiVersion.current());
+
+    private List<BytesReference> chunks;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < docs; i++) {
+            body.append("{\"index\":{\"_index\":\"logs\",\"_id\":\"").append(i).append("\"}}\n");
+            int start = body.length();
+            body.append("{\"@timestamp\":").append(1_700_000_000_000L + i).append(",\"level\":\"info\",\"message\":\"");
+            while (body.length() - start < docSize) {
+                body.append((char) ('a' + random.nextInt(26)));
+            }
+            body.append("\"}\n");
+        }
+        byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+        chunks = new ArrayList<>();
+        if (chunkSize == 0) {
+            chunks.add(new BytesArray(bytes));
+        } else {
+            // every chunk gets its own array, like the network buffers do
+            for (int from = 0; from < bytes.length; from += chunkSize) {
+                chunks.add(new BytesArray(Arrays.copyOfRange(bytes, from, Math.min(bytes.length, from + chunkSize))));
+            }
+        }
+    }
+
+    @Benchmark
+    public void parse(Blackhole bh) throws IOException {
+        BulkRequestParser.IncrementalParser incrementalParser = parser.incrementalParser(
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            true,
+            XContentType.JSON,
+            (indexRequest, type) -> bh.consume(new SourceToParse(indexRequest.id(), indexRequest.source(), indexRequest.getContentType())),
+            bh::consume,
+            bh::consume
+        );
+        ArrayDeque<BytesReference> unparsed = new ArrayDeque<>();
+        for (int i = 0; i < chunks.size(); i++) {
+            BytesReference chunk = chunks.get(i);
+            unparsed.add(chunk);
+            BytesReference data = unparsed.size() > 1 ? CompositeBytesReference.of(unparsed.toArray(new BytesReference[0])) : chunk;
+            int consumed = incrementalParser.parse(data, i == chunks.size() - 1);
+            while (consumed > 0) {
+                BytesReference first = unparsed.removeFirst();
+                if (consumed < first.length()) {
+                    unparsed.addFirst(first.slice(consumed, first.length() - consumed));
+                }
+                consumed -= first.length();
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.benchmark.common.cache;
+
+import org.elasticsearch.common.cache.Cache;
+import org.elasticsearch.common.cache.CacheBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how {@link Cache} holds up when many threads hit it at once, like
+ * the request cache and the field data cache do on nodes with many cores.
+ * Keys are skewed so a few hot entries get most of the reads.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 7)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@SuppressWarnings("unused") // invoked by benchmarking framework
+public class CacheContentionBenchmark {
+    private static final int KEYS = 1 << 16;
+
+    /**
+     * Percentage of operations that {@link Cache#put} rather than {@link Cache#get}.
+     */
+    @Param({ "0", "10" })
+    private int writePercent;
+
+    /**
+     * Maximum number of entries in the cache, as a fraction of the keys we touch.
+     * Below {@code 1} every write evicts.
+     */
+    @Param({ "0.5", "2" })
+    private double capacity;
+
+    private Cache<Integer, Integer> cache;
+
+    @Setup
+    public void setup() {
+        cache = CacheBuilder.<Integer, Integer>builder().setMaximumWeight((long) (KEYS * capacity)).build();
+        for (int i = 0; i < KEYS; i++) {
+            cache.put(i, i);
+        }
+    }
+
+    private Integer run() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        // Squaring a uniform number skews the keys towards zero, making a few keys hot
+        double r = random.nextDouble();
+        Integer key = (int) (r * r * KEYS);
+        if (random.nextInt(100) < writePercent) {
+            cache.put(key, key);
+            return key;
+        }
+        return cache.get(key);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Integer threads_01() {
+        return run();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Integer threads_04() {
+        return run();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public Integer threads_16() {
+        return run();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public Integer threads_64() {
+        return run();
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.benchmark.common.util;
+
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.DoubleArray;
+import org.elasticsearch.common.util.IntArray;
+import org.elasticsearch.common.util.LongArray;
+import org.elasticsearch.common.util.PageCacheRecycler;
+import org.elasticsearch.core.Releasables;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the cost of accessing {@link BigArrays} with their pages on the heap
+ * and with their pages in direct memory. See {@link BigArrays#OFF_HEAP_SETTING}.
+ */
+@Warmup(iterations = 5)
+@Measurement(iterations = 7)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@OperationsPerInvocation(2621440)
+public class BigArraysAccessBenchmark {
+    static final int SIZE = BigArraysAccessBenchmark.class.getAnnotation(OperationsPerInvocation.class).value();
+
+    @Param({ "heap", "off_heap" })
+    private String type;
+
+    private IntArray ints;
+    private LongArray longs;
+    private DoubleArray doubles;
+    /**
+     * Random indices into the arrays, like the bucket ordinals an aggregation
+     * increments while it collects.
+     */
+    private int[] ords;
+
+    @Setup
+    public void init() {
+        BigArrays bigArrays = new BigArrays(new PageCacheRecycler(Settings.EMPTY), null, CircuitBreaker.REQUEST);
+        bigArrays = switch (type) {
+            case "heap" -> bigArrays;
+            case "off_heap" -> bigArrays.withOffHeap();
+            default -> throw new IllegalArgumentException("unsupported [type] " + type);
+        };
+        ints = bigArrays.newIntArray(SIZE);
+        longs = bigArrays.newLongArray(SIZE);
+        doubles = bigArrays.newDoubleArray(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            ints.set(i, i);
+            longs.set(i, i);
+            doubles.set(i, i);
+        }
+        Random random = new Random(0);
+        ords = new int[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            ords[i] = random.nextInt(SIZE);
+        }
+    }
+
+    @TearDown
+    public void close() {
+        Releasables.close(ints, longs, doubles);
+    }
+
+    @Benchmark
+    public long readInts() {
+        int res = 0;
+        for (int i = 0; i < SIZE; i++) {
+            res = res ^ ints.get(i);
+        }
+        return res;
+    }
+
+    @Benchmark
+    public long readLongs() {
+        long res = 0;
+        for (int i = 0; i < SIZE; i++) {
+            res = res ^ longs.get(i);
+        }
+        return res;
+    }
+
+    @Benchmark
+    public long incrementLongsRandomly() {
+        long res = 0;
+        for (int i = 0; i < SIZE; i++) {
+            res += longs.increment(ords[i], 1);
+        }
+        return res;
+    }
+
+    @Benchmark
+    public double incrementDoublesRandomly() {
+        double res = 0;
+        for (int i = 0; i < SIZE; i++) {
+            res += doubles.increment(ords[i], 1.0);
+        }
+        return res;
+    }
+}
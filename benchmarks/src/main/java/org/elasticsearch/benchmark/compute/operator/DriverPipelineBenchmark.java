@@ -0,0 +1,379 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.benchmark.compute.operator;
+
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.support.PlainActionFuture;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
+import org.elasticsearch.compute.aggregation.AggregatorMode;
+import org.elasticsearch.compute.aggregation.SumLongAggregatorFunctionSupplier;
+import org.elasticsearch.compute.aggregation.blockhash.BlockHash;
+import org.elasticsearch.compute.data.BlockFactory;
+import org.elasticsearch.compute.data.ElementType;
+import org.elasticsearch.compute.data.LongBlock;
+import org.elasticsearch.compute.data.Page;
+import org.elasticsearch.compute.lucene.DataPartitioning;
+import org.elasticsearch.compute.lucene.LuceneOperator;
+import org.elasticsearch.compute.lucene.LuceneSourceOperator;
+import org.elasticsearch.compute.lucene.ShardContext;
+import org.elasticsearch.compute.lucene.ValuesSourceReaderOperator;
+import org.elasticsearch.compute.operator.Driver;
+import org.elasticsearch.compute.operator.DriverContext;
+import org.elasticsearch.compute.operator.DriverRunner;
+import org.elasticsearch.compute.operator.EvalOperator;
+import org.elasticsearch.compute.operator.HashAggregationOperator;
+import org.elasticsearch.compute.operator.Operator;
+import org.elasticsearch.compute.operator.PageConsumerOperator;
+import org.elasticsearch.compute.operator.SinkOperator;
+import org.elasticsearch.compute.operator.SourceOperator;
+import org.elasticsearch.compute.operator.exchange.ExchangeSinkHandler;
+import org.elasticsearch.compute.operator.exchange.ExchangeSinkOperator;
+import org.elasticsearch.compute.operator.exchange.ExchangeSourceHandler;
+import org.elasticsearch.compute.operator.exchange.ExchangeSourceOperator;
+import org.elasticsearch.core.IOUtils;
+import org.elasticsearch.index.mapper.BlockDocValuesReader;
+import org.elasticsearch.index.mapper.BlockLoader;
+import org.elasticsearch.index.mapper.MappedFieldType;
+import org.elasticsearch.index.mapper.SourceLoader;
+import org.elasticsearch.search.sort.SortAndFormats;
+import org.elasticsearch.search.sort.SortBuilder;
+import org.elasticsearch.xpack.esql.core.expression.FieldAttribute;
+import org.elasticsearch.xpack.esql.core.expression.FoldContext;
+import org.elasticsearch.xpack.esql.core.expression.Literal;
+import org.elasticsearch.xpack.esql.core.tree.Source;
+import org.elasticsearch.xpack.esql.core.type.DataType;
+import org.elasticsearch.xpack.esql.core.type.EsField;
+import org.elasticsearch.xpack.esql.evaluator.EvalMapper;
+import org.elasticsearch.xpack.esql.expression.predicate.operator.arithmetic.Mod;
+import org.elasticsearch.xpack.esql.planner.Layout;
+import org.elasticsearch.xpack.esql.plugin.EsqlPlugin;
+import org.elasticsearch.xpack.esql.plugin.QueryPragmas;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for running a whole data node pipeline, something like
+ * {@code FROM idx | EVAL g = v % 100 | STATS SUM(v) BY g}, against an in memory
+ * Lucene index. Many data drivers read the index, eval, and partially aggregate,
+ * then send their results through an exchange to a driver that finishes the
+ * aggregation. Small pages and many drivers make this mostly about the overhead
+ * of scheduling the drivers and moving pages through the exchange.
+ */
+@Warmup(iterations = 5)
+@Measurement(iterations = 7)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+public class DriverPipelineBenchmark {
+    private static final int INDEX_SIZE = 1024 * 1024;
+    private static final int COMMIT_INTERVAL = 100_000;
+    private static final int GROUPS = 100;
+    private static final int BUFFER_SIZE = QueryPragmas.EXCHANGE_BUFFER_SIZE.getDefault(Settings.EMPTY);
+
+    private static final BlockFactory blockFactory = BlockFactory.getInstance(
+        new NoopCircuitBreaker("noop"),
+        BigArrays.NON_RECYCLING_INSTANCE
+    );
+    private static final FoldContext FOLD_CONTEXT = FoldContext.small();
+
+    /**
+     * Smoke test all the expected values. Unlike most benchmarks we don't run this from a static
+     * initializer because the drivers run on other threads which would block initializing this class.
+     */
+    static void selfTest() {
+        try {
+            DriverPipelineBenchmark benchmark = new DriverPipelineBenchmark();
+            benchmark.setupIndex();
+            try {
+                for (String pageSize : DriverPipelineBenchmark.class.getField("pageSize").getAnnotationsByType(Param.class)[0].value()) {
+                    for (String drivers : DriverPipelineBenchmark.class.getField("drivers").getAnnotationsByType(Param.class)[0].value()) {
+                        benchmark.pageSize = Integer.parseInt(pageSize);
+                        benchmark.drivers = Integer.parseInt(drivers);
+                        benchmark.setupExecutor();
+                        try {
+                            benchmark.run();
+                        } finally {
+                            benchmark.teardownExecutor();
+                        }
+                    }
+                }
+            } finally {
+                benchmark.teardownIndex();
+            }
+        } catch (IOException | NoSuchFieldException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    /**
+     * The maximum number of documents in each page emitted by the Lucene source.
+     */
+    @Param({ "256", "4096", "16384" })
+    public int pageSize;
+
+    /**
+     * The number of data drivers reading the index. Each gets a thread.
+     */
+    @Param({ "1", "4", "16" })
+    public int drivers;
+
+    private Directory directory;
+    private IndexReader reader;
+    private ExecutorService executor;
+
+    @Setup
+    public void setup() throws IOException {
+        setupIndex();
+        setupExecutor();
+    }
+
+    private void setupIndex() throws IOException {
+        directory = new ByteBuffersDirectory();
+        try (IndexWriter iw = new IndexWriter(directory, new IndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE))) {
+            for (int i = 0; i < INDEX_SIZE; i++) {
+                iw.addDocument(List.of(new NumericDocValuesField("v", i)));
+                if (i % COMMIT_INTERVAL == 0) {
+                    iw.commit();
+                }
+            }
+        }
+        reader = DirectoryReader.open(directory);
+    }
+
+    private void setupExecutor() {
+        // One thread per data driver and one for the final driver
+        executor = Executors.newFixedThreadPool(drivers + 1);
+    }
+
+    @TearDown
+    public void teardown() throws IOException {
+        teardownExecutor();
+        teardownIndex();
+    }
+
+    private void teardownIndex() throws IOException {
+        IOUtils.close(reader, directory);
+    }
+
+    private void teardownExecutor() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INDEX_SIZE)
+    public void run() {
+        ExchangeSourceHandler sourceHandler = new ExchangeSourceHandler(BUFFER_SIZE, executor);
+        ExchangeSinkHandler sinkHandler = new ExchangeSinkHandler(blockFactory, BUFFER_SIZE, System::currentTimeMillis);
+        sourceHandler.addRemoteSink(sinkHandler::fetchPageAsync, true, () -> {}, 1, ActionListener.noop());
+
+        LuceneSourceOperator.Factory source = new LuceneSourceOperator.Factory(
+            List.of(new BenchmarkShardContext(reader)),
+            ctx -> new MatchAllDocsQuery(),
+            DataPartitioning.DOC,
+            drivers,
+            pageSize,
+            LuceneOperator.NO_LIMIT,
+            false
+        );
+        List<ValuesSourceReaderOperator.FieldInfo> fields = List.of(
+            new ValuesSourceReaderOperator.FieldInfo("v", ElementType.LONG, shardIdx -> new BlockDocValuesReader.LongsBlockLoader("v"))
+        );
+        List<ValuesSourceReaderOperator.ShardContext> readerShardContexts = List.of(
+            new ValuesSourceReaderOperator.ShardContext(reader, () -> {
+                throw new UnsupportedOperationException("can't load _source here");
+            }, EsqlPlugin.STORED_FIELDS_SEQUENTIAL_PROPORTION.getDefault(Settings.EMPTY))
+        );
+
+        List<Driver> pipelines = new ArrayList<>(drivers + 1);
+        for (int d = 0; d < drivers; d++) {
+            DriverContext driverContext = driverContext();
+            List<Operator> operators = List.of(
+                new ValuesSourceReaderOperator(blockFactory, fields, readerShardContexts, 0),
+                new EvalOperator(blockFactory, groupEvaluator(driverContext)),
+                // [doc, v, g] -> [g, sum, seen]
+                new HashAggregationOperator(
+                    List.of(new SumLongAggregatorFunctionSupplier().groupingAggregatorFactory(AggregatorMode.INITIAL, List.of(1))),
+                    () -> BlockHash.build(List.of(new BlockHash.GroupSpec(2, ElementType.LONG)), blockFactory, pageSize, false),
+                    driverContext
+                )
+            );
+            ExchangeSinkOperator sink = new ExchangeSinkOperator(sinkHandler.createExchangeSink(() -> {}));
+            pipelines.add(driver(driverContext, source.get(driverContext), operators, sink));
+        }
+
+        List<Page> results = new ArrayList<>();
+        DriverContext finalContext = driverContext();
+        pipelines.add(
+            driver(
+                finalContext,
+                new ExchangeSourceOperator(sourceHandler.createExchangeSource()),
+                List.of(
+                    new HashAggregationOperator(
+                        List.of(new SumLongAggregatorFunctionSupplier().groupingAggregatorFactory(AggregatorMode.FINAL, List.of(1, 2))),
+                        () -> BlockHash.build(List.of(new BlockHash.GroupSpec(0, ElementType.LONG)), blockFactory, pageSize, false),
+                        finalContext
+                    )
+                ),
+                new PageConsumerOperator(results::add)
+            )
+        );
+
+        ThreadContext threadContext = new ThreadContext(Settings.EMPTY);
+        DriverRunner runner = new DriverRunner(threadContext) {
+            @Override
+            protected void start(Driver driver, ActionListener<Void> driverListener) {
+                Driver.start(threadContext, executor, driver, Driver.DEFAULT_MAX_ITERATIONS, driverListener);
+            }
+        };
+        PlainActionFuture<Void> future = new PlainActionFuture<>();
+        runner.runToCompletion(pipelines, future);
+        future.actionGet();
+
+        long sum = 0;
+        int groups = 0;
+        for (Page page : results) {
+            try {
+                LongBlock sums = page.getBlock(1);
+                for (int p = 0; p < page.getPositionCount(); p++) {
+                    sum += sums.getLong(sums.getFirstValueIndex(p));
+                }
+                groups += page.getPositionCount();
+            } finally {
+                page.releaseBlocks();
+            }
+        }
+        long expected = (long) INDEX_SIZE * (INDEX_SIZE - 1) / 2;
+        if (groups != GROUPS || sum != expected) {
+            throw new AssertionError(
+                "[" + pageSize + "][" + drivers + "] expected [" + GROUPS + "] groups summing to [" + expected + "] but was ["
+                    + groups + "] summing to [" + sum + "]"
+            );
+        }
+    }
+
+    private static DriverContext driverContext() {
+        return new DriverContext(BigArrays.NON_RECYCLING_INSTANCE, blockFactory);
+    }
+
+    private static Driver driver(
+        DriverContext driverContext,
+        SourceOperator source,
+        List<Operator> operators,
+        SinkOperator sink
+    ) {
+        return new Driver(
+            "benchmark",
+            "benchmark",
+            "benchmark",
+            "benchmark",
+            System.currentTimeMillis(),
+            System.nanoTime(),
+            driverContext,
+            () -> "benchmark",
+            source,
+            operators,
+            sink,
+            Driver.DEFAULT_STATUS_INTERVAL,
+            () -> {}
+        );
+    }
+
+    /**
+     * Evaluates {@code v % GROUPS}, reading {@code v} from the second channel.
+     */
+    private static EvalOperator.ExpressionEvaluator groupEvaluator(DriverContext driverContext) {
+        FieldAttribute doc = new FieldAttribute(Source.EMPTY, "_doc", new EsField("_doc", DataType.DOC_DATA_TYPE, Map.of(), false));
+        FieldAttribute v = new FieldAttribute(Source.EMPTY, "v", new EsField("v", DataType.LONG, Map.of(), true));
+        Layout.Builder layout = new Layout.Builder();
+        layout.append(List.of(doc, v));
+        return EvalMapper.toEvaluator(
+            FOLD_CONTEXT,
+            new Mod(Source.EMPTY, v, new Literal(Source.EMPTY, (long) GROUPS, DataType.LONG)),
+            layout.build()
+        ).get(driverContext);
+    }
+
+    private static class BenchmarkShardContext implements ShardContext {
+        private final IndexSearcher searcher;
+
+        BenchmarkShardContext(IndexReader reader) {
+            this.searcher = new IndexSearcher(reader);
+            this.searcher.setQueryCache(null);
+        }
+
+        @Override
+        public int index() {
+            return 0;
+        }
+
+        @Override
+        public IndexSearcher searcher() {
+            return searcher;
+        }
+
+        @Override
+        public Optional<SortAndFormats> buildSort(List<SortBuilder<?>> sorts) {
+            return Optional.empty();
+        }
+
+        @Override
+        public String shardIdentifier() {
+            return "benchmark";
+        }
+
+        @Override
+        public SourceLoader newSourceLoader() {
+            throw new UnsupportedOperationException("can't load _source here");
+        }
+
+        @Override
+        public BlockLoader blockLoader(
+            String name,
+            boolean asUnsupportedSource,
+            MappedFieldType.FieldExtractPreference fieldExtractPreference
+        ) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
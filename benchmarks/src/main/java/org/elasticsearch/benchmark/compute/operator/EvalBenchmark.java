@@ -22,6 +22,8 @@ import org.elasticsearch.compute.data.BytesRefBlock;
 import org.elasticsearch.compute.data.BytesRefVector;
 import org.elasticsearch.compute.data.DoubleBlock;
 import org.elasticsearch.compute.data.DoubleVector;
+import org.elasticsearch.compute.data.IntBlock;
+import org.elasticsearch.compute.data.IntVector;
 import org.elasticsearch.compute.data.LongBlock;
 import org.elasticsearch.compute.data.LongVector;
 import org.elasticsearch.compute.data.OrdinalBytesRefVector;
@@ -50,6 +52,7 @@ import org.elasticsearch.xpack.esql.expression.function.scalar.string.RLike;
 import org.elasticsearch.xpack.esql.expression.function.scalar.string.ToLower;
 import org.elasticsearch.xpack.esql.expression.function.scalar.string.ToUpper;
 import org.elasticsearch.xpack.esql.expression.predicate.operator.arithmetic.Add;
+import org.elasticsearch.xpack.esql.expression.predicate.operator.arithmetic.Mul;
 import org.elasticsearch.xpack.esql.expression.predicate.operator.comparison.Equals;
 import org.elasticsearch.xpack.esql.planner.Layout;
 import org.elasticsearch.xpack.esql.plugin.EsqlPlugin;
@@ -117,6 +120,7 @@ public class EvalBenchmark {
             "abs",
             "add",
             "add_double",
+            "add_int",
             "case_1_eager",
             "case_1_lazy",
             "coalesce_2_noop",
@@ -126,6 +130,7 @@ public class EvalBenchmark {
             "equal_to_const",
             "long_equal_to_long",
             "long_equal_to_int",
+            "mul",
             "mv_min",
             "mv_min_ascending",
             "rlike",
@@ -162,6 +167,14 @@ public class EvalBenchmark {
                     layout(doubleField)
                 ).get(driverContext);
             }
+            case "add_int" -> {
+                FieldAttribute intField = intField();
+                yield EvalMapper.toEvaluator(
+                    FOLD_CONTEXT,
+                    new Add(Source.EMPTY, intField, new Literal(Source.EMPTY, 1, DataType.INTEGER)),
+                    layout(intField)
+                ).get(driverContext);
+            }
             case "case_1_eager", "case_1_lazy" -> {
                 FieldAttribute f1 = longField();
                 FieldAttribute f2 = longField();
@@ -231,6 +244,14 @@ public class EvalBenchmark {
                 FieldAttribute rhs = intField();
                 yield EvalMapper.toEvaluator(FOLD_CONTEXT, new Equals(Source.EMPTY, lhs, rhs), layout(lhs, rhs)).get(driverContext);
             }
+            case "mul" -> {
+                FieldAttribute longField = longField();
+                yield EvalMapper.toEvaluator(
+                    FOLD_CONTEXT,
+                    new Mul(Source.EMPTY, longField, new Literal(Source.EMPTY, 2L, DataType.LONG)),
+                    layout(longField)
+                ).get(driverContext);
+            }
             case "mv_min", "mv_min_ascending" -> {
                 FieldAttribute longField = longField();
                 yield EvalMapper.toEvaluator(FOLD_CONTEXT, new MvMin(Source.EMPTY, longField), layout(longField)).get(driverContext);
@@ -321,6 +342,22 @@ public class EvalBenchmark {
                     }
                 }
             }
+            case "add_int" -> {
+                IntVector v = actual.<IntBlock>getBlock(1).asVector();
+                for (int i = 0; i < BLOCK_LENGTH; i++) {
+                    if (v.getInt(i) != i * 100 + 1) {
+                        throw new AssertionError("[" + operation + "] expected [" + (i * 100 + 1) + "] but was [" + v.getInt(i) + "]");
+                    }
+                }
+            }
+            case "mul" -> {
+                LongVector v = actual.<LongBlock>getBlock(1).asVector();
+                for (int i = 0; i < BLOCK_LENGTH; i++) {
+                    if (v.getLong(i) != i * 200_000L) {
+                        throw new AssertionError("[" + operation + "] expected [" + (i * 200_000L) + "] but was [" + v.getLong(i) + "]");
+                    }
+                }
+            }
             case "case_1_eager" -> {
                 LongVector f1 = actual.<LongBlock>getBlock(0).asVector();
                 LongVector f2 = actual.<LongBlock>getBlock(1).asVector();
@@ -450,7 +487,7 @@ public class EvalBenchmark {
 
     private static Page page(String operation) {
         return switch (operation) {
-            case "abs", "add", "date_trunc", "equal_to_const" -> {
+            case "abs", "add", "date_trunc", "equal_to_const", "mul" -> {
                 var builder = blockFactory.newLongBlockBuilder(BLOCK_LENGTH);
                 for (int i = 0; i < BLOCK_LENGTH; i++) {
                     builder.appendLong(i * 100_000);
@@ -464,6 +501,13 @@ public class EvalBenchmark {
                 }
                 yield new Page(builder.build());
             }
+            case "add_int" -> {
+                var builder = blockFactory.newIntBlockBuilder(BLOCK_LENGTH);
+                for (int i = 0; i < BLOCK_LENGTH; i++) {
+                    builder.appendInt(i * 100);
+                }
+                yield new Page(builder.build());
+            }
             case "case_1_eager", "case_1_lazy", "coalesce_2_noop" -> {
                 var f1 = blockFactory.newLongBlockBuilder(BLOCK_LENGTH);
                 var f2 = blockFactory.newLongBlockBuilder(BLOCK_LENGTH);
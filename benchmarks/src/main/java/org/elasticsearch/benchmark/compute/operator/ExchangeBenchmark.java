@@ -0,0 +1,189 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.benchmark.compute.operator;
+
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.support.PlainActionFuture;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.compute.data.BlockFactory;
+import org.elasticsearch.compute.data.LongBlock;
+import org.elasticsearch.compute.data.LongVector;
+import org.elasticsearch.compute.data.Page;
+import org.elasticsearch.compute.operator.IsBlockedResult;
+import org.elasticsearch.compute.operator.exchange.ExchangeSink;
+import org.elasticsearch.compute.operator.exchange.ExchangeSinkHandler;
+import org.elasticsearch.compute.operator.exchange.ExchangeSource;
+import org.elasticsearch.compute.operator.exchange.ExchangeSourceHandler;
+import org.elasticsearch.xpack.esql.plugin.QueryPragmas;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Benchmark for moving pages from many {@link ExchangeSink}s to a single
+ * {@link ExchangeSource}, like the data node drivers do when they send
+ * their results to the node level reduction.
+ */
+@Warmup(iterations = 5)
+@Measurement(iterations = 7)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+public class ExchangeBenchmark {
+    private static final int PAGES = 1024;
+    private static final int BUFFER_SIZE = QueryPragmas.EXCHANGE_BUFFER_SIZE.getDefault(Settings.EMPTY);
+
+    private static final BlockFactory blockFactory = BlockFactory.getInstance(
+        new NoopCircuitBreaker("noop"),
+        BigArrays.NON_RECYCLING_INSTANCE
+    );
+
+    /**
+     * Smoke test all the expected values. Unlike most benchmarks we don't run this from a static
+     * initializer because the sinks run on other threads which would block initializing this class.
+     */
+    static void selfTest() {
+        try {
+            for (String pageSize : ExchangeBenchmark.class.getField("pageSize").getAnnotationsByType(Param.class)[0].value()) {
+                for (String sinks : ExchangeBenchmark.class.getField("sinks").getAnnotationsByType(Param.class)[0].value()) {
+                    ExchangeBenchmark benchmark = new ExchangeBenchmark();
+                    benchmark.pageSize = Integer.parseInt(pageSize);
+                    benchmark.sinks = Integer.parseInt(sinks);
+                    benchmark.setup();
+                    try {
+                        benchmark.run();
+                    } finally {
+                        benchmark.teardown();
+                    }
+                }
+            }
+        } catch (NoSuchFieldException e) {
+            throw new AssertionError();
+        }
+    }
+
+    /**
+     * The number of positions in each page.
+     */
+    @Param({ "16", "1024", "16384" })
+    public int pageSize;
+
+    /**
+     * The number of sinks sending pages at the same time. Each sink sends
+     * from its own thread.
+     */
+    @Param({ "1", "4", "16" })
+    public int sinks;
+
+    private ExecutorService executor;
+    private long[] values;
+
+    @Setup
+    public void setup() {
+        // One thread per sink and a few to fetch pages from the sinks
+        executor = Executors.newFixedThreadPool(sinks + 2);
+        values = new long[pageSize];
+        for (int i = 0; i < pageSize; i++) {
+            values[i] = i;
+        }
+    }
+
+    @TearDown
+    public void teardown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAGES)
+    public void run() {
+        ExchangeSourceHandler sourceHandler = new ExchangeSourceHandler(BUFFER_SIZE, executor);
+        ExchangeSource source = sourceHandler.createExchangeSource();
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        for (int s = 0; s < sinks; s++) {
+            ExchangeSinkHandler sinkHandler = new ExchangeSinkHandler(blockFactory, BUFFER_SIZE, System::currentTimeMillis);
+            ExchangeSink sink = sinkHandler.createExchangeSink(() -> {});
+            sourceHandler.addRemoteSink(sinkHandler::fetchPageAsync, true, () -> {}, 1, ActionListener.noop());
+            int pages = PAGES / sinks;
+            executor.execute(() -> {
+                try {
+                    for (int p = 0; p < pages; p++) {
+                        await(sink.waitForWriting());
+                        sink.addPage(new Page(blockFactory.newLongArrayVector(values, pageSize).asBlock()));
+                    }
+                } catch (Exception e) {
+                    failure.set(e);
+                } finally {
+                    sink.finish();
+                }
+            });
+        }
+
+        long sum = 0;
+        int received = 0;
+        while (source.isFinished() == false) {
+            Page page = source.pollPage();
+            if (page == null) {
+                await(source.waitForReading());
+                continue;
+            }
+            try {
+                LongVector v = page.<LongBlock>getBlock(0).asVector();
+                for (int i = 0; i < v.getPositionCount(); i++) {
+                    sum += v.getLong(i);
+                }
+                received++;
+            } finally {
+                page.releaseBlocks();
+            }
+        }
+        source.finish();
+
+        if (failure.get() != null) {
+            throw new AssertionError("failed to send pages", failure.get());
+        }
+        int expectedPages = PAGES / sinks * sinks;
+        if (received != expectedPages) {
+            throw new AssertionError(
+                "[" + pageSize + "][" + sinks + "] expected [" + expectedPages + "] pages but got [" + received + "]"
+            );
+        }
+        long expected = (long) pageSize * (pageSize - 1) / 2 * expectedPages;
+        if (sum != expected) {
+            throw new AssertionError("[" + pageSize + "][" + sinks + "] expected [" + expected + "] but was [" + sum + "]");
+        }
+    }
+
+    private static void await(IsBlockedResult blocked) {
+        if (blocked.listener().isDone()) {
+            return;
+        }
+        PlainActionFuture<Void> future = new PlainActionFuture<>();
+        blocked.listener().addListener(future);
+        future.actionGet();
+    }
+}
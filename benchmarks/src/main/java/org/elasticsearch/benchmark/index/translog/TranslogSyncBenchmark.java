@@ -0,0 +1,186 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.benchmark.index.translog;
+
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
+import org.elasticsearch.core.IOUtils;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.translog.Translog;
+import org.elasticsearch.index.translog.TranslogSyncCoordinator;
+import org.elasticsearch.threadpool.Scheduler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Measures the latency of writes that wait for their translog to be
+ * {@code fsync}ed, like bulk requests against indices with
+ * {@code index.translog.durability: request}, with and without batching
+ * syncs in a {@link TranslogSyncCoordinator}. Every write appends to the
+ * file of a random shard and waits for that file to be synced.
+ */
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Threads(32)
+@SuppressWarnings("unused") // invoked by benchmarking framework
+public class TranslogSyncBenchmark {
+    @Param({ "16", "256" })
+    private int shards;
+
+    /**
+     * The {@link TranslogSyncCoordinator#WINDOW_SETTING sync window}. {@code 0} syncs
+     * each write as soon as it completes.
+     */
+    @Param({ "0", "1ms", "5ms" })
+    private String window;
+
+    @Param({ "512" })
+    private int writeSize;
+
+    private Path dir;
+    private Shard[] files;
+    private ScheduledThreadPoolExecutor timer;
+    private ExecutorService executor;
+    private TranslogSyncCoordinator coordinator;
+
+    @Setup
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("translog_sync");
+        files = new Shard[shards];
+        for (int i = 0; i < shards; i++) {
+            files[i] = new Shard(new ShardId("index", "_na_", i), dir.resolve("translog-" + i + ".tlog"));
+        }
+        TimeValue windowValue = TimeValue.parseTimeValue(window, "window");
+        if (windowValue.nanos() > 0) {
+            timer = Scheduler.initScheduler(Settings.EMPTY, "translog_sync_benchmark");
+            executor = Executors.newCachedThreadPool();
+            Scheduler scheduler = (command, delay, executor) -> Scheduler.wrapAsScheduledCancellable(
+                timer.schedule(() -> executor.execute(command), delay.nanos(), TimeUnit.NANOSECONDS)
+            );
+            coordinator = new TranslogSyncCoordinator(windowValue, scheduler, executor, new ThreadContext(Settings.EMPTY));
+        }
+    }
+
+    @TearDown
+    public void teardown() throws IOException {
+        if (timer != null) {
+            Scheduler.terminate(timer, 10, TimeUnit.SECONDS);
+            executor.shutdown();
+        }
+        IOUtils.close(files);
+        IOUtils.rm(dir);
+    }
+
+    @Benchmark
+    public Translog.Location writeAndSync() throws Exception {
+        Shard shard = files[ThreadLocalRandom.current().nextInt(shards)];
+        Translog.Location location = shard.write(writeSize);
+        if (coordinator == null) {
+            shard.syncUpTo(location);
+        } else {
+            CompletableFuture<Void> synced = new CompletableFuture<>();
+            coordinator.sync(shard.shardId, location, e -> {
+                if (e == null) {
+                    synced.complete(null);
+                } else {
+                    synced.completeExceptionally(e);
+                }
+            }, shard::syncUpTo);
+            synced.get();
+        }
+        return location;
+    }
+
+    /**
+     * A translog file. Like {@code TranslogWriter} it only syncs if it hasn't
+     * already synced past the location so concurrent writes can share a sync.
+     */
+    private static class Shard implements Closeable {
+        private final ShardId shardId;
+        private final FileChannel channel;
+        private final Object syncLock = new Object();
+        private volatile long synced;
+
+        Shard(ShardId shardId, Path path) throws IOException {
+            this.shardId = shardId;
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        }
+
+        synchronized Translog.Location write(int size) throws IOException {
+            long position = channel.position();
+            channel.write(ByteBuffer.allocate(size));
+            return new Translog.Location(0, position, size);
+        }
+
+        void syncUpTo(Translog.Location location) throws IOException {
+            long offset = location.translogLocation() + location.size();
+            if (synced >= offset) {
+                return;
+            }
+            synchronized (syncLock) {
+                if (synced >= offset) {
+                    return;
+                }
+                long toSync;
+                synchronized (this) {
+                    toSync = channel.position();
+                }
+                channel.force(false);
+                synced = toSync;
+            }
+        }
+
+        void syncUpTo(Translog.Location location, Consumer<Exception> listener) {
+            try {
+                syncUpTo(location);
+            } catch (IOException e) {
+                listener.accept(e);
+                return;
+            }
+            listener.accept(null);
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -31,7 +31,6 @@ import org.elasticsearch.search.aggregations.InternalAggregations;
 import org.elasticsearch.search.aggregations.MultiBucketConsumerService;
 import org.elasticsearch.search.aggregations.bucket.terms.StringTerms;
 import org.elasticsearch.search.aggregations.bucket.terms.TermsAggregationBuilder;
-import org.elasticsearch.search.aggregations.pipeline.PipelineAggregator;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.elasticsearch.search.query.QuerySearchResult;
 import org.openjdk.jmh.annotations.Benchmark;
@@ -67,12 +66,10 @@ import java.util.concurrent.atomic.AtomicBoolean;
 @Fork(value = 1)
 public class TermsReduceBenchmark {
 
-    private final TermsAggregationBuilder builder = new TermsAggregationBuilder("terms");
-
     private final SearchPhaseController controller = new SearchPhaseController((task, req) -> new AggregationReduceContext.Builder() {
         @Override
         public AggregationReduceContext forPartialReduction() {
-            return new AggregationReduceContext.ForPartial(null, null, task, builder, b -> {});
+            return new AggregationReduceContext.ForPartial(null, null, task, req, b -> {});
         }
 
         @Override
@@ -81,7 +78,7 @@ public class TermsReduceBenchmark {
                 Integer.MAX_VALUE,
                 new NoneCircuitBreakerService().getBreaker(CircuitBreaker.REQUEST)
             );
-            return new AggregationReduceContext.ForFinal(null, null, task, builder, bucketConsumer, PipelineAggregator.PipelineTree.EMPTY);
+            return new AggregationReduceContext.ForFinal(null, null, task, req, bucketConsumer);
         }
     });
 
@@ -99,6 +96,23 @@ public class TermsReduceBenchmark {
         @Param({ "1", "10", "100" })
         int cardinalityFactor;
 
+        /**
+         * The order of the final buckets. Shards always return their buckets
+         * sorted by key so the reduction can merge them, but {@code count}
+         * has to pick the top buckets while {@code key} can stop merging
+         * once it has {@link #requiredSize} buckets.
+         */
+        @Param({ "count", "key" })
+        String order;
+
+        /**
+         * The {@code size} of the terms aggregation. Sizes of {@code 1024}
+         * and up collect the top buckets in a buffer rather than a
+         * preallocated priority queue.
+         */
+        @Param({ "100", "2000" })
+        int requiredSize;
+
         List<InternalAggregations> aggsList;
 
         @Setup
@@ -135,8 +149,12 @@ public class TermsReduceBenchmark {
             return new StringTerms(
                 "terms",
                 BucketOrder.key(true),
-                BucketOrder.count(false),
-                topNSize,
+                switch (order) {
+                    case "count" -> BucketOrder.count(false);
+                    case "key" -> BucketOrder.key(true);
+                    default -> throw new IllegalArgumentException("unsupported order [" + order + "]");
+                },
+                requiredSize,
                 1,
                 Collections.emptyMap(),
                 DocValueFormat.RAW,
@@ -182,7 +200,9 @@ public class TermsReduceBenchmark {
             shards.add(result);
         }
         SearchRequest request = new SearchRequest();
-        request.source(new SearchSourceBuilder().size(0).aggregation(AggregationBuilders.terms("test")));
+        // The shard results have a terms aggregation named "terms" with a sub-aggregation that's also named "terms"
+        TermsAggregationBuilder terms = AggregationBuilders.terms("terms").subAggregation(AggregationBuilders.terms("terms"));
+        request.source(new SearchSourceBuilder().size(0).aggregation(terms));
         request.setBatchedReduceSize(bufferSize);
         ExecutorService executor = Executors.newFixedThreadPool(1);
         AtomicBoolean isCanceled = new AtomicBoolean();
@@ -196,13 +216,15 @@ public class TermsReduceBenchmark {
             shards.size(),
             exc -> {}
         );
-        CountDownLatch latch = new CountDownLatch(shards.size());
-        for (int i = 0; i < shards.size(); i++) {
-            consumer.consumeResult(shards.get(i), () -> latch.countDown());
+        try (consumer) {
+            CountDownLatch latch = new CountDownLatch(shards.size());
+            for (int i = 0; i < shards.size(); i++) {
+                consumer.consumeResult(shards.get(i), () -> latch.countDown());
+            }
+            latch.await();
+            return consumer.reduce();
+        } finally {
+            executor.shutdownNow();
         }
-        latch.await();
-        SearchPhaseController.ReducedQueryPhase phase = consumer.reduce();
-        executor.shutdownNow();
-        return phase;
     }
 }
@@ -0,0 +1,133 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.benchmark.search.aggregations.metrics;
+
+import com.carrotsearch.hppc.BitMixer;
+
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.core.Releasables;
+import org.elasticsearch.search.aggregations.metrics.HyperLogLogPlusPlus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the parts of {@link HyperLogLogPlusPlus} that dominate reducing
+ * {@code cardinality} aggregations with many buckets: merging sketches and
+ * upgrading a sketch from linear counting to HyperLogLog.
+ */
+@Warmup(iterations = 5)
+@Measurement(iterations = 7)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+public class HyperLogLogPlusPlusBenchmark {
+    private static final BigArrays BIG_ARRAYS = BigArrays.NON_RECYCLING_INSTANCE;
+
+    @Param({ "10", "14", "18" })
+    private int precision;
+
+    @Param({ "1", "100" })
+    private int buckets;
+
+    /**
+     * Sketches that have all upgraded to HyperLogLog.
+     */
+    private HyperLogLogPlusPlus dense;
+    /**
+     * Sketches that are still using linear counting.
+     */
+    private HyperLogLogPlusPlus sparse;
+    /**
+     * The sketch we merge into.
+     */
+    private HyperLogLogPlusPlus target;
+    /**
+     * Enough hashes to upgrade a single sketch to HyperLogLog.
+     */
+    private long[] upgradeHashes;
+
+    @Setup
+    public void setup() {
+        dense = new HyperLogLogPlusPlus(precision, BIG_ARRAYS, buckets);
+        sparse = new HyperLogLogPlusPlus(precision, BIG_ARRAYS, buckets);
+        target = new HyperLogLogPlusPlus(precision, BIG_ARRAYS, buckets);
+        int m = 1 << precision;
+        long value = 0;
+        for (int b = 0; b < buckets; b++) {
+            for (int i = 0; i < m; i++) {
+                dense.collect(b, BitMixer.mix64(value++));
+            }
+            for (int i = 0; i < m / 32; i++) {
+                sparse.collect(b, BitMixer.mix64(value++));
+            }
+            for (int i = 0; i < m; i++) {
+                target.collect(b, BitMixer.mix64(value++));
+            }
+        }
+        // Linear counting upgrades once its hash table is 3/4 full. The table uses the same m bytes as the registers.
+        upgradeHashes = new long[m / Integer.BYTES * 3 / 4 + 1];
+        for (int i = 0; i < upgradeHashes.length; i++) {
+            upgradeHashes[i] = BitMixer.mix64(value++);
+        }
+    }
+
+    @TearDown
+    public void teardown() {
+        Releasables.close(dense, sparse, target);
+    }
+
+    /**
+     * Merge sketches that are both using HyperLogLog, register by register.
+     */
+    @Benchmark
+    public long mergeDense() {
+        for (int b = 0; b < buckets; b++) {
+            target.merge(b, dense, b);
+        }
+        return target.cardinality(0);
+    }
+
+    /**
+     * Merge sketches that are still using linear counting into sketches using HyperLogLog.
+     */
+    @Benchmark
+    public long mergeSparse() {
+        for (int b = 0; b < buckets; b++) {
+            target.merge(b, sparse, b);
+        }
+        return target.cardinality(0);
+    }
+
+    /**
+     * Collect until a sketch upgrades from linear counting to HyperLogLog.
+     */
+    @Benchmark
+    public long upgradeToHll() {
+        try (HyperLogLogPlusPlus counts = new HyperLogLogPlusPlus(precision, BIG_ARRAYS, 1)) {
+            for (long hash : upgradeHashes) {
+                counts.collect(0, hash);
+            }
+            return counts.cardinality(0);
+        }
+    }
+}
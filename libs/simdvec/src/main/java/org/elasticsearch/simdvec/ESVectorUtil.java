@@ -19,6 +19,7 @@ import java.io.IOException;
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodType;
+import java.util.Objects;
 
 import static org.elasticsearch.simdvec.internal.vectorization.ESVectorUtilSupport.B_QUERY;
 
@@ -253,4 +254,19 @@ public class ESVectorUtil {
         }
         return IMPL.soarResidual(v1, centroid, originalResidual);
     }
+
+    /**
+     * Sets each byte in {@code dest} to the maximum of itself and the byte at the same position in {@code src}.
+     * This is how two HyperLogLog sketches merge their registers.
+     * @param dest the bytes to update
+     * @param destOffset the offset of the first byte to update in {@code dest}
+     * @param src the bytes to merge into {@code dest}
+     * @param srcOffset the offset of the first byte to read in {@code src}
+     * @param length the number of bytes to merge
+     */
+    public static void maxInPlace(byte[] dest, int destOffset, byte[] src, int srcOffset, int length) {
+        Objects.checkFromIndexSize(destOffset, length, dest.length);
+        Objects.checkFromIndexSize(srcOffset, length, src.length);
+        IMPL.maxInPlace(dest, destOffset, src, srcOffset, length);
+    }
 }
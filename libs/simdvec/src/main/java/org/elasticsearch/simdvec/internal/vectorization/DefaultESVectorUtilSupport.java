@@ -150,6 +150,17 @@ final class DefaultESVectorUtilSupport implements ESVectorUtilSupport {
         return proj;
     }
 
+    @Override
+    public void maxInPlace(byte[] dest, int destOffset, byte[] src, int srcOffset, int length) {
+        maxInPlaceImpl(dest, destOffset, src, srcOffset, length);
+    }
+
+    public static void maxInPlaceImpl(byte[] dest, int destOffset, byte[] src, int srcOffset, int length) {
+        for (int i = 0; i < length; i++) {
+            dest[destOffset + i] = (byte) Math.max(dest[destOffset + i], src[srcOffset + i]);
+        }
+    }
+
     public static int ipByteBitImpl(byte[] q, byte[] d) {
         return ipByteBitImpl(q, d, 0);
     }
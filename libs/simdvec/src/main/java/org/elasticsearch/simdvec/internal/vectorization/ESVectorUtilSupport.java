@@ -31,4 +31,6 @@ public interface ESVectorUtilSupport {
 
     float soarResidual(float[] v1, float[] centroid, float[] originalResidual);
 
+    void maxInPlace(byte[] dest, int destOffset, byte[] src, int srcOffset, int length);
+
 }
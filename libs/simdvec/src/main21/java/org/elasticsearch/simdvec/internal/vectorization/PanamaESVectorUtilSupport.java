@@ -31,6 +31,7 @@ public final class PanamaESVectorUtilSupport implements ESVectorUtilSupport {
     static final int VECTOR_BITSIZE;
 
     private static final VectorSpecies<Float> FLOAT_SPECIES;
+    private static final VectorSpecies<Byte> BYTE_SPECIES;
     /** Whether integer vectors can be trusted to actually be fast. */
     static final boolean HAS_FAST_INTEGER_VECTORS;
 
@@ -38,6 +39,7 @@ public final class PanamaESVectorUtilSupport implements ESVectorUtilSupport {
         // default to platform supported bitsize
         VECTOR_BITSIZE = VectorShape.preferredShape().vectorBitSize();
         FLOAT_SPECIES = VectorSpecies.of(float.class, VectorShape.forBitSize(VECTOR_BITSIZE));
+        BYTE_SPECIES = VectorSpecies.of(byte.class, VectorShape.forBitSize(VECTOR_BITSIZE));
 
         // hotspot misses some SSE intrinsics, workaround it
         // to be fair, they do document this thing only works well with AVX2/AVX3 and Neon
@@ -410,6 +412,20 @@ public final class PanamaESVectorUtilSupport implements ESVectorUtilSupport {
         return proj;
     }
 
+    @Override
+    public void maxInPlace(byte[] dest, int destOffset, byte[] src, int srcOffset, int length) {
+        int i = 0;
+        if (HAS_FAST_INTEGER_VECTORS && length >= BYTE_SPECIES.length()) {
+            final int limit = BYTE_SPECIES.loopBound(length);
+            for (; i < limit; i += BYTE_SPECIES.length()) {
+                ByteVector d = ByteVector.fromArray(BYTE_SPECIES, dest, destOffset + i);
+                ByteVector s = ByteVector.fromArray(BYTE_SPECIES, src, srcOffset + i);
+                d.lanewise(MAX, s).intoArray(dest, destOffset + i);
+            }
+        }
+        DefaultESVectorUtilSupport.maxInPlaceImpl(dest, destOffset + i, src, srcOffset + i, length - i);
+    }
+
     private static final VectorSpecies<Byte> BYTE_SPECIES_128 = ByteVector.SPECIES_128;
     private static final VectorSpecies<Byte> BYTE_SPECIES_256 = ByteVector.SPECIES_256;
 
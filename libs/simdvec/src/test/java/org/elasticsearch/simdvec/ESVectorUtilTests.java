@@ -284,6 +284,32 @@ public class ESVectorUtilTests extends BaseVectorizationTests {
         assertEquals(expected, result, deltaEps);
     }
 
+    public void testMaxInPlace() {
+        int length = random().nextInt(5000);
+        int destOffset = random().nextInt(64);
+        int srcOffset = random().nextInt(64);
+        var dest = new byte[destOffset + length + random().nextInt(64)];
+        var src = new byte[srcOffset + length + random().nextInt(64)];
+        random().nextBytes(dest);
+        random().nextBytes(src);
+        var expected = dest.clone();
+        for (int i = 0; i < length; i++) {
+            expected[destOffset + i] = (byte) Math.max(dest[destOffset + i], src[srcOffset + i]);
+        }
+
+        var result = dest.clone();
+        ESVectorUtil.maxInPlace(result, destOffset, src, srcOffset, length);
+        assertArrayEquals(expected, result);
+        result = dest.clone();
+        defaultedProvider.getVectorUtilSupport().maxInPlace(result, destOffset, src, srcOffset, length);
+        assertArrayEquals(expected, result);
+        result = dest.clone();
+        defOrPanamaProvider.getVectorUtilSupport().maxInPlace(result, destOffset, src, srcOffset, length);
+        assertArrayEquals(expected, result);
+
+        expectThrows(IndexOutOfBoundsException.class, () -> ESVectorUtil.maxInPlace(dest, dest.length - length + 1, src, 0, length));
+    }
+
     void testIpByteBinImpl(ToLongBiFunction<byte[], byte[]> ipByteBinFunc) {
         int iterations = atLeast(50);
         for (int i = 0; i < iterations; i++) {
@@ -40,6 +40,7 @@ import org.elasticsearch.index.query.SearchExecutionContext;
 import org.elasticsearch.index.query.TermQueryBuilder;
 import org.elasticsearch.index.query.WrapperQueryBuilder;
 import org.elasticsearch.index.similarity.SimilarityService;
+import org.elasticsearch.indices.IndicesService;
 import org.elasticsearch.join.ParentJoinPlugin;
 import org.elasticsearch.join.query.HasChildQueryBuilder.LateParsingQuery;
 import org.elasticsearch.plugins.Plugin;
@@ -335,6 +336,15 @@ public class HasChildQueryBuilderTests extends AbstractQueryTestCase<HasChildQue
         assertLateParsingQuery(query, CHILD_DOC, "id");
     }
 
+    public void testNotSegmentLocal() throws IOException {
+        SearchExecutionContext searchExecutionContext = createSearchExecutionContext();
+        QueryBuilder innerQueryBuilder = new TermQueryBuilder("custom_string", "value");
+        Query query = hasChildQuery(CHILD_DOC, innerQueryBuilder, ScoreMode.None).toQuery(searchExecutionContext);
+        // The parents a segment matches depend on the children in other segments so we can't cache per segment aggregations
+        assertFalse(IndicesService.isSegmentLocal(query, null));
+        assertFalse(IndicesService.isSegmentLocal(new BooleanQuery.Builder().add(query, BooleanClause.Occur.FILTER).build(), null));
+    }
+
     static void assertLateParsingQuery(Query query, String type, String id) throws IOException {
         assertThat(query, instanceOf(LateParsingQuery.class));
         LateParsingQuery lateParsingQuery = (LateParsingQuery) query;
@@ -77,6 +77,7 @@ public class AggregationProfilerIT extends ESIntegTestCase {
     private static final String DEFERRED = "deferred_aggregators";
     private static final String COLLECTION_STRAT = "collection_strategy";
     private static final String RESULT_STRAT = "result_strategy";
+    private static final String COLLECT_MODE = "collect_mode";
     private static final String HAS_FILTER = "has_filter";
     private static final String SEGMENTS_WITH_SINGLE = "segments_with_single_valued_ords";
     private static final String SEGMENTS_WITH_MULTI = "segments_with_multi_valued_ords";
@@ -235,6 +236,7 @@ public class AggregationProfilerIT extends ESIntegTestCase {
             .entry(BUILT_BUCKETS, greaterThan(0))
             .entry(COLLECTION_STRAT, "remap using many bucket ords")
             .entry(RESULT_STRAT, "terms")
+            .entry(COLLECT_MODE, deferredAggregators.length > 0 ? "breadth_first" : "depth_first")
             .entry(HAS_FILTER, false)
             .entry(SEGMENTS_WITH_SINGLE, greaterThan(0))
             .entry(SEGMENTS_WITH_MULTI, 0);
@@ -254,6 +254,9 @@ public class TransportVersions {
     public static final TransportVersion ESQL_FIELD_ATTRIBUTE_DROP_TYPE = def(9_075_0_00);
     public static final TransportVersion ESQL_TIME_SERIES_SOURCE_STATUS = def(9_076_0_00);
     public static final TransportVersion ESQL_HASH_OPERATOR_STATUS_OUTPUT_TIME = def(9_077_0_00);
+    public static final TransportVersion ESQL_PACKED_LONG_VECTORS = def(9_078_0_00);
+    public static final TransportVersion ESQL_LOOKUP_JOIN_KEY_FILTER = def(9_079_0_00);
+    public static final TransportVersion REQUEST_CACHE_ADMISSION_REJECTIONS = def(9_080_0_00);
 
     /*
      * STOP! READ THIS FIRST! No, really,
@@ -0,0 +1,245 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.action.bulk;
+
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.support.SubscribableListener;
+import org.elasticsearch.common.util.concurrent.AbstractRunnable;
+import org.elasticsearch.core.AbstractRefCounted;
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.core.RefCounted;
+import org.elasticsearch.index.mapper.DocumentMapper;
+import org.elasticsearch.index.mapper.MapperService;
+import org.elasticsearch.index.mapper.ParsedDocument;
+import org.elasticsearch.index.mapper.SourceToParse;
+import org.elasticsearch.plugins.internal.DocumentParsingProvider;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Parses the index requests of a {@link BulkShardRequest} on other threads while the primary is still busy indexing the items before
+ * them, so that parsing overlaps with writing to Lucene. Items are still indexed one after the other in the order of the request,
+ * this only moves the parsing of {@link SourceToParse} into a {@link ParsedDocument} off the critical path.
+ * <p>
+ * A document parsed ahead is only used if the mapping didn't change in the meantime. After a dynamic mapping update the
+ * {@link MapperService} has a new {@link DocumentMapper} and the document is parsed again, just like it would have been without
+ * parsing ahead. The thread executing the bulk items never waits for a parse that is still running, it parses the document itself
+ * instead, because the parse may be queued on the very executor it is running on.
+ * <p>
+ * At most {@link #MAX_PARSE_TASKS} parses of a request are queued or running at once. Each parse task starts the next one when
+ * it finishes, so a large {@code parseAhead} doesn't flood the executor and cause other write requests to be rejected.
+ */
+final class BulkItemParseAhead {
+
+    static final BulkItemParseAhead NONE = new BulkItemParseAhead(null, null, null, null, 0);
+
+    /**
+     * A document parsed ahead along with the {@link DocumentMapper} that parsed it.
+     */
+    record Parsed(DocumentMapper documentMapper, SourceToParse source, ParsedDocument doc) {}
+
+    /**
+     * The most parse tasks a single request has queued or running on the executor.
+     */
+    static final int MAX_PARSE_TASKS = 2;
+
+    private static final Object PARSING = new Object();
+    private static final Object TAKEN = new Object();
+
+    private final BulkItemRequest[] items;
+    private final MapperService mapperService;
+    private final DocumentParsingProvider documentParsingProvider;
+    private final Executor executor;
+    private final int parseAhead;
+    /**
+     * Per item either {@code null} if no one started parsing it, {@link #PARSING}, {@link #TAKEN} or the {@link Parsed} document.
+     */
+    private final AtomicReferenceArray<Object> slots;
+    private final SubscribableListener<Void> parsesDone = new SubscribableListener<>();
+    /**
+     * One reference for the request plus one for every parse that is reading an item's source. Queued parse tasks don't
+     * hold a reference so {@link #close} doesn't wait for them.
+     */
+    private final RefCounted parses = AbstractRefCounted.of(() -> parsesDone.onResponse(null));
+    /**
+     * Parse tasks look at the items from this one on.
+     */
+    private final AtomicInteger nextToParse = new AtomicInteger();
+    /**
+     * Parse tasks look at the items before this one.
+     */
+    private volatile int parseUpTo;
+    /**
+     * The number of parse tasks queued or running on the executor.
+     */
+    private final AtomicInteger parseTasks = new AtomicInteger();
+
+    BulkItemParseAhead(
+        BulkShardRequest request,
+        MapperService mapperService,
+        DocumentParsingProvider documentParsingProvider,
+        Executor executor,
+        int parseAhead
+    ) {
+        this.items = request == null ? new BulkItemRequest[0] : request.items();
+        this.mapperService = mapperService;
+        this.documentParsingProvider = documentParsingProvider;
+        this.executor = executor;
+        this.parseAhead = parseAhead;
+        this.slots = new AtomicReferenceArray<>(parseAhead == 0 ? 0 : items.length);
+    }
+
+    /**
+     * Start parsing the index requests after the item at {@code currentIndex} that aren't parsing yet.
+     */
+    void parseAfter(int currentIndex) {
+        if (parseAhead == 0) {
+            return;
+        }
+        parseUpTo = Math.max(parseUpTo, Math.min(items.length, currentIndex + 1 + parseAhead));
+        nextToParse.accumulateAndGet(currentIndex + 1, Math::max);
+        maybeStartParseTask();
+    }
+
+    private void maybeStartParseTask() {
+        while (nextToParse.get() < parseUpTo) {
+            int running = parseTasks.get();
+            if (running >= MAX_PARSE_TASKS) {
+                return;
+            }
+            if (parseTasks.compareAndSet(running, running + 1)) {
+                ParseTask task = new ParseTask();
+                executor.execute(task);
+                if (task.rejected) {
+                    // the executor is busy, the next call to parseAfter tries again
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Claim the next item to parse.
+     *
+     * @return the index of the item or {@code -1} if there are no more items to parse right now
+     */
+    private int claimNextToParse() {
+        while (true) {
+            int index = nextToParse.get();
+            if (index >= parseUpTo) {
+                return -1;
+            }
+            if (nextToParse.compareAndSet(index, index + 1)) {
+                BulkItemRequest item = items[index];
+                // updates need the current version of the document so we can only parse them once we get to them
+                if (item.getPrimaryResponse() == null
+                    && item.request() instanceof IndexRequest
+                    && slots.compareAndSet(index, null, PARSING)) {
+                    return index;
+                }
+            }
+        }
+    }
+
+    /**
+     * Take the document parsed ahead for the item at {@code index}.
+     *
+     * @return the parsed document or {@code null} if it wasn't parsed yet or was parsed with a mapping that has since changed
+     */
+    @Nullable
+    Parsed take(int index) {
+        if (parseAhead == 0) {
+            return null;
+        }
+        Object slot = slots.getAndSet(index, TAKEN);
+        if (slot instanceof Parsed parsed && parsed.documentMapper() == mapperService.documentMapper()) {
+            return parsed;
+        }
+        return null;
+    }
+
+    /**
+     * Stop parsing ahead. The listener is notified once no other thread is reading the sources of the items anymore, so the
+     * request can be released.
+     */
+    void close(ActionListener<Void> listener) {
+        if (parseAhead == 0) {
+            listener.onResponse(null);
+            return;
+        }
+        nextToParse.set(items.length);
+        for (int i = 0; i < slots.length(); i++) {
+            slots.set(i, TAKEN);
+        }
+        parses.decRef();
+        parsesDone.addListener(listener);
+    }
+
+    /**
+     * Parses the next item that isn't parsing yet and then starts the next task.
+     */
+    private class ParseTask extends AbstractRunnable {
+        private boolean rejected;
+
+        @Override
+        protected void doRun() {
+            int index = claimNextToParse();
+            if (index < 0) {
+                return;
+            }
+            // the request may be closed already, after we claimed the slot, and then we mustn't read its source anymore
+            if (parses.tryIncRef() == false) {
+                return;
+            }
+            try {
+                parse(index, (IndexRequest) items[index].request());
+            } finally {
+                parses.decRef();
+            }
+        }
+
+        private void parse(int index, IndexRequest request) {
+            DocumentMapper documentMapper = mapperService.documentMapper();
+            Object parsed = TAKEN;
+            if (documentMapper != null) {
+                try {
+                    SourceToParse source = TransportShardBulkAction.sourceToParse(request, documentParsingProvider);
+                    parsed = new Parsed(documentMapper, source, documentMapper.parse(source));
+                } catch (Exception e) {
+                    // the write thread parses the document again and reports the failure
+                }
+            }
+            // the write thread may have given up on us and taken the slot already
+            slots.compareAndSet(index, PARSING, parsed);
+        }
+
+        @Override
+        public void onFailure(Exception e) {
+            assert false : e;
+        }
+
+        @Override
+        public void onRejection(Exception e) {
+            // the write thread parses the documents itself
+            rejected = true;
+        }
+
+        @Override
+        public void onAfter() {
+            parseTasks.decrementAndGet();
+            if (rejected == false) {
+                maybeStartParseTask();
+            }
+        }
+    }
+}
@@ -95,6 +95,11 @@ class BulkPrimaryExecutionContext {
         assert assertInvariants(ItemProcessingState.INITIAL);
     }
 
+    /** returns the position of the current item in {@link BulkShardRequest#items()} */
+    public int getCurrentIndex() {
+        return currentIndex;
+    }
+
     /** gets the current, untranslated item request */
     public DocWriteRequest<?> getCurrent() {
         return getCurrentItem().request();
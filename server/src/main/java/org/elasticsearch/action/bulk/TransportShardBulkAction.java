@@ -38,6 +38,7 @@ import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.compress.CompressedXContent;
 import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.xcontent.XContentHelper;
 import org.elasticsearch.core.Nullable;
@@ -73,6 +74,7 @@ import org.elasticsearch.xcontent.XContentType;
 import java.io.IOException;
 import java.util.Map;
 import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 import java.util.function.LongSupplier;
 import java.util.function.ObjLongConsumer;
@@ -94,12 +96,27 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
     // 3. Parsed string fields create new copies of their data, further increasing memory consumption.
     private static final int MAX_EXPANDED_OPERATION_MEMORY_OVERHEAD_FACTOR = 4;
 
+    /**
+     * The number of index requests after the one being indexed that the primary parses on other write threads, see
+     * {@link BulkItemParseAhead}. {@code 0} parses every document on the thread that indexes it.
+     */
+    public static final Setting<Integer> PRIMARY_PARSE_AHEAD_SETTING = Setting.intSetting(
+        "indices.bulk.primary_parse_ahead",
+        0,
+        0,
+        64,
+        Setting.Property.NodeScope,
+        Setting.Property.Dynamic
+    );
+
     private final UpdateHelper updateHelper;
     private final MappingUpdatedAction mappingUpdatedAction;
     private final Consumer<Runnable> postWriteAction;
 
     private final DocumentParsingProvider documentParsingProvider;
 
+    private volatile int parseAhead;
+
     @Inject
     public TransportShardBulkAction(
         Settings settings,
@@ -138,6 +155,7 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
         this.mappingUpdatedAction = mappingUpdatedAction;
         this.postWriteAction = WriteAckDelay.create(settings, threadPool);
         this.documentParsingProvider = documentParsingProvider;
+        clusterService.getClusterSettings().initializeAndWatch(PRIMARY_PARSE_AHEAD_SETTING, v -> this.parseAhead = v);
     }
 
     private static final TransportRequestOptions TRANSPORT_REQUEST_OPTIONS = TransportRequestOptions.of(
@@ -202,7 +220,7 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
             var index = primary.shardId().getIndex();
             var indexMetadata = clusterState.metadata().lookupProject(index).map(p -> p.index(index)).orElse(null);
             return indexMetadata == null || (indexMetadata.mapping() != null && indexMetadata.getMappingVersion() != initialMappingVersion);
-        }), listener, executor(primary), postWriteRefresh, postWriteAction, documentParsingProvider);
+        }), listener, executor(primary), postWriteRefresh, postWriteAction, documentParsingProvider, parseAhead);
     }
 
     @Override
@@ -262,18 +280,58 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
         @Nullable PostWriteRefresh postWriteRefresh,
         @Nullable Consumer<Runnable> postWriteAction,
         DocumentParsingProvider documentParsingProvider
+    ) {
+        performOnPrimary(
+            request,
+            primary,
+            updateHelper,
+            nowInMillisSupplier,
+            mappingUpdater,
+            waitForMappingUpdate,
+            listener,
+            executor,
+            postWriteRefresh,
+            postWriteAction,
+            documentParsingProvider,
+            0
+        );
+    }
+
+    /**
+     * @param parseAhead the number of index requests after the one being indexed to parse on other threads of the {@code executor}
+     */
+    public static void performOnPrimary(
+        BulkShardRequest request,
+        IndexShard primary,
+        UpdateHelper updateHelper,
+        LongSupplier nowInMillisSupplier,
+        MappingUpdatePerformer mappingUpdater,
+        ObjLongConsumer<ActionListener<Void>> waitForMappingUpdate,
+        ActionListener<PrimaryResult<BulkShardRequest, BulkShardResponse>> listener,
+        Executor executor,
+        @Nullable PostWriteRefresh postWriteRefresh,
+        @Nullable Consumer<Runnable> postWriteAction,
+        DocumentParsingProvider documentParsingProvider,
+        int parseAhead
     ) {
         new ActionRunnable<>(listener) {
 
             private final BulkPrimaryExecutionContext context = new BulkPrimaryExecutionContext(request, primary);
 
+            private final BulkItemParseAhead itemParseAhead = parseAhead == 0
+                ? BulkItemParseAhead.NONE
+                : new BulkItemParseAhead(request, primary.mapperService(), documentParsingProvider, executor, parseAhead);
+
             final long startBulkTime = System.nanoTime();
 
+            private final AtomicBoolean parseAheadClosed = new AtomicBoolean();
+
             private final ActionListener<Void> onMappingUpdateDone = ActionListener.wrap(v -> executor.execute(this), this::onRejection);
 
             @Override
             protected void doRun() throws Exception {
                 while (context.hasMoreOperationsToExecute()) {
+                    itemParseAhead.parseAfter(context.getCurrentIndex());
                     if (executeBulkItemRequest(
                         context,
                         updateHelper,
@@ -281,7 +339,8 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
                         mappingUpdater,
                         waitForMappingUpdate,
                         onMappingUpdateDone,
-                        documentParsingProvider
+                        documentParsingProvider,
+                        itemParseAhead
                     ) == false) {
                         // We are waiting for a mapping update on another thread, that will invoke this action again once its done
                         // so we just break out here.
@@ -294,6 +353,11 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
                 finishRequest();
             }
 
+            @Override
+            public void onFailure(Exception e) {
+                failRequest(e);
+            }
+
             @Override
             public void onRejection(Exception e) {
                 // We must finish the outstanding request. Finishing the outstanding request can include
@@ -321,6 +385,11 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
                         finishRequest();
                     }
 
+                    @Override
+                    public void onFailure(Exception e) {
+                        failRequest(e);
+                    }
+
                     @Override
                     public boolean isForceExecution() {
                         return true;
@@ -329,6 +398,24 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
             }
 
             private void finishRequest() {
+                closeParseAhead(ActionListener.running(this::completeRequest));
+            }
+
+            private void failRequest(Exception e) {
+                closeParseAhead(ActionListener.running(() -> listener.onFailure(e)));
+            }
+
+            private void closeParseAhead(ActionListener<Void> onClosed) {
+                // parsing ahead must be done with the sources of the items before we hand back the request
+                if (parseAheadClosed.compareAndSet(false, true)) {
+                    itemParseAhead.close(onClosed);
+                } else {
+                    // we failed while completing the request, after parsing ahead was done
+                    onClosed.onResponse(null);
+                }
+            }
+
+            private void completeRequest() {
                 ActionListener.completeWith(
                     listener,
                     () -> new WritePrimaryResult<>(
@@ -358,6 +445,28 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
         ObjLongConsumer<ActionListener<Void>> waitForMappingUpdate,
         ActionListener<Void> itemDoneListener,
         DocumentParsingProvider documentParsingProvider
+    ) throws Exception {
+        return executeBulkItemRequest(
+            context,
+            updateHelper,
+            nowInMillisSupplier,
+            mappingUpdater,
+            waitForMappingUpdate,
+            itemDoneListener,
+            documentParsingProvider,
+            BulkItemParseAhead.NONE
+        );
+    }
+
+    private static boolean executeBulkItemRequest(
+        BulkPrimaryExecutionContext context,
+        UpdateHelper updateHelper,
+        LongSupplier nowInMillisSupplier,
+        MappingUpdatePerformer mappingUpdater,
+        ObjLongConsumer<ActionListener<Void>> waitForMappingUpdate,
+        ActionListener<Void> itemDoneListener,
+        DocumentParsingProvider documentParsingProvider,
+        BulkItemParseAhead itemParseAhead
     ) throws Exception {
         final DocWriteRequest.OpType opType = context.getCurrent().opType();
 
@@ -406,26 +515,30 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
             );
         } else {
             final IndexRequest request = context.getRequestToExecute();
-
-            XContentMeteringParserDecorator meteringParserDecorator = documentParsingProvider.newMeteringParserDecorator(request);
-            final SourceToParse sourceToParse = new SourceToParse(
-                request.id(),
-                request.source(),
-                request.getContentType(),
-                request.routing(),
-                request.getDynamicTemplates(),
-                request.getIncludeSourceOnError(),
-                meteringParserDecorator
-            );
-            result = primary.applyIndexOperationOnPrimary(
-                version,
-                request.versionType(),
-                sourceToParse,
-                request.ifSeqNo(),
-                request.ifPrimaryTerm(),
-                request.getAutoGeneratedTimestamp(),
-                request.isRetry()
-            );
+            // updates are translated into new index requests that can't have been parsed ahead
+            final BulkItemParseAhead.Parsed parsed = updateResult == null ? itemParseAhead.take(context.getCurrentIndex()) : null;
+            if (parsed == null) {
+                result = primary.applyIndexOperationOnPrimary(
+                    version,
+                    request.versionType(),
+                    sourceToParse(request, documentParsingProvider),
+                    request.ifSeqNo(),
+                    request.ifPrimaryTerm(),
+                    request.getAutoGeneratedTimestamp(),
+                    request.isRetry()
+                );
+            } else {
+                result = primary.applyIndexOperationOnPrimary(
+                    version,
+                    request.versionType(),
+                    parsed.source(),
+                    parsed.doc(),
+                    request.ifSeqNo(),
+                    request.ifPrimaryTerm(),
+                    request.getAutoGeneratedTimestamp(),
+                    request.isRetry()
+                );
+            }
             if (result.getResultType() == Engine.Result.Type.MAPPING_UPDATE_REQUIRED) {
                 return handleMappingUpdateRequired(
                     context,
@@ -443,6 +556,19 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
         return true;
     }
 
+    static SourceToParse sourceToParse(IndexRequest request, DocumentParsingProvider documentParsingProvider) {
+        XContentMeteringParserDecorator meteringParserDecorator = documentParsingProvider.newMeteringParserDecorator(request);
+        return new SourceToParse(
+            request.id(),
+            request.source(),
+            request.getContentType(),
+            request.routing(),
+            request.getDynamicTemplates(),
+            request.getIncludeSourceOnError(),
+            meteringParserDecorator
+        );
+    }
+
     private static String[] getStoredFieldsSpec(IndexShard indexShard) {
         if (InferenceMetadataFieldsMapper.isEnabled(indexShard.mapperService().mappingLookup())) {
             if (indexShard.mapperService().mappingLookup().inferenceFields().size() > 0) {
@@ -12,12 +12,14 @@ package org.elasticsearch.common.cache;
 import org.elasticsearch.core.Tuple;
 
 import java.lang.reflect.Array;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
@@ -36,20 +38,16 @@ import java.util.function.ToLongBiFunction;
  * accept reduced write performance in exchange for easy-to-understand code. Cache statistics for hits, misses and
  * evictions are exposed.
  * <p>
- * The design of the cache is relatively simple. The cache is segmented into 256 segments which are backed by HashMaps.
- * Each segment is protected by a re-entrant read/write lock. The read/write locks permit multiple concurrent readers
- * without contention, and the segments gives us write throughput without impacting readers (so readers are blocked only
- * if they are reading a segment that a writer is writing to).
+ * The design of the cache is relatively simple. The cache is segmented into 256 segments which are backed by
+ * ConcurrentHashMaps. Reads don't take any segment lock. Each segment is protected by a re-entrant read/write lock that
+ * serializes the writers to that segment and lets {@link #forEach} hold the writers off while it iterates.
  * <p>
  * The LRU functionality is backed by a single doubly-linked list chaining the entries in order of insertion. This
- * LRU list is protected by a lock that serializes all writes to it. There are opportunities for improvements
- * here if write throughput is a concern.
- * <ol>
- * <li>LRU list mutations could be inserted into a blocking queue that a single thread is reading from
- * and applying to the LRU list.</li>
- * <li>Promotions could be deferred for entries that were "recently" promoted.</li>
- * <li>Locks on the list could be taken per node being modified instead of globally.</li>
- * </ol>
+ * LRU list is protected by a lock that serializes all writes to it. A cache hit has to move its entry to the head of
+ * the list but it never waits on that lock. If another thread holds it, the hit is recorded in a small buffer picked
+ * by thread and the next thread to take the lock replays the buffered promotions before it touches the list. Readers
+ * only wait for the lock if their buffer is full. Promotions from a single thread are applied in order but promotions
+ * from different threads can be applied out of order.
  * <p>
  * Evictions only occur after a mutation to the cache (meaning an entry promotion, a cache insertion, or a manual
  * invalidation) or an explicit call to {@link #refresh()}.
@@ -175,7 +173,7 @@ public class Cache<K, V> {
     /**
      * A cache segment.
      * <p>
-     * A CacheSegment is backed by a HashMap and is protected by a read/write lock.
+     * A CacheSegment is backed by a ConcurrentHashMap. Writes are protected by a read/write lock, reads don't lock.
      */
     private final class CacheSegment {
         // read/write lock protecting mutations to the segment
@@ -184,7 +182,8 @@ public class Cache<K, V> {
         final Lock readLock = segmentLock.readLock();
         final Lock writeLock = segmentLock.writeLock();
 
-        Map<K, CompletableFuture<Entry<K, V>>> map;
+        // replaced only under the write lock, but read without any lock
+        volatile Map<K, CompletableFuture<Entry<K, V>>> map;
 
         /**
          * get an entry from the segment; expired entries will be returned as null but not removed from the cache until the LRU list is
@@ -196,13 +195,8 @@ public class Cache<K, V> {
          * @return the entry if there was one, otherwise null
          */
         Entry<K, V> get(K key, long now, boolean eagerEvict) {
-            CompletableFuture<Entry<K, V>> future;
-            readLock.lock();
-            try {
-                future = map == null ? null : map.get(key);
-            } finally {
-                readLock.unlock();
-            }
+            Map<K, CompletableFuture<Entry<K, V>>> m = map;
+            CompletableFuture<Entry<K, V>> future = m == null ? null : m.get(key);
             if (future != null) {
                 Entry<K, V> entry;
                 try {
@@ -251,7 +245,7 @@ public class Cache<K, V> {
             try {
                 try {
                     if (map == null) {
-                        map = new HashMap<>();
+                        map = new ConcurrentHashMap<>();
                     }
                     CompletableFuture<Entry<K, V>> future = map.put(key, CompletableFuture.completedFuture(entry));
                     if (future != null) {
@@ -351,6 +345,9 @@ public class Cache<K, V> {
     // lock protecting mutations to the LRU list
     private final ReentrantLock lruLock = new ReentrantLock();
 
+    // promotions recorded by readers that found the lruLock busy, see ReadBuffer
+    private final AtomicReferenceArray<ReadBuffer<K, V>> readBuffers = new AtomicReferenceArray<>(NUMBER_OF_READ_BUFFERS);
+
     /**
      * Returns the value to which the specified key is mapped, or null if this map contains no mapping for the key.
      *
@@ -367,7 +364,7 @@ public class Cache<K, V> {
         if (entry == null) {
             return null;
         } else {
-            promote(entry, now);
+            recordRead(entry, now);
             return entry.value;
         }
     }
@@ -403,7 +400,7 @@ public class Cache<K, V> {
             segment.writeLock.lock();
             try {
                 if (segment.map == null) {
-                    segment.map = new HashMap<>();
+                    segment.map = new ConcurrentHashMap<>();
                 }
                 future = segment.map.putIfAbsent(key, completableFuture);
             } finally {
@@ -489,6 +486,9 @@ public class Cache<K, V> {
                 if (unlink(tuple.v2())) {
                     replaced = true;
                 }
+            } else if (tuple.v2() != null && tuple.v2().state == State.NEW) {
+                // a reader may still have the replaced entry in its read buffer, make sure it never gets linked
+                tuple.v2().state = State.DELETED;
             }
             promote(tuple.v1(), now);
         } finally {
@@ -591,6 +591,7 @@ public class Cache<K, V> {
         long now = now();
         lruLock.lock();
         try {
+            drainReadBuffers();
             evict(now);
         } finally {
             lruLock.unlock();
@@ -774,23 +775,143 @@ public class Cache<K, V> {
         }
     }
 
+    /**
+     * Promote an entry that was just read. Unlike {@link #promote} this
+     * doesn't wait for the {@link #lruLock} unless this thread has buffered
+     * so many promotions that its {@link ReadBuffer} is full.
+     */
+    private void recordRead(Entry<K, V> entry, long now) {
+        if (lruLock.tryLock()) {
+            try {
+                promoteLocked(entry, now);
+            } finally {
+                lruLock.unlock();
+            }
+            return;
+        }
+        if (readBuffer().offer(entry) == false) {
+            promote(entry, now);
+        }
+    }
+
     private void promote(Entry<K, V> entry, long now) {
-        boolean promoted = true;
         lruLock.lock();
         try {
-            switch (entry.state) {
-                case DELETED -> promoted = false;
-                case EXISTING -> relinkAtHead(entry);
-                case NEW -> linkAtHead(entry);
-            }
-            if (promoted) {
-                evict(now);
-            }
+            promoteLocked(entry, now);
         } finally {
             lruLock.unlock();
         }
     }
 
+    private void promoteLocked(Entry<K, V> entry, long now) {
+        assert lruLock.isHeldByCurrentThread();
+
+        boolean promoted = drainReadBuffers();
+        promoted |= link(entry);
+        if (promoted) {
+            evict(now);
+        }
+    }
+
+    /**
+     * Move an entry to the head of the LRU list, linking it if it is new.
+     * @return {@code false} if the entry has already been removed from the cache
+     */
+    private boolean link(Entry<K, V> entry) {
+        switch (entry.state) {
+            case EXISTING -> relinkAtHead(entry);
+            case NEW -> linkAtHead(entry);
+            case DELETED -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Apply all promotions that readers buffered while the {@link #lruLock} was busy.
+     * @return {@code true} if any entry was promoted
+     */
+    private boolean drainReadBuffers() {
+        assert lruLock.isHeldByCurrentThread();
+
+        boolean promoted = false;
+        for (int i = 0; i < NUMBER_OF_READ_BUFFERS; i++) {
+            ReadBuffer<K, V> buffer = readBuffers.get(i);
+            if (buffer != null) {
+                promoted |= buffer.drain(this);
+            }
+        }
+        return promoted;
+    }
+
+    private ReadBuffer<K, V> readBuffer() {
+        // Spread the threads over the buffers so readers rarely share one
+        int i = Long.hashCode(Thread.currentThread().threadId() * 0x9E3779B97F4A7C15L) & (NUMBER_OF_READ_BUFFERS - 1);
+        ReadBuffer<K, V> buffer = readBuffers.get(i);
+        if (buffer == null) {
+            readBuffers.compareAndSet(i, null, new ReadBuffer<>());
+            buffer = readBuffers.get(i);
+        }
+        return buffer;
+    }
+
+    static final int NUMBER_OF_READ_BUFFERS = 16;
+
+    /**
+     * A bounded buffer of entries that were read while the {@link #lruLock}
+     * was held by another thread. Many readers may {@link #offer} into it at
+     * once but it is only ever {@link #drain drained} under the lock.
+     */
+    private static final class ReadBuffer<K, V> {
+        static final int SIZE = 32;
+
+        private final AtomicReferenceArray<Entry<K, V>> entries = new AtomicReferenceArray<>(SIZE);
+        // the number of entries ever offered to this buffer
+        private final AtomicLong writes = new AtomicLong();
+        // the number of entries ever drained from this buffer, only written under the lruLock
+        private volatile long reads;
+
+        /**
+         * Add an entry to the buffer.
+         * @return {@code false} if the buffer is full
+         */
+        boolean offer(Entry<K, V> entry) {
+            while (true) {
+                long w = writes.get();
+                if (w - reads >= SIZE) {
+                    return false;
+                }
+                if (writes.compareAndSet(w, w + 1)) {
+                    entries.lazySet((int) (w & (SIZE - 1)), entry);
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * Promote all entries in the buffer.
+         * @return {@code true} if any entry was promoted
+         */
+        boolean drain(Cache<K, V> cache) {
+            boolean promoted = false;
+            long r = reads;
+            long w = writes.get();
+            for (; r < w; r++) {
+                int i = (int) (r & (SIZE - 1));
+                Entry<K, V> entry = entries.get(i);
+                if (entry == null) {
+                    // The reader claimed the slot but hasn't written to it yet. We'll pick it up next time.
+                    break;
+                }
+                entries.lazySet(i, null);
+                promoted |= cache.link(entry);
+            }
+            reads = r;
+            return promoted;
+        }
+    }
+
     private void evict(long now) {
         assert lruLock.isHeldByCurrentThread();
 
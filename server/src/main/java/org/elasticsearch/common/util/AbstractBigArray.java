@@ -16,6 +16,7 @@ import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.Releasables;
 
 import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 
 /** Common implementation for array lists that slice data into fixed-size blocks. */
@@ -100,7 +101,7 @@ abstract class AbstractBigArray extends AbstractArray {
         cache = grow(cache, page + 1);
         assert cache[page] == null;
         cache[page] = v;
-        assert Array.getLength(v.v()) == expectedSize;
+        assert (v.v() instanceof ByteBuffer b ? b.capacity() : Array.getLength(v.v())) == expectedSize;
         return v.v();
     }
 
@@ -0,0 +1,120 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.common.util;
+
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.recycler.Recycler;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Common implementation for the paged arrays that keep their pages in direct memory instead of on the heap.
+ * Pages are recycled through {@link PageCacheRecycler#directPage} so, on a node that reuses its pages, the
+ * garbage collector never has to see them. Pages that can't be recycled are freed when they are collected.
+ */
+abstract class AbstractDirectBigArray extends AbstractBigArray {
+
+    /** Shared read-only page used for all pages that have never been written to. */
+    protected static final ByteBuffer ZERO_PAGE = ByteBuffer.allocateDirect(PageCacheRecycler.BYTE_PAGE_SIZE)
+        .order(ByteOrder.nativeOrder())
+        .asReadOnlyBuffer()
+        .order(ByteOrder.nativeOrder());
+
+    protected ByteBuffer[] pages;
+
+    protected AbstractDirectBigArray(int pageSize, BigArrays bigArrays, boolean clearOnResize, long size) {
+        super(pageSize, bigArrays, clearOnResize);
+        this.size = size;
+        pages = new ByteBuffer[numPages(size)];
+        Arrays.fill(pages, ZERO_PAGE);
+    }
+
+    /** Change the size of this array. Content between indexes <code>0</code> and <code>min(size(), newSize)</code> will be preserved. */
+    @Override
+    public void resize(long newSize) {
+        final int numPages = numPages(newSize);
+        if (numPages > pages.length) {
+            pages = Arrays.copyOf(pages, ArrayUtil.oversize(numPages, RamUsageEstimator.NUM_BYTES_OBJECT_REF));
+        }
+        for (int i = numPages - 1; i >= 0 && pages[i] == null; --i) {
+            pages[i] = ZERO_PAGE;
+        }
+        for (int i = numPages; i < pages.length && pages[i] != null; ++i) {
+            assert pages[i] != ZERO_PAGE;
+            pages[i] = null;
+            releasePage(i);
+        }
+        this.size = newSize;
+    }
+
+    private ByteBuffer newDirectPage(int page) {
+        if (recycler != null) {
+            final Recycler.V<ByteBuffer> v = recycler.directPage(clearOnResize);
+            return registerNewPage(v, page, PageCacheRecycler.BYTE_PAGE_SIZE);
+        } else {
+            return PageCacheRecycler.allocateDirectPage();
+        }
+    }
+
+    protected final ByteBuffer getPageForWriting(int pageIndex) {
+        ByteBuffer foundPage = pages[pageIndex];
+        if (foundPage == ZERO_PAGE) {
+            foundPage = newDirectPage(pageIndex);
+            pages[pageIndex] = foundPage;
+        }
+        return foundPage;
+    }
+
+    /**
+     * Bulk copies array to paged array
+     */
+    protected final void set(long index, byte[] buf, int offset, int len, int shift) {
+        assert index + len <= size();
+        int pageIndex = pageIndex(index);
+        int indexInPage = indexInPage(index);
+        while (len > 0) {
+            final int copyLen = Math.min(len, pageSize() - indexInPage);
+            getPageForWriting(pageIndex).put(indexInPage << shift, buf, offset << shift, copyLen << shift);
+            ++pageIndex;
+            indexInPage = 0;
+            offset += copyLen;
+            len -= copyLen;
+        }
+    }
+
+    protected final void writePages(StreamOutput out) throws IOException {
+        int remainedBytes = Math.toIntExact(size * numBytesPerElement());
+        out.writeVInt(remainedBytes);
+        final byte[] buffer = new byte[Math.min(remainedBytes, PageCacheRecycler.BYTE_PAGE_SIZE)];
+        for (int i = 0; i < pages.length && remainedBytes > 0; i++) {
+            int len = Math.min(remainedBytes, PageCacheRecycler.BYTE_PAGE_SIZE);
+            pages[i].get(0, buffer, 0, len);
+            out.writeBytes(buffer, 0, len);
+            remainedBytes -= len;
+        }
+    }
+
+    protected final void readPages(StreamInput in) throws IOException {
+        int remainedBytes = in.readVInt();
+        final byte[] buffer = new byte[Math.min(remainedBytes, PageCacheRecycler.BYTE_PAGE_SIZE)];
+        for (int i = 0; i < pages.length && remainedBytes > 0; i++) {
+            int len = Math.min(remainedBytes, PageCacheRecycler.BYTE_PAGE_SIZE);
+            in.readBytes(buffer, 0, len);
+            getPageForWriting(i).put(0, buffer, 0, len);
+            remainedBytes -= len;
+        }
+    }
+}
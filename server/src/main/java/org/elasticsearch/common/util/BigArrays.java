@@ -19,6 +19,7 @@ import org.elasticsearch.common.breaker.PreallocatedCircuitBreakerService;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.recycler.Recycler;
+import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.Releasable;
 import org.elasticsearch.core.Releasables;
@@ -39,6 +40,18 @@ public class BigArrays {
 
     public static final BigArrays NON_RECYCLING_INSTANCE = new BigArrays(null, null, CircuitBreaker.REQUEST);
 
+    /**
+     * Keep the pages of large {@link IntArray}s, {@link LongArray}s, and {@link DoubleArray}s in direct
+     * memory rather than on the heap. This takes the bulk of the state of aggregations like {@code terms}
+     * and {@code cardinality} off the heap. The memory is still charged to the circuit breaker, and
+     * allocations past {@code -XX:MaxDirectMemorySize} fail with a {@link CircuitBreakingException}.
+     */
+    public static final Setting<Boolean> OFF_HEAP_SETTING = Setting.boolSetting(
+        "big_arrays.off_heap.enabled",
+        false,
+        Setting.Property.NodeScope
+    );
+
     /** Returns the next size to grow when working with parallel arrays that
      *  may have different page sizes or number of bytes per element. */
     public static long overSize(long minTargetSize) {
@@ -475,6 +488,7 @@ public class BigArrays {
     @Nullable
     private final CircuitBreaker breaker;
     private final boolean checkBreaker;
+    private final boolean offHeap;
     private final BigArrays circuitBreakingInstance;
     private final String breakerName;
 
@@ -488,8 +502,19 @@ public class BigArrays {
         @Nullable final CircuitBreakerService breakerService,
         String breakerName,
         boolean checkBreaker
+    ) {
+        this(recycler, breakerService, breakerName, checkBreaker, false);
+    }
+
+    private BigArrays(
+        @Nullable PageCacheRecycler recycler,
+        @Nullable final CircuitBreakerService breakerService,
+        String breakerName,
+        boolean checkBreaker,
+        boolean offHeap
     ) {
         this.checkBreaker = checkBreaker;
+        this.offHeap = offHeap;
         this.recycler = recycler;
         this.breakerService = breakerService;
         if (breakerService != null) {
@@ -501,7 +526,7 @@ public class BigArrays {
         if (checkBreaker) {
             this.circuitBreakingInstance = this;
         } else {
-            this.circuitBreakingInstance = new BigArrays(recycler, breakerService, breakerName, true);
+            this.circuitBreakingInstance = new BigArrays(recycler, breakerService, breakerName, true, offHeap);
         }
     }
 
@@ -554,7 +579,16 @@ public class BigArrays {
      * {@link CircuitBreakerService}. Use with {@link PreallocatedCircuitBreakerService}.
      */
     public BigArrays withBreakerService(CircuitBreakerService breakerService) {
-        return new BigArrays(recycler, breakerService, breakerName, checkBreaker);
+        return new BigArrays(recycler, breakerService, breakerName, checkBreaker, offHeap);
+    }
+
+    /**
+     * Return an instance of this BigArrays class that allocates the pages of large
+     * {@link IntArray}s, {@link LongArray}s, and {@link DoubleArray}s in direct memory.
+     * See {@link #OFF_HEAP_SETTING}.
+     */
+    public BigArrays withOffHeap() {
+        return new BigArrays(recycler, breakerService, breakerName, checkBreaker, true);
     }
 
     public CircuitBreakerService breakerService() {   // TODO this feels like it is for tests but it has escaped
@@ -682,7 +716,7 @@ public class BigArrays {
             // when allocating big arrays, we want to first ensure we have the capacity by
             // checking with the circuit breaker before attempting to allocate
             adjustBreaker(BigIntArray.estimateRamBytes(size), false);
-            return new BigIntArray(size, this, clearOnResize);
+            return offHeap ? new DirectBigIntArray(size, this, clearOnResize) : new BigIntArray(size, this, clearOnResize);
         } else {
             return validate(new ByteArrayAsIntArrayWrapper(this, size, clearOnResize));
         }
@@ -698,8 +732,10 @@ public class BigArrays {
 
     /** Resize the array to the exact provided size. */
     public IntArray resize(IntArray array, long size) {
-        if (array instanceof BigIntArray) {
-            return resizeInPlace((BigIntArray) array, size);
+        if (array instanceof BigIntArray bigArray) {
+            return resizeInPlace(bigArray, size);
+        } else if (array instanceof DirectBigIntArray directArray) {
+            return resizeInPlace(directArray, size);
         } else {
             AbstractArray arr = (AbstractArray) array;
             final IntArray newArray = newIntArray(size, arr.clearOnResize);
@@ -729,7 +765,7 @@ public class BigArrays {
             // when allocating big arrays, we want to first ensure we have the capacity by
             // checking with the circuit breaker before attempting to allocate
             adjustBreaker(BigLongArray.estimateRamBytes(size), false);
-            return new BigLongArray(size, this, clearOnResize);
+            return offHeap ? new DirectBigLongArray(size, this, clearOnResize) : new BigLongArray(size, this, clearOnResize);
         } else {
             return validate(new ByteArrayAsLongArrayWrapper(this, size, clearOnResize));
         }
@@ -745,8 +781,10 @@ public class BigArrays {
 
     /** Resize the array to the exact provided size. */
     public LongArray resize(LongArray array, long size) {
-        if (array instanceof BigLongArray) {
-            return resizeInPlace((BigLongArray) array, size);
+        if (array instanceof BigLongArray bigArray) {
+            return resizeInPlace(bigArray, size);
+        } else if (array instanceof DirectBigLongArray directArray) {
+            return resizeInPlace(directArray, size);
         } else {
             AbstractArray arr = (AbstractArray) array;
             final LongArray newArray = newLongArray(size, arr.clearOnResize);
@@ -776,7 +814,7 @@ public class BigArrays {
             // when allocating big arrays, we want to first ensure we have the capacity by
             // checking with the circuit breaker before attempting to allocate
             adjustBreaker(BigDoubleArray.estimateRamBytes(size), false);
-            return new BigDoubleArray(size, this, clearOnResize);
+            return offHeap ? new DirectBigDoubleArray(size, this, clearOnResize) : new BigDoubleArray(size, this, clearOnResize);
         } else {
             return validate(new ByteArrayAsDoubleArrayWrapper(this, size, clearOnResize));
         }
@@ -789,8 +827,10 @@ public class BigArrays {
 
     /** Resize the array to the exact provided size. */
     public DoubleArray resize(DoubleArray array, long size) {
-        if (array instanceof BigDoubleArray) {
-            return resizeInPlace((BigDoubleArray) array, size);
+        if (array instanceof BigDoubleArray bigArray) {
+            return resizeInPlace(bigArray, size);
+        } else if (array instanceof DirectBigDoubleArray directArray) {
+            return resizeInPlace(directArray, size);
         } else {
             AbstractArray arr = (AbstractArray) array;
             final DoubleArray newArray = newDoubleArray(size, arr.clearOnResize);
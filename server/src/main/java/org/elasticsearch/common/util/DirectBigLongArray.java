@@ -0,0 +1,121 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.common.util;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.elasticsearch.common.util.PageCacheRecycler.LONG_PAGE_SIZE;
+
+/**
+ * Long array abstraction able to support more than 2B values that keeps its values off-heap. This is a version of
+ * {@link BigLongArray} that slices data into fixed-sized direct memory pages instead of {@code byte[]}s.
+ */
+final class DirectBigLongArray extends AbstractDirectBigArray implements LongArray {
+
+    /** Constructor. */
+    DirectBigLongArray(long size, BigArrays bigArrays, boolean clearOnResize) {
+        super(LONG_PAGE_SIZE, bigArrays, clearOnResize, size);
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        writePages(out);
+    }
+
+    @Override
+    public long get(long index) {
+        final int pageIndex = pageIdx(index);
+        final int indexInPage = idxInPage(index);
+        return pages[pageIndex].getLong(indexInPage << 3);
+    }
+
+    @Override
+    public long getAndSet(long index, long value) {
+        final int pageIndex = pageIdx(index);
+        final int indexInPage = idxInPage(index);
+        final ByteBuffer page = getPageForWriting(pageIndex);
+        final long ret = page.getLong(indexInPage << 3);
+        page.putLong(indexInPage << 3, value);
+        return ret;
+    }
+
+    @Override
+    public void set(long index, long value) {
+        final int pageIndex = pageIdx(index);
+        final int indexInPage = idxInPage(index);
+        getPageForWriting(pageIndex).putLong(indexInPage << 3, value);
+    }
+
+    @Override
+    public long increment(long index, long inc) {
+        final int pageIndex = pageIdx(index);
+        final int indexInPage = idxInPage(index);
+        final ByteBuffer page = getPageForWriting(pageIndex);
+        final long newVal = page.getLong(indexInPage << 3) + inc;
+        page.putLong(indexInPage << 3, newVal);
+        return newVal;
+    }
+
+    @Override
+    public void fill(long fromIndex, long toIndex, long value) {
+        if (fromIndex > toIndex) {
+            throw new IllegalArgumentException();
+        }
+        if (fromIndex == toIndex) {
+            return; // empty range
+        }
+        final int fromPage = pageIdx(fromIndex);
+        final int toPage = pageIdx(toIndex - 1);
+        if (fromPage == toPage) {
+            fill(getPageForWriting(fromPage), idxInPage(fromIndex), idxInPage(toIndex - 1) + 1, value);
+        } else {
+            fill(getPageForWriting(fromPage), idxInPage(fromIndex), LONG_PAGE_SIZE, value);
+            for (int i = fromPage + 1; i < toPage; ++i) {
+                fill(getPageForWriting(i), 0, LONG_PAGE_SIZE, value);
+            }
+            fill(getPageForWriting(toPage), 0, idxInPage(toIndex - 1) + 1, value);
+        }
+    }
+
+    private static void fill(ByteBuffer page, int from, int to, long value) {
+        for (int i = from; i < to; i++) {
+            page.putLong(i << 3, value);
+        }
+    }
+
+    @Override
+    public void fillWith(StreamInput in) throws IOException {
+        readPages(in);
+    }
+
+    @Override
+    protected int numBytesPerElement() {
+        return Long.BYTES;
+    }
+
+    @Override
+    public void set(long index, byte[] buf, int offset, int len) {
+        set(index, buf, offset, len, 3);
+    }
+
+    private static final int PAGE_SHIFT = Integer.numberOfTrailingZeros(LONG_PAGE_SIZE);
+
+    private static int pageIdx(long index) {
+        return (int) (index >>> PAGE_SHIFT);
+    }
+
+    private static int idxInPage(long index) {
+        return (int) (index & LONG_PAGE_SIZE - 1);
+    }
+}
@@ -10,6 +10,8 @@
 package org.elasticsearch.common.util;
 
 import org.apache.lucene.util.RamUsageEstimator;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.CircuitBreakingException;
 import org.elasticsearch.common.recycler.AbstractRecyclerC;
 import org.elasticsearch.common.recycler.Recycler;
 import org.elasticsearch.common.settings.Setting;
@@ -18,6 +20,8 @@ import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.util.concurrent.EsExecutors;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.Arrays;
 import java.util.Locale;
 
@@ -60,6 +64,20 @@ public class PageCacheRecycler {
         Property.NodeScope,
         Property.DeprecatedWarning
     );
+    /**
+     * The maximum amount of direct memory kept around for recycling the off-heap pages used
+     * by {@link BigArrays} when {@link BigArrays#OFF_HEAP_SETTING} is enabled. Pages are only
+     * allocated on demand so this costs nothing when off-heap arrays are disabled. But once the
+     * pool has filled up its pages stay allocated until the node stops, and they count against
+     * {@code -XX:MaxDirectMemorySize}, which defaults to half the heap. So the default is a fifth
+     * of that limit and the pool never keeps more than {@link #MAX_DIRECT_POOL_HEAP_FRACTION}
+     * of the heap, which leaves room for the network buffers that share the limit.
+     */
+    public static final Setting<ByteSizeValue> LIMIT_DIRECT_SETTING = Setting.memorySizeSetting(
+        "cache.recycler.page.limit.direct",
+        "10%",
+        Property.NodeScope
+    );
     // object pages are less useful to us so we give them a lower weight by default
     public static final Setting<Double> WEIGHT_OBJECTS_SETTING = Setting.doubleSetting(
         "cache.recycler.page.weight.objects",
@@ -77,13 +95,23 @@ public class PageCacheRecycler {
     public static final int DOUBLE_PAGE_SIZE = PAGE_SIZE_IN_BYTES / Double.BYTES;
     public static final int BYTE_PAGE_SIZE = PAGE_SIZE_IN_BYTES;
 
+    /**
+     * The most direct memory, as a fraction of the heap, that {@link #LIMIT_DIRECT_SETTING} can keep pooled.
+     */
+    static final double MAX_DIRECT_POOL_HEAP_FRACTION = 0.25;
+
+    private static final byte[] ZERO_PAGE = new byte[BYTE_PAGE_SIZE];
+
     private final Recycler<byte[]> bytePage;
     private final Recycler<Object[]> objectPage;
+    private final Recycler<ByteBuffer> directPage;
 
     public static final PageCacheRecycler NON_RECYCLING_INSTANCE;
 
     static {
-        NON_RECYCLING_INSTANCE = new PageCacheRecycler(Settings.builder().put(LIMIT_HEAP_SETTING.getKey(), "0%").build());
+        NON_RECYCLING_INSTANCE = new PageCacheRecycler(
+            Settings.builder().put(LIMIT_HEAP_SETTING.getKey(), "0%").put(LIMIT_DIRECT_SETTING.getKey(), "0%").build()
+        );
     }
 
     public PageCacheRecycler(Settings settings) {
@@ -136,6 +164,28 @@ public class PageCacheRecycler {
         });
 
         assert PAGE_SIZE_IN_BYTES * (maxBytePageCount + maxObjectPageCount) <= limit;
+
+        final long directLimit = Math.min(
+            LIMIT_DIRECT_SETTING.get(settings).getBytes(),
+            (long) (Runtime.getRuntime().maxMemory() * MAX_DIRECT_POOL_HEAP_FRACTION)
+        );
+        final int maxDirectPageCount = (int) Math.min(Integer.MAX_VALUE, directLimit / PAGE_SIZE_IN_BYTES);
+        directPage = build(type, maxDirectPageCount, allocatedProcessors, new AbstractRecyclerC<>() {
+            @Override
+            public ByteBuffer newInstance() {
+                return allocateDirectPage();
+            }
+
+            @Override
+            public void recycle(ByteBuffer value) {
+                // nothing to do
+            }
+
+            @Override
+            public int pageSize() {
+                return BYTE_PAGE_SIZE;
+            }
+        });
     }
 
     public Recycler.V<byte[]> bytePage(boolean clear) {
@@ -146,6 +196,39 @@ public class PageCacheRecycler {
         return v;
     }
 
+    /**
+     * Obtain an off-heap page of {@link #BYTE_PAGE_SIZE} bytes in {@link ByteOrder#nativeOrder()}.
+     */
+    public Recycler.V<ByteBuffer> directPage(boolean clear) {
+        final Recycler.V<ByteBuffer> v = directPage.obtain();
+        if (v.isRecycled() && clear) {
+            v.v().put(0, ZERO_PAGE);
+        }
+        return v;
+    }
+
+    /**
+     * Allocate an off-heap page of {@link #BYTE_PAGE_SIZE} bytes without recycling it. The JVM won't
+     * allocate more than {@code -XX:MaxDirectMemorySize} of direct memory, a limit we can reach before
+     * the circuit breaker charged for the pages trips, so we report reaching it as a breaker trip.
+     */
+    public static ByteBuffer allocateDirectPage() {
+        try {
+            return ByteBuffer.allocateDirect(BYTE_PAGE_SIZE).order(ByteOrder.nativeOrder());
+        } catch (OutOfMemoryError e) {
+            if (e.getMessage() != null && e.getMessage().startsWith("Cannot reserve")) {
+                // Normally we don't try to handle OutOfMemoryErrors, as they typically indicate the JVM is not healthy.
+                // But this one is thrown by the check of the direct memory limit before anything is allocated, so the
+                // JVM is fine and we can fail the request that wanted the page instead.
+                throw new CircuitBreakingException(
+                    "[direct] unable to allocate an off-heap page: " + e.getMessage(),
+                    CircuitBreaker.Durability.TRANSIENT
+                );
+            }
+            throw e;
+        }
+    }
+
     public Recycler.V<Object[]> objectPage() {
         // object pages are cleared on release anyway
         return objectPage.obtain();
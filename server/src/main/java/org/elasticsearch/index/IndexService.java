@@ -82,6 +82,7 @@ import org.elasticsearch.index.shard.ShardPath;
 import org.elasticsearch.index.similarity.SimilarityService;
 import org.elasticsearch.index.store.Store;
 import org.elasticsearch.index.translog.Translog;
+import org.elasticsearch.index.translog.TranslogSyncCoordinator;
 import org.elasticsearch.indices.breaker.CircuitBreakerService;
 import org.elasticsearch.indices.cluster.IndicesClusterStateService;
 import org.elasticsearch.indices.fielddata.cache.IndicesFieldDataCache;
@@ -158,6 +159,8 @@ public class IndexService extends AbstractIndexComponent implements IndicesClust
     private final ThreadPool threadPool;
     @Nullable
     private final ThreadPoolMergeExecutorService threadPoolMergeExecutorService;
+    @Nullable
+    private final TranslogSyncCoordinator translogSyncCoordinator;
     private final BigArrays bigArrays;
     private final ScriptService scriptService;
     private final ClusterService clusterService;
@@ -184,6 +187,7 @@ public class IndexService extends AbstractIndexComponent implements IndicesClust
         BigArrays bigArrays,
         ThreadPool threadPool,
         ThreadPoolMergeExecutorService threadPoolMergeExecutorService,
+        TranslogSyncCoordinator translogSyncCoordinator,
         ScriptService scriptService,
         ClusterService clusterService,
         Client client,
@@ -269,6 +273,7 @@ public class IndexService extends AbstractIndexComponent implements IndicesClust
         this.bigArrays = bigArrays;
         this.threadPool = threadPool;
         this.threadPoolMergeExecutorService = threadPoolMergeExecutorService;
+        this.translogSyncCoordinator = translogSyncCoordinator;
         this.scriptService = scriptService;
         this.clusterService = clusterService;
         this.client = client;
@@ -566,6 +571,7 @@ public class IndexService extends AbstractIndexComponent implements IndicesClust
                 readerWrapper,
                 threadPool,
                 threadPoolMergeExecutorService,
+                translogSyncCoordinator,
                 bigArrays,
                 engineWarmer,
                 searchOperationListeners,
@@ -9,6 +9,7 @@
 
 package org.elasticsearch.index.cache.request;
 
+import org.elasticsearch.TransportVersions;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
@@ -25,6 +26,7 @@ public class RequestCacheStats implements Writeable, ToXContentFragment {
     private long evictions;
     private long hitCount;
     private long missCount;
+    private long admissionRejectCount;
 
     public RequestCacheStats() {}
 
@@ -33,13 +35,21 @@ public class RequestCacheStats implements Writeable, ToXContentFragment {
         evictions = in.readVLong();
         hitCount = in.readVLong();
         missCount = in.readVLong();
+        if (in.getTransportVersion().onOrAfter(TransportVersions.REQUEST_CACHE_ADMISSION_REJECTIONS)) {
+            admissionRejectCount = in.readVLong();
+        }
     }
 
     public RequestCacheStats(long memorySize, long evictions, long hitCount, long missCount) {
+        this(memorySize, evictions, hitCount, missCount, 0);
+    }
+
+    public RequestCacheStats(long memorySize, long evictions, long hitCount, long missCount, long admissionRejectCount) {
         this.memorySize = memorySize;
         this.evictions = evictions;
         this.hitCount = hitCount;
         this.missCount = missCount;
+        this.admissionRejectCount = admissionRejectCount;
     }
 
     public void add(RequestCacheStats stats) {
@@ -50,6 +60,7 @@ public class RequestCacheStats implements Writeable, ToXContentFragment {
         this.evictions += stats.evictions;
         this.hitCount += stats.hitCount;
         this.missCount += stats.missCount;
+        this.admissionRejectCount += stats.admissionRejectCount;
     }
 
     public long getMemorySizeInBytes() {
@@ -72,12 +83,23 @@ public class RequestCacheStats implements Writeable, ToXContentFragment {
         return this.missCount;
     }
 
+    /**
+     * The number of misses that weren't cached because the admission filter
+     * hadn't seen the request before. These are also counted as misses.
+     */
+    public long getAdmissionRejectCount() {
+        return this.admissionRejectCount;
+    }
+
     @Override
     public void writeTo(StreamOutput out) throws IOException {
         out.writeVLong(memorySize);
         out.writeVLong(evictions);
         out.writeVLong(hitCount);
         out.writeVLong(missCount);
+        if (out.getTransportVersion().onOrAfter(TransportVersions.REQUEST_CACHE_ADMISSION_REJECTIONS)) {
+            out.writeVLong(admissionRejectCount);
+        }
     }
 
     @Override
@@ -85,12 +107,16 @@ public class RequestCacheStats implements Writeable, ToXContentFragment {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         RequestCacheStats that = (RequestCacheStats) o;
-        return memorySize == that.memorySize && evictions == that.evictions && hitCount == that.hitCount && missCount == that.missCount;
+        return memorySize == that.memorySize
+            && evictions == that.evictions
+            && hitCount == that.hitCount
+            && missCount == that.missCount
+            && admissionRejectCount == that.admissionRejectCount;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(memorySize, evictions, hitCount, missCount);
+        return Objects.hash(memorySize, evictions, hitCount, missCount, admissionRejectCount);
     }
 
     @Override
@@ -100,6 +126,7 @@ public class RequestCacheStats implements Writeable, ToXContentFragment {
         builder.field(Fields.EVICTIONS, getEvictions());
         builder.field(Fields.HIT_COUNT, getHitCount());
         builder.field(Fields.MISS_COUNT, getMissCount());
+        builder.field(Fields.ADMISSION_REJECT_COUNT, getAdmissionRejectCount());
         builder.endObject();
         return builder;
     }
@@ -111,5 +138,6 @@ public class RequestCacheStats implements Writeable, ToXContentFragment {
         static final String EVICTIONS = "evictions";
         static final String HIT_COUNT = "hit_count";
         static final String MISS_COUNT = "miss_count";
+        static final String ADMISSION_REJECT_COUNT = "admission_reject_count";
     }
 }
@@ -22,9 +22,16 @@ public final class ShardRequestCache {
     final CounterMetric totalMetric = new CounterMetric();
     final CounterMetric hitCount = new CounterMetric();
     final CounterMetric missCount = new CounterMetric();
+    final CounterMetric admissionRejectCount = new CounterMetric();
 
     public RequestCacheStats stats() {
-        return new RequestCacheStats(totalMetric.count(), evictionsMetric.count(), hitCount.count(), missCount.count());
+        return new RequestCacheStats(
+            totalMetric.count(),
+            evictionsMetric.count(),
+            hitCount.count(),
+            missCount.count(),
+            admissionRejectCount.count()
+        );
     }
 
     public void onHit() {
@@ -35,6 +42,10 @@ public final class ShardRequestCache {
         missCount.inc();
     }
 
+    public void onAdmissionRejected() {
+        admissionRejectCount.inc();
+    }
+
     public void onCached(Accountable key, BytesReference value) {
         totalMetric.inc(key.ramBytesUsed() + value.ramBytesUsed());
     }
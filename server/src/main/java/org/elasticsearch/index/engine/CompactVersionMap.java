@@ -0,0 +1,486 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.index.engine;
+
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.elasticsearch.index.translog.Translog;
+
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * A map from {@code _id} to {@link VersionValue} for the {@link LiveVersionMap} that doesn't keep any objects per entry.
+ * Keys and values are packed into the primitive arrays of an open addressing hash table so an entry takes less than
+ * half of the heap it takes in a {@link java.util.concurrent.ConcurrentHashMap} and the garbage collector only has
+ * a handful of arrays to look at, no matter how many documents we've indexed since the last refresh. The price is
+ * that lookups build a new {@link VersionValue} every time.
+ * <p>
+ * The table is split into segments, each guarded by a {@link StampedLock}. Reads are optimistic and only lock the
+ * segment if they raced with a write to it. Like {@link java.util.concurrent.ConcurrentHashMap} iterating the map
+ * doesn't block writes, but it iterates a copy.
+ */
+final class CompactVersionMap extends AbstractMap<BytesRef, VersionValue> implements Accountable {
+    private static final long SHALLOW_SIZE = RamUsageEstimator.shallowSizeOfInstance(CompactVersionMap.class);
+    private static final int SEGMENT_BITS = 4;
+    private static final int SEGMENTS = 1 << SEGMENT_BITS;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    CompactVersionMap() {
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    private Segment segment(int hash) {
+        // the segment comes from the top bits of the hash and the slot in the segment from the bottom ones
+        return segments[hash >>> (Integer.SIZE - SEGMENT_BITS)];
+    }
+
+    @Override
+    public VersionValue get(Object key) {
+        if (key instanceof BytesRef uid) {
+            int hash = uid.hashCode();
+            return segment(hash).get(uid, hash);
+        }
+        return null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public VersionValue put(BytesRef key, VersionValue value) {
+        Objects.requireNonNull(value);
+        int hash = key.hashCode();
+        return segment(hash).put(key, hash, value);
+    }
+
+    @Override
+    public VersionValue remove(Object key) {
+        if (key instanceof BytesRef uid) {
+            int hash = uid.hashCode();
+            return segment(hash).remove(uid, hash);
+        }
+        return null;
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size;
+        }
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        for (Segment segment : segments) {
+            if (segment.size != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    @Override
+    public Set<Entry<BytesRef, VersionValue>> entrySet() {
+        Map<BytesRef, VersionValue> copy = new HashMap<>();
+        for (Segment segment : segments) {
+            segment.copyTo(copy);
+        }
+        return Collections.unmodifiableMap(copy).entrySet();
+    }
+
+    @Override
+    public long ramBytesUsed() {
+        long ramBytesUsed = SHALLOW_SIZE + RamUsageEstimator.shallowSizeOf(segments);
+        for (Segment segment : segments) {
+            ramBytesUsed += segment.ramBytesUsed;
+        }
+        return ramBytesUsed;
+    }
+
+    private static final class Segment {
+        private static final long SHALLOW_SIZE = RamUsageEstimator.shallowSizeOfInstance(Segment.class) + RamUsageEstimator
+            .shallowSizeOfInstance(StampedLock.class);
+        private static final int MIN_TABLE_SIZE = 16;
+        private static final byte INDEX = 0;
+        private static final byte INDEX_WITH_LOCATION = 1;
+        private static final byte DELETE = 2;
+
+        private final StampedLock lock = new StampedLock();
+
+        /**
+         * The hash table. Each slot holds the index of an entry plus one or {@code 0} if the slot is empty.
+         */
+        private int[] table;
+
+        // Entries are packed at the start of these arrays
+        private int[] hashes;
+        private int[] keyOffsets;
+        private int[] keyLengths;
+        private byte[] types;
+        private long[] versions;
+        private long[] seqNos;
+        private long[] terms;
+        /**
+         * The translog generation for {@link #INDEX_WITH_LOCATION} or the time for {@link #DELETE}.
+         */
+        private long[] generationsOrTimes;
+        private long[] translogLocations;
+        private int[] translogSizes;
+
+        /**
+         * The bytes of all keys, including the bytes of keys that we've since removed.
+         */
+        private byte[] keys;
+        private int keysUsed;
+        private int removedKeyBytes;
+
+        private volatile int size;
+        private volatile long ramBytesUsed;
+
+        Segment() {
+            reset();
+        }
+
+        /**
+         * Drop all entries. Nothing is allocated until the next put, most maps of idle shards stay empty.
+         */
+        private void reset() {
+            table = new int[0];
+            hashes = new int[0];
+            keyOffsets = new int[0];
+            keyLengths = new int[0];
+            types = new byte[0];
+            versions = new long[0];
+            seqNos = new long[0];
+            terms = new long[0];
+            generationsOrTimes = new long[0];
+            translogLocations = new long[0];
+            translogSizes = new int[0];
+            keys = new byte[0];
+            keysUsed = 0;
+            removedKeyBytes = 0;
+            size = 0;
+            updateRamBytesUsed();
+        }
+
+        /**
+         * Keep the table at most three quarters full so probes stay short.
+         */
+        private static int maxEntries(int tableSize) {
+            return tableSize / 4 * 3;
+        }
+
+        VersionValue get(BytesRef uid, int hash) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp != 0) {
+                try {
+                    VersionValue value = find(uid, hash);
+                    if (lock.validate(stamp)) {
+                        return value;
+                    }
+                } catch (RuntimeException e) {
+                    // a write to this segment changed the arrays under us so we may have read garbage
+                    if (lock.validate(stamp)) {
+                        throw e;
+                    }
+                }
+            }
+            stamp = lock.readLock();
+            try {
+                return find(uid, hash);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        VersionValue put(BytesRef uid, int hash, VersionValue value) {
+            long stamp = lock.writeLock();
+            try {
+                if (size >= maxEntries(table.length)) {
+                    growTable();
+                }
+                int slot = slot(uid, hash);
+                if (slot >= 0) {
+                    int entry = table[slot] - 1;
+                    VersionValue previous = read(entry);
+                    write(entry, value);
+                    return previous;
+                }
+                int entry = size;
+                if (entry == hashes.length) {
+                    growEntries();
+                }
+                hashes[entry] = hash;
+                keyOffsets[entry] = appendKey(uid);
+                keyLengths[entry] = uid.length;
+                write(entry, value);
+                table[-1 - slot] = entry + 1;
+                size = entry + 1;
+                return null;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        VersionValue remove(BytesRef uid, int hash) {
+            long stamp = lock.writeLock();
+            try {
+                int slot = slot(uid, hash);
+                if (slot < 0) {
+                    return null;
+                }
+                int entry = table[slot] - 1;
+                VersionValue previous = read(entry);
+                removeSlot(slot);
+                removedKeyBytes += keyLengths[entry];
+                // keep the entries packed by moving the last one into the gap
+                int last = size - 1;
+                if (entry != last) {
+                    table[slotOf(last)] = entry + 1;
+                    hashes[entry] = hashes[last];
+                    keyOffsets[entry] = keyOffsets[last];
+                    keyLengths[entry] = keyLengths[last];
+                    types[entry] = types[last];
+                    versions[entry] = versions[last];
+                    seqNos[entry] = seqNos[last];
+                    terms[entry] = terms[last];
+                    generationsOrTimes[entry] = generationsOrTimes[last];
+                    translogLocations[entry] = translogLocations[last];
+                    translogSizes[entry] = translogSizes[last];
+                }
+                size = last;
+                return previous;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        void clear() {
+            long stamp = lock.writeLock();
+            try {
+                reset();
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        void copyTo(Map<BytesRef, VersionValue> copy) {
+            long stamp = lock.readLock();
+            try {
+                for (int entry = 0; entry < size; entry++) {
+                    int offset = keyOffsets[entry];
+                    BytesRef uid = new BytesRef(Arrays.copyOfRange(keys, offset, offset + keyLengths[entry]));
+                    copy.put(uid, read(entry));
+                }
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        private VersionValue find(BytesRef uid, int hash) {
+            int slot = slot(uid, hash);
+            return slot < 0 ? null : read(table[slot] - 1);
+        }
+
+        /**
+         * Find the slot holding {@code uid}. If it isn't in the table returns {@code -1 - slot} where
+         * {@code slot} is the empty slot we'd insert it into.
+         */
+        private int slot(BytesRef uid, int hash) {
+            int[] table = this.table;
+            if (table.length == 0) {
+                return -1;
+            }
+            int mask = table.length - 1;
+            int slot = hash & mask;
+            for (int probes = 0; probes < table.length; probes++) {
+                int entry = table[slot] - 1;
+                if (entry < 0) {
+                    return -1 - slot;
+                }
+                if (hashes[entry] == hash && keyLengths[entry] == uid.length) {
+                    int offset = keyOffsets[entry];
+                    if (Arrays.equals(keys, offset, offset + uid.length, uid.bytes, uid.offset, uid.offset + uid.length)) {
+                        return slot;
+                    }
+                }
+                slot = (slot + 1) & mask;
+            }
+            // only possible while reading optimistically
+            throw new IllegalStateException("no free slots");
+        }
+
+        /**
+         * Find the slot pointing to an entry.
+         */
+        private int slotOf(int entry) {
+            int mask = table.length - 1;
+            int slot = hashes[entry] & mask;
+            while (table[slot] != entry + 1) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        /**
+         * Empty a slot, shifting back any entries after it that would no longer be reachable from their ideal slot.
+         */
+        private void removeSlot(int hole) {
+            int mask = table.length - 1;
+            table[hole] = 0;
+            int slot = hole;
+            while (true) {
+                slot = (slot + 1) & mask;
+                int entry = table[slot];
+                if (entry == 0) {
+                    return;
+                }
+                int ideal = hashes[entry - 1] & mask;
+                // the entry has to stay if its ideal slot is after the hole, wrapping around the end of the table
+                boolean stays = hole <= slot ? (hole < ideal && ideal <= slot) : (hole < ideal || ideal <= slot);
+                if (stays == false) {
+                    table[hole] = entry;
+                    table[slot] = 0;
+                    hole = slot;
+                }
+            }
+        }
+
+        private void growTable() {
+            int[] newTable = new int[Math.max(MIN_TABLE_SIZE, table.length * 2)];
+            int mask = newTable.length - 1;
+            for (int entry = 0; entry < size; entry++) {
+                int slot = hashes[entry] & mask;
+                while (newTable[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                newTable[slot] = entry + 1;
+            }
+            table = newTable;
+            updateRamBytesUsed();
+        }
+
+        /**
+         * Grow the entries separately from the table so they don't waste the table's free quarter.
+         */
+        private void growEntries() {
+            int capacity = ArrayUtil.oversize(size + 1, Long.BYTES);
+            hashes = Arrays.copyOf(hashes, capacity);
+            keyOffsets = Arrays.copyOf(keyOffsets, capacity);
+            keyLengths = Arrays.copyOf(keyLengths, capacity);
+            types = Arrays.copyOf(types, capacity);
+            versions = Arrays.copyOf(versions, capacity);
+            seqNos = Arrays.copyOf(seqNos, capacity);
+            terms = Arrays.copyOf(terms, capacity);
+            generationsOrTimes = Arrays.copyOf(generationsOrTimes, capacity);
+            translogLocations = Arrays.copyOf(translogLocations, capacity);
+            translogSizes = Arrays.copyOf(translogSizes, capacity);
+            updateRamBytesUsed();
+        }
+
+        private int appendKey(BytesRef uid) {
+            if (keysUsed + uid.length > keys.length) {
+                if (removedKeyBytes >= keys.length / 2) {
+                    compactKeys();
+                }
+                if (keysUsed + uid.length > keys.length) {
+                    keys = ArrayUtil.grow(keys, keysUsed + uid.length);
+                }
+                updateRamBytesUsed();
+            }
+            int offset = keysUsed;
+            System.arraycopy(uid.bytes, uid.offset, keys, offset, uid.length);
+            keysUsed += uid.length;
+            return offset;
+        }
+
+        /**
+         * Drop the bytes of removed keys. This copies the keys because readers may be reading the old array.
+         */
+        private void compactKeys() {
+            byte[] compacted = new byte[keys.length];
+            int used = 0;
+            for (int entry = 0; entry < size; entry++) {
+                System.arraycopy(keys, keyOffsets[entry], compacted, used, keyLengths[entry]);
+                keyOffsets[entry] = used;
+                used += keyLengths[entry];
+            }
+            keys = compacted;
+            keysUsed = used;
+            removedKeyBytes = 0;
+        }
+
+        private VersionValue read(int entry) {
+            return switch (types[entry]) {
+                case INDEX -> new IndexVersionValue(null, versions[entry], seqNos[entry], terms[entry]);
+                case INDEX_WITH_LOCATION -> new IndexVersionValue(
+                    new Translog.Location(generationsOrTimes[entry], translogLocations[entry], translogSizes[entry]),
+                    versions[entry],
+                    seqNos[entry],
+                    terms[entry]
+                );
+                case DELETE -> new DeleteVersionValue(versions[entry], seqNos[entry], terms[entry], generationsOrTimes[entry]);
+                default -> throw new IllegalStateException("unknown version type [" + types[entry] + "]");
+            };
+        }
+
+        private void write(int entry, VersionValue value) {
+            versions[entry] = value.version;
+            seqNos[entry] = value.seqNo;
+            terms[entry] = value.term;
+            if (value instanceof DeleteVersionValue delete) {
+                types[entry] = DELETE;
+                generationsOrTimes[entry] = delete.time;
+                return;
+            }
+            assert value instanceof IndexVersionValue : "unsupported version value " + value;
+            Translog.Location location = value.getLocation();
+            if (location == null) {
+                types[entry] = INDEX;
+            } else {
+                types[entry] = INDEX_WITH_LOCATION;
+                generationsOrTimes[entry] = location.generation();
+                translogLocations[entry] = location.translogLocation();
+                translogSizes[entry] = location.size();
+            }
+        }
+
+        private void updateRamBytesUsed() {
+            ramBytesUsed = SHALLOW_SIZE + RamUsageEstimator.sizeOf(table) + RamUsageEstimator.sizeOf(hashes) + RamUsageEstimator.sizeOf(
+                keyOffsets
+            ) + RamUsageEstimator.sizeOf(keyLengths) + RamUsageEstimator.sizeOf(types) + RamUsageEstimator.sizeOf(versions)
+                + RamUsageEstimator.sizeOf(seqNos) + RamUsageEstimator.sizeOf(terms) + RamUsageEstimator.sizeOf(generationsOrTimes)
+                + RamUsageEstimator.sizeOf(translogLocations) + RamUsageEstimator.sizeOf(translogSizes) + RamUsageEstimator.sizeOf(keys);
+        }
+    }
+}
@@ -122,6 +122,17 @@ public final class EngineConfig {
         }
     }, Property.IndexScope, Property.NodeScope, Property.ServerlessPublic);
 
+    /**
+     * Keep the versions of documents indexed since the last refresh in a {@link CompactVersionMap} rather than a
+     * {@link java.util.concurrent.ConcurrentHashMap}. It takes less heap and is cheaper to collect for shards that see
+     * lots of updates between refreshes, but every lookup has to build a new version object.
+     */
+    public static final Setting<Boolean> INDEX_COMPACT_VERSION_MAP_SETTING = Setting.boolSetting(
+        "index.engine.compact_version_map",
+        false,
+        Property.IndexScope
+    );
+
     // don't convert to Setting<> and register... we only set this in tests and register via a test plugin
     public static final String USE_COMPOUND_FILE = "index.use_compound_file";
 
@@ -29,12 +29,24 @@ public final class LiveVersionMap implements ReferenceManager.RefreshListener, A
 
     private final LiveVersionMapArchive archive;
 
+    private final boolean compact;
+
     LiveVersionMap() {
         this(LiveVersionMapArchive.NOOP_ARCHIVE);
     }
 
     LiveVersionMap(LiveVersionMapArchive archive) {
+        this(archive, false);
+    }
+
+    /**
+     * @param compact store the versions of documents indexed since the last refresh in a {@link CompactVersionMap}
+     */
+    LiveVersionMap(LiveVersionMapArchive archive, boolean compact) {
         this.archive = archive;
+        this.compact = compact;
+        this.maps = new Maps(compact);
+        this.unsafeKeysMap = new Maps(compact);
     }
 
     public static final class VersionLookup {
@@ -46,6 +58,8 @@ public final class LiveVersionMap implements ReferenceManager.RefreshListener, A
 
         private static final VersionLookup EMPTY = new VersionLookup(Collections.emptyMap());
         private final Map<BytesRef, VersionValue> map;
+        // maps that track their own memory, like the CompactVersionMap, don't need our estimates
+        private final Accountable accountableMap;
 
         // each version map has a notion of safe / unsafe which allows us to apply certain optimization in the auto-generated ID usecase
         // where we know that documents can't have any duplicates so we can skip the version map entirely. This reduces
@@ -66,18 +80,24 @@ public final class LiveVersionMap implements ReferenceManager.RefreshListener, A
         // Modifies the map of this instance by merging with the given VersionLookup
         public void merge(VersionLookup versionLookup) {
             long existingEntriesSize = 0;
+            // a map that tracks its own memory doesn't use our estimates so we estimate the entries we copy from it
+            long mergedEntriesSize = versionLookup.accountableMap == null ? versionLookup.ramBytesUsed() : 0;
             for (var entry : versionLookup.map.entrySet()) {
                 var existingValue = map.get(entry.getKey());
                 existingEntriesSize += existingValue == null ? 0 : mapEntryBytesUsed(entry.getKey(), existingValue);
+                if (versionLookup.accountableMap != null) {
+                    mergedEntriesSize += mapEntryBytesUsed(entry.getKey(), entry.getValue());
+                }
             }
             map.putAll(versionLookup.map);
-            adjustRamUsage(versionLookup.ramBytesUsed() - existingEntriesSize);
+            adjustRamUsage(mergedEntriesSize - existingEntriesSize);
             minDeleteTimestamp.accumulateAndGet(versionLookup.minDeleteTimestamp(), Math::min);
         }
 
         // Visible for testing
         VersionLookup(Map<BytesRef, VersionValue> map) {
             this.map = map;
+            this.accountableMap = map instanceof Accountable accountable ? accountable : null;
         }
 
         public VersionValue get(BytesRef key) {
@@ -125,14 +145,14 @@ public final class LiveVersionMap implements ReferenceManager.RefreshListener, A
         }
 
         void adjustRamUsage(long value) {
-            if (value != 0) {
+            if (value != 0 && accountableMap == null) {
                 long v = ramBytesUsed.addAndGet(value);
                 assert v >= 0 : "bytes=" + v;
             }
         }
 
         public long ramBytesUsed() {
-            return ramBytesUsed.get();
+            return accountableMap == null ? ramBytesUsed.get() : accountableMap.ramBytesUsed();
         }
 
         public static long mapEntryBytesUsed(BytesRef key, VersionValue value) {
@@ -157,15 +177,24 @@ public final class LiveVersionMap implements ReferenceManager.RefreshListener, A
         // have the volatile read of the Maps reference to make it visible even across threads.
         boolean needsSafeAccess;
         final boolean previousMapsNeededSafeAccess;
+        final boolean compact;
 
-        Maps(VersionLookup current, VersionLookup old, boolean previousMapsNeededSafeAccess) {
+        Maps(VersionLookup current, VersionLookup old, boolean previousMapsNeededSafeAccess, boolean compact) {
             this.current = current;
             this.old = old;
             this.previousMapsNeededSafeAccess = previousMapsNeededSafeAccess;
+            this.compact = compact;
         }
 
-        Maps() {
-            this(new VersionLookup(ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency()), VersionLookup.EMPTY, false);
+        Maps(boolean compact) {
+            this(newVersionLookup(compact, 16), VersionLookup.EMPTY, false, compact);
+        }
+
+        private static VersionLookup newVersionLookup(boolean compact, int expectedSize) {
+            // don't presize the compact map, its memory counts towards the indexing buffer as soon as we allocate it
+            return new VersionLookup(
+                compact ? new CompactVersionMap() : ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency(expectedSize)
+            );
         }
 
         boolean isSafeAccessMode() {
@@ -183,18 +212,14 @@ public final class LiveVersionMap implements ReferenceManager.RefreshListener, A
          * Builds a new map for the refresh transition this should be called in beforeRefresh()
          */
         Maps buildTransitionMap() {
-            return new Maps(
-                new VersionLookup(ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency(current.size())),
-                current,
-                shouldInheritSafeAccess()
-            );
+            return new Maps(newVersionLookup(compact, current.size()), current, shouldInheritSafeAccess(), compact);
         }
 
         /**
          * similar to `invalidateOldMap` but used only for the `unsafeKeysMap` used for assertions
          */
         Maps invalidateOldMapForAssert() {
-            return new Maps(current, VersionLookup.EMPTY, previousMapsNeededSafeAccess);
+            return new Maps(current, VersionLookup.EMPTY, previousMapsNeededSafeAccess, compact);
         }
 
         /**
@@ -202,7 +227,7 @@ public final class LiveVersionMap implements ReferenceManager.RefreshListener, A
          */
         Maps invalidateOldMap(LiveVersionMapArchive archive) {
             archive.afterRefresh(old);
-            return new Maps(current, VersionLookup.EMPTY, previousMapsNeededSafeAccess);
+            return new Maps(current, VersionLookup.EMPTY, previousMapsNeededSafeAccess, compact);
         }
 
         void put(BytesRef uid, VersionValue version) {
@@ -224,17 +249,17 @@ public final class LiveVersionMap implements ReferenceManager.RefreshListener, A
         }
 
         long ramBytesUsed() {
-            return current.ramBytesUsed.get() + old.ramBytesUsed.get();
+            return current.ramBytesUsed() + old.ramBytesUsed();
         }
     }
 
     // All deletes also go here, and delete "tombstones" are retained after refresh:
     private final Map<BytesRef, DeleteVersionValue> tombstones = ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency();
 
-    private volatile Maps maps = new Maps();
+    private volatile Maps maps;
     // we maintain a second map that only receives the updates that we skip on the actual map (unsafe ops)
     // this map is only maintained if assertions are enabled
-    private volatile Maps unsafeKeysMap = new Maps();
+    private volatile Maps unsafeKeysMap;
 
     /**
      * Bytes consumed for each BytesRef UID:
@@ -463,7 +488,7 @@ public final class LiveVersionMap implements ReferenceManager.RefreshListener, A
      * Called when this index is closed.
      */
     synchronized void clear() {
-        maps = new Maps();
+        maps = new Maps(compact);
         tombstones.clear();
         // NOTE: we can't zero this here, because a refresh thread could be calling InternalEngine.pruneDeletedTombstones at the same time,
         // and this will lead to an assert trip. Presumably it's fine if our ramBytesUsedForTombstones is non-zero after clear since the
@@ -495,7 +520,7 @@ public final class LiveVersionMap implements ReferenceManager.RefreshListener, A
      */
     long reclaimableRefreshRamBytes() {
         return archive == LiveVersionMapArchive.NOOP_ARCHIVE
-            ? maps.current.ramBytesUsed.get()
+            ? maps.current.ramBytesUsed()
             : maps.ramBytesUsed() + archive.getReclaimableRamBytes();
     }
 
@@ -512,7 +537,7 @@ public final class LiveVersionMap implements ReferenceManager.RefreshListener, A
      * fraction of the Archive entries that are kept around until an ongoing unpromotable refresh is finished.
      */
     long getRefreshingBytes() {
-        return archive == LiveVersionMapArchive.NOOP_ARCHIVE ? maps.old.ramBytesUsed.get() : archive.getRefreshingRamBytes();
+        return archive == LiveVersionMapArchive.NOOP_ARCHIVE ? maps.old.ramBytesUsed() : archive.getRefreshingRamBytes();
     }
 
     /**
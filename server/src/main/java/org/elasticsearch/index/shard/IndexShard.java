@@ -135,6 +135,7 @@ import org.elasticsearch.index.store.StoreStats;
 import org.elasticsearch.index.translog.Translog;
 import org.elasticsearch.index.translog.TranslogConfig;
 import org.elasticsearch.index.translog.TranslogStats;
+import org.elasticsearch.index.translog.TranslogSyncCoordinator;
 import org.elasticsearch.index.warmer.ShardIndexWarmerService;
 import org.elasticsearch.index.warmer.WarmerStats;
 import org.elasticsearch.indices.IndexingMemoryController;
@@ -199,6 +200,8 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
     private final ThreadPool threadPool;
     @Nullable
     private final ThreadPoolMergeExecutorService threadPoolMergeExecutorService;
+    @Nullable
+    private final TranslogSyncCoordinator translogSyncCoordinator;
     private final MapperService mapperService;
     private final IndexCache indexCache;
     private final Store store;
@@ -330,6 +333,7 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         final CheckedFunction<DirectoryReader, DirectoryReader, IOException> indexReaderWrapper,
         final ThreadPool threadPool,
         final ThreadPoolMergeExecutorService threadPoolMergeExecutorService,
+        final TranslogSyncCoordinator translogSyncCoordinator,
         final BigArrays bigArrays,
         final Engine.Warmer warmer,
         final List<SearchOperationListener> searchOperationListener,
@@ -358,6 +362,7 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         this.indexEventListener = indexEventListener;
         this.threadPool = threadPool;
         this.threadPoolMergeExecutorService = threadPoolMergeExecutorService;
+        this.translogSyncCoordinator = translogSyncCoordinator;
         this.mapperService = mapperService;
         this.indexCache = indexCache;
         this.internalIndexingStats = new InternalIndexingStats(relativeTimeInNanosSupplier, indexingStatsSettings);
@@ -944,6 +949,32 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         long ifPrimaryTerm,
         long autoGeneratedTimestamp,
         boolean isRetry
+    ) throws IOException {
+        return applyIndexOperationOnPrimary(
+            version,
+            versionType,
+            sourceToParse,
+            null,
+            ifSeqNo,
+            ifPrimaryTerm,
+            autoGeneratedTimestamp,
+            isRetry
+        );
+    }
+
+    /**
+     * Like {@link #applyIndexOperationOnPrimary(long, VersionType, SourceToParse, long, long, long, boolean)} but with a document
+     * that the caller already parsed from {@code sourceToParse} using the current {@link DocumentMapper}.
+     */
+    public Engine.IndexResult applyIndexOperationOnPrimary(
+        long version,
+        VersionType versionType,
+        SourceToParse sourceToParse,
+        @Nullable ParsedDocument parsedDoc,
+        long ifSeqNo,
+        long ifPrimaryTerm,
+        long autoGeneratedTimestamp,
+        boolean isRetry
     ) throws IOException {
         assert versionType.validateVersionForWrites(version);
         return applyIndexOperation(
@@ -957,7 +988,8 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
             autoGeneratedTimestamp,
             isRetry,
             Engine.Operation.Origin.PRIMARY,
-            sourceToParse
+            sourceToParse,
+            parsedDoc
         );
     }
 
@@ -980,7 +1012,8 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
             autoGeneratedTimeStamp,
             isRetry,
             Engine.Operation.Origin.REPLICA,
-            sourceToParse
+            sourceToParse,
+            null
         );
     }
 
@@ -995,7 +1028,8 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         long autoGeneratedTimeStamp,
         boolean isRetry,
         Engine.Operation.Origin origin,
-        SourceToParse sourceToParse
+        SourceToParse sourceToParse,
+        @Nullable ParsedDocument parsedDoc
     ) throws IOException {
         assert opPrimaryTerm <= getOperationPrimaryTerm()
             : "op term [ " + opPrimaryTerm + " ] > shard term [" + getOperationPrimaryTerm() + "]";
@@ -1014,7 +1048,8 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
                 isRetry,
                 ifSeqNo,
                 ifPrimaryTerm,
-                getRelativeTimeInNanos()
+                getRelativeTimeInNanos(),
+                parsedDoc
             );
             Mapping update = operation.parsedDoc().dynamicMappingsUpdate();
             if (update != null) {
@@ -1066,6 +1101,38 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         long ifSeqNo,
         long ifPrimaryTerm,
         long startTimeInNanos
+    ) {
+        return prepareIndex(
+            mapperService,
+            source,
+            seqNo,
+            primaryTerm,
+            version,
+            versionType,
+            origin,
+            autoGeneratedIdTimestamp,
+            isRetry,
+            ifSeqNo,
+            ifPrimaryTerm,
+            startTimeInNanos,
+            null
+        );
+    }
+
+    private static Engine.Index prepareIndex(
+        MapperService mapperService,
+        SourceToParse source,
+        long seqNo,
+        long primaryTerm,
+        long version,
+        VersionType versionType,
+        Engine.Operation.Origin origin,
+        long autoGeneratedIdTimestamp,
+        boolean isRetry,
+        long ifSeqNo,
+        long ifPrimaryTerm,
+        long startTimeInNanos,
+        @Nullable ParsedDocument parsedDoc
     ) {
         assert source.dynamicTemplates().isEmpty() || origin == Engine.Operation.Origin.PRIMARY
             : "dynamic_templates parameter can only be associated with primary operations";
@@ -1075,7 +1142,8 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
             documentMapper = DocumentMapper.createEmpty(mapperService);
             mapping = documentMapper.mapping();
         }
-        ParsedDocument doc = documentMapper.parse(source);
+        assert parsedDoc == null || mapping == null : "can't parse documents ahead without a mapping";
+        ParsedDocument doc = parsedDoc == null ? documentMapper.parse(source) : parsedDoc;
         if (mapping != null) {
             // If we are indexing but there is no mapping we create one. This is to ensure that whenever at least a document is indexed
             // some mappings do exist. It covers for the case of indexing an empty doc (`{}`).
@@ -4069,11 +4137,18 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
      * <p>
      * NOTE: if the syncListener throws an exception when it's processed the exception will only be logged. Users should make sure that the
      * listener handles all exception cases internally.
+     * <p>
+     * If the node batches translog syncs with a {@link TranslogSyncCoordinator} then the sync waits for the coordinator's window to close
+     * and runs together with the syncs of all other writes to this shard in the same window.
      */
     public final void syncAfterWrite(Translog.Location location, Consumer<Exception> syncListener) {
         assert indexShardOperationPermits.getActiveOperationsCount() != 0;
         verifyNotClosed();
-        getEngine().asyncEnsureTranslogSynced(location, syncListener);
+        if (translogSyncCoordinator == null) {
+            getEngine().asyncEnsureTranslogSynced(location, syncListener);
+        } else {
+            translogSyncCoordinator.sync(shardId, location, syncListener, (l, c) -> getEngine().asyncEnsureTranslogSynced(l, c));
+        }
     }
 
     /**
@@ -16,6 +16,12 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 
 final class TranslogSnapshot extends BaseTranslogReader {
+    /**
+     * Operations are usually much smaller than this so rather than reading
+     * each one from the file on its own we read this many bytes at once and
+     * serve the operations from memory.
+     */
+    static final int READ_AHEAD_SIZE = 64 * 1024;
 
     private final int totalOperations;
     private final Checkpoint checkpoint;
@@ -26,6 +32,13 @@ final class TranslogSnapshot extends BaseTranslogReader {
     private int skippedOperations;
     private int readOperations;
     private BufferedChecksumStreamInput reuse;
+    /**
+     * The bytes we've read ahead, {@link #readAheadLength} of them starting at {@link #readAheadPosition}
+     * in the file. Allocated on the first read and released once we've read all operations.
+     */
+    private ByteBuffer readAhead;
+    private long readAheadPosition;
+    private int readAheadLength;
 
     /**
      * Create a snapshot of translog file channel.
@@ -63,7 +76,8 @@ final class TranslogSnapshot extends BaseTranslogReader {
             }
             skippedOperations++;
         }
-        reuse = null; // release buffer, it may be large and is no longer needed
+        reuse = null; // release buffers, they may be large and are no longer needed
+        readAhead = null;
         return null;
     }
 
@@ -111,7 +125,30 @@ final class TranslogSnapshot extends BaseTranslogReader {
                         + "]"
                 );
             }
-            Channels.readFromFileChannelWithEofException(channel, position, buffer);
+            final int len = buffer.remaining();
+            if (len > READ_AHEAD_SIZE) {
+                Channels.readFromFileChannelWithEofException(channel, position, buffer);
+                return;
+            }
+            if (readAhead == null) {
+                readAhead = ByteBuffer.allocate((int) Math.min(READ_AHEAD_SIZE, length - getFirstOperationOffset()));
+            }
+            if (position < readAheadPosition || position + len > readAheadPosition + readAheadLength) {
+                // forget what we had read ahead before reading in case the read fails half way
+                readAheadLength = 0;
+                readAhead.clear();
+                readAhead.limit((int) Math.min(readAhead.capacity(), length - position));
+                Channels.readFromFileChannelWithEofException(channel, position, readAhead);
+                readAheadPosition = position;
+                readAheadLength = readAhead.position();
+                if (len > readAheadLength) {
+                    throw new EOFException(
+                        "read requested past EOF. pos [" + position + "] len [" + len + "] end: [" + length + "], path: [" + path + "]"
+                    );
+                }
+            }
+            buffer.put(buffer.position(), readAhead, (int) (position - readAheadPosition), len);
+            buffer.position(buffer.position() + len);
         } catch (EOFException e) {
             throw new TranslogCorruptedException(path.toString(), "translog truncated", e);
         }
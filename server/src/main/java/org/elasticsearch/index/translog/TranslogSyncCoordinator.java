@@ -0,0 +1,192 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.index.translog;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.AbstractRunnable;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.threadpool.Scheduler;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Batches the translog syncs that follow writes to all the shards on a node.
+ * Rather than syncing as soon as a write completes, a sync waits for up to
+ * {@link #WINDOW_SETTING} so that all writes to the same shard in the meantime
+ * share a single fsync. Once the window closes the syncs for every shard that
+ * saw writes are started together and each completes all of its waiting
+ * listeners at once.
+ * <p>
+ * Each shard still syncs its own translog file, so this doesn't save anything
+ * for shards that only see a single write per window. It helps when many
+ * shards each see a steady trickle of small writes, which otherwise costs an
+ * fsync per write.
+ */
+public final class TranslogSyncCoordinator {
+    private static final Logger logger = LogManager.getLogger(TranslogSyncCoordinator.class);
+
+    /**
+     * How long to wait for more writes before syncing the translog. {@code 0}, the default,
+     * syncs each shard as soon as a write completes.
+     */
+    public static final Setting<TimeValue> WINDOW_SETTING = Setting.timeSetting(
+        "indices.translog.sync_window",
+        TimeValue.ZERO,
+        TimeValue.ZERO,
+        TimeValue.timeValueMillis(100),
+        Setting.Property.NodeScope
+    );
+
+    private final TimeValue window;
+    private final Scheduler scheduler;
+    private final Executor executor;
+    private final ThreadContext threadContext;
+
+    private final Object mutex = new Object();
+    /**
+     * Syncs waiting for the window to close, protected by {@link #mutex}.
+     */
+    private Map<ShardId, PendingSync> pending = new HashMap<>();
+
+    public TranslogSyncCoordinator(TimeValue window, Scheduler scheduler, Executor executor, ThreadContext threadContext) {
+        this.window = window;
+        this.scheduler = scheduler;
+        this.executor = executor;
+        this.threadContext = threadContext;
+    }
+
+    /**
+     * Build a coordinator that syncs on the {@link ThreadPool.Names#WRITE write} threads
+     * or {@code null} if syncs aren't batched on this node.
+     */
+    @Nullable
+    public static TranslogSyncCoordinator maybeCreate(Settings settings, ThreadPool threadPool) {
+        TimeValue window = WINDOW_SETTING.get(settings);
+        if (window.nanos() == 0) {
+            return null;
+        }
+        return new TranslogSyncCoordinator(
+            window,
+            threadPool,
+            threadPool.executor(ThreadPool.Names.WRITE),
+            threadPool.getThreadContext()
+        );
+    }
+
+    /**
+     * Sync the translog of a shard up to at least the given location once the current window closes.
+     *
+     * @param syncer starts the actual sync, like {@link org.elasticsearch.index.engine.Engine#asyncEnsureTranslogSynced}.
+     *               All calls for the same shard in one window share a single call to the syncer.
+     */
+    public void sync(
+        ShardId shardId,
+        Translog.Location location,
+        Consumer<Exception> listener,
+        BiConsumer<Translog.Location, Consumer<Exception>> syncer
+    ) {
+        final boolean first;
+        synchronized (mutex) {
+            first = pending.isEmpty();
+            pending.computeIfAbsent(shardId, k -> new PendingSync()).add(location, preserveContext(listener), syncer);
+        }
+        if (first) {
+            // the writer's context belongs to the listeners, not to the syncs that we start for every shard
+            try (ThreadContext.StoredContext ignored = threadContext.stashContext()) {
+                try {
+                    scheduler.schedule(this::startPendingSyncs, window, EsExecutors.DIRECT_EXECUTOR_SERVICE);
+                } catch (Exception e) {
+                    // e.g. rejected because the node is shutting down, sync now rather than leave the listeners waiting forever
+                    logger.debug("failed to schedule translog syncs, syncing now", e);
+                    startPendingSyncs();
+                }
+            }
+        }
+    }
+
+    private void startPendingSyncs() {
+        final Map<ShardId, PendingSync> toSync;
+        synchronized (mutex) {
+            toSync = pending;
+            pending = new HashMap<>();
+        }
+        for (PendingSync sync : toSync.values()) {
+            executor.execute(sync);
+        }
+    }
+
+    private Consumer<Exception> preserveContext(Consumer<Exception> consumer) {
+        Supplier<ThreadContext.StoredContext> restorableContext = threadContext.newRestorableContext(false);
+        return e -> {
+            try (ThreadContext.StoredContext ignore = restorableContext.get()) {
+                consumer.accept(e);
+            }
+        };
+    }
+
+    /**
+     * All syncs for a single shard in a window.
+     */
+    private static class PendingSync extends AbstractRunnable {
+        private final List<Consumer<Exception>> listeners = new ArrayList<>();
+        private Translog.Location location = Translog.Location.EMPTY;
+        private BiConsumer<Translog.Location, Consumer<Exception>> syncer;
+
+        void add(Translog.Location location, Consumer<Exception> listener, BiConsumer<Translog.Location, Consumer<Exception>> syncer) {
+            if (location.compareTo(this.location) > 0) {
+                this.location = location;
+            }
+            listeners.add(listener);
+            // the latest syncer wins, it's the one for the current engine if the shard reset its engine
+            this.syncer = syncer;
+        }
+
+        @Override
+        protected void doRun() {
+            syncer.accept(location, this::notifyListeners);
+        }
+
+        @Override
+        public void onFailure(Exception e) {
+            notifyListeners(e);
+        }
+
+        @Override
+        public boolean isForceExecution() {
+            // the writes are done, we can't reject the sync without failing them
+            return true;
+        }
+
+        private void notifyListeners(Exception e) {
+            for (Consumer<Exception> listener : listeners) {
+                try {
+                    listener.accept(e);
+                } catch (Exception ex) {
+                    logger.warn("failed to notify callback", ex);
+                }
+            }
+        }
+    }
+}
@@ -39,6 +39,11 @@ abstract class AbstractIndexShardCacheEntity implements IndicesRequestCache.Cach
         stats().onMiss();
     }
 
+    @Override
+    public final void onAdmissionRejected() {
+        stats().onAdmissionRejected();
+    }
+
     @Override
     public final void onRemoval(RemovalNotification<IndicesRequestCache.Key, BytesReference> notification) {
         stats().onRemoval(
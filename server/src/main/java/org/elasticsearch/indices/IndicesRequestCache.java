@@ -9,7 +9,11 @@
 
 package org.elasticsearch.indices;
 
+import com.carrotsearch.hppc.BitMixer;
+
 import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.util.Accountable;
 import org.apache.lucene.util.RamUsageEstimator;
 import org.elasticsearch.common.CheckedSupplier;
@@ -24,6 +28,7 @@ import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.index.mapper.MappingLookup;
 
@@ -34,6 +39,8 @@ import java.util.Iterator;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 /**
  * The indices request cache allows to cache a shard level request stage responses, helping with improving
@@ -60,6 +67,19 @@ public final class IndicesRequestCache implements Closeable {
         Property.Dynamic,
         Property.IndexScope
     );
+    /**
+     * A setting to cache the results of aggregating each segment, see
+     * {@link org.elasticsearch.search.aggregations.SegmentAggregationCache}.
+     * A refresh invalidates the cached results for the whole shard but on
+     * indices that are mostly appended to it leaves most segments in place,
+     * so we only need to aggregate the new ones.
+     */
+    public static final Setting<Boolean> INDEX_CACHE_REQUEST_SEGMENT_AGGS_SETTING = Setting.boolSetting(
+        "index.requests.cache.segment_aggs",
+        false,
+        Property.Dynamic,
+        Property.IndexScope
+    );
     public static final Setting<ByteSizeValue> INDICES_CACHE_QUERY_SIZE = Setting.memorySizeSetting(
         "indices.requests.cache.size",
         "1%",
@@ -70,10 +90,22 @@ public final class IndicesRequestCache implements Closeable {
         new TimeValue(0),
         Property.NodeScope
     );
+    /**
+     * Only cache the result of a request the second time we see it. This keeps
+     * one-off requests from evicting the results of requests that are repeated,
+     * like the ones that back dashboards. See {@link Doorkeeper}.
+     */
+    public static final Setting<Boolean> INDICES_CACHE_QUERY_DOORKEEPER = Setting.boolSetting(
+        "indices.requests.cache.doorkeeper",
+        false,
+        Property.NodeScope
+    );
 
     private final ConcurrentMap<CleanupKey, Boolean> registeredClosedListeners = ConcurrentCollections.newConcurrentMap();
     private final Set<CleanupKey> keysToClean = ConcurrentCollections.newConcurrentSet();
     private final Cache<Key, BytesReference> cache;
+    @Nullable
+    private final Doorkeeper doorkeeper;
 
     IndicesRequestCache(Settings settings) {
         TimeValue expire = INDICES_CACHE_QUERY_EXPIRE.exists(settings) ? INDICES_CACHE_QUERY_EXPIRE.get(settings) : null;
@@ -85,6 +117,7 @@ public final class IndicesRequestCache implements Closeable {
             cacheBuilder.setExpireAfterAccess(expire);
         }
         cache = cacheBuilder.build();
+        doorkeeper = INDICES_CACHE_QUERY_DOORKEEPER.get(settings) ? new Doorkeeper(Doorkeeper.DEFAULT_WINDOW) : null;
     }
 
     @Override
@@ -107,6 +140,17 @@ public final class IndicesRequestCache implements Closeable {
         final ESCacheHelper cacheHelper = ElasticsearchDirectoryReader.getESReaderCacheHelper(reader);
         assert cacheHelper != null;
         final Key key = new Key(cacheEntity, mappingCacheKey, cacheHelper.getKey(), cacheKey);
+        if (doorkeeper != null && doorkeeper.seenBefore(key.hashCode()) == false) {
+            BytesReference value = cache.get(key);
+            if (value != null) {
+                // cached before the doorkeeper was reset
+                key.entity.onHit();
+                return value;
+            }
+            key.entity.onMiss();
+            key.entity.onAdmissionRejected();
+            return loader.get();
+        }
         Loader cacheLoader = new Loader(cacheEntity, loader);
         BytesReference value = cache.computeIfAbsent(key, cacheLoader);
         if (cacheLoader.isLoaded()) {
@@ -134,6 +178,52 @@ public final class IndicesRequestCache implements Closeable {
         return value;
     }
 
+    /**
+     * Get the cached result for a single segment.
+     * @return the cached result or {@code null} if there isn't one
+     */
+    @Nullable
+    BytesReference getSegment(
+        CacheEntity cacheEntity,
+        MappingLookup.CacheKey mappingCacheKey,
+        LeafReaderContext leaf,
+        BytesReference cacheKey
+    ) {
+        IndexReader.CacheHelper cacheHelper = leaf.reader().getReaderCacheHelper();
+        if (cacheHelper == null) {
+            return null;
+        }
+        return cache.get(new Key(cacheEntity, mappingCacheKey, cacheHelper.getKey(), cacheKey));
+    }
+
+    /**
+     * Cache the result for a single segment. The entry is cleaned up when
+     * the segment's reader is closed, either because it was merged away or
+     * because it got new deletes.
+     */
+    void putSegment(
+        CacheEntity cacheEntity,
+        MappingLookup.CacheKey mappingCacheKey,
+        LeafReaderContext leaf,
+        BytesReference cacheKey,
+        BytesReference value
+    ) {
+        IndexReader.CacheHelper cacheHelper = leaf.reader().getReaderCacheHelper();
+        if (cacheHelper == null) {
+            return;
+        }
+        Key key = new Key(cacheEntity, mappingCacheKey, cacheHelper.getKey(), cacheKey);
+        cacheEntity.onCached(key, value);
+        cache.put(key, value);
+        CleanupKey cleanupKey = new CleanupKey(cacheEntity, cacheHelper.getKey());
+        if (registeredClosedListeners.containsKey(cleanupKey) == false) {
+            Boolean previous = registeredClosedListeners.putIfAbsent(cleanupKey, Boolean.TRUE);
+            if (previous == null) {
+                cacheHelper.addClosedListener(cleanupKey::onClose);
+            }
+        }
+    }
+
     /**
      * Invalidates the given the cache entry for the given key and it's context
      * @param cacheEntity the cache entity to invalidate for
@@ -201,6 +291,12 @@ public final class IndicesRequestCache implements Closeable {
          */
         void onMiss();
 
+        /**
+         * Called each time this entity has a cache miss that we don't cache
+         * because the {@link Doorkeeper} hasn't seen the request before.
+         */
+        void onAdmissionRejected();
+
         /**
          * Called when this entity instance is removed
          */
@@ -262,6 +358,60 @@ public final class IndicesRequestCache implements Closeable {
         }
     }
 
+    /**
+     * A Bloom filter of the keys that were recently looked up. We only admit a
+     * key into the cache if the filter already contains it, so a request has to
+     * be repeated before we spend cache space on it. The filter is cleared every
+     * {@code window} new keys so it only remembers recent requests and its false
+     * positive rate stays low. A false positive just means we cache the result
+     * of a request on its first use, like we would without the filter.
+     */
+    static final class Doorkeeper {
+        static final int DEFAULT_WINDOW = 1 << 16;
+        private static final int BITS_PER_KEY = 16;
+        private static final int HASHES = 3;
+
+        private final int window;
+        private final int mask;
+        private final AtomicInteger added = new AtomicInteger();
+        private volatile AtomicLongArray bits;
+
+        Doorkeeper(int window) {
+            if (Integer.bitCount(window) != 1) {
+                throw new IllegalArgumentException("window must be a power of two but was [" + window + "]");
+            }
+            this.window = window;
+            this.mask = window * BITS_PER_KEY - 1;
+            this.bits = new AtomicLongArray(window * BITS_PER_KEY / Long.SIZE);
+        }
+
+        /**
+         * Add a key to the filter.
+         * @return {@code true} if the key was (probably) already in the filter
+         */
+        boolean seenBefore(int keyHash) {
+            long hash = BitMixer.mix64(keyHash);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            AtomicLongArray bits = this.bits;
+            boolean seen = true;
+            for (int i = 0; i < HASHES; i++) {
+                int bit = (h1 + i * h2) & mask;
+                int word = bit >>> 6;
+                long m = 1L << bit;
+                if ((bits.get(word) & m) == 0) {
+                    seen = false;
+                    bits.getAndAccumulate(word, m, (a, b) -> a | b);
+                }
+            }
+            if (seen == false && added.incrementAndGet() >= window) {
+                added.set(0);
+                this.bits = new AtomicLongArray(bits.length());
+            }
+            return seen;
+        }
+    }
+
     private class CleanupKey implements ESCacheHelper.ClosedListener {
         final CacheEntity entity;
         final Object readerCacheKey;
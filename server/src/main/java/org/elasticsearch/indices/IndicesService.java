@@ -13,9 +13,28 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader.CacheHelper;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.ConstantScoreQuery;
+import org.apache.lucene.search.DisjunctionMaxQuery;
+import org.apache.lucene.search.FieldExistsQuery;
+import org.apache.lucene.search.IndexOrDocValuesQuery;
+import org.apache.lucene.search.IndexSortSortedNumericDocValuesRangeQuery;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.MatchNoDocsQuery;
+import org.apache.lucene.search.MultiTermQuery;
+import org.apache.lucene.search.PointInSetQuery;
+import org.apache.lucene.search.PointRangeQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.QueryVisitor;
+import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.store.AlreadyClosedException;
 import org.apache.lucene.util.CollectionUtil;
 import org.apache.lucene.util.RamUsageEstimator;
+import org.apache.lucene.util.automaton.ByteRunAutomaton;
 import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.ResourceAlreadyExistsException;
 import org.elasticsearch.action.ActionListener;
@@ -131,6 +150,7 @@ import org.elasticsearch.index.shard.IndexingStatsSettings;
 import org.elasticsearch.index.shard.SearchOperationListener;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.index.translog.TranslogStats;
+import org.elasticsearch.index.translog.TranslogSyncCoordinator;
 import org.elasticsearch.indices.breaker.CircuitBreakerService;
 import org.elasticsearch.indices.cluster.IndicesClusterStateService;
 import org.elasticsearch.indices.fielddata.cache.IndicesFieldDataCache;
@@ -144,6 +164,8 @@ import org.elasticsearch.plugins.PluginsService;
 import org.elasticsearch.plugins.internal.rewriter.QueryRewriteInterceptor;
 import org.elasticsearch.repositories.RepositoriesService;
 import org.elasticsearch.script.ScriptService;
+import org.elasticsearch.search.aggregations.InternalAggregations;
+import org.elasticsearch.search.aggregations.SegmentAggregationCache;
 import org.elasticsearch.search.aggregations.support.ValuesSourceRegistry;
 import org.elasticsearch.search.builder.PointInTimeBuilder;
 import org.elasticsearch.search.internal.AliasFilter;
@@ -182,6 +204,8 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
 import java.util.stream.Collectors;
 
 import static java.util.Collections.emptyList;
@@ -236,6 +260,8 @@ public class IndicesService extends AbstractLifecycleComponent
     private final ThreadPool threadPool;
     @Nullable
     private final ThreadPoolMergeExecutorService threadPoolMergeExecutorService;
+    @Nullable
+    private final TranslogSyncCoordinator translogSyncCoordinator;
     private final CircuitBreakerService circuitBreakerService;
     private final BigArrays bigArrays;
     private final ScriptService scriptService;
@@ -297,6 +323,7 @@ public class IndicesService extends AbstractLifecycleComponent
             threadPool,
             settings
         );
+        this.translogSyncCoordinator = TranslogSyncCoordinator.maybeCreate(settings, threadPool);
         this.pluginsService = builder.pluginsService;
         this.nodeEnv = builder.nodeEnv;
         this.parserConfig = XContentParserConfiguration.EMPTY.withDeprecationHandler(LoggingDeprecationHandler.INSTANCE)
@@ -796,6 +823,7 @@ public class IndicesService extends AbstractLifecycleComponent
             bigArrays,
             threadPool,
             threadPoolMergeExecutorService,
+            translogSyncCoordinator,
             scriptService,
             clusterService,
             client,
@@ -1623,13 +1651,19 @@ public class IndicesService extends AbstractLifecycleComponent
      * value into the {@link SearchContext#queryResult() context's query result}. The combination of load + compute allows
      * to have a single load operation that will cause other requests with the same key to wait till its loaded an reuse
      * the same cache.
+     * @param fieldCardinality resolves the cardinality of fields to decide if we can cache the results of aggregating
+     *                         each segment, see {@link IndicesRequestCache#INDEX_CACHE_REQUEST_SEGMENT_AGGS_SETTING}
      */
-    public void loadIntoContext(ShardSearchRequest request, SearchContext context) throws Exception {
+    public void loadIntoContext(ShardSearchRequest request, SearchContext context, ToLongFunction<String> fieldCardinality)
+        throws Exception {
         assert canCache(request, context);
         final DirectoryReader directoryReader = context.searcher().getDirectoryReader();
 
         boolean[] loadedFromCache = new boolean[] { true };
         BytesReference cacheKey = request.cacheKey(requestCacheKeyDifferentiator);
+        if (canCacheSegmentAggs(request, context, fieldCardinality)) {
+            context.aggregations().segmentCache(new ShardSegmentAggregationCache(context, cacheKey));
+        }
         BytesReference bytesReference = cacheShardLevelResult(
             context.indexShard(),
             context.getSearchExecutionContext().mappingCacheKey(),
@@ -1672,6 +1706,136 @@ public class IndicesService extends AbstractLifecycleComponent
         }
     }
 
+    /**
+     * Can we cache the results of aggregating each segment? We only do it when
+     * it's enabled on the index and when the aggregations would be fine
+     * collected concurrently in slices. Per segment results are just a slice
+     * per segment.
+     */
+    private static boolean canCacheSegmentAggs(
+        ShardSearchRequest request,
+        SearchContext context,
+        ToLongFunction<String> fieldCardinality
+    ) {
+        if (context.aggregations() == null || context.aggregations().isInSortOrderExecutionRequired()) {
+            return false;
+        }
+        IndexSettings settings = context.indexShard().indexSettings();
+        if (settings.getValue(IndicesRequestCache.INDEX_CACHE_REQUEST_SEGMENT_AGGS_SETTING) == false) {
+            return false;
+        }
+        // terminate_after stops collecting part way through a segment
+        if (context.terminateAfter() != SearchContext.DEFAULT_TERMINATE_AFTER) {
+            return false;
+        }
+        if (isSegmentLocal(context.query(), context.minimumScore()) == false) {
+            return false;
+        }
+        return request.source().aggregations().supportsParallelCollection(fieldCardinality);
+    }
+
+    /**
+     * Queries that match documents of a segment based only on that segment.
+     */
+    private static final List<Class<? extends Query>> SEGMENT_LOCAL_QUERIES = List.of(
+        BooleanQuery.class,
+        BoostQuery.class,
+        ConstantScoreQuery.class,
+        DisjunctionMaxQuery.class,
+        FieldExistsQuery.class,
+        IndexOrDocValuesQuery.class,
+        IndexSortSortedNumericDocValuesRangeQuery.class,
+        MatchAllDocsQuery.class,
+        MatchNoDocsQuery.class,
+        MultiTermQuery.class,
+        PointInSetQuery.class,
+        PointRangeQuery.class,
+        TermQuery.class
+    );
+
+    /**
+     * Do the documents that the {@code query} matches in a segment only depend on that segment?
+     * Queries like {@code has_child} and {@code knn} look at the other segments of the shard and
+     * {@code min_score} filters on scores, which depend on statistics of the whole shard, so the
+     * results of aggregating a segment can change even though the segment didn't. We only allow
+     * a known list of queries so new ones can't sneak stale results into the segment cache.
+     */
+    public static boolean isSegmentLocal(Query query, @Nullable Float minimumScore) {
+        if (minimumScore != null) {
+            return false;
+        }
+        SegmentLocalQueryVisitor visitor = new SegmentLocalQueryVisitor();
+        query.visit(visitor);
+        return visitor.segmentLocal;
+    }
+
+    private static class SegmentLocalQueryVisitor extends QueryVisitor {
+        private boolean segmentLocal = true;
+
+        private void check(Query query) {
+            if (SEGMENT_LOCAL_QUERIES.stream().noneMatch(c -> c.isInstance(query))) {
+                segmentLocal = false;
+            }
+        }
+
+        @Override
+        public void consumeTerms(Query query, Term... terms) {
+            check(query);
+        }
+
+        @Override
+        public void consumeTermsMatching(Query query, String field, Supplier<ByteRunAutomaton> automaton) {
+            check(query);
+        }
+
+        @Override
+        public void visitLeaf(Query query) {
+            check(query);
+        }
+
+        @Override
+        public QueryVisitor getSubVisitor(BooleanClause.Occur occur, Query parent) {
+            check(parent);
+            // Both halves of an IndexOrDocValuesQuery match the same documents, and the doc values half isn't public
+            return parent instanceof IndexOrDocValuesQuery ? EMPTY_VISITOR : this;
+        }
+    }
+
+    /**
+     * Stores the results of aggregating each segment in the {@link IndicesRequestCache}.
+     */
+    private class ShardSegmentAggregationCache implements SegmentAggregationCache {
+        private final IndexShardCacheEntity cacheEntity;
+        private final MappingLookup.CacheKey mappingCacheKey;
+        private final BytesReference cacheKey;
+
+        ShardSegmentAggregationCache(SearchContext context, BytesReference cacheKey) {
+            this.cacheEntity = new IndexShardCacheEntity(context.indexShard());
+            this.mappingCacheKey = context.getSearchExecutionContext().mappingCacheKey();
+            this.cacheKey = cacheKey;
+        }
+
+        @Override
+        public InternalAggregations get(LeafReaderContext ctx) throws IOException {
+            BytesReference bytes = indicesRequestCache.getSegment(cacheEntity, mappingCacheKey, ctx, cacheKey);
+            if (bytes == null) {
+                return null;
+            }
+            try (StreamInput in = new NamedWriteableAwareStreamInput(bytes.streamInput(), namedWriteableRegistry)) {
+                return InternalAggregations.readFrom(in);
+            }
+        }
+
+        @Override
+        public void put(LeafReaderContext ctx, InternalAggregations aggregations) throws IOException {
+            // see cacheShardLevelResult for why we start small
+            try (BytesStreamOutput out = new BytesStreamOutput(512)) {
+                aggregations.writeTo(out);
+                indicesRequestCache.putSegment(cacheEntity, mappingCacheKey, ctx, cacheKey, out.bytes());
+            }
+        }
+    }
+
     public long getTotalIndexingBufferBytes() {
         return indexingMemoryController.indexingBufferSize();
     }
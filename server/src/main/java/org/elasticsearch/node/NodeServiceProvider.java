@@ -88,10 +88,12 @@ class NodeServiceProvider {
 
     BigArrays newBigArrays(
         PluginsService pluginsService,
+        Settings settings,
         PageCacheRecycler pageCacheRecycler,
         CircuitBreakerService circuitBreakerService
     ) {
-        return new BigArrays(pageCacheRecycler, circuitBreakerService, CircuitBreaker.REQUEST);
+        BigArrays bigArrays = new BigArrays(pageCacheRecycler, circuitBreakerService, CircuitBreaker.REQUEST);
+        return BigArrays.OFF_HEAP_SETTING.get(settings) ? bigArrays.withOffHeap() : bigArrays;
     }
 
     TransportService newTransportService(
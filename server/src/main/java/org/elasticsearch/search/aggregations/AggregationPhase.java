@@ -31,6 +31,14 @@ public class AggregationPhase {
             AggregatorCollector collector = newAggregatorCollector(context);
             executeInSortOrder(context, collector.bucketCollector);
             collectorSupplier = () -> new AggregatorCollector(collector.aggregators, BucketCollector.NO_OP_BUCKET_COLLECTOR);
+        } else if (context.aggregations().segmentCache() != null) {
+            SegmentAggregationCache cache = context.aggregations().segmentCache();
+            collectorSupplier = () -> new SegmentCachingAggregatorCollector(
+                () -> newAggregatorCollector(context),
+                cache,
+                () -> context.aggregations().getAggregationReduceContextBuilder().forPartialReduction(),
+                context.searcher()::timeExceeded
+            );
         } else {
             collectorSupplier = () -> newAggregatorCollector(context);
         }
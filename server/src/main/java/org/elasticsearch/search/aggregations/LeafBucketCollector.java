@@ -9,6 +9,7 @@
 
 package org.elasticsearch.search.aggregations;
 
+import org.apache.lucene.search.DocIdStream;
 import org.apache.lucene.search.LeafCollector;
 import org.apache.lucene.search.Scorable;
 import org.elasticsearch.search.aggregations.bucket.terms.LongKeyedBucketOrds;
@@ -74,6 +75,24 @@ public abstract class LeafBucketCollector implements LeafCollector {
      */
     public abstract void collect(int doc, long owningBucketOrd) throws IOException;
 
+    /**
+     * Collect all documents in the {@code stream} in the bucket owned by
+     * {@code owningBucketOrd}. Lucene hands us a {@link DocIdStream} when it
+     * can find many matching documents at once, like for a
+     * {@code match_all} query or a dense conjunction.
+     * <p>
+     * The default implementation calls {@link #collect(int, long)} for
+     * each document. Aggregations that can collect a batch of documents
+     * faster than one at a time should override this. Most numeric metric
+     * aggregations, for example, can read the values for the whole batch and
+     * only update their {@link org.elasticsearch.common.util.BigArrays big arrays}
+     * once at the end. Collectors that wrap other collectors should forward
+     * this so their delegate gets a chance to collect the batch.
+     */
+    public void collect(DocIdStream stream, long owningBucketOrd) throws IOException {
+        stream.forEach(doc -> collect(doc, owningBucketOrd));
+    }
+
     /**
      * Does this collector collect anything? If this returns true we can safely
      * just never call {@link #collect}.
@@ -87,6 +106,11 @@ public abstract class LeafBucketCollector implements LeafCollector {
         collect(doc, 0);
     }
 
+    @Override
+    public final void collect(DocIdStream stream) throws IOException {
+        collect(stream, 0);
+    }
+
     @Override
     public void setScorer(Scorable scorer) throws IOException {
         // no-op by default
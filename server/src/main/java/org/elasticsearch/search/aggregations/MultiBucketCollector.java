@@ -9,11 +9,14 @@
 
 package org.elasticsearch.search.aggregations;
 
+import org.apache.lucene.search.CheckedIntConsumer;
 import org.apache.lucene.search.CollectionTerminatedException;
+import org.apache.lucene.search.DocIdStream;
 import org.apache.lucene.search.LeafCollector;
 import org.apache.lucene.search.MultiCollector;
 import org.apache.lucene.search.Scorable;
 import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.util.ArrayUtil;
 
 import java.io.IOException;
 import java.util.ArrayList;
@@ -201,6 +204,12 @@ public class MultiBucketCollector extends BucketCollector {
         private final LeafBucketCollector[] collectors;
         private int numCollectors;
         private ScoreCachingScorable scorable;
+        /**
+         * Documents from the last {@link DocIdStream}. A stream can only be
+         * consumed once so we copy it here to replay it to each collector.
+         */
+        private int[] streamDocs = new int[0];
+        private int streamDocCount;
 
         private MultiLeafBucketCollector(List<LeafBucketCollector> collectors, boolean cacheScores) {
             this.collectors = collectors.toArray(new LeafBucketCollector[collectors.size()]);
@@ -246,6 +255,74 @@ public class MultiBucketCollector extends BucketCollector {
                 }
             }
         }
+
+        @Override
+        public void collect(DocIdStream stream, long bucket) throws IOException {
+            if (scorable != null) {
+                // The cached score is keyed on the current doc so we can't replay the stream.
+                super.collect(stream, bucket);
+                return;
+            }
+            streamDocCount = 0;
+            stream.forEach(this::bufferStreamDoc);
+            final LeafBucketCollector[] collectors = this.collectors;
+            int numCollectors = this.numCollectors;
+            for (int i = 0; i < numCollectors;) {
+                final LeafBucketCollector collector = collectors[i];
+                try {
+                    collector.collect(new ArrayDocIdStream(streamDocs, streamDocCount), bucket);
+                    ++i;
+                } catch (CollectionTerminatedException e) {
+                    removeCollector(i);
+                    numCollectors = this.numCollectors;
+                    if (numCollectors == 0) {
+                        throw new CollectionTerminatedException();
+                    }
+                }
+            }
+        }
+
+        private void bufferStreamDoc(int doc) {
+            if (streamDocCount == streamDocs.length) {
+                streamDocs = ArrayUtil.grow(streamDocs, streamDocCount + 1);
+            }
+            streamDocs[streamDocCount++] = doc;
+        }
+    }
+
+    /**
+     * A {@link DocIdStream} over a sorted array of documents.
+     */
+    private static class ArrayDocIdStream extends DocIdStream {
+        private final int[] docs;
+        private final int count;
+        private int i;
+
+        ArrayDocIdStream(int[] docs, int count) {
+            this.docs = docs;
+            this.count = count;
+        }
+
+        @Override
+        public void forEach(int upTo, CheckedIntConsumer<IOException> consumer) throws IOException {
+            while (i < count && docs[i] < upTo) {
+                consumer.accept(docs[i++]);
+            }
+        }
+
+        @Override
+        public int count(int upTo) {
+            int start = i;
+            while (i < count && docs[i] < upTo) {
+                i++;
+            }
+            return i - start;
+        }
+
+        @Override
+        public boolean mayHaveRemaining() {
+            return i < count;
+        }
     }
 
     private static class ScoreCachingScorable extends Scorable {
@@ -9,6 +9,7 @@
 package org.elasticsearch.search.aggregations;
 
 import org.apache.lucene.search.CollectorManager;
+import org.elasticsearch.core.Nullable;
 
 import java.util.function.Supplier;
 
@@ -20,6 +21,7 @@ public class SearchContextAggregations {
     private final AggregatorFactories factories;
     private final Supplier<AggregationReduceContext.Builder> toAggregationReduceContextBuilder;
     private CollectorManager<AggregatorCollector, Void> aggCollectorManager;
+    private SegmentAggregationCache segmentCache;
 
     /**
      * Creates a new aggregation context with the parsed aggregator factories
@@ -50,6 +52,22 @@ public class SearchContextAggregations {
         return aggCollectorManager;
     }
 
+    /**
+     * Cache the results of aggregating each segment in the provided cache.
+     * Must be called before the aggregations phase is set up.
+     */
+    public void segmentCache(SegmentAggregationCache segmentCache) {
+        this.segmentCache = segmentCache;
+    }
+
+    /**
+     * The cache for the results of aggregating each segment, if there is one.
+     */
+    @Nullable
+    public SegmentAggregationCache segmentCache() {
+        return segmentCache;
+    }
+
     /**
      * Returns if the aggregations needs to execute in sort order.
      */
@@ -0,0 +1,34 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.search.aggregations;
+
+import org.apache.lucene.index.LeafReaderContext;
+import org.elasticsearch.core.Nullable;
+
+import java.io.IOException;
+
+/**
+ * Caches the partial results of running a request's aggregations against a
+ * single segment. A refresh only adds segments, so the next run of the same
+ * request can reuse the results of every segment that it already collected
+ * and only collect the new ones.
+ */
+public interface SegmentAggregationCache {
+    /**
+     * The cached results for a segment or {@code null} if there aren't any.
+     */
+    @Nullable
+    InternalAggregations get(LeafReaderContext ctx) throws IOException;
+
+    /**
+     * Cache the results of collecting a segment.
+     */
+    void put(LeafReaderContext ctx, InternalAggregations aggregations) throws IOException;
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.search.aggregations;
+
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.CollectionTerminatedException;
+import org.apache.lucene.search.LeafCollector;
+import org.apache.lucene.search.ScoreMode;
+import org.elasticsearch.core.Tuple;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * An {@link AggregatorCollector} that aggregates each segment on its own so
+ * it can store the per-segment results in a {@link SegmentAggregationCache}.
+ * Segments that already have results in the cache aren't collected at all.
+ * Once collection is done the per-segment results are reduced the same way
+ * we reduce the results of collecting slices concurrently.
+ * <p>
+ * Aggregations that need scores don't use the cache at all. Scores depend on
+ * statistics of the whole shard so the results of a segment can change even
+ * though the segment itself didn't.
+ */
+class SegmentCachingAggregatorCollector extends AggregatorCollector {
+    private final Supplier<AggregatorCollector> collectorSupplier;
+    private final SegmentAggregationCache cache;
+    private final Supplier<AggregationReduceContext> reduceContextSupplier;
+    private final BooleanSupplier timedOut;
+    private final ScoreMode scoreMode;
+    private final boolean bypassCache;
+
+    private final List<InternalAggregations> cached = new ArrayList<>();
+    private final List<Tuple<LeafReaderContext, InternalAggregations>> collected = new ArrayList<>();
+
+    private AggregatorCollector current;
+    private LeafReaderContext currentLeaf;
+
+    SegmentCachingAggregatorCollector(
+        Supplier<AggregatorCollector> collectorSupplier,
+        SegmentAggregationCache cache,
+        Supplier<AggregationReduceContext> reduceContextSupplier,
+        BooleanSupplier timedOut
+    ) {
+        super(new Aggregator[0], BucketCollector.NO_OP_BUCKET_COLLECTOR);
+        this.collectorSupplier = collectorSupplier;
+        this.cache = cache;
+        this.reduceContextSupplier = reduceContextSupplier;
+        this.timedOut = timedOut;
+        this.current = collectorSupplier.get();
+        this.scoreMode = current.scoreMode();
+        this.bypassCache = scoreMode.needsScores();
+    }
+
+    @Override
+    public LeafCollector getLeafCollector(LeafReaderContext context) throws IOException {
+        if (bypassCache) {
+            return current.getLeafCollector(context);
+        }
+        finishLeaf();
+        InternalAggregations fromCache = cache.get(context);
+        if (fromCache != null) {
+            cached.add(fromCache);
+            throw new CollectionTerminatedException();
+        }
+        if (current == null) {
+            current = collectorSupplier.get();
+        }
+        currentLeaf = context;
+        return current.getLeafCollector(context);
+    }
+
+    /**
+     * Build the results for the segment we were collecting.
+     */
+    private void finishLeaf() throws IOException {
+        if (currentLeaf == null) {
+            return;
+        }
+        current.doPostCollection();
+        collected.add(new Tuple<>(currentLeaf, InternalAggregations.from(current.internalAggregations)));
+        current = null;
+        currentLeaf = null;
+    }
+
+    @Override
+    public ScoreMode scoreMode() {
+        return scoreMode;
+    }
+
+    @Override
+    public void doPostCollection() throws IOException {
+        if (bypassCache) {
+            current.doPostCollection();
+            internalAggregations.addAll(current.internalAggregations);
+            return;
+        }
+        finishLeaf();
+        if (current != null) {
+            // We didn't collect any segments with the aggregators we built up front
+            current.doPostCollection();
+            if (cached.isEmpty() && collected.isEmpty()) {
+                internalAggregations.addAll(current.internalAggregations);
+                return;
+            }
+        }
+        List<InternalAggregations> results = new ArrayList<>(cached.size() + collected.size());
+        results.addAll(cached);
+        // Results from a search that timed out don't cover the whole segment
+        boolean store = timedOut.getAsBoolean() == false;
+        for (Tuple<LeafReaderContext, InternalAggregations> c : collected) {
+            if (store) {
+                cache.put(c.v1(), c.v2());
+            }
+            results.add(c.v2());
+        }
+        InternalAggregations reduced = results.size() == 1
+            ? results.get(0)
+            : InternalAggregations.topLevelReduce(results, reduceContextSupplier.get());
+        internalAggregations.addAll(reduced.asList());
+    }
+}
@@ -11,8 +11,11 @@ package org.elasticsearch.search.aggregations.bucket.histogram;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.DocValuesSkipper;
 import org.apache.lucene.index.NumericDocValues;
 import org.apache.lucene.index.SortedNumericDocValues;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.DocIdStream;
 import org.apache.lucene.search.ScoreMode;
 import org.apache.lucene.util.CollectionUtil;
 import org.elasticsearch.common.Rounding;
@@ -21,6 +24,7 @@ import org.elasticsearch.common.util.LongArray;
 import org.elasticsearch.core.CheckedFunction;
 import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.Releasables;
+import org.elasticsearch.index.mapper.DateFieldMapper;
 import org.elasticsearch.search.DocValueFormat;
 import org.elasticsearch.search.aggregations.AdaptingAggregator;
 import org.elasticsearch.search.aggregations.AggregationExecutionContext;
@@ -242,6 +246,14 @@ class DateHistogramAggregator extends BucketsAggregator implements SizedBucketAg
 
     private final LongKeyedBucketOrds bucketOrds;
 
+    /**
+     * The field whose {@link DocValuesSkipper} we can use to collect whole
+     * blocks of documents without reading their values or {@code null} if
+     * we must always read the values.
+     */
+    @Nullable
+    private final String skipperField;
+
     DateHistogramAggregator(
         String name,
         AggregatorFactories factories,
@@ -272,6 +284,7 @@ class DateHistogramAggregator extends BucketsAggregator implements SizedBucketAg
         // TODO: Stop using null here
         this.valuesSource = valuesSourceConfig.hasValues() ? (ValuesSource.Numeric) valuesSourceConfig.getValuesSource() : null;
         this.formatter = valuesSourceConfig.format();
+        this.skipperField = skipperField(valuesSourceConfig);
 
         bucketOrds = LongKeyedBucketOrds.build(bigArrays(), cardinality);
     }
@@ -291,7 +304,33 @@ class DateHistogramAggregator extends BucketsAggregator implements SizedBucketAg
         }
         final SortedNumericDocValues values = valuesSource.longValues(aggCtx.getLeafReaderContext());
         final NumericDocValues singleton = DocValues.unwrapSingleton(values);
-        return singleton != null ? getLeafCollector(singleton, sub) : getLeafCollector(values, sub);
+        final LeafBucketCollector perDoc = singleton != null ? getLeafCollector(singleton, sub) : getLeafCollector(values, sub);
+        if (skipperField != null) {
+            DocValuesSkipper skipper = aggCtx.getLeafReaderContext().reader().getDocValuesSkipper(skipperField);
+            if (skipper != null) {
+                return new SkipperLeafBucketCollector(skipper, perDoc, sub);
+            }
+        }
+        return perDoc;
+    }
+
+    /**
+     * The name of the field whose {@link DocValuesSkipper} describes exactly
+     * the values we'd round or {@code null} if there isn't one. Scripts,
+     * runtime fields, and {@code date_nanos} all produce values that the
+     * skipper doesn't know about.
+     */
+    @Nullable
+    private static String skipperField(ValuesSourceConfig valuesSourceConfig) {
+        if (valuesSourceConfig.hasValues() == false || valuesSourceConfig.script() != null) {
+            return null;
+        }
+        if (valuesSourceConfig.fieldType() instanceof DateFieldMapper.DateFieldType dft
+            && dft.hasDocValuesSkipper()
+            && dft.resolution() == DateFieldMapper.Resolution.MILLISECONDS) {
+            return dft.name();
+        }
+        return null;
     }
 
     private LeafBucketCollector getLeafCollector(SortedNumericDocValues values, LeafBucketCollector sub) {
@@ -325,6 +364,133 @@ class DateHistogramAggregator extends BucketsAggregator implements SizedBucketAg
         };
     }
 
+    /**
+     * Collects documents without reading their values when the
+     * {@link DocValuesSkipper} proves that every document in a block has a
+     * value and that all of those values round into the same bucket. This is
+     * very common when the index is sorted on the date, like {@code @timestamp}
+     * in {@code logsdb} and {@code time_series} indices. All other documents
+     * are collected by the usual per document {@link LeafBucketCollector}.
+     */
+    private class SkipperLeafBucketCollector extends LeafBucketCollectorBase {
+        private final DocValuesSkipper skipper;
+        private final LeafBucketCollector perDoc;
+        private final LeafBucketCollector sub;
+
+        /**
+         * The last document, inclusive, described by the current state of the
+         * skipper.
+         */
+        private int upToInclusive = -1;
+        /**
+         * Do all documents up to {@link #upToInclusive} round into the
+         * {@link #upToRounded} bucket?
+         */
+        private boolean upToSameBucket;
+        private long upToRounded;
+        /**
+         * The {@code owningBucketOrd} for which we've resolved {@link #cachedBucketOrd}.
+         */
+        private long cachedOwningBucketOrd = -1;
+        /**
+         * The bucket for {@link #upToRounded} in {@link #cachedOwningBucketOrd}
+         * or {@code -1} if {@link #upToRounded} is outside of the hard bounds.
+         */
+        private long cachedBucketOrd;
+
+        SkipperLeafBucketCollector(DocValuesSkipper skipper, LeafBucketCollector perDoc, LeafBucketCollector sub) {
+            super(perDoc, null);
+            this.skipper = skipper;
+            this.perDoc = perDoc;
+            this.sub = sub;
+        }
+
+        @Override
+        public void collect(int doc, long owningBucketOrd) throws IOException {
+            if (doc > upToInclusive) {
+                advanceSkipper(doc);
+            }
+            if (upToSameBucket == false) {
+                perDoc.collect(doc, owningBucketOrd);
+                return;
+            }
+            long bucketOrd = bucketOrd(owningBucketOrd);
+            if (bucketOrd >= 0) {
+                collectBucket(sub, doc, bucketOrd);
+            }
+        }
+
+        @Override
+        public void collect(DocIdStream stream, long owningBucketOrd) throws IOException {
+            if (sub.isNoop() == false || docCountProvider.alwaysOne() == false) {
+                super.collect(stream, owningBucketOrd);
+                return;
+            }
+            while (true) {
+                int upToExclusive = upToInclusive + 1;
+                if (upToSameBucket) {
+                    int count = stream.count(upToExclusive);
+                    long bucketOrd = count == 0 ? -1 : bucketOrd(owningBucketOrd);
+                    if (bucketOrd >= 0) {
+                        incrementBucketDocCount(bucketOrd, count);
+                    }
+                } else {
+                    stream.forEach(upToExclusive, doc -> perDoc.collect(doc, owningBucketOrd));
+                }
+                if (upToExclusive == DocIdSetIterator.NO_MORE_DOCS || stream.mayHaveRemaining() == false) {
+                    return;
+                }
+                advanceSkipper(upToExclusive);
+            }
+        }
+
+        /**
+         * Move the skipper to {@code target} and find the largest run of documents
+         * starting at {@code target} that all round into the same bucket.
+         */
+        private void advanceSkipper(int target) throws IOException {
+            upToSameBucket = false;
+            cachedOwningBucketOrd = -1;
+            if (target > skipper.maxDocID(0)) {
+                skipper.advance(target);
+            }
+            if (skipper.minDocID(0) > target) {
+                // target doesn't have a value, nor does anything up to the next block
+                upToInclusive = skipper.minDocID(0) - 1;
+                return;
+            }
+            upToInclusive = skipper.maxDocID(0);
+            for (int level = 0; level < skipper.numLevels(); level++) {
+                int minDocID = skipper.minDocID(level);
+                int maxDocID = skipper.maxDocID(level);
+                if (skipper.docCount(level) != maxDocID - minDocID + 1) {
+                    // Some documents in the block don't have a value
+                    break;
+                }
+                long rounded = preparedRounding.round(skipper.minValue(level));
+                if (rounded != preparedRounding.round(skipper.maxValue(level))) {
+                    break;
+                }
+                upToInclusive = maxDocID;
+                upToSameBucket = true;
+                upToRounded = rounded;
+            }
+        }
+
+        private long bucketOrd(long owningBucketOrd) {
+            if (owningBucketOrd != cachedOwningBucketOrd) {
+                cachedOwningBucketOrd = owningBucketOrd;
+                if (hardBounds == null || hardBounds.contain(upToRounded)) {
+                    long bucketOrd = bucketOrds.add(owningBucketOrd, upToRounded);
+                    cachedBucketOrd = bucketOrd < 0 ? -1 - bucketOrd : bucketOrd;
+                } else {
+                    cachedBucketOrd = -1;
+                }
+            }
+            return cachedBucketOrd;
+        }
+    }
+
     private void addRoundedValue(long rounded, int doc, long owningBucketOrd, LeafBucketCollector sub) throws IOException {
         if (hardBounds == null || hardBounds.contain(rounded)) {
             long bucketOrd = bucketOrds.add(owningBucketOrd, rounded);
@@ -9,11 +9,16 @@
 
 package org.elasticsearch.search.aggregations.bucket.terms;
 
+import com.carrotsearch.hppc.BitMixer;
+
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.lucene.index.DocValues;
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.SortedNumericDocValues;
 import org.apache.lucene.index.SortedSetDocValues;
+import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.IndexSearcher;
 import org.elasticsearch.ElasticsearchStatusException;
 import org.elasticsearch.rest.RestStatus;
@@ -31,6 +36,7 @@ import org.elasticsearch.search.aggregations.NonCollectingAggregator;
 import org.elasticsearch.search.aggregations.bucket.BucketUtils;
 import org.elasticsearch.search.aggregations.bucket.terms.NumericTermsAggregator.ResultStrategy;
 import org.elasticsearch.search.aggregations.bucket.terms.TermsAggregator.BucketCountThresholds;
+import org.elasticsearch.search.aggregations.metrics.HyperLogLogPlusPlus;
 import org.elasticsearch.search.aggregations.support.AggregationContext;
 import org.elasticsearch.search.aggregations.support.CoreValuesSourceType;
 import org.elasticsearch.search.aggregations.support.SamplingContext;
@@ -188,11 +194,20 @@ public class TermsAggregatorFactory extends ValuesSourceAggregatorFactory {
                 );
             }
 
+            ValuesSource.Numeric numericValuesSource = (ValuesSource.Numeric) valuesSourceConfig.getValuesSource();
             if (subAggCollectMode == null) {
-                subAggCollectMode = pickSubAggColectMode(factories, bucketCountThresholds.getShardSize(), -1);
+                long estimatedCardinality = -1;
+                if (factories.countAggregators() > 0
+                    && bucketCountThresholds.getShardSize() != Integer.MAX_VALUE
+                    && valuesSourceConfig.script() == null
+                    && valuesSourceConfig.missing() == null
+                    && numericValuesSource.isFloatingPoint() == false) {
+                    estimatedCardinality = estimateCardinality(numericValuesSource, context);
+                    logger.debug("estimated cardinality of [{}] to be [{}]", name, estimatedCardinality);
+                }
+                subAggCollectMode = pickSubAggColectMode(factories, bucketCountThresholds.getShardSize(), estimatedCardinality);
             }
 
-            ValuesSource.Numeric numericValuesSource = (ValuesSource.Numeric) valuesSourceConfig.getValuesSource();
             IncludeExclude.LongFilter longFilter = null;
             Function<NumericTermsAggregator, ResultStrategy<?, ?>> resultStrategy;
             if (numericValuesSource.isFloatingPoint()) {
@@ -345,6 +360,9 @@ public class TermsAggregatorFactory extends ValuesSourceAggregatorFactory {
     /**
      * Pick a {@link SubAggCollectionMode} based on heuristics about what
      * we're collecting.
+     * @param maxOrd the number of global ordinals in the field, an
+     *               {@link #estimateCardinality estimate} of its cardinality,
+     *               or {@code -1} if we don't know
      */
     static SubAggCollectionMode pickSubAggColectMode(AggregatorFactories factories, int expectedSize, long maxOrd) {
         if (factories.countAggregators() == 0) {
@@ -368,6 +386,51 @@ public class TermsAggregatorFactory extends ValuesSourceAggregatorFactory {
         return SubAggCollectionMode.DEPTH_FIRST;
     }
 
+    /**
+     * The number of documents we sample in {@link #estimateCardinality}.
+     */
+    static final int CARDINALITY_SAMPLE_DOCS = 10_000;
+    /**
+     * Precision of the {@link HyperLogLogPlusPlus} used by {@link #estimateCardinality}.
+     * About 1.6% error for 4kb of registers which is plenty to pick a collection mode.
+     */
+    private static final int CARDINALITY_SAMPLE_PRECISION = 12;
+
+    /**
+     * Estimate the number of distinct values of a numeric field on this shard
+     * by reading the values of the first {@link #CARDINALITY_SAMPLE_DOCS}
+     * documents into a {@link HyperLogLogPlusPlus}. Numeric fields don't have
+     * global ordinals so this is the closest thing we have to
+     * {@link #getMaxOrd}.
+     * <p>
+     * If the sample doesn't cover the whole shard we only trust it if the
+     * second half of the sample found hardly any values that the first half
+     * hadn't. Otherwise the field is still turning up new values and we return
+     * {@code -1} because we don't know how many there are.
+     */
+    static long estimateCardinality(ValuesSource.Numeric valuesSource, AggregationContext context) throws IOException {
+        try (HyperLogLogPlusPlus counts = new HyperLogLogPlusPlus(CARDINALITY_SAMPLE_PRECISION, context.bigArrays(), 1)) {
+            int sampled = 0;
+            long halfway = -1;
+            for (LeafReaderContext ctx : context.searcher().getIndexReader().leaves()) {
+                SortedNumericDocValues values = valuesSource.longValues(ctx);
+                for (int doc = values.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = values.nextDoc()) {
+                    for (int i = 0; i < values.docValueCount(); i++) {
+                        counts.collect(0, BitMixer.mix64(values.nextValue()));
+                    }
+                    sampled++;
+                    if (sampled == CARDINALITY_SAMPLE_DOCS / 2) {
+                        halfway = counts.cardinality(0);
+                    } else if (sampled == CARDINALITY_SAMPLE_DOCS) {
+                        long estimate = counts.cardinality(0);
+                        return estimate - halfway <= halfway / 10 ? estimate : -1;
+                    }
+                }
+            }
+            return counts.cardinality(0);
+        }
+    }
+
     /**
      * Get the maximum global ordinal value for the provided {@link ValuesSource} or -1
      * if the values source is not an instance of {@link ValuesSource.Bytes.WithOrdinals}.
@@ -16,8 +16,10 @@ import org.elasticsearch.common.util.BitArray;
 import org.elasticsearch.common.util.ByteArray;
 import org.elasticsearch.common.util.ByteUtils;
 import org.elasticsearch.common.util.IntArray;
+import org.elasticsearch.common.util.PageCacheRecycler;
 import org.elasticsearch.core.Releasable;
 import org.elasticsearch.core.Releasables;
+import org.elasticsearch.simdvec.ESVectorUtil;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
@@ -171,6 +173,11 @@ public final class HyperLogLogPlusPlus extends AbstractHyperLogLogPlusPlus {
         hll.ensureCapacity(thisBucket + 1);
         if (other.getAlgorithm(otherBucket) == LINEAR_COUNTING) {
             merge(thisBucket, other.getLinearCounting(otherBucket));
+        } else if (other instanceof HyperLogLogPlusPlus otherHll) {
+            if (algorithm.get(thisBucket) != HYPERLOGLOG) {
+                upgradeToHll(thisBucket);
+            }
+            hll.merge(thisBucket, otherHll.hll, otherBucket);
         } else {
             merge(thisBucket, other.getHyperLogLog(otherBucket));
         }
@@ -204,6 +211,10 @@ public final class HyperLogLogPlusPlus extends AbstractHyperLogLogPlusPlus {
         private final BigArrays bigArrays;
         // array for holding the runlens.
         private ByteArray runLens;
+        // scratch space for merging registers, allocated on the first merge
+        private byte[] mergeSpare;
+        private final BytesRef thisSpare = new BytesRef();
+        private final BytesRef otherSpare = new BytesRef();
 
         HyperLogLog(BigArrays bigArrays, long initialBucketCount, int precision) {
             super(precision);
@@ -226,6 +237,27 @@ public final class HyperLogLogPlusPlus extends AbstractHyperLogLogPlusPlus {
             return new HyperLogLogIterator(this, bucketOrd);
         }
 
+        /**
+         * Merge the registers of a bucket of another {@link HyperLogLog} into a bucket of this one.
+         * Rather than reading and writing each register on its own this takes the maximum of a page
+         * of registers at a time with {@link ESVectorUtil#maxInPlace}.
+         */
+        protected void merge(long thisBucketOrd, HyperLogLog other, long otherBucketOrd) {
+            if (mergeSpare == null) {
+                mergeSpare = new byte[Math.min(m, PageCacheRecycler.BYTE_PAGE_SIZE)];
+            }
+            final long thisStart = thisBucketOrd << p;
+            final long otherStart = otherBucketOrd << p;
+            for (int offset = 0; offset < m; offset += mergeSpare.length) {
+                final int len = Math.min(m - offset, mergeSpare.length);
+                runLens.get(thisStart + offset, len, thisSpare);
+                System.arraycopy(thisSpare.bytes, thisSpare.offset, mergeSpare, 0, len);
+                other.runLens.get(otherStart + offset, len, otherSpare);
+                ESVectorUtil.maxInPlace(mergeSpare, 0, otherSpare.bytes, otherSpare.offset, len);
+                runLens.set(thisStart + offset, mergeSpare, 0, len);
+            }
+        }
+
         protected void reset(long bucketOrd) {
             runLens.fill(bucketOrd << p, (bucketOrd << p) + m, (byte) 0);
         }
@@ -10,6 +10,7 @@ package org.elasticsearch.search.aggregations.metrics;
 
 import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.PointValues;
+import org.apache.lucene.search.DocIdStream;
 import org.apache.lucene.search.ScoreMode;
 import org.apache.lucene.util.Bits;
 import org.elasticsearch.common.util.DoubleArray;
@@ -83,22 +84,41 @@ class MaxAggregator extends NumericMetricsAggregator.SingleValue {
         final SortedNumericDoubleValues allValues = valuesSource.doubleValues(aggCtx.getLeafReaderContext());
         final NumericDoubleValues values = MultiValueMode.MAX.select(allValues);
         return new LeafBucketCollectorBase(sub, allValues) {
+            /**
+             * The max of the batch we're collecting in {@link #collect(DocIdStream, long)}.
+             */
+            private double batchMax;
 
             @Override
             public void collect(int doc, long bucket) throws IOException {
                 if (values.advanceExact(doc)) {
-                    if (bucket >= maxes.size()) {
-                        long from = maxes.size();
-                        maxes = bigArrays().grow(maxes, bucket + 1);
-                        maxes.fill(from, maxes.size(), Double.NEGATIVE_INFINITY);
-                    }
+                    maybeGrow(bucket);
                     maxes.set(bucket, Math.max(maxes.get(bucket), values.doubleValue()));
                 }
             }
 
+            @Override
+            public void collect(DocIdStream stream, long bucket) throws IOException {
+                maybeGrow(bucket);
+                batchMax = maxes.get(bucket);
+                stream.forEach(doc -> {
+                    if (values.advanceExact(doc)) {
+                        batchMax = Math.max(batchMax, values.doubleValue());
+                    }
+                });
+                maxes.set(bucket, batchMax);
+            }
         };
     }
 
+    private void maybeGrow(long bucket) {
+        if (bucket >= maxes.size()) {
+            long from = maxes.size();
+            maxes = bigArrays().grow(maxes, bucket + 1);
+            maxes.fill(from, maxes.size(), Double.NEGATIVE_INFINITY);
+        }
+    }
+
     @Override
     public double metric(long owningBucketOrd) {
         if (owningBucketOrd >= maxes.size()) {
@@ -11,6 +11,7 @@ package org.elasticsearch.search.aggregations.metrics;
 import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.PointValues;
 import org.apache.lucene.search.CollectionTerminatedException;
+import org.apache.lucene.search.DocIdStream;
 import org.apache.lucene.search.ScoreMode;
 import org.apache.lucene.util.Bits;
 import org.elasticsearch.common.util.DoubleArray;
@@ -83,21 +84,41 @@ public class MinAggregator extends NumericMetricsAggregator.SingleValue {
         final SortedNumericDoubleValues allValues = valuesSource.doubleValues(aggCtx.getLeafReaderContext());
         final NumericDoubleValues values = MultiValueMode.MIN.select(allValues);
         return new LeafBucketCollectorBase(sub, allValues) {
+            /**
+             * The min of the batch we're collecting in {@link #collect(DocIdStream, long)}.
+             */
+            private double batchMin;
+
             @Override
             public void collect(int doc, long bucket) throws IOException {
                 if (values.advanceExact(doc)) {
-                    if (bucket >= mins.size()) {
-                        long from = mins.size();
-                        mins = bigArrays().grow(mins, bucket + 1);
-                        mins.fill(from, mins.size(), Double.POSITIVE_INFINITY);
-                    }
+                    maybeGrow(bucket);
                     mins.set(bucket, Math.min(mins.get(bucket), values.doubleValue()));
                 }
             }
 
+            @Override
+            public void collect(DocIdStream stream, long bucket) throws IOException {
+                maybeGrow(bucket);
+                batchMin = mins.get(bucket);
+                stream.forEach(doc -> {
+                    if (values.advanceExact(doc)) {
+                        batchMin = Math.min(batchMin, values.doubleValue());
+                    }
+                });
+                mins.set(bucket, batchMin);
+            }
         };
     }
 
+    private void maybeGrow(long bucket) {
+        if (bucket >= mins.size()) {
+            long from = mins.size();
+            mins = bigArrays().grow(mins, bucket + 1);
+            mins.fill(from, mins.size(), Double.POSITIVE_INFINITY);
+        }
+    }
+
     @Override
     public double metric(long owningBucketOrd) {
         if (owningBucketOrd >= mins.size()) {
@@ -8,6 +8,7 @@
  */
 package org.elasticsearch.search.aggregations.metrics;
 
+import org.apache.lucene.search.DocIdStream;
 import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.common.util.DoubleArray;
 import org.elasticsearch.common.util.LongArray;
@@ -76,11 +77,26 @@ class StatsAggregator extends NumericMetricsAggregator.MultiDoubleValue {
                     maxes.set(bucket, max);
                 }
             }
+
+            @Override
+            public void collect(DocIdStream stream, long bucket) throws IOException {
+                maybeGrow(bucket);
+                BatchStats batch = new BatchStats(bucket, kahanSummation);
+                stream.forEach(doc -> {
+                    if (values.advanceExact(doc)) {
+                        for (int i = 0; i < values.docValueCount(); i++) {
+                            batch.add(values.nextValue());
+                        }
+                    }
+                });
+                batch.flush(bucket);
+            }
         };
     }
 
     @Override
     public LeafBucketCollector getLeafCollector(NumericDoubleValues values, LeafBucketCollector sub) {
+        final CompensatedSum kahanSummation = new CompensatedSum(0, 0);
         return new LeafBucketCollectorBase(sub, values) {
             @Override
             public void collect(int doc, long bucket) throws IOException {
@@ -92,9 +108,54 @@ class StatsAggregator extends NumericMetricsAggregator.MultiDoubleValue {
                     updateMinsAndMaxes(bucket, value, mins, maxes);
                 }
             }
+
+            @Override
+            public void collect(DocIdStream stream, long bucket) throws IOException {
+                maybeGrow(bucket);
+                BatchStats batch = new BatchStats(bucket, kahanSummation);
+                stream.forEach(doc -> {
+                    if (values.advanceExact(doc)) {
+                        batch.add(values.doubleValue());
+                    }
+                });
+                batch.flush(bucket);
+            }
         };
     }
 
+    /**
+     * Accumulates the stats for a batch of documents locally so we only
+     * have to read and write the big arrays once per batch.
+     */
+    private class BatchStats {
+        private final CompensatedSum sum;
+        private long count;
+        private double min;
+        private double max;
+
+        BatchStats(long bucket, CompensatedSum sum) {
+            this.sum = sum;
+            sum.reset(sums.get(bucket), compensations.get(bucket));
+            min = mins.get(bucket);
+            max = maxes.get(bucket);
+        }
+
+        void add(double value) {
+            count++;
+            sum.add(value);
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+
+        void flush(long bucket) {
+            counts.increment(bucket, count);
+            sums.set(bucket, sum.value());
+            compensations.set(bucket, sum.delta());
+            mins.set(bucket, min);
+            maxes.set(bucket, max);
+        }
+    }
+
     static void updateMinsAndMaxes(long bucket, double value, DoubleArray mins, DoubleArray maxes) {
         double min = mins.get(bucket);
         double updated = Math.min(value, min);
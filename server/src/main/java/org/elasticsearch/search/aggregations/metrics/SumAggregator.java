@@ -8,6 +8,7 @@
  */
 package org.elasticsearch.search.aggregations.metrics;
 
+import org.apache.lucene.search.DocIdStream;
 import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.common.util.DoubleArray;
 import org.elasticsearch.core.Releasables;
@@ -47,6 +48,7 @@ public class SumAggregator extends NumericMetricsAggregator.SingleDoubleValue {
 
     @Override
     protected LeafBucketCollector getLeafCollector(SortedNumericDoubleValues values, final LeafBucketCollector sub) {
+        final CompensatedSum kahanSummation = new CompensatedSum(0, 0);
         return new LeafBucketCollectorBase(sub, values) {
             @Override
             public void collect(int doc, long bucket) throws IOException {
@@ -55,6 +57,21 @@ public class SumAggregator extends NumericMetricsAggregator.SingleDoubleValue {
                     sumSortedDoubles(bucket, values, sums, compensations);
                 }
             }
+
+            @Override
+            public void collect(DocIdStream stream, long bucket) throws IOException {
+                maybeGrow(bucket);
+                kahanSummation.reset(sums.get(bucket), compensations.get(bucket));
+                stream.forEach(doc -> {
+                    if (values.advanceExact(doc)) {
+                        for (int i = 0; i < values.docValueCount(); i++) {
+                            kahanSummation.add(values.nextValue());
+                        }
+                    }
+                });
+                sums.set(bucket, kahanSummation.value());
+                compensations.set(bucket, kahanSummation.delta());
+            }
         };
     }
 
@@ -92,6 +109,7 @@ public class SumAggregator extends NumericMetricsAggregator.SingleDoubleValue {
 
     @Override
     protected LeafBucketCollector getLeafCollector(NumericDoubleValues values, final LeafBucketCollector sub) {
+        final CompensatedSum kahanSummation = new CompensatedSum(0, 0);
         return new LeafBucketCollectorBase(sub, values) {
             @Override
             public void collect(int doc, long bucket) throws IOException {
@@ -100,6 +118,20 @@ public class SumAggregator extends NumericMetricsAggregator.SingleDoubleValue {
                     computeSum(bucket, values.doubleValue(), sums, compensations);
                 }
             }
+
+            @Override
+            public void collect(DocIdStream stream, long bucket) throws IOException {
+                // Sum the whole batch locally and only touch the big arrays once
+                maybeGrow(bucket);
+                kahanSummation.reset(sums.get(bucket), compensations.get(bucket));
+                stream.forEach(doc -> {
+                    if (values.advanceExact(doc)) {
+                        kahanSummation.add(values.doubleValue());
+                    }
+                });
+                sums.set(bucket, kahanSummation.value());
+                compensations.set(bucket, kahanSummation.delta());
+            }
         };
     }
 
@@ -10,6 +10,7 @@
 package org.elasticsearch.search.profile.aggregation;
 
 import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.DocIdStream;
 import org.apache.lucene.search.Scorable;
 import org.elasticsearch.search.aggregations.LeafBucketCollector;
 import org.elasticsearch.search.profile.Timer;
@@ -36,6 +37,16 @@ public class ProfilingLeafBucketCollector extends LeafBucketCollector {
         }
     }
 
+    @Override
+    public void collect(DocIdStream stream, long bucket) throws IOException {
+        collectTimer.start();
+        try {
+            delegate.collect(stream, bucket);
+        } finally {
+            collectTimer.stop();
+        }
+    }
+
     @Override
     public DocIdSetIterator competitiveIterator() throws IOException {
         return delegate.competitiveIterator();
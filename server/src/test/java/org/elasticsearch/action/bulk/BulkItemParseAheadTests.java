@@ -0,0 +1,139 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.action.bulk;
+
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.support.PlainActionFuture;
+import org.elasticsearch.action.support.WriteRequest;
+import org.elasticsearch.common.util.concurrent.AbstractRunnable;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.index.mapper.MapperService;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.plugins.internal.DocumentParsingProvider;
+import org.elasticsearch.test.ESTestCase;
+import org.junit.Before;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class BulkItemParseAheadTests extends ESTestCase {
+    private final List<Runnable> queued = new ArrayList<>();
+    private final AtomicInteger parsed = new AtomicInteger();
+    private final MapperService mapperService = mock(MapperService.class);
+
+    @Before
+    public void countParses() {
+        // without a mapping the parse tasks skip parsing the source
+        when(mapperService.documentMapper()).thenAnswer(invocation -> {
+            parsed.incrementAndGet();
+            return null;
+        });
+    }
+
+    public void testLimitsParseTasks() {
+        BulkItemParseAhead parseAhead = parseAhead(100, queued::add, 64);
+        parseAhead.parseAfter(0);
+        assertThat(queued.size(), equalTo(BulkItemParseAhead.MAX_PARSE_TASKS));
+
+        // every task parses one item and then starts the next one
+        while (queued.isEmpty() == false) {
+            queued.remove(0).run();
+            assertThat(queued.size(), lessThanOrEqualTo(BulkItemParseAhead.MAX_PARSE_TASKS));
+        }
+        assertThat(parsed.get(), equalTo(64));
+
+        parseAhead.parseAfter(10);
+        runQueued();
+        assertThat(parsed.get(), equalTo(74));
+
+        PlainActionFuture<Void> closed = new PlainActionFuture<>();
+        parseAhead.close(closed);
+        assertTrue(closed.isDone());
+    }
+
+    public void testCloseDoesNotWaitForQueuedParses() {
+        BulkItemParseAhead parseAhead = parseAhead(10, queued::add, 5);
+        parseAhead.parseAfter(0);
+        assertThat(queued.size(), equalTo(BulkItemParseAhead.MAX_PARSE_TASKS));
+
+        PlainActionFuture<Void> closed = new PlainActionFuture<>();
+        parseAhead.close(closed);
+        assertTrue(closed.isDone());
+
+        // the queued tasks don't read the request anymore and don't start new tasks
+        runQueued();
+        assertThat(parsed.get(), equalTo(0));
+    }
+
+    public void testCloseWaitsForRunningParse() {
+        PlainActionFuture<Void> closed = new PlainActionFuture<>();
+        BulkItemParseAhead[] parseAhead = new BulkItemParseAhead[1];
+        when(mapperService.documentMapper()).thenAnswer(invocation -> {
+            if (parsed.getAndIncrement() == 0) {
+                parseAhead[0].close(closed);
+                assertFalse("the parse is still reading the request", closed.isDone());
+            }
+            return null;
+        });
+        parseAhead[0] = parseAhead(10, queued::add, 5);
+        parseAhead[0].parseAfter(0);
+        queued.remove(0).run();
+        assertTrue(closed.isDone());
+
+        runQueued();
+        assertThat(parsed.get(), equalTo(1));
+    }
+
+    public void testRejectedParseTask() {
+        AtomicInteger rejected = new AtomicInteger();
+        Executor rejecting = r -> {
+            rejected.incrementAndGet();
+            AbstractRunnable task = (AbstractRunnable) r;
+            try {
+                task.onRejection(new EsRejectedExecutionException("rejected", false));
+            } finally {
+                task.onAfter();
+            }
+        };
+        BulkItemParseAhead parseAhead = parseAhead(10, rejecting, 5);
+        parseAhead.parseAfter(0);
+        assertThat(rejected.get(), equalTo(1));
+        parseAhead.parseAfter(1);
+        assertThat(rejected.get(), equalTo(2));
+        assertThat(parsed.get(), equalTo(0));
+
+        PlainActionFuture<Void> closed = new PlainActionFuture<>();
+        parseAhead.close(closed);
+        assertTrue(closed.isDone());
+    }
+
+    private void runQueued() {
+        while (queued.isEmpty() == false) {
+            queued.remove(0).run();
+        }
+    }
+
+    private BulkItemParseAhead parseAhead(int itemCount, Executor executor, int parseAhead) {
+        BulkItemRequest[] items = new BulkItemRequest[itemCount];
+        for (int i = 0; i < itemCount; i++) {
+            items[i] = new BulkItemRequest(i, new IndexRequest("index").id(Integer.toString(i)).source(Map.of("f", i)));
+        }
+        BulkShardRequest request = new BulkShardRequest(new ShardId("index", "_na_", 0), WriteRequest.RefreshPolicy.NONE, items);
+        return new BulkItemParseAhead(request, mapperService, DocumentParsingProvider.EMPTY_INSTANCE, executor, parseAhead);
+    }
+}
@@ -59,11 +59,14 @@ import org.mockito.Mockito;
 import org.mockito.stubbing.Stubbing;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.BrokenBarrierException;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.instanceOf;
@@ -1118,6 +1121,92 @@ public class TransportShardBulkActionTests extends IndexShardTestCase {
         latch.await();
     }
 
+    public void testPerformOnPrimaryParsingAhead() throws Exception {
+        IndexShard shard = newStartedShard(true);
+        BulkItemRequest[] items = new BulkItemRequest[between(1, 200)];
+        for (int i = 0; i < items.length; i++) {
+            final DocWriteRequest<?> writeRequest;
+            if (i > 0 && rarely()) {
+                writeRequest = new DeleteRequest("index").id("id_" + between(0, i - 1));
+            } else {
+                writeRequest = new IndexRequest("index").id("id_" + between(0, items.length / 2)).source(Requests.INDEX_CONTENT_TYPE);
+            }
+            items[i] = new BulkItemRequest(i, writeRequest);
+        }
+        BulkShardRequest bulkShardRequest = new BulkShardRequest(shardId, RefreshPolicy.NONE, items);
+
+        final CountDownLatch latch = new CountDownLatch(1);
+        TransportShardBulkAction.performOnPrimary(
+            bulkShardRequest,
+            shard,
+            null,
+            threadPool::absoluteTimeInMillis,
+            (update, shardId, listener) -> fail("no mapping update expected"),
+            (listener, mappingVersion) -> fail("no mapping update expected"),
+            new LatchedActionListener<>(ActionTestUtils.assertNoFailureListener(result -> {
+                try {
+                    long seqNo = -1;
+                    for (BulkItemRequest item : bulkShardRequest.items()) {
+                        BulkItemResponse response = item.getPrimaryResponse();
+                        assertThat(response.getFailureMessage(), response.isFailed(), equalTo(false));
+                        // items are still indexed in order
+                        assertThat(response.getResponse().getSeqNo(), equalTo(seqNo + 1));
+                        seqNo = response.getResponse().getSeqNo();
+                    }
+                } finally {
+                    closeShards(shard);
+                }
+            }), latch),
+            threadPool.executor(Names.WRITE),
+            null,
+            null,
+            DocumentParsingProvider.EMPTY_INSTANCE,
+            between(1, 16)
+        );
+
+        latch.await();
+    }
+
+    public void testPerformOnPrimaryParsingAheadFailure() throws Exception {
+        IndexShard shard = newStartedShard(true);
+        BulkItemRequest[] items = new BulkItemRequest[between(2, 20)];
+        for (int i = 0; i < items.length; i++) {
+            // the first item needs a mapping update and we fail to perform it
+            DocWriteRequest<IndexRequest> writeRequest = new IndexRequest("index").id("id_" + i)
+                .source(Requests.INDEX_CONTENT_TYPE, "foo", "bar");
+            items[i] = new BulkItemRequest(i, writeRequest);
+        }
+        BulkShardRequest bulkShardRequest = new BulkShardRequest(shardId, RefreshPolicy.NONE, items);
+
+        // hold on to the parses so the failure has to wait for them
+        List<Runnable> parses = new ArrayList<>();
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        TransportShardBulkAction.performOnPrimary(
+            bulkShardRequest,
+            shard,
+            null,
+            threadPool::absoluteTimeInMillis,
+            (update, shardId, listener) -> { throw new IllegalStateException("boom"); },
+            (listener, mappingVersion) -> fail("no mapping update expected"),
+            ActionListener.wrap(result -> fail("no result expected"), failure::set),
+            parses::add,
+            null,
+            null,
+            DocumentParsingProvider.EMPTY_INSTANCE,
+            between(1, 16)
+        );
+
+        try {
+            assertThat(parses.isEmpty(), equalTo(false));
+            assertThat(failure.get(), nullValue());
+            parses.forEach(Runnable::run);
+            assertThat(failure.get(), instanceOf(IllegalStateException.class));
+            assertThat(failure.get().getMessage(), equalTo("boom"));
+        } finally {
+            closeShards(shard);
+        }
+    }
+
     public void testNoopMappingUpdateInfiniteLoopPrevention() throws Exception {
         Engine.IndexResult mappingUpdate = new Engine.IndexResult(
             new Mapping(mock(RootObjectMapper.class), new MetadataFieldMapper[0], Collections.emptyMap()),
@@ -377,6 +377,48 @@ public class CacheTests extends ESTestCase {
         }
     }
 
+    // read some entries while another thread holds the LRU lock, then check that those reads didn't block and still
+    // promoted the entries once the lock was free
+    public void testPromotionWhileLruLockIsBusy() throws InterruptedException {
+        AtomicBoolean blockEvictions = new AtomicBoolean();
+        AtomicBoolean readsDidNotBlock = new AtomicBoolean();
+        CountDownLatch evicting = new CountDownLatch(1);
+        CountDownLatch readsDone = new CountDownLatch(1);
+        Cache<Integer, String> cache = CacheBuilder.<Integer, String>builder().setMaximumWeight(10).removalListener(notification -> {
+            // the removal listener runs under the LRU lock
+            if (blockEvictions.getAndSet(false)) {
+                evicting.countDown();
+                try {
+                    readsDidNotBlock.set(readsDone.await(10, TimeUnit.SECONDS));
+                } catch (InterruptedException e) {
+                    throw new AssertionError(e);
+                }
+            }
+        }).build();
+        for (int i = 0; i < 10; i++) {
+            cache.put(i, Integer.toString(i));
+        }
+
+        blockEvictions.set(true);
+        Thread evictor = new Thread(() -> cache.put(10, "10"));
+        evictor.start();
+        safeAwait(evicting);
+        for (int i = 1; i <= 5; i++) {
+            assertEquals(Integer.toString(i), cache.get(i));
+        }
+        readsDone.countDown();
+        evictor.join();
+        assertTrue(readsDidNotBlock.get());
+
+        for (int i = 11; i <= 15; i++) {
+            cache.put(i, Integer.toString(i));
+        }
+        Set<Integer> expected = new HashSet<>(List.of(1, 2, 3, 4, 5, 11, 12, 13, 14, 15));
+        Set<Integer> keys = new HashSet<>();
+        cache.keys().forEach(keys::add);
+        assertEquals(expected, keys);
+    }
+
     // randomly invalidate some cached entries, then check that a lookup for each of those and only those keys is null
     public void testInvalidate() {
         Cache<Integer, String> cache = CacheBuilder.<Integer, String>builder().build();
@@ -27,6 +27,8 @@ import org.elasticsearch.test.ESTestCase;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -36,6 +38,7 @@ import java.util.function.Function;
 import static org.elasticsearch.indices.breaker.HierarchyCircuitBreakerService.REQUEST_CIRCUIT_BREAKER_LIMIT_SETTING;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.lessThan;
 import static org.hamcrest.Matchers.lessThanOrEqualTo;
 
@@ -511,6 +514,142 @@ public class BigArraysTests extends ESTestCase {
         }
     }
 
+    public void testOffHeapIntArray() throws Exception {
+        BigArrays offHeap = new BigArrays(new MockPageCacheRecycler(Settings.EMPTY), null, CircuitBreaker.REQUEST).withOffHeap();
+        final int len = randomIntBetween(PageCacheRecycler.INT_PAGE_SIZE + 1, 100_000);
+        IntArray array = offHeap.newIntArray(randomIntBetween(PageCacheRecycler.INT_PAGE_SIZE + 1, len), randomBoolean());
+        assertThat(array, instanceOf(DirectBigIntArray.class));
+        final int[] ref = new int[len];
+        for (int i = 0; i < len; ++i) {
+            ref[i] = randomInt();
+            array = offHeap.grow(array, i + 1);
+            array.set(i, ref[i]);
+        }
+        final int fromIndex = randomIntBetween(0, len - 1);
+        final int toIndex = randomIntBetween(fromIndex, len);
+        final int rand = randomInt();
+        Arrays.fill(ref, fromIndex, toIndex, rand);
+        array.fill(fromIndex, toIndex, rand);
+        assertThat(array.increment(fromIndex, 1), equalTo(ref[fromIndex] + 1));
+        assertThat(array.getAndSet(fromIndex, ref[fromIndex]), equalTo(ref[fromIndex] + 1));
+        for (int i = 0; i < len; ++i) {
+            assertEquals(ref[i], array.get(i));
+        }
+
+        BytesStreamOutput out = new BytesStreamOutput();
+        array.writeTo(out);
+        final IntArray copy = offHeap.newIntArray(array.size(), randomBoolean());
+        copy.fillWith(out.bytes().streamInput());
+        final IntArray read = IntArray.readFrom(out.bytes().streamInput());
+        final IntArray bulk = offHeap.newIntArray(len, randomBoolean());
+        final ByteBuffer bytes = ByteBuffer.allocate(len * Integer.BYTES).order(ByteOrder.nativeOrder());
+        bytes.asIntBuffer().put(ref);
+        bulk.set(0, bytes.array(), 0, len);
+        for (int i = 0; i < len; ++i) {
+            assertEquals(ref[i], copy.get(i));
+            assertEquals(ref[i], read.get(i));
+            assertEquals(ref[i], bulk.get(i));
+        }
+        Releasables.close(array, copy, read, bulk);
+    }
+
+    public void testOffHeapLongArray() {
+        BigArrays offHeap = new BigArrays(new MockPageCacheRecycler(Settings.EMPTY), null, CircuitBreaker.REQUEST).withOffHeap();
+        final int len = randomIntBetween(PageCacheRecycler.LONG_PAGE_SIZE + 1, 100_000);
+        LongArray array = offHeap.newLongArray(randomIntBetween(PageCacheRecycler.LONG_PAGE_SIZE + 1, len), randomBoolean());
+        assertThat(array, instanceOf(DirectBigLongArray.class));
+        final long[] ref = new long[len];
+        for (int i = 0; i < len; ++i) {
+            ref[i] = randomLong();
+            array = offHeap.grow(array, i + 1);
+            array.set(i, ref[i]);
+        }
+        final int fromIndex = randomIntBetween(0, len - 1);
+        final int toIndex = randomIntBetween(fromIndex, len);
+        final long rand = randomLong();
+        Arrays.fill(ref, fromIndex, toIndex, rand);
+        array.fill(fromIndex, toIndex, rand);
+        assertThat(array.increment(fromIndex, 1), equalTo(ref[fromIndex] + 1));
+        assertThat(array.getAndSet(fromIndex, ref[fromIndex]), equalTo(ref[fromIndex] + 1));
+        for (int i = 0; i < len; ++i) {
+            assertEquals(ref[i], array.get(i));
+        }
+        array = offHeap.resize(array, len / 2);
+        for (int i = 0; i < len / 2; ++i) {
+            assertEquals(ref[i], array.get(i));
+        }
+        array.close();
+    }
+
+    public void testOffHeapDoubleArray() throws Exception {
+        BigArrays offHeap = new BigArrays(new MockPageCacheRecycler(Settings.EMPTY), null, CircuitBreaker.REQUEST).withOffHeap();
+        final int len = randomIntBetween(PageCacheRecycler.DOUBLE_PAGE_SIZE + 1, 100_000);
+        DoubleArray array = offHeap.newDoubleArray(len, randomBoolean());
+        assertThat(array, instanceOf(DirectBigDoubleArray.class));
+        final double[] ref = new double[len];
+        for (int i = 0; i < len; ++i) {
+            ref[i] = randomDouble();
+            array.set(i, ref[i]);
+        }
+        assertThat(array.increment(0, 1.0), equalTo(ref[0] + 1.0));
+        ref[0] += 1.0;
+        BytesStreamOutput out = new BytesStreamOutput();
+        array.writeTo(out);
+        final DoubleArray read = DoubleArray.readFrom(out.bytes().streamInput());
+        for (int i = 0; i < len; ++i) {
+            assertEquals(ref[i], array.get(i), 0.0);
+            assertEquals(ref[i], read.get(i), 0.0);
+        }
+        Releasables.close(array, read);
+    }
+
+    public void testOffHeapBreaker() {
+        final long size = randomIntBetween((1 << 14) + 1, 1 << 20);
+        BigArrays offHeap = newBigArraysInstance(1 << 30, false).withOffHeap();
+        CircuitBreaker breaker = offHeap.breakerService().getBreaker(CircuitBreaker.REQUEST);
+        try (LongArray array = offHeap.newLongArray(size)) {
+            assertThat(array, instanceOf(DirectBigLongArray.class));
+            assertEquals(BigLongArray.estimateRamBytes(size), array.ramBytesUsed());
+            assertEquals(array.ramBytesUsed(), breaker.getUsed());
+        }
+        assertEquals(0, breaker.getUsed());
+
+        BigArrays limited = newBigArraysInstance(size - 1, true).withOffHeap();
+        expectThrows(CircuitBreakingException.class, () -> limited.newIntArray(size));
+        assertEquals(0, limited.breakerService().getBreaker(CircuitBreaker.REQUEST).getUsed());
+    }
+
+    public void testOffHeapEmptyFill() {
+        BigArrays offHeap = new BigArrays(new MockPageCacheRecycler(Settings.EMPTY), null, CircuitBreaker.REQUEST).withOffHeap();
+        try (IntArray array = offHeap.newIntArray(2 * PageCacheRecycler.INT_PAGE_SIZE)) {
+            assertThat(array, instanceOf(DirectBigIntArray.class));
+            array.fill(0, array.size(), 1);
+            array.fill(0, 0, 2);
+            array.fill(PageCacheRecycler.INT_PAGE_SIZE, PageCacheRecycler.INT_PAGE_SIZE, 2);
+            for (long i = 0; i < array.size(); i++) {
+                assertEquals(1, array.get(i));
+            }
+        }
+        try (LongArray array = offHeap.newLongArray(2 * PageCacheRecycler.LONG_PAGE_SIZE)) {
+            assertThat(array, instanceOf(DirectBigLongArray.class));
+            array.fill(0, array.size(), 1);
+            array.fill(0, 0, 2);
+            array.fill(PageCacheRecycler.LONG_PAGE_SIZE, PageCacheRecycler.LONG_PAGE_SIZE, 2);
+            for (long i = 0; i < array.size(); i++) {
+                assertEquals(1, array.get(i));
+            }
+        }
+        try (DoubleArray array = offHeap.newDoubleArray(2 * PageCacheRecycler.DOUBLE_PAGE_SIZE)) {
+            assertThat(array, instanceOf(DirectBigDoubleArray.class));
+            array.fill(0, array.size(), 1);
+            array.fill(0, 0, 2);
+            array.fill(PageCacheRecycler.DOUBLE_PAGE_SIZE, PageCacheRecycler.DOUBLE_PAGE_SIZE, 2);
+            for (long i = 0; i < array.size(); i++) {
+                assertEquals(1, array.get(i), 0);
+            }
+        }
+    }
+
     public void testOverSizeUsesMinPageCount() {
         final int pageSize = 1 << (randomIntBetween(2, 16));
         final int minSize = randomIntBetween(1, pageSize) * randomIntBetween(1, 100);
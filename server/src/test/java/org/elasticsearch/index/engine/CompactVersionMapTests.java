@@ -0,0 +1,171 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.index.engine;
+
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.test.ESTestCase;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.elasticsearch.index.engine.LiveVersionMapTestUtils.randomIndexVersionValue;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.nullValue;
+
+public class CompactVersionMapTests extends ESTestCase {
+
+    public void testRandomOperations() {
+        CompactVersionMap map = new CompactVersionMap();
+        Map<BytesRef, VersionValue> expected = new HashMap<>();
+        // few keys so we replace and remove a lot
+        List<BytesRef> keys = new ArrayList<>();
+        int numKeys = randomIntBetween(10, 2000);
+        for (int i = 0; i < numKeys; i++) {
+            keys.add(new BytesRef(randomAlphaOfLengthBetween(1, 30)));
+        }
+        int iterations = scaledRandomIntBetween(1000, 100000);
+        for (int i = 0; i < iterations; i++) {
+            BytesRef key = BytesRef.deepCopyOf(randomFrom(keys));
+            switch (between(0, 3)) {
+                case 0 -> {
+                    VersionValue value = randomVersionValue();
+                    assertThat(map.put(key, value), equalTo(expected.put(key, value)));
+                }
+                case 1 -> assertThat(map.remove(key), equalTo(expected.remove(key)));
+                case 2 -> assertThat(map.get(key), equalTo(expected.get(key)));
+                case 3 -> assertThat(map.containsKey(key), equalTo(expected.containsKey(key)));
+            }
+            assertThat(map.size(), equalTo(expected.size()));
+        }
+        assertThat(map.isEmpty(), equalTo(expected.isEmpty()));
+        assertThat(map, equalTo(expected));
+        assertThat(new HashMap<>(map), equalTo(expected));
+
+        map.clear();
+        assertThat(map.size(), equalTo(0));
+        assertTrue(map.isEmpty());
+        for (BytesRef key : keys) {
+            assertThat(map.get(key), nullValue());
+        }
+    }
+
+    public void testKeysWithOffset() {
+        CompactVersionMap map = new CompactVersionMap();
+        byte[] bytes = "xxidyy".getBytes(StandardCharsets.UTF_8);
+        VersionValue value = randomVersionValue();
+        map.put(new BytesRef(bytes, 2, 2), value);
+        assertThat(map.get(new BytesRef("id")), equalTo(value));
+        // the map keeps its own copy of the key
+        bytes[2] = 'x';
+        assertThat(map.get(new BytesRef("id")), equalTo(value));
+        assertThat(map.keySet().iterator().next(), equalTo(new BytesRef("id")));
+    }
+
+    public void testRamBytesUsed() {
+        CompactVersionMap map = new CompactVersionMap();
+        long empty = map.ramBytesUsed();
+        List<BytesRef> keys = new ArrayList<>();
+        long keyBytes = 0;
+        long chmEstimate = 0;
+        for (int i = 0; i < 50000; i++) {
+            BytesRef key = new BytesRef(randomAlphaOfLength(20) + i);
+            VersionValue value = randomVersionValue();
+            keys.add(key);
+            keyBytes += key.length;
+            chmEstimate += LiveVersionMap.VersionLookup.mapEntryBytesUsed(key, value);
+            map.put(key, value);
+        }
+        long full = map.ramBytesUsed();
+        // at the very least we store the key and the version, seq_no and term of every entry
+        assertThat(full, greaterThan(empty + keyBytes + keys.size() * 3L * Long.BYTES));
+        assertThat(full, lessThan(chmEstimate));
+
+        // removing keys doesn't shrink the arrays but we reuse the space for new keys
+        for (BytesRef key : keys) {
+            map.remove(key);
+        }
+        assertThat(map.ramBytesUsed(), equalTo(full));
+        for (int i = 0; i < 50000; i++) {
+            map.put(new BytesRef(randomAlphaOfLength(20) + i), randomVersionValue());
+        }
+        assertThat(map.ramBytesUsed(), lessThan(full * 3 / 2));
+
+        map.clear();
+        assertThat(map.ramBytesUsed(), equalTo(empty));
+    }
+
+    public void testConcurrentReadsAndWrites() throws Exception {
+        CompactVersionMap map = new CompactVersionMap();
+        int writers = randomIntBetween(1, 4);
+        int readers = randomIntBetween(1, 4);
+        int keysPerWriter = scaledRandomIntBetween(100, 10000);
+        CyclicBarrier barrier = new CyclicBarrier(writers + readers);
+        AtomicBoolean done = new AtomicBoolean();
+        List<Thread> threads = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            String prefix = "w" + w + "_";
+            threads.add(new Thread(() -> {
+                safeAwait(barrier);
+                for (int i = 0; i < keysPerWriter; i++) {
+                    BytesRef key = new BytesRef(prefix + i);
+                    // the version of each key tells readers which values are legal
+                    map.put(key, new IndexVersionValue(null, i, i, 1));
+                    if (i % 3 == 0) {
+                        assertThat(map.remove(key), equalTo(new IndexVersionValue(null, i, i, 1)));
+                    }
+                }
+            }));
+        }
+        for (int r = 0; r < readers; r++) {
+            Random random = new Random(randomLong());
+            threads.add(new Thread(() -> {
+                safeAwait(barrier);
+                while (done.get() == false) {
+                    int i = random.nextInt(keysPerWriter);
+                    VersionValue value = map.get(new BytesRef("w" + random.nextInt(writers) + "_" + i));
+                    if (value != null) {
+                        assertThat(value, equalTo(new IndexVersionValue(null, i, i, 1)));
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads.subList(0, writers)) {
+            thread.join();
+        }
+        done.set(true);
+        for (Thread thread : threads.subList(writers, threads.size())) {
+            thread.join();
+        }
+        for (int w = 0; w < writers; w++) {
+            for (int i = 0; i < keysPerWriter; i++) {
+                VersionValue value = map.get(new BytesRef("w" + w + "_" + i));
+                assertThat(value, i % 3 == 0 ? nullValue() : equalTo(new IndexVersionValue(null, i, i, 1)));
+            }
+        }
+    }
+
+    private static VersionValue randomVersionValue() {
+        if (randomBoolean()) {
+            return new DeleteVersionValue(randomNonNegativeLong(), randomNonNegativeLong(), randomNonNegativeLong(), randomLong());
+        }
+        return randomIndexVersionValue();
+    }
+}
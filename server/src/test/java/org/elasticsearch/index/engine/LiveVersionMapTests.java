@@ -40,6 +40,7 @@ import static org.elasticsearch.index.engine.LiveVersionMapTestUtils.randomTrans
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
 import static org.hamcrest.Matchers.nullValue;
 
 public class LiveVersionMapTests extends ESTestCase {
@@ -83,6 +84,31 @@ public class LiveVersionMapTests extends ESTestCase {
         assertEquals(actualRamBytesUsed, estimatedRamBytesUsed, tolerance);
     }
 
+    public void testCompactRamBytesUsed() throws Exception {
+        LiveVersionMap map = new LiveVersionMap(LiveVersionMapArchive.NOOP_ARCHIVE, false);
+        LiveVersionMap compactMap = new LiveVersionMap(LiveVersionMapArchive.NOOP_ARCHIVE, true);
+        for (int i = 0; i < 100000; ++i) {
+            BytesRef uid = uid(TestUtil.randomSimpleString(random(), 10, 20));
+            IndexVersionValue version = randomIndexVersionValue();
+            try (Releasable r = map.acquireLock(uid)) {
+                map.putIndexUnderLock(uid, version);
+            }
+            try (Releasable r = compactMap.acquireLock(uid)) {
+                compactMap.putIndexUnderLock(uid, version);
+            }
+        }
+        long ramBytesUsed = compactMap.ramBytesUsed();
+        assertThat(map.ramBytesUsed(), greaterThan(ramBytesUsed * 2));
+        assertThat(compactMap.reclaimableRefreshRamBytes(), equalTo(ramBytesUsed));
+
+        compactMap.beforeRefresh();
+        assertThat(compactMap.getRefreshingBytes(), lessThan(ramBytesUsed));
+        assertThat(compactMap.getRefreshingBytes(), greaterThan(ramBytesUsed * 9 / 10));
+        compactMap.afterRefresh(true);
+        assertThat(compactMap.getRefreshingBytes(), equalTo(0L));
+        assertThat(compactMap.ramBytesUsed(), lessThan(ramBytesUsed / 10));
+    }
+
     public void testRefreshingBytes() throws IOException {
         LiveVersionMap map = new LiveVersionMap();
         BytesRefBuilder uid = new BytesRefBuilder();
@@ -490,6 +516,28 @@ public class LiveVersionMapTests extends ESTestCase {
         assertEquals(actualRamBytesUsed, vl.ramBytesUsed());
     }
 
+    public void testVersionLookupMergeCompact() {
+        var vl = new LiveVersionMap.VersionLookup(newConcurrentMapWithAggressiveConcurrency());
+        var compact = new LiveVersionMap.VersionLookup(new CompactVersionMap());
+        List<BytesRef> keys = new ArrayList<>();
+        IntStream.range(0, randomIntBetween(10, 100)).forEach(i -> {
+            BytesRef key = uid(randomIdentifier());
+            keys.add(key);
+            vl.put(key, randomIndexVersionValue());
+        });
+        IntStream.range(0, randomIntBetween(10, 100)).forEach(i -> {
+            BytesRef key = randomBoolean() ? randomFrom(keys) : uid(randomIdentifier());
+            compact.put(key, randomIndexVersionValue());
+        });
+        vl.merge(compact);
+        long actualRamBytesUsed = vl.getMap()
+            .entrySet()
+            .stream()
+            .mapToLong(entry -> LiveVersionMap.VersionLookup.mapEntryBytesUsed(entry.getKey(), entry.getValue()))
+            .sum();
+        assertEquals(actualRamBytesUsed, vl.ramBytesUsed());
+    }
+
     public void testVersionMapReclaimableRamBytes() throws IOException {
         LiveVersionMap map = new LiveVersionMap();
         assertEquals(map.ramBytesUsedForRefresh(), 0L);
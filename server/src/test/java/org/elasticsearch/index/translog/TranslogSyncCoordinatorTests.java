@@ -0,0 +1,158 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.index.translog;
+
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.DeterministicTaskQueue;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.threadpool.Scheduler;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+public class TranslogSyncCoordinatorTests extends ESTestCase {
+    private final DeterministicTaskQueue taskQueue = new DeterministicTaskQueue();
+    private final ThreadPool threadPool = taskQueue.getThreadPool();
+    private final TranslogSyncCoordinator coordinator = new TranslogSyncCoordinator(
+        TimeValue.timeValueMillis(5),
+        threadPool,
+        threadPool.generic(),
+        threadPool.getThreadContext()
+    );
+
+    public void testDisabledByDefault() {
+        assertThat(TranslogSyncCoordinator.maybeCreate(Settings.EMPTY, threadPool), nullValue());
+    }
+
+    public void testOneSyncPerShardPerWindow() {
+        ShardId first = new ShardId("test", "_na_", 0);
+        ShardId second = new ShardId("test", "_na_", 1);
+        Map<ShardId, List<Translog.Location>> synced = new HashMap<>();
+        AtomicInteger completed = new AtomicInteger();
+        Consumer<Exception> listener = e -> {
+            assertThat(e, nullValue());
+            completed.incrementAndGet();
+        };
+
+        coordinator.sync(first, new Translog.Location(1, 10, 1), listener, syncer(first, synced));
+        coordinator.sync(first, new Translog.Location(1, 30, 1), listener, syncer(first, synced));
+        coordinator.sync(second, new Translog.Location(1, 5, 1), listener, syncer(second, synced));
+        coordinator.sync(first, new Translog.Location(1, 20, 1), listener, syncer(first, synced));
+        taskQueue.runAllRunnableTasks();
+        assertThat("syncs wait for the window to close", completed.get(), equalTo(0));
+
+        taskQueue.runAllTasksInTimeOrder();
+        assertThat(completed.get(), equalTo(4));
+        assertThat(synced.get(first), equalTo(List.of(new Translog.Location(1, 30, 1))));
+        assertThat(synced.get(second), equalTo(List.of(new Translog.Location(1, 5, 1))));
+
+        // the next write opens a new window
+        coordinator.sync(first, new Translog.Location(1, 40, 1), listener, syncer(first, synced));
+        taskQueue.runAllTasksInTimeOrder();
+        assertThat(completed.get(), equalTo(5));
+        assertThat(synced.get(first), equalTo(List.of(new Translog.Location(1, 30, 1), new Translog.Location(1, 40, 1))));
+    }
+
+    public void testFailuresGoToAllListeners() {
+        ShardId shardId = new ShardId("test", "_na_", 0);
+        IOException failure = new IOException("test");
+        List<Exception> failures = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            coordinator.sync(shardId, new Translog.Location(1, i, 1), failures::add, (location, listener) -> listener.accept(failure));
+        }
+        taskQueue.runAllTasksInTimeOrder();
+        assertThat(failures, equalTo(List.of(failure, failure, failure)));
+
+        failures.clear();
+        IllegalStateException closed = new IllegalStateException("closed");
+        coordinator.sync(shardId, new Translog.Location(1, 3, 1), failures::add, (location, listener) -> { throw closed; });
+        taskQueue.runAllTasksInTimeOrder();
+        assertThat(failures, equalTo(List.of(closed)));
+    }
+
+    public void testPreservesContext() {
+        ShardId shardId = new ShardId("test", "_na_", 0);
+        ThreadContext threadContext = threadPool.getThreadContext();
+        List<String> headers = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            try (ThreadContext.StoredContext ignored = threadContext.stashContext()) {
+                threadContext.putHeader("writer", Integer.toString(i));
+                coordinator.sync(
+                    shardId,
+                    new Translog.Location(1, i, 1),
+                    e -> headers.add(threadContext.getHeader("writer")),
+                    (location, listener) -> {
+                        assertThat(threadContext.getHeader("writer"), nullValue());
+                        listener.accept(null);
+                    }
+                );
+            }
+        }
+        taskQueue.runAllTasksInTimeOrder();
+        assertThat(headers, equalTo(List.of("0", "1", "2")));
+        assertThat(threadContext.getHeader("writer"), nullValue());
+    }
+
+    public void testSyncsNowIfSchedulingFails() {
+        AtomicInteger scheduled = new AtomicInteger();
+        Scheduler scheduler = (command, delay, executor) -> {
+            scheduled.incrementAndGet();
+            throw new EsRejectedExecutionException("shutting down", true);
+        };
+        TranslogSyncCoordinator rejecting = new TranslogSyncCoordinator(
+            TimeValue.timeValueMillis(5),
+            scheduler,
+            threadPool.generic(),
+            threadPool.getThreadContext()
+        );
+        ShardId shardId = new ShardId("test", "_na_", 0);
+        Map<ShardId, List<Translog.Location>> synced = new HashMap<>();
+        AtomicInteger completed = new AtomicInteger();
+        Consumer<Exception> listener = e -> {
+            assertThat(e, nullValue());
+            completed.incrementAndGet();
+        };
+
+        rejecting.sync(shardId, new Translog.Location(1, 10, 1), listener, syncer(shardId, synced));
+        taskQueue.runAllRunnableTasks();
+        assertThat(completed.get(), equalTo(1));
+
+        // the failed window doesn't leave later syncs waiting on it
+        rejecting.sync(shardId, new Translog.Location(1, 20, 1), listener, syncer(shardId, synced));
+        taskQueue.runAllRunnableTasks();
+        assertThat(completed.get(), equalTo(2));
+        assertThat(scheduled.get(), equalTo(2));
+        assertThat(synced.get(shardId), equalTo(List.of(new Translog.Location(1, 10, 1), new Translog.Location(1, 20, 1))));
+    }
+
+    private static BiConsumer<Translog.Location, Consumer<Exception>> syncer(
+        ShardId shardId,
+        Map<ShardId, List<Translog.Location>> synced
+    ) {
+        return (location, listener) -> {
+            synced.computeIfAbsent(shardId, k -> new ArrayList<>()).add(location);
+            listener.accept(null);
+        };
+    }
+}
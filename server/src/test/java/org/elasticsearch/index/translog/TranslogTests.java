@@ -3714,6 +3714,36 @@ public class TranslogTests extends ESTestCase {
         }
     }
 
+    public void testSnapshotReadsAheadAcrossOperations() throws Exception {
+        final List<Translog.Operation> ops = new ArrayList<>();
+        final int generations = randomIntBetween(1, 3);
+        long seqNo = 0;
+        for (int gen = 0; gen < generations; gen++) {
+            final List<Translog.Operation> generationOps = new ArrayList<>();
+            final int operations = randomIntBetween(1, 200);
+            for (int i = 0; i < operations; i++) {
+                // mostly small operations that share a read ahead buffer but some that straddle or exceed it
+                final int sourceLength = rarely()
+                    ? randomIntBetween(TranslogSnapshot.READ_AHEAD_SIZE / 2, TranslogSnapshot.READ_AHEAD_SIZE * 2)
+                    : randomIntBetween(0, 2048);
+                Translog.Index op = TranslogOperationsUtils.indexOp(
+                    Long.toString(seqNo),
+                    seqNo++,
+                    primaryTerm.get(),
+                    randomAlphaOfLength(sourceLength)
+                );
+                translog.add(op);
+                generationOps.add(op);
+            }
+            // snapshots read the newest generation first
+            ops.addAll(0, generationOps);
+            translog.rollGeneration();
+        }
+        try (Translog.Snapshot snapshot = translog.newSnapshot()) {
+            assertThat(snapshot, SnapshotMatchers.equalsTo(ops));
+        }
+    }
+
     public void testSnapshotDedupOperations() throws Exception {
         final Map<Long, Translog.Operation> latestOperations = new HashMap<>();
         final int generations = between(2, 20);
@@ -106,6 +106,70 @@ public class IndicesRequestCacheTests extends ESTestCase {
         assertEquals(0, cache.numRegisteredCloseListeners());
     }
 
+    public void testDoorkeeper() throws Exception {
+        ShardRequestCache requestCacheStats = new ShardRequestCache();
+        IndicesRequestCache cache = new IndicesRequestCache(
+            Settings.builder().put(IndicesRequestCache.INDICES_CACHE_QUERY_DOORKEEPER.getKey(), true).build()
+        );
+        Directory dir = newDirectory();
+        IndexWriter writer = new IndexWriter(dir, newIndexWriterConfig());
+
+        writer.addDocument(newDoc(0, "foo"));
+        DirectoryReader reader = ElasticsearchDirectoryReader.wrap(DirectoryReader.open(writer), new ShardId("foo", "bar", 1));
+        MappingLookup.CacheKey mappingKey = MappingLookup.EMPTY.cacheKey();
+        TermQueryBuilder termQuery = new TermQueryBuilder("id", "0");
+        BytesReference termBytes = XContentHelper.toXContent(termQuery, XContentType.JSON, false);
+        AtomicBoolean indexShard = new AtomicBoolean(true);
+
+        // first use isn't cached
+        TestEntity entity = new TestEntity(requestCacheStats, indexShard);
+        Loader loader = new Loader(reader, 0);
+        BytesReference value = cache.getOrCompute(entity, loader, mappingKey, reader, termBytes);
+        assertEquals("foo", value.streamInput().readString());
+        assertEquals(0, requestCacheStats.stats().getHitCount());
+        assertEquals(1, requestCacheStats.stats().getMissCount());
+        assertEquals(1, requestCacheStats.stats().getAdmissionRejectCount());
+        assertFalse(loader.loadedFromCache);
+        assertEquals(0, cache.count());
+        assertEquals(0, cache.numRegisteredCloseListeners());
+
+        // second use is cached
+        entity = new TestEntity(requestCacheStats, indexShard);
+        loader = new Loader(reader, 0);
+        value = cache.getOrCompute(entity, loader, mappingKey, reader, termBytes);
+        assertEquals("foo", value.streamInput().readString());
+        assertEquals(0, requestCacheStats.stats().getHitCount());
+        assertEquals(2, requestCacheStats.stats().getMissCount());
+        assertEquals(1, requestCacheStats.stats().getAdmissionRejectCount());
+        assertFalse(loader.loadedFromCache);
+        assertEquals(1, cache.count());
+
+        // third use is a hit
+        entity = new TestEntity(requestCacheStats, indexShard);
+        loader = new Loader(reader, 0);
+        value = cache.getOrCompute(entity, loader, mappingKey, reader, termBytes);
+        assertEquals("foo", value.streamInput().readString());
+        assertEquals(1, requestCacheStats.stats().getHitCount());
+        assertEquals(2, requestCacheStats.stats().getMissCount());
+        assertEquals(1, requestCacheStats.stats().getAdmissionRejectCount());
+        assertTrue(loader.loadedFromCache);
+        assertEquals(1, cache.count());
+
+        IOUtils.close(reader, writer, dir, cache);
+        assertEquals(0, cache.numRegisteredCloseListeners());
+    }
+
+    public void testDoorkeeperForgetsOldKeys() {
+        IndicesRequestCache.Doorkeeper doorkeeper = new IndicesRequestCache.Doorkeeper(16);
+        assertFalse(doorkeeper.seenBefore(0));
+        assertTrue(doorkeeper.seenBefore(0));
+        for (int i = 1; i < 100; i++) {
+            doorkeeper.seenBefore(i);
+        }
+        assertFalse(doorkeeper.seenBefore(0));
+        expectThrows(IllegalArgumentException.class, () -> new IndicesRequestCache.Doorkeeper(10));
+    }
+
     public void testCacheDifferentReaders() throws Exception {
         IndicesRequestCache cache = new IndicesRequestCache(Settings.EMPTY);
         MappingLookup.CacheKey mappingKey = MappingLookup.EMPTY.cacheKey();
@@ -282,6 +282,9 @@ public class IndicesServiceCloseTests extends ESTestCase {
             @Override
             public void onMiss() {}
 
+            @Override
+            public void onAdmissionRejected() {}
+
             @Override
             public void onRemoval(RemovalNotification<Key, BytesReference> notification) {}
         };
@@ -8,6 +8,16 @@
  */
 package org.elasticsearch.indices;
 
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.SortedNumericDocValuesField;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexOrDocValuesQuery;
+import org.apache.lucene.search.KnnFloatVectorQuery;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.similarities.BM25Similarity;
 import org.apache.lucene.search.similarities.Similarity;
 import org.apache.lucene.store.AlreadyClosedException;
@@ -881,6 +891,40 @@ public class IndicesServiceTests extends ESSingleNodeTestCase {
         });
     }
 
+    public void testIsSegmentLocal() {
+        Query term = new TermQuery(new Term("k", "v"));
+        Query range = LongPoint.newRangeQuery("n", 1, 10);
+        assertTrue(IndicesService.isSegmentLocal(new MatchAllDocsQuery(), null));
+        assertTrue(IndicesService.isSegmentLocal(term, null));
+        assertTrue(IndicesService.isSegmentLocal(range, null));
+        assertTrue(
+            IndicesService.isSegmentLocal(
+                new IndexOrDocValuesQuery(range, SortedNumericDocValuesField.newSlowRangeQuery("n", 1, 10)),
+                null
+            )
+        );
+        assertTrue(
+            IndicesService.isSegmentLocal(
+                new BooleanQuery.Builder().add(term, BooleanClause.Occur.MUST).add(range, BooleanClause.Occur.FILTER).build(),
+                null
+            )
+        );
+
+        // Scores depend on the statistics of the whole shard
+        assertFalse(IndicesService.isSegmentLocal(new MatchAllDocsQuery(), 1.0f));
+        assertFalse(IndicesService.isSegmentLocal(term, 0.0f));
+
+        // knn finds the nearest vectors of the whole shard
+        Query knn = new KnnFloatVectorQuery("v", new float[] { 1, 2 }, 10);
+        assertFalse(IndicesService.isSegmentLocal(knn, null));
+        assertFalse(
+            IndicesService.isSegmentLocal(
+                new BooleanQuery.Builder().add(term, BooleanClause.Occur.MUST).add(knn, BooleanClause.Occur.SHOULD).build(),
+                null
+            )
+        );
+    }
+
     private Set<ResolvedExpression> resolvedExpressions(String... expressions) {
         return Arrays.stream(expressions).map(ResolvedExpression::new).collect(Collectors.toSet());
     }
@@ -12,7 +12,9 @@ package org.elasticsearch.search.aggregations;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.CheckedIntConsumer;
 import org.apache.lucene.search.CollectionTerminatedException;
+import org.apache.lucene.search.DocIdStream;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.MatchAllDocsQuery;
 import org.apache.lucene.search.Scorable;
@@ -297,6 +299,89 @@ public class MultiBucketCollectorTests extends ESTestCase {
         assertEquals(1, scorable.numScoreCalls);
     }
 
+    public void testDocIdStream() throws IOException {
+        int maxDoc = between(1, 10_000);
+        List<Integer> expected = new ArrayList<>();
+        for (int doc = 0; doc < maxDoc; doc++) {
+            if (randomBoolean()) {
+                expected.add(doc);
+            }
+        }
+        List<RecordingBucketCollector> collectors = new ArrayList<>();
+        int numCollectors = between(2, 5);
+        for (int i = 0; i < numCollectors; i++) {
+            collectors.add(new RecordingBucketCollector(randomBoolean()));
+        }
+        LeafBucketCollector leafBucketCollector = MultiBucketCollector.wrap(randomBoolean(), collectors).getLeafCollector(null);
+        leafBucketCollector.collect(new DocIdStream() {
+            int i = 0;
+
+            @Override
+            public void forEach(int upTo, CheckedIntConsumer<IOException> consumer) throws IOException {
+                while (i < expected.size() && expected.get(i) < upTo) {
+                    consumer.accept(expected.get(i++));
+                }
+            }
+
+            @Override
+            public int count(int upTo) throws IOException {
+                int[] count = new int[1];
+                forEach(upTo, doc -> count[0]++);
+                return count[0];
+            }
+
+            @Override
+            public boolean mayHaveRemaining() {
+                return i < expected.size();
+            }
+        }, 1);
+        for (RecordingBucketCollector collector : collectors) {
+            // Every collector sees every doc, whether it collects the stream directly or one doc at a time
+            assertThat(collector.docs, equalTo(expected));
+        }
+    }
+
+    private static class RecordingBucketCollector extends BucketCollector {
+        private final boolean collectStream;
+        private final List<Integer> docs = new ArrayList<>();
+
+        RecordingBucketCollector(boolean collectStream) {
+            this.collectStream = collectStream;
+        }
+
+        @Override
+        public ScoreMode scoreMode() {
+            return ScoreMode.COMPLETE_NO_SCORES;
+        }
+
+        @Override
+        public LeafBucketCollector getLeafCollector(AggregationExecutionContext aggCtx) {
+            return new LeafBucketCollector() {
+                @Override
+                public void collect(int doc, long owningBucketOrd) {
+                    assertThat(owningBucketOrd, equalTo(1L));
+                    docs.add(doc);
+                }
+
+                @Override
+                public void collect(DocIdStream stream, long owningBucketOrd) throws IOException {
+                    if (collectStream) {
+                        assertThat(owningBucketOrd, equalTo(1L));
+                        stream.forEach(docs::add);
+                    } else {
+                        super.collect(stream, owningBucketOrd);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public void preCollection() {}
+
+        @Override
+        public void postCollection() {}
+    }
+
     private static class ScoringBucketCollector extends BucketCollector {
         @Override
         public ScoreMode scoreMode() {
@@ -0,0 +1,164 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.search.aggregations;
+
+import org.apache.lucene.document.SortedNumericDocValuesField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.search.CollectionTerminatedException;
+import org.apache.lucene.search.LeafCollector;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.store.Directory;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.index.mapper.MappedFieldType;
+import org.elasticsearch.index.mapper.NumberFieldMapper;
+import org.elasticsearch.search.aggregations.metrics.Sum;
+import org.elasticsearch.search.aggregations.metrics.SumAggregationBuilder;
+import org.elasticsearch.search.aggregations.support.AggregationContext;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.equalTo;
+
+public class SegmentCachingAggregatorCollectorTests extends AggregatorTestCase {
+    private final MappedFieldType ft = new NumberFieldMapper.NumberFieldType("n", NumberFieldMapper.NumberType.LONG);
+    private final SumAggregationBuilder builder = new SumAggregationBuilder("sum").field("n");
+    private final Map<Object, InternalAggregations> cached = new HashMap<>();
+    private final SegmentAggregationCache cache = new SegmentAggregationCache() {
+        @Override
+        public InternalAggregations get(LeafReaderContext ctx) {
+            return cached.get(ctx.reader().getReaderCacheHelper().getKey());
+        }
+
+        @Override
+        public void put(LeafReaderContext ctx, InternalAggregations aggregations) {
+            cached.put(ctx.reader().getReaderCacheHelper().getKey(), aggregations);
+        }
+    };
+
+    public void testOnlyCollectsNewSegments() throws IOException {
+        try (
+            Directory directory = newDirectory();
+            IndexWriter iw = new IndexWriter(directory, newIndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE))
+        ) {
+            iw.addDocument(List.of(new SortedNumericDocValuesField("n", 1)));
+            iw.commit();
+            iw.addDocument(List.of(new SortedNumericDocValuesField("n", 2)));
+            iw.commit();
+            try (DirectoryReader reader = DirectoryReader.open(iw)) {
+                assertSum(reader, 3, 2, false, false);
+                assertThat(cached.size(), equalTo(2));
+                assertSum(reader, 3, 0, false, false);
+            }
+
+            iw.addDocument(List.of(new SortedNumericDocValuesField("n", 4)));
+            iw.commit();
+            try (DirectoryReader reader = DirectoryReader.open(iw)) {
+                assertSum(reader, 7, 1, false, false);
+                assertThat(cached.size(), equalTo(3));
+            }
+        }
+    }
+
+    public void testDoesNotCacheAfterTimeout() throws IOException {
+        try (Directory directory = newDirectory(); IndexWriter iw = new IndexWriter(directory, newIndexWriterConfig())) {
+            iw.addDocument(List.of(new SortedNumericDocValuesField("n", 1)));
+            try (DirectoryReader reader = DirectoryReader.open(iw)) {
+                assertSum(reader, 1, 1, true, false);
+                assertThat(cached.size(), equalTo(0));
+            }
+        }
+    }
+
+    public void testDoesNotCacheWhenScoresAreNeeded() throws IOException {
+        try (
+            Directory directory = newDirectory();
+            IndexWriter iw = new IndexWriter(directory, newIndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE))
+        ) {
+            iw.addDocument(List.of(new SortedNumericDocValuesField("n", 1)));
+            iw.commit();
+            iw.addDocument(List.of(new SortedNumericDocValuesField("n", 2)));
+            iw.commit();
+            try (DirectoryReader reader = DirectoryReader.open(iw)) {
+                assertSum(reader, 3, 2, false, true);
+                assertThat(cached.size(), equalTo(0));
+
+                // Even segments that we have results for are collected again
+                assertSum(reader, 3, 2, false, false);
+                assertThat(cached.size(), equalTo(2));
+                assertSum(reader, 3, 2, false, true);
+            }
+        }
+    }
+
+    /**
+     * Sum all docs of the reader.
+     *
+     * @param needsScores pretend the aggregation needs scores, like a {@code top_hits} sorted by {@code _score} does
+     */
+    private void assertSum(DirectoryReader reader, double expected, int expectedCollectedSegments, boolean timedOut, boolean needsScores)
+        throws IOException {
+        AggregationContext context = createAggregationContext(reader, new MatchAllDocsQuery(), ft);
+        AtomicInteger collectedSegments = new AtomicInteger();
+        SegmentCachingAggregatorCollector collector = new SegmentCachingAggregatorCollector(() -> {
+            try {
+                Aggregator aggregator = createAggregator(builder, context);
+                BucketCollector bucketCollector = MultiBucketCollector.wrap(true, List.of(aggregator));
+                bucketCollector.preCollection();
+                return new AggregatorCollector(new Aggregator[] { aggregator }, bucketCollector) {
+                    @Override
+                    public ScoreMode scoreMode() {
+                        return needsScores ? ScoreMode.COMPLETE : super.scoreMode();
+                    }
+
+                    @Override
+                    public LeafCollector getLeafCollector(LeafReaderContext ctx) throws IOException {
+                        collectedSegments.incrementAndGet();
+                        return super.getLeafCollector(ctx);
+                    }
+                };
+            } catch (IOException e) {
+                throw new AggregationInitializationException("Could not initialize aggregators", e);
+            }
+        },
+            cache,
+            () -> new AggregationReduceContext.ForPartial(
+                BigArrays.NON_RECYCLING_INSTANCE,
+                getMockScriptService(),
+                () -> false,
+                new AggregatorFactories.Builder().addAggregator(builder),
+                b -> {}
+            ),
+            () -> timedOut
+        );
+        for (LeafReaderContext ctx : reader.leaves()) {
+            LeafCollector leafCollector;
+            try {
+                leafCollector = collector.getLeafCollector(ctx);
+            } catch (CollectionTerminatedException e) {
+                continue;
+            }
+            for (int doc = 0; doc < ctx.reader().maxDoc(); doc++) {
+                leafCollector.collect(doc);
+            }
+        }
+        collector.doPostCollection();
+        assertThat(collectedSegments.get(), equalTo(expectedCollectedSegments));
+        assertThat(collector.internalAggregations.size(), equalTo(1));
+        assertThat(((Sum) collector.internalAggregations.get(0)).value(), equalTo(expected));
+    }
+}
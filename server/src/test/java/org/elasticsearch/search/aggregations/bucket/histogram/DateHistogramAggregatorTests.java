@@ -15,6 +15,7 @@ import org.apache.lucene.document.NumericDocValuesField;
 import org.apache.lucene.document.SortedNumericDocValuesField;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexableField;
 import org.apache.lucene.search.BooleanClause;
 import org.apache.lucene.search.BooleanQuery;
 import org.apache.lucene.search.MatchAllDocsQuery;
@@ -50,6 +51,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.function.Consumer;
 import java.util.stream.IntStream;
 
@@ -1083,6 +1085,69 @@ public class DateHistogramAggregatorTests extends DateHistogramAggregatorTestCas
         }
     }
 
+    /**
+     * When the date has a doc values skipper we collect whole blocks of
+     * documents that round into the same bucket without reading their values.
+     * Make sure that counts the same documents as reading every value.
+     */
+    public void testDocValuesSkipper() throws IOException {
+        boolean multiValued = randomBoolean();
+        long hour = 60 * 60 * 1000;
+        long timestamp = DateFieldMapper.DEFAULT_DATE_TIME_FORMATTER.parseMillis("2020-01-01T00:00:00");
+        int docs = between(10_000, 50_000);
+        List<List<IndexableField>> documents = new ArrayList<>(docs);
+        Map<String, Long> expected = new TreeMap<>();
+        for (int i = 0; i < docs; i++) {
+            timestamp += between(0, 500);
+            if (i >= docs / 3 && i < docs / 2 && randomBoolean()) {
+                // Blocks with missing values have to be collected one document at a time
+                documents.add(List.of());
+                continue;
+            }
+            List<IndexableField> doc = new ArrayList<>();
+            doc.add(SortedNumericDocValuesField.indexedField("f", timestamp));
+            expected.merge(DateFieldMapper.DEFAULT_DATE_TIME_FORMATTER.formatMillis(timestamp / hour * hour), 1L, Long::sum);
+            if (multiValued) {
+                long other = timestamp + between(0, 1000);
+                doc.add(SortedNumericDocValuesField.indexedField("f", other));
+                if (other / hour != timestamp / hour) {
+                    expected.merge(DateFieldMapper.DEFAULT_DATE_TIME_FORMATTER.formatMillis(other / hour * hour), 1L, Long::sum);
+                }
+            }
+            documents.add(doc);
+        }
+        DateFieldMapper.DateFieldType ft = new DateFieldMapper.DateFieldType(
+            "f",
+            false,
+            false,
+            false,
+            true,
+            true,
+            false,
+            DateFieldMapper.DEFAULT_DATE_TIME_FORMATTER,
+            DateFieldMapper.Resolution.MILLISECONDS,
+            null,
+            null,
+            Map.of()
+        );
+        testCase(iw -> {
+            for (List<IndexableField> doc : documents) {
+                iw.addDocument(doc);
+            }
+        }, (InternalDateHistogram result) -> {
+            Map<String, Long> counts = new TreeMap<>();
+            for (InternalDateHistogram.Bucket bucket : result.getBuckets()) {
+                counts.put(bucket.getKeyAsString(), bucket.getDocCount());
+            }
+            assertMap(counts, matchesMap(expected));
+        },
+            new AggTestConfig(
+                new DateHistogramAggregationBuilder("d").field("f").fixedInterval(new DateHistogramInterval("1h")).minDocCount(1),
+                ft
+            )
+        );
+    }
+
     public void testIllegalInterval() throws IOException {
         IllegalArgumentException e = expectThrows(
             IllegalArgumentException.class,
@@ -1622,6 +1622,29 @@ public class TermsAggregatorTests extends AggregatorTestCase {
         );
     }
 
+    public void testNumericCollectModeFromLowCardinality() throws IOException {
+        numericCollectModeTestCase(5, "depth_first");
+    }
+
+    public void testNumericCollectModeFromHighCardinality() throws IOException {
+        numericCollectModeTestCase(1000, "breadth_first");
+    }
+
+    private void numericCollectModeTestCase(int cardinality, String expectedCollectMode) throws IOException {
+        NumberFieldType nFt = new NumberFieldType("n", NumberFieldMapper.NumberType.LONG);
+        AggregationBuilder builder = new TermsAggregationBuilder("n").field("n")
+            .subAggregation(new MaxAggregationBuilder("max").field("n"));
+        debugTestCase(builder, new MatchAllDocsQuery(), iw -> {
+            for (int i = 0; i < 2000; i++) {
+                long n = i % cardinality;
+                iw.addDocument(List.of(new SortedNumericDocValuesField("n", n), new LongPoint("n", n)));
+            }
+        }, (LongTerms result, Class<? extends Aggregator> impl, Map<String, Map<String, Object>> debug) -> {
+            assertThat(result.getBuckets(), hasSize(Math.min(cardinality, 10)));
+            assertThat(debug.get("n"), hasEntry("collect_mode", expectedCollectMode));
+        }, nFt);
+    }
+
     public void topLevelProfileTestCase(
         int count,
         int extra,
@@ -1653,6 +1676,7 @@ public class TermsAggregatorTests extends AggregatorTestCase {
                         "str",
                         extraMatcher.apply(
                             matchesMap().entry("result_strategy", "terms")
+                                .entry("collect_mode", "depth_first")
                                 .entry("total_buckets", (long) count)
                                 .entry("segments_with_single_valued_ords", greaterThan(0))
                                 .entry("segments_with_multi_valued_ords", 0)
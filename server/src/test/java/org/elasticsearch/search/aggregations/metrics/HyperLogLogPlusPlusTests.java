@@ -105,6 +105,43 @@ public class HyperLogLogPlusPlusTests extends ESTestCase {
         }
     }
 
+    public void testMergeHyperLogLogRegisters() {
+        final int p = randomIntBetween(MIN_PRECISION, MAX_PRECISION);
+        final long thisBucket = randomIntBetween(0, 10);
+        final long otherBucket = randomIntBetween(0, 10);
+        try (
+            HyperLogLogPlusPlus single = new HyperLogLogPlusPlus(p, BigArrays.NON_RECYCLING_INSTANCE, 0);
+            HyperLogLogPlusPlus merged = new HyperLogLogPlusPlus(p, BigArrays.NON_RECYCLING_INSTANCE, 1);
+            HyperLogLogPlusPlus other = new HyperLogLogPlusPlus(p, BigArrays.NON_RECYCLING_INSTANCE, 1)
+        ) {
+            // collect enough values that both are using HyperLogLog
+            final int numValues = (1 << p) + randomIntBetween(0, 1000);
+            for (int i = 0; i < numValues; ++i) {
+                final long hash = BitMixer.mix64(randomLong());
+                single.collect(0, hash);
+                if (randomBoolean()) {
+                    merged.collect(thisBucket, hash);
+                } else {
+                    other.collect(otherBucket, hash);
+                }
+            }
+            merged.collect(thisBucket, BitMixer.mix64(-1));
+            other.collect(otherBucket, BitMixer.mix64(-1));
+            single.collect(0, BitMixer.mix64(-1));
+            assertEquals(AbstractHyperLogLogPlusPlus.HYPERLOGLOG, single.getAlgorithm(0));
+
+            merged.merge(thisBucket, other, otherBucket);
+            assertEquals(single.cardinality(0), merged.cardinality(thisBucket));
+            AbstractHyperLogLog.RunLenIterator expected = single.getHyperLogLog(0);
+            AbstractHyperLogLog.RunLenIterator actual = merged.getHyperLogLog(thisBucket);
+            while (expected.next()) {
+                assertTrue(actual.next());
+                assertEquals(expected.value(), actual.value());
+            }
+            assertFalse(actual.next());
+        }
+    }
+
     public void testFakeHashes() {
         // hashes with lots of leading zeros trigger different paths in the code that we try to go through here
         final int p = randomIntBetween(MIN_PRECISION, MAX_PRECISION);
@@ -22,6 +22,7 @@ import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.IndexableField;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.NoMergePolicy;
 import org.apache.lucene.index.PointValues;
@@ -167,6 +168,33 @@ public class MaxAggregatorTests extends AggregatorTestCase {
         });
     }
 
+    /**
+     * Collect with {@link org.apache.lucene.search.DocIdStream}s so we cover batch collection.
+     */
+    public void testDocIdStream() throws IOException {
+        boolean multiValued = randomBoolean();
+        List<List<IndexableField>> documents = new ArrayList<>();
+        List<Long> values = new ArrayList<>();
+        int docs = between(1, 1000);
+        for (int i = 0; i < docs; i++) {
+            List<IndexableField> doc = new ArrayList<>();
+            int valueCount = multiValued ? between(0, 3) : between(0, 1);
+            for (int v = 0; v < valueCount; v++) {
+                long value = randomLongBetween(-1000, 1000);
+                doc.add(new SortedNumericDocValuesField("field", value));
+                values.add(value);
+            }
+            documents.add(doc);
+        }
+        MappedFieldType ft = new NumberFieldMapper.NumberFieldType("field", NumberFieldMapper.NumberType.LONG);
+        Max max = collectWithDocIdStreams(new MaxAggregationBuilder("_name").field("field"), iw -> {
+            for (List<IndexableField> doc : documents) {
+                iw.addDocument(doc);
+            }
+        }, ft);
+        assertEquals(values.stream().mapToDouble(Long::doubleValue).max().orElse(Double.NEGATIVE_INFINITY), max.value(), 0);
+    }
+
     public void testNoMatchingField() throws IOException {
         testAggregation(new MatchAllDocsQuery(), iw -> {
             iw.addDocument(singleton(new SortedNumericDocValuesField("wrong_number", 7)));
@@ -40,6 +40,7 @@ import org.elasticsearch.search.lookup.LeafDocLookup;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.LongSummaryStatistics;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.BiConsumer;
@@ -136,6 +137,39 @@ public class StatsAggregatorTests extends AggregatorTestCase {
         });
     }
 
+    /**
+     * Collect with {@link org.apache.lucene.search.DocIdStream}s so we cover batch collection.
+     */
+    public void testDocIdStream() throws IOException {
+        boolean multiValued = randomBoolean();
+        List<List<IndexableField>> documents = new ArrayList<>();
+        List<Long> values = new ArrayList<>();
+        int docs = between(1, 1000);
+        for (int i = 0; i < docs; i++) {
+            List<IndexableField> doc = new ArrayList<>();
+            int valueCount = multiValued ? between(0, 3) : between(0, 1);
+            for (int v = 0; v < valueCount; v++) {
+                long value = randomLongBetween(-1000, 1000);
+                doc.add(new SortedNumericDocValuesField("field", value));
+                values.add(value);
+            }
+            documents.add(doc);
+        }
+        MappedFieldType ft = new NumberFieldMapper.NumberFieldType("field", NumberType.LONG);
+        InternalStats stats = collectWithDocIdStreams(new StatsAggregationBuilder("_name").field("field"), iw -> {
+            for (List<IndexableField> doc : documents) {
+                iw.addDocument(doc);
+            }
+        }, ft);
+        LongSummaryStatistics expected = values.stream().mapToLong(Long::longValue).summaryStatistics();
+        assertEquals(expected.getCount(), stats.getCount());
+        if (expected.getCount() > 0) {
+            assertEquals(expected.getSum(), stats.getSum(), 0);
+            assertEquals(expected.getMin(), stats.getMin(), 0);
+            assertEquals(expected.getMax(), stats.getMax(), 0);
+        }
+    }
+
     public void testSummationAccuracy() throws IOException {
         // Summing up a normal array and expect an accurate value
         double[] values = new double[] { 0.1, 0.2, 0.3, 0.4, 0.5, 0.6, 0.7, 0.8, 0.9, 1.0, 1.1, 1.2, 1.3, 1.4, 1.5, 1.6, 1.7 };
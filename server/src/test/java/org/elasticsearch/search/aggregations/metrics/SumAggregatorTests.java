@@ -148,6 +148,33 @@ public class SumAggregatorTests extends AggregatorTestCase {
         );
     }
 
+    /**
+     * Collect with {@link org.apache.lucene.search.DocIdStream}s so we cover batch collection.
+     */
+    public void testDocIdStream() throws IOException {
+        boolean multiValued = randomBoolean();
+        List<List<IndexableField>> documents = new ArrayList<>();
+        List<Long> values = new ArrayList<>();
+        int docs = between(1, 1000);
+        for (int i = 0; i < docs; i++) {
+            List<IndexableField> doc = new ArrayList<>();
+            int valueCount = multiValued ? between(0, 3) : between(0, 1);
+            for (int v = 0; v < valueCount; v++) {
+                long value = randomLongBetween(-1000, 1000);
+                doc.add(new SortedNumericDocValuesField("field", value));
+                values.add(value);
+            }
+            documents.add(doc);
+        }
+        MappedFieldType ft = new NumberFieldMapper.NumberFieldType("field", NumberType.LONG);
+        Sum sum = collectWithDocIdStreams(new SumAggregationBuilder("_name").field("field"), iw -> {
+            for (List<IndexableField> doc : documents) {
+                iw.addDocument(doc);
+            }
+        }, ft);
+        assertEquals(values.stream().mapToLong(Long::longValue).sum(), sum.value(), 0);
+    }
+
     public void testSummationAccuracy() throws IOException {
         // Summing up a normal array and expect an accurate value
         double[] values = new double[] { 0.1, 0.2, 0.3, 0.4, 0.5, 0.6, 0.7, 0.8, 0.9, 1.0, 1.1, 1.2, 1.3, 1.4, 1.5, 1.6, 1.7 };
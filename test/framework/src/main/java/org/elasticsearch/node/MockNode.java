@@ -74,11 +74,12 @@ public class MockNode extends Node {
         @Override
         BigArrays newBigArrays(
             PluginsService pluginsService,
+            Settings settings,
             PageCacheRecycler pageCacheRecycler,
             CircuitBreakerService circuitBreakerService
         ) {
             if (pluginsService.filterPlugins(NodeMocksPlugin.class).findAny().isEmpty()) {
-                return super.newBigArrays(pluginsService, pageCacheRecycler, circuitBreakerService);
+                return super.newBigArrays(pluginsService, settings, pageCacheRecycler, circuitBreakerService);
             }
             return new MockBigArrays(pageCacheRecycler, circuitBreakerService);
         }
@@ -32,8 +32,10 @@ import org.apache.lucene.index.SortedDocValues;
 import org.apache.lucene.index.SortedSetDocValues;
 import org.apache.lucene.index.TermsEnum;
 import org.apache.lucene.sandbox.document.HalfFloatPoint;
+import org.apache.lucene.search.CheckedIntConsumer;
 import org.apache.lucene.search.Collector;
 import org.apache.lucene.search.CollectorManager;
+import org.apache.lucene.search.DocIdStream;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.MatchAllDocsQuery;
 import org.apache.lucene.search.Query;
@@ -1033,6 +1035,62 @@ public abstract class AggregatorTestCase extends ESTestCase {
         }
     }
 
+    /**
+     * Collect every document in the index with {@link LeafBucketCollector#collect(DocIdStream, long)}
+     * and build the result. Lucene only hands collectors a {@link DocIdStream} for some queries on
+     * some indices so this lets tests cover the batch collection path directly.
+     */
+    @SuppressWarnings("unchecked")
+    protected <T extends InternalAggregation> T collectWithDocIdStreams(
+        AggregationBuilder aggregationBuilder,
+        CheckedConsumer<RandomIndexWriter, IOException> buildIndex,
+        MappedFieldType... fieldTypes
+    ) throws IOException {
+        InternalAggregation[] result = new InternalAggregation[1];
+        withAggregator(aggregationBuilder, new MatchAllDocsQuery(), buildIndex, (reader, aggregator) -> {
+            aggregator.preCollection();
+            for (LeafReaderContext ctx : reader.leaves()) {
+                LeafBucketCollector leafCollector = aggregator.getLeafCollector(new AggregationExecutionContext(ctx, null, null, null));
+                leafCollector.collect(new AllDocsStream(ctx.reader().maxDoc()), 0);
+            }
+            aggregator.postCollection();
+            result[0] = aggregator.buildTopLevel();
+        }, fieldTypes);
+        return (T) result[0];
+    }
+
+    /**
+     * A {@link DocIdStream} over all documents in a segment.
+     */
+    private static class AllDocsStream extends DocIdStream {
+        private final int maxDoc;
+        private int doc;
+
+        AllDocsStream(int maxDoc) {
+            this.maxDoc = maxDoc;
+        }
+
+        @Override
+        public void forEach(int upTo, CheckedIntConsumer<IOException> consumer) throws IOException {
+            int end = Math.min(upTo, maxDoc);
+            while (doc < end) {
+                consumer.accept(doc++);
+            }
+        }
+
+        @Override
+        public int count(int upTo) {
+            int start = doc;
+            doc = Math.max(doc, Math.min(upTo, maxDoc));
+            return doc - start;
+        }
+
+        @Override
+        public boolean mayHaveRemaining() {
+            return doc < maxDoc;
+        }
+    }
+
     private static void verifyMetricNames(
         ValuesSourceAggregationBuilder.MetricsAggregationBuilder<?> aggregationBuilder,
         InternalAggregation agg
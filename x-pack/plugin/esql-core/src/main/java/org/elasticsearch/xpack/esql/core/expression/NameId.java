@@ -10,6 +10,7 @@ import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
 import org.elasticsearch.xpack.esql.core.util.PlanStreamInput;
+import org.elasticsearch.xpack.esql.core.util.PlanStreamOutput;
 
 import java.io.IOException;
 import java.util.concurrent.atomic.AtomicLong;
@@ -65,6 +66,6 @@ public class NameId implements Writeable {
 
     @Override
     public void writeTo(StreamOutput out) throws IOException {
-        out.writeLong(id);
+        out.writeLong(out instanceof PlanStreamOutput planStreamOutput ? planStreamOutput.mapNameId(id) : id);
     }
 }
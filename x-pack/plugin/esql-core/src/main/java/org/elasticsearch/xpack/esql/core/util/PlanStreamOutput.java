@@ -10,6 +10,7 @@ package org.elasticsearch.xpack.esql.core.util;
 import org.elasticsearch.TransportVersions;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.xpack.esql.core.expression.Attribute;
+import org.elasticsearch.xpack.esql.core.expression.NameId;
 import org.elasticsearch.xpack.esql.core.type.EsField;
 
 import java.io.IOException;
@@ -45,4 +46,11 @@ public interface PlanStreamOutput {
     }
 
     void writeOptionalCachedString(String str) throws IOException;
+
+    /**
+     * Translate the {@code long} behind a {@link NameId} into the {@code long} written to the stream.
+     * Usually that's the same {@code long}, but streams that normalize the plan replace each id with
+     * the order in which it first appeared so the same query always serializes to the same bytes.
+     */
+    long mapNameId(long id);
 }
@@ -116,6 +116,9 @@ public class EvaluatorImplementer {
                 builder.addMethod(realEval(true));
             }
             builder.addMethod(realEval(false));
+            if (vectorizeOptimistically()) {
+                builder.addMethod(realEval(false, "evalWithWarnings", false));
+            }
         }
         builder.addMethod(processFunction.toStringMethod(implementation));
         builder.addMethod(processFunction.close());
@@ -149,7 +152,11 @@ public class EvaluatorImplementer {
     }
 
     private String invokeRealEval(boolean blockStyle) {
-        StringBuilder builder = new StringBuilder("return eval(page.getPositionCount()");
+        return invokeRealEval(blockStyle, "eval", "page.getPositionCount()");
+    }
+
+    private String invokeRealEval(boolean blockStyle, String name, String positionCount) {
+        StringBuilder builder = new StringBuilder("return " + name + "(" + positionCount);
 
         String params = processFunction.args.stream()
             .map(a -> a.paramName(blockStyle))
@@ -166,13 +173,42 @@ public class EvaluatorImplementer {
         return builder.toString();
     }
 
+    /**
+     * Should the vector flavored {@code eval} of a function that declares
+     * {@code warnExceptions} write into a fixed size vector builder and only
+     * fall back to the slower, null-tracking {@code evalWithWarnings} when the
+     * function actually throws? Those exceptions are very rare in practice and
+     * the fixed builder has neither null tracking nor bounds growth, so the
+     * hot loop over dense, null-free vectors is much easier for the JIT to
+     * unroll and vectorize. {@code evalWithWarnings} copies the values we
+     * already computed and resumes at the position that threw, so a page that
+     * throws doesn't compute any position twice.
+     */
+    private boolean vectorizeOptimistically() {
+        return processFunction.warnExceptions.isEmpty() == false
+            && processOutputsMultivalued == false
+            && processFunction.builderArg == null
+            && processFunction.resultDataType(false).simpleName().startsWith("BytesRef") == false;
+    }
+
     private MethodSpec realEval(boolean blockStyle) {
+        return realEval(blockStyle, "eval", blockStyle == false && vectorizeOptimistically());
+    }
+
+    private MethodSpec realEval(boolean blockStyle, String name, boolean optimistic) {
         ClassName resultDataType = processFunction.resultDataType(blockStyle);
-        MethodSpec.Builder builder = MethodSpec.methodBuilder("eval");
-        builder.addModifiers(Modifier.PUBLIC).returns(resultDataType);
+        MethodSpec.Builder builder = MethodSpec.methodBuilder(name);
+        builder.addModifiers(name.equals("eval") ? Modifier.PUBLIC : Modifier.PRIVATE).returns(resultDataType);
         builder.addParameter(TypeName.INT, "positionCount");
+        boolean resume = name.equals("evalWithWarnings");
+        ClassName computedType = resume || optimistic ? vectorType(processFunction.returnType()) : null;
+        if (resume) {
+            builder.addParameter(TypeName.INT, "failedPosition");
+            builder.addParameter(Exception.class, "failure");
+            builder.addParameter(computedType, "computed");
+        }
 
-        boolean vectorize = false;
+        boolean vectorize = optimistic;
         if (blockStyle == false && processFunction.warnExceptions.isEmpty() && processOutputsMultivalued == false) {
             ClassName type = processFunction.resultDataType(false);
             vectorize = type.simpleName().startsWith("BytesRef") == false;
@@ -193,7 +229,14 @@ public class EvaluatorImplementer {
 
             processFunction.args.stream().forEach(a -> a.createScratch(builder));
 
-            builder.beginControlFlow("position: for (int p = 0; p < positionCount; p++)");
+            if (resume) {
+                builder.beginControlFlow("for (int p = 0; p < failedPosition; p++)");
+                builder.addStatement("result.$L(computed.$L(p))", processFunction.appendMethod(), getMethod(processFunction.returnType()));
+                builder.endControlFlow();
+                builder.addStatement("warnings().registerException(failure)");
+                builder.addStatement("result.appendNull()");
+            }
+            builder.beginControlFlow("position: for (int p = $L; p < positionCount; p++)", resume ? "failedPosition + 1" : "0");
             {
                 if (blockStyle) {
                     if (processOutputsMultivalued == false) {
@@ -253,13 +296,19 @@ public class EvaluatorImplementer {
                         + processFunction.warnExceptions.stream().map(m -> "$T").collect(Collectors.joining(" | "))
                         + " e)";
                     builder.nextControlFlow(catchPattern, processFunction.warnExceptions.stream().map(m -> TypeName.get(m)).toArray());
-                    builder.addStatement("warnings().registerException(e)");
-                    builder.addStatement("result.appendNull()");
+                    if (optimistic) {
+                        builder.beginControlFlow("try($T computed = result.build())", computedType);
+                        builder.addStatement(invokeRealEval(false, "evalWithWarnings", "positionCount, p, e, computed"));
+                        builder.endControlFlow();
+                    } else {
+                        builder.addStatement("warnings().registerException(e)");
+                        builder.addStatement("result.appendNull()");
+                    }
                     builder.endControlFlow();
                 }
             }
             builder.endControlFlow();
-            builder.addStatement("return result.build()");
+            builder.addStatement(optimistic ? "return result.build().asBlock()" : "return result.build()");
         }
         builder.endControlFlow();
 
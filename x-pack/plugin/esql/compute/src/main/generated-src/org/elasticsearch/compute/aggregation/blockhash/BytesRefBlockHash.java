@@ -215,6 +215,11 @@ final class BytesRefBlockHash extends BlockHash {
         return IntVector.range(seenNull ? 0 : 1, Math.toIntExact(hash.size() + 1), blockFactory);
     }
 
+    @Override
+    public int numKeys() {
+        return Math.toIntExact(hash.size()) + (seenNull ? 1 : 0);
+    }
+
     @Override
     public BitArray seenGroupIds(BigArrays bigArrays) {
         return new SeenGroupIds.Range(seenNull ? 0 : 1, Math.toIntExact(hash.size() + 1)).seenGroupIds(bigArrays);
@@ -8,8 +8,11 @@
 package org.elasticsearch.compute.data;
 
 // begin generated imports
+import org.apache.lucene.store.InputStreamDataInput;
+import org.apache.lucene.store.OutputStreamDataOutput;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.RamUsageEstimator;
+import org.apache.lucene.util.packed.PackedInts;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.unit.ByteSizeValue;
@@ -67,6 +70,69 @@ final class LongArrayVector extends AbstractVector implements LongVector {
         }
     }
 
+    /**
+     * Read a vector written by {@link #writePackedArrayVector}.
+     */
+    static LongArrayVector readPackedArrayVector(int positions, StreamInput in, BlockFactory blockFactory) throws IOException {
+        final long preAdjustedBytes = RamUsageEstimator.NUM_BYTES_ARRAY_HEADER + (long) positions * Long.BYTES;
+        blockFactory.adjustBreaker(preAdjustedBytes);
+        boolean success = false;
+        try {
+            final long min = in.readZLong();
+            final int bitsPerValue = in.readByte();
+            final PackedInts.ReaderIterator packed = PackedInts.getReaderIteratorNoHeader(
+                new InputStreamDataInput(in),
+                PackedInts.Format.PACKED,
+                PackedInts.VERSION_CURRENT,
+                positions,
+                bitsPerValue,
+                PackedInts.DEFAULT_BUFFER_SIZE
+            );
+            long[] values = new long[positions];
+            for (int i = 0; i < positions; i++) {
+                values[i] = min + packed.next();
+            }
+            final var block = new LongArrayVector(values, positions, blockFactory);
+            blockFactory.adjustBreaker(block.ramBytesUsed() - preAdjustedBytes);
+            success = true;
+            return block;
+        } finally {
+            if (success == false) {
+                blockFactory.adjustBreaker(-preAdjustedBytes);
+            }
+        }
+    }
+
+    /**
+     * Write the values "frame of reference" encoded: the smallest value
+     * followed by the offset of each value from it, bit packed. Longs in
+     * ES|QL are very often timestamps, counts, or ids that all sit in a
+     * narrow range so this is usually much smaller than eight bytes each.
+     */
+    void writePackedArrayVector(int positions, StreamOutput out) throws IOException {
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < positions; i++) {
+            min = Math.min(min, values[i]);
+            max = Math.max(max, values[i]);
+        }
+        // max - min may overflow, but it's still correct as an unsigned value
+        final int bitsPerValue = PackedInts.unsignedBitsRequired(max - min);
+        out.writeZLong(min);
+        out.writeByte((byte) bitsPerValue);
+        final PackedInts.Writer packed = PackedInts.getWriterNoHeader(
+            new OutputStreamDataOutput(out),
+            PackedInts.Format.PACKED,
+            positions,
+            bitsPerValue,
+            PackedInts.DEFAULT_BUFFER_SIZE
+        );
+        for (int i = 0; i < positions; i++) {
+            packed.add(values[i] - min);
+        }
+        packed.finish();
+    }
+
     @Override
     public LongBlock asBlock() {
         return new LongVectorBlock(this);
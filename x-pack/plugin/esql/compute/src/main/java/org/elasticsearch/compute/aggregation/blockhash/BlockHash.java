@@ -109,6 +109,13 @@ public abstract class BlockHash implements Releasable, SeenGroupIds {
      */
     public abstract IntVector nonEmpty();
 
+    /**
+     * The number of distinct keys added to this hash so far, including the {@code null}
+     * key if it has been seen. This is cheap to call and doesn't allocate, unlike
+     * {@link #nonEmpty()}, so it's suitable for checking on every page.
+     */
+    public abstract int numKeys();
+
     // TODO merge with nonEmpty
     @Override
     public abstract BitArray seenGroupIds(BigArrays bigArrays);
@@ -137,6 +137,17 @@ final class BooleanBlockHash extends BlockHash {
         }
     }
 
+    @Override
+    public int numKeys() {
+        int count = 0;
+        for (boolean seen : everSeen) {
+            if (seen) {
+                count++;
+            }
+        }
+        return count;
+    }
+
     @Override
     public BitArray seenGroupIds(BigArrays bigArrays) {
         BitArray seen = new BitArray(everSeen.length, bigArrays);
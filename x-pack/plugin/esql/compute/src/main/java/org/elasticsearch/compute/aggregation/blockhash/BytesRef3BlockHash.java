@@ -203,6 +203,11 @@ final class BytesRef3BlockHash extends BlockHash {
         return IntVector.range(0, Math.toIntExact(finalHash.size()), blockFactory);
     }
 
+    @Override
+    public int numKeys() {
+        return Math.toIntExact(finalHash.size());
+    }
+
     @Override
     public String toString() {
         return String.format(
@@ -154,6 +154,11 @@ final class BytesRefLongBlockHash extends BlockHash {
         return IntVector.range(0, Math.toIntExact(finalHash.size()), blockFactory);
     }
 
+    @Override
+    public int numKeys() {
+        return Math.toIntExact(finalHash.size());
+    }
+
     @Override
     public String toString() {
         return "BytesRefLongBlockHash{keys=[BytesRefKey[channel="
@@ -114,6 +114,11 @@ public class CategorizeBlockHash extends BlockHash {
         return IntVector.range(seenNull ? 0 : 1, categorizer.getCategoryCount() + 1, blockFactory);
     }
 
+    @Override
+    public int numKeys() {
+        return categorizer.getCategoryCount() + (seenNull ? 1 : 0);
+    }
+
     @Override
     public BitArray seenGroupIds(BigArrays bigArrays) {
         return new SeenGroupIds.Range(seenNull ? 0 : 1, Math.toIntExact(categorizer.getCategoryCount() + 1)).seenGroupIds(bigArrays);
@@ -153,6 +153,11 @@ public class CategorizePackedValuesBlockHash extends BlockHash {
         return packedValuesBlockHash.nonEmpty();
     }
 
+    @Override
+    public int numKeys() {
+        return packedValuesBlockHash.numKeys();
+    }
+
     @Override
     public BitArray seenGroupIds(BigArrays bigArrays) {
         return packedValuesBlockHash.seenGroupIds(bigArrays);
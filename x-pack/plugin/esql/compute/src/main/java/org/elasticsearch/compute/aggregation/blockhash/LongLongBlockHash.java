@@ -106,6 +106,11 @@ final class LongLongBlockHash extends BlockHash {
         return IntVector.range(0, Math.toIntExact(hash.size()), blockFactory);
     }
 
+    @Override
+    public int numKeys() {
+        return Math.toIntExact(hash.size());
+    }
+
     @Override
     public BitArray seenGroupIds(BigArrays bigArrays) {
         return new SeenGroupIds.Range(0, Math.toIntExact(hash.size())).seenGroupIds(bigArrays);
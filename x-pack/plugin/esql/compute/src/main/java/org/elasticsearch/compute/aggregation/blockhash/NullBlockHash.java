@@ -64,6 +64,11 @@ final class NullBlockHash extends BlockHash {
         return blockFactory.newConstantIntVector(0, seenNull ? 1 : 0);
     }
 
+    @Override
+    public int numKeys() {
+        return seenNull ? 1 : 0;
+    }
+
     @Override
     public BitArray seenGroupIds(BigArrays bigArrays) {
         BitArray seen = new BitArray(1, bigArrays);
@@ -406,6 +406,11 @@ final class PackedValuesBlockHash extends BlockHash {
         return IntVector.range(0, Math.toIntExact(bytesRefHash.size()), blockFactory);
     }
 
+    @Override
+    public int numKeys() {
+        return Math.toIntExact(bytesRefHash.size());
+    }
+
     @Override
     public BitArray seenGroupIds(BigArrays bigArrays) {
         return new SeenGroupIds.Range(0, Math.toIntExact(bytesRefHash.size())).seenGroupIds(bigArrays);
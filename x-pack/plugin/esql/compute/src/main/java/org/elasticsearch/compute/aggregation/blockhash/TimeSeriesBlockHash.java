@@ -212,6 +212,11 @@ public final class TimeSeriesBlockHash extends BlockHash {
         return IntVector.range(0, Math.toIntExact(endExclusive), blockFactory);
     }
 
+    @Override
+    public int numKeys() {
+        return positionCount();
+    }
+
     @Override
     public BitArray seenGroupIds(BigArrays bigArrays) {
         return new Range(0, positionCount()).seenGroupIds(bigArrays);
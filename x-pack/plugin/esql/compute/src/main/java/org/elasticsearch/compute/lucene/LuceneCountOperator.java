@@ -48,6 +48,17 @@ public class LuceneCountOperator extends LuceneOperator {
             DataPartitioning dataPartitioning,
             int taskConcurrency,
             int limit
+        ) {
+            this(contexts, queryFunction, dataPartitioning, taskConcurrency, limit, true);
+        }
+
+        public Factory(
+            List<? extends ShardContext> contexts,
+            Function<ShardContext, Query> queryFunction,
+            DataPartitioning dataPartitioning,
+            int taskConcurrency,
+            int limit,
+            boolean workStealing
         ) {
             super(
                 contexts,
@@ -57,7 +68,8 @@ public class LuceneCountOperator extends LuceneOperator {
                 taskConcurrency,
                 limit,
                 false,
-                ScoreMode.COMPLETE_NO_SCORES
+                ScoreMode.COMPLETE_NO_SCORES,
+                workStealing
             );
         }
 
@@ -25,6 +25,7 @@ import org.elasticsearch.compute.data.BlockFactory;
 import org.elasticsearch.compute.data.Page;
 import org.elasticsearch.compute.operator.Operator;
 import org.elasticsearch.compute.operator.SourceOperator;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.logging.LogManager;
 import org.elasticsearch.logging.Logger;
@@ -104,10 +105,38 @@ public abstract class LuceneOperator extends SourceOperator {
             int limit,
             boolean needsScore,
             ScoreMode scoreMode
+        ) {
+            this(contexts, queryFunction, dataPartitioning, autoStrategy, taskConcurrency, limit, needsScore, scoreMode, true);
+        }
+
+        /**
+         * Build the factory.
+         *
+         * @param needsScore Whether the score is needed.
+         * @param workStealing Whether idle drivers may steal unread docs from busy ones.
+         */
+        protected Factory(
+            List<? extends ShardContext> contexts,
+            Function<ShardContext, Query> queryFunction,
+            DataPartitioning dataPartitioning,
+            Function<Query, LuceneSliceQueue.PartitioningStrategy> autoStrategy,
+            int taskConcurrency,
+            int limit,
+            boolean needsScore,
+            ScoreMode scoreMode,
+            boolean workStealing
         ) {
             this.limit = limit;
             this.dataPartitioning = dataPartitioning;
-            this.sliceQueue = LuceneSliceQueue.create(contexts, queryFunction, dataPartitioning, autoStrategy, taskConcurrency, scoreMode);
+            this.sliceQueue = LuceneSliceQueue.create(
+                contexts,
+                queryFunction,
+                dataPartitioning,
+                autoStrategy,
+                taskConcurrency,
+                scoreMode,
+                workStealing
+            );
             this.taskConcurrency = Math.min(sliceQueue.totalSlices(), taskConcurrency);
             this.needsScore = needsScore;
         }
@@ -138,13 +167,28 @@ public abstract class LuceneOperator extends SourceOperator {
     protected abstract Page getCheckedOutput() throws IOException;
 
     @Override
-    public void close() {}
+    public void close() {
+        if (currentScorer != null) {
+            sliceQueue.removeStealable(currentScorer);
+        }
+    }
 
     LuceneScorer getCurrentOrLoadNextScorer() {
         while (currentScorer == null || currentScorer.isDone()) {
+            if (currentScorer != null) {
+                sliceQueue.removeStealable(currentScorer);
+            }
             if (currentSlice == null || sliceIndex >= currentSlice.numLeaves()) {
                 sliceIndex = 0;
                 currentSlice = sliceQueue.nextSlice();
+                if (currentSlice == null) {
+                    /*
+                     * No more slices in the queue. Rather than sit idle
+                     * while some other driver grinds through a big segment
+                     * help it out by taking half of its unread docs.
+                     */
+                    currentSlice = sliceQueue.stealSlice();
+                }
                 if (currentSlice == null) {
                     doneCollecting = true;
                     return null;
@@ -155,14 +199,13 @@ public abstract class LuceneOperator extends SourceOperator {
             final PartialLeafReaderContext partialLeaf = currentSlice.getLeaf(sliceIndex++);
             logger.trace("Starting {}", partialLeaf);
             final LeafReaderContext leaf = partialLeaf.leafReaderContext();
-            if (currentScorer == null || currentScorer.leafReaderContext() != leaf) {
+            if (currentScorer == null || currentScorer.canAdvanceTo(partialLeaf) == false) {
                 final Weight weight = currentSlice.weight();
                 processedQueries.add(weight.getQuery());
                 currentScorer = new LuceneScorer(currentSlice.shardContext(), weight, leaf);
             }
-            assert currentScorer.maxPosition <= partialLeaf.maxDoc() : currentScorer.maxPosition + ">" + partialLeaf.maxDoc();
-            currentScorer.maxPosition = partialLeaf.maxDoc();
-            currentScorer.position = Math.max(currentScorer.position, partialLeaf.minDoc());
+            currentScorer.resetRange(partialLeaf);
+            sliceQueue.addStealable(currentScorer);
         }
         if (Thread.currentThread() != currentScorer.executingThread) {
             currentScorer.reinitialize();
@@ -180,7 +223,17 @@ public abstract class LuceneOperator extends SourceOperator {
 
         private BulkScorer bulkScorer;
         private int position;
+        /**
+         * One more than the last doc to score. Other drivers can lower
+         * this when they {@link #steal} the tail of our range so it's
+         * guarded by {@code this}.
+         */
         private int maxPosition;
+        /**
+         * Docs before this have been handed to the {@link BulkScorer} so
+         * they can't be stolen. Guarded by {@code this}.
+         */
+        private int claimedPosition;
         private Thread executingThread;
 
         LuceneScorer(ShardContext shardContext, Weight weight, LeafReaderContext leafReaderContext) {
@@ -201,22 +254,75 @@ public abstract class LuceneOperator extends SourceOperator {
 
         void scoreNextRange(LeafCollector collector, Bits acceptDocs, int numDocs) throws IOException {
             assert isDone() == false : "scorer is exhausted";
-            // avoid overflow and limit the range
-            numDocs = Math.min(maxPosition - position, numDocs);
-            assert numDocs > 0 : "scorer was exhausted";
-            position = bulkScorer.score(collector, acceptDocs, position, Math.min(maxPosition, position + numDocs));
+            final int end;
+            synchronized (this) {
+                // avoid overflow and limit the range
+                numDocs = Math.min(maxPosition - position, numDocs);
+                assert numDocs > 0 : "scorer was exhausted";
+                end = Math.min(maxPosition, position + numDocs);
+                claimedPosition = end;
+            }
+            position = bulkScorer.score(collector, acceptDocs, position, end);
+        }
+
+        /**
+         * Start scoring a new range of the same leaf. The underlying
+         * {@link BulkScorer} only ever moves forward so we never move
+         * {@link #position} backwards.
+         */
+        synchronized void resetRange(PartialLeafReaderContext partialLeaf) {
+            assert canAdvanceTo(partialLeaf) : maxPosition + ">" + partialLeaf.minDoc();
+            maxPosition = partialLeaf.maxDoc();
+            position = Math.max(position, partialLeaf.minDoc());
+            claimedPosition = position;
+        }
+
+        /**
+         * Can this scorer move on to {@code partialLeaf}? Slices from the
+         * queue visit each leaf in order but a range stolen from another
+         * driver may be behind where our {@link BulkScorer} already is.
+         */
+        synchronized boolean canAdvanceTo(PartialLeafReaderContext partialLeaf) {
+            return leafReaderContext == partialLeaf.leafReaderContext() && maxPosition <= partialLeaf.minDoc();
+        }
+
+        /**
+         * Number of docs in the range that haven't been handed to the
+         * {@link BulkScorer} yet.
+         */
+        synchronized int unclaimedDocs() {
+            return Math.max(0, maxPosition - claimedPosition);
+        }
+
+        /**
+         * Split off the second half of the docs that haven't been handed to
+         * the {@link BulkScorer} yet so another driver can score them.
+         * @return the stolen range or {@code null} if there are fewer than
+         *         {@code minDocs} docs to steal
+         */
+        @Nullable
+        synchronized PartialLeafReaderContext steal(int minDocs) {
+            int unclaimed = unclaimedDocs();
+            if (unclaimed < minDocs * 2) {
+                return null;
+            }
+            int split = claimedPosition + unclaimed / 2;
+            PartialLeafReaderContext stolen = new PartialLeafReaderContext(leafReaderContext, split, maxPosition);
+            maxPosition = split;
+            return stolen;
         }
 
         LeafReaderContext leafReaderContext() {
             return leafReaderContext;
         }
 
-        boolean isDone() {
+        synchronized boolean isDone() {
             return bulkScorer == null || position >= maxPosition;
         }
 
-        void markAsDone() {
+        synchronized void markAsDone() {
             position = DocIdSetIterator.NO_MORE_DOCS;
+            claimedPosition = maxPosition;
         }
 
         ShardContext shardContext() {
@@ -27,7 +27,10 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 
 /**
@@ -36,15 +39,35 @@ import java.util.function.Function;
 public final class LuceneSliceQueue {
     public static final int MAX_DOCS_PER_SLICE = 250_000; // copied from IndexSearcher
     public static final int MAX_SEGMENTS_PER_SLICE = 5; // copied from IndexSearcher
+    /**
+     * Drivers won't {@link #stealSlice steal} fewer than this many docs
+     * from each other. Smaller ranges are cheaper to finish than to hand off.
+     */
+    static final int MIN_DOCS_TO_STEAL = 10_000;
 
     private final int totalSlices;
+    /**
+     * Slices that drivers stole from each other on top of the {@link #totalSlices} we built.
+     */
+    private final AtomicInteger stolenSlices = new AtomicInteger();
     private final Queue<LuceneSlice> slices;
     private final Map<String, PartitioningStrategy> partitioningStrategies;
+    private final boolean workStealing;
+    /**
+     * Scorers that drivers are currently working through. When the queue
+     * runs dry idle drivers can steal the unread tail of their ranges.
+     */
+    private final Set<LuceneOperator.LuceneScorer> stealable = ConcurrentHashMap.newKeySet();
 
-    private LuceneSliceQueue(List<LuceneSlice> slices, Map<String, PartitioningStrategy> partitioningStrategies) {
+    private LuceneSliceQueue(
+        List<LuceneSlice> slices,
+        Map<String, PartitioningStrategy> partitioningStrategies,
+        boolean workStealing
+    ) {
         this.totalSlices = slices.size();
         this.slices = new ConcurrentLinkedQueue<>(slices);
         this.partitioningStrategies = partitioningStrategies;
+        this.workStealing = workStealing;
     }
 
     @Nullable
@@ -52,8 +75,56 @@ public final class LuceneSliceQueue {
         return slices.poll();
     }
 
+    /**
+     * Steal half of the unread docs from the busiest driver. Call this
+     * when {@link #nextSlice} returns {@code null} so the driver that
+     * drew the largest segment doesn't become the straggler that the
+     * whole query waits on.
+     * @return a slice containing the stolen range or {@code null} if no
+     *         driver has enough unread docs to be worth splitting or if
+     *         work stealing is disabled
+     */
+    @Nullable
+    LuceneSlice stealSlice() {
+        if (workStealing == false) {
+            return null;
+        }
+        LuceneOperator.LuceneScorer victim = null;
+        int mostUnclaimed = 0;
+        for (LuceneOperator.LuceneScorer scorer : stealable) {
+            int unclaimed = scorer.unclaimedDocs();
+            if (unclaimed > mostUnclaimed) {
+                mostUnclaimed = unclaimed;
+                victim = scorer;
+            }
+        }
+        if (victim == null) {
+            return null;
+        }
+        PartialLeafReaderContext stolen = victim.steal(MIN_DOCS_TO_STEAL);
+        if (stolen == null) {
+            return null;
+        }
+        stolenSlices.incrementAndGet();
+        return new LuceneSlice(victim.shardContext(), List.of(stolen), victim.weight());
+    }
+
+    void addStealable(LuceneOperator.LuceneScorer scorer) {
+        if (workStealing) {
+            stealable.add(scorer);
+        }
+    }
+
+    void removeStealable(LuceneOperator.LuceneScorer scorer) {
+        stealable.remove(scorer);
+    }
+
+    /**
+     * The number of slices in the queue, including the ones drivers have
+     * {@link #stealSlice stolen} so far.
+     */
     public int totalSlices() {
-        return totalSlices;
+        return totalSlices + stolenSlices.get();
     }
 
     /**
@@ -73,7 +144,8 @@ public final class LuceneSliceQueue {
         DataPartitioning dataPartitioning,
         Function<Query, PartitioningStrategy> autoStrategy,
         int taskConcurrency,
-        ScoreMode scoreMode
+        ScoreMode scoreMode,
+        boolean workStealing
     ) {
         List<LuceneSlice> slices = new ArrayList<>();
         Map<String, PartitioningStrategy> partitioningStrategies = new HashMap<>(contexts.size());
@@ -102,7 +174,7 @@ public final class LuceneSliceQueue {
                 }
             }
         }
-        return new LuceneSliceQueue(slices, partitioningStrategies);
+        return new LuceneSliceQueue(slices, partitioningStrategies, workStealing);
     }
 
     /**
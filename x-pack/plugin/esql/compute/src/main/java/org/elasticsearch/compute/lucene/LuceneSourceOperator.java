@@ -70,6 +70,19 @@ public class LuceneSourceOperator extends LuceneOperator {
             int maxPageSize,
             int limit,
             boolean needsScore
+        ) {
+            this(contexts, queryFunction, dataPartitioning, taskConcurrency, maxPageSize, limit, needsScore, true);
+        }
+
+        public Factory(
+            List<? extends ShardContext> contexts,
+            Function<ShardContext, Query> queryFunction,
+            DataPartitioning dataPartitioning,
+            int taskConcurrency,
+            int maxPageSize,
+            int limit,
+            boolean needsScore,
+            boolean workStealing
         ) {
             super(
                 contexts,
@@ -79,7 +92,8 @@ public class LuceneSourceOperator extends LuceneOperator {
                 taskConcurrency,
                 limit,
                 needsScore,
-                needsScore ? COMPLETE : COMPLETE_NO_SCORES
+                needsScore ? COMPLETE : COMPLETE_NO_SCORES,
+                workStealing
             );
             this.maxPageSize = maxPageSize;
             // TODO: use a single limiter for multiple stage execution
@@ -386,6 +400,7 @@ public class LuceneSourceOperator extends LuceneOperator {
 
     @Override
     public void close() {
+        super.close();
         Releasables.close(docsBuilder, scoreBuilder);
     }
 
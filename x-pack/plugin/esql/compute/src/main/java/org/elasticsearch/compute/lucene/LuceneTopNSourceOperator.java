@@ -65,6 +65,20 @@ public final class LuceneTopNSourceOperator extends LuceneOperator {
             int limit,
             List<SortBuilder<?>> sorts,
             boolean needsScore
+        ) {
+            this(contexts, queryFunction, dataPartitioning, taskConcurrency, maxPageSize, limit, sorts, needsScore, true);
+        }
+
+        public Factory(
+            List<? extends ShardContext> contexts,
+            Function<ShardContext, Query> queryFunction,
+            DataPartitioning dataPartitioning,
+            int taskConcurrency,
+            int maxPageSize,
+            int limit,
+            List<SortBuilder<?>> sorts,
+            boolean needsScore,
+            boolean workStealing
         ) {
             super(
                 contexts,
@@ -74,7 +88,8 @@ public final class LuceneTopNSourceOperator extends LuceneOperator {
                 taskConcurrency,
                 limit,
                 needsScore,
-                needsScore ? TOP_DOCS_WITH_SCORES : TOP_DOCS
+                needsScore ? TOP_DOCS_WITH_SCORES : TOP_DOCS,
+                workStealing
             );
             this.maxPageSize = maxPageSize;
             this.sorts = sorts;
@@ -175,7 +190,7 @@ public final class LuceneTopNSourceOperator extends LuceneOperator {
                 // TODO: share the bottom between shardCollectors
                 perShardCollector = newPerShardCollector(scorer.shardContext(), sorts, needsScore, limit);
             }
-            var leafCollector = perShardCollector.getLeafCollector(scorer.leafReaderContext());
+            var leafCollector = perShardCollector.getLeafCollector(scorer);
             scorer.scoreNextRange(leafCollector, scorer.leafReaderContext().reader().getLiveDocs(), maxPageSize);
         } catch (CollectionTerminatedException cte) {
             // Lucene terminated early the collection (doing topN for an index that's sorted and the topN uses the same sorting)
@@ -289,7 +304,7 @@ public final class LuceneTopNSourceOperator extends LuceneOperator {
     abstract static class PerShardCollector {
         private final ShardContext shardContext;
         private final TopDocsCollector<?> collector;
-        private int leafIndex;
+        private LuceneScorer currentScorer;
         private LeafCollector leafCollector;
         private Thread currentThread;
 
@@ -298,10 +313,17 @@ public final class LuceneTopNSourceOperator extends LuceneOperator {
             this.collector = collector;
         }
 
-        LeafCollector getLeafCollector(LeafReaderContext leafReaderContext) throws IOException {
-            if (currentThread != Thread.currentThread() || leafIndex != leafReaderContext.ord) {
-                leafCollector = collector.getLeafCollector(leafReaderContext);
-                leafIndex = leafReaderContext.ord;
+        /**
+         * Get the {@link LeafCollector} for the range the {@code scorer} is on.
+         * Leaf collectors expect docs in order so we can only keep the one we
+         * have while we're on the same scorer. A range stolen from another
+         * driver may be behind the docs we've already collected from the same
+         * leaf, but it always comes with a fresh scorer.
+         */
+        LeafCollector getLeafCollector(LuceneScorer scorer) throws IOException {
+            if (currentThread != Thread.currentThread() || currentScorer != scorer) {
+                leafCollector = collector.getLeafCollector(scorer.leafReaderContext());
+                currentScorer = scorer;
                 currentThread = Thread.currentThread();
             }
             return leafCollector;
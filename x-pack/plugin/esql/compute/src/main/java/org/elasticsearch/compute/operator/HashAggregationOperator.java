@@ -41,13 +41,36 @@ import static java.util.stream.Collectors.joining;
 
 public class HashAggregationOperator implements Operator {
 
+    /**
+     * Builds {@link HashAggregationOperator}s.
+     * @param partialEmitKeysThreshold when running in {@link AggregatorMode#INITIAL} mode,
+     *                                 the minimum number of keys in the hash before we'll
+     *                                 consider emitting the partial results early
+     * @param partialEmitUniquenessThreshold when running in {@link AggregatorMode#INITIAL} mode,
+     *                                       the minimum ratio of keys to rows received since the
+     *                                       last emit before we'll emit the partial results early.
+     *                                       Lower ratios mean the hash is doing a good job of
+     *                                       collapsing rows so it's worth holding on to.
+     */
     public record HashAggregationOperatorFactory(
         List<BlockHash.GroupSpec> groups,
         AggregatorMode aggregatorMode,
         List<GroupingAggregator.Factory> aggregators,
         int maxPageSize,
-        AnalysisRegistry analysisRegistry
+        AnalysisRegistry analysisRegistry,
+        int partialEmitKeysThreshold,
+        double partialEmitUniquenessThreshold
     ) implements OperatorFactory {
+        public HashAggregationOperatorFactory(
+            List<BlockHash.GroupSpec> groups,
+            AggregatorMode aggregatorMode,
+            List<GroupingAggregator.Factory> aggregators,
+            int maxPageSize,
+            AnalysisRegistry analysisRegistry
+        ) {
+            this(groups, aggregatorMode, aggregators, maxPageSize, analysisRegistry, Integer.MAX_VALUE, 1.0);
+        }
+
         @Override
         public Operator get(DriverContext driverContext) {
             if (groups.stream().anyMatch(BlockHash.GroupSpec::isCategorize)) {
@@ -63,10 +86,17 @@ public class HashAggregationOperator implements Operator {
                     driverContext
                 );
             }
+            /*
+             * Partial results may only be flushed early when something downstream
+             * will merge them back together. That's only true for the INITIAL mode.
+             */
+            boolean canEmitPartial = aggregatorMode == AggregatorMode.INITIAL;
             return new HashAggregationOperator(
                 aggregators,
                 () -> BlockHash.build(groups, driverContext.blockFactory(), maxPageSize, false),
-                driverContext
+                driverContext,
+                canEmitPartial ? partialEmitKeysThreshold : Integer.MAX_VALUE,
+                canEmitPartial ? partialEmitUniquenessThreshold : 1.0
             );
         }
 
@@ -81,14 +111,36 @@ public class HashAggregationOperator implements Operator {
     }
 
     private boolean finished;
+    /**
+     * Have we built the output for the last batch of keys? Set after {@link #finish}
+     * once any partial output that was pending has been returned.
+     */
+    private boolean finalOutputBuilt;
     private Page output;
 
-    private final BlockHash blockHash;
+    private final Supplier<BlockHash> blockHashSupplier;
+    private BlockHash blockHash;
 
+    private final List<GroupingAggregator.Factory> aggregatorFactories;
     private final List<GroupingAggregator> aggregators;
 
     protected final DriverContext driverContext;
 
+    /**
+     * Minimum number of keys in the hash before we'll emit partial results early.
+     * {@link Integer#MAX_VALUE} disables early emission.
+     */
+    private final int partialEmitKeysThreshold;
+    /**
+     * Minimum ratio of keys to rows received since the last emit before we'll
+     * emit partial results early.
+     */
+    private final double partialEmitUniquenessThreshold;
+    /**
+     * Count of rows received since the hash was last emitted and cleared.
+     */
+    private long rowsSinceLastEmit;
+
     /**
      * Nanoseconds this operator has spent hashing grouping keys.
      */
@@ -115,20 +167,42 @@ public class HashAggregationOperator implements Operator {
      */
     protected long emitNanos;
 
-    @SuppressWarnings("this-escape")
     public HashAggregationOperator(
         List<GroupingAggregator.Factory> aggregators,
         Supplier<BlockHash> blockHash,
         DriverContext driverContext
     ) {
+        this(aggregators, blockHash, driverContext, Integer.MAX_VALUE, 1.0);
+    }
+
+    /**
+     * Build the operator.
+     * <p>
+     *     When {@code partialEmitKeysThreshold} is reached and the keys are unique
+     *     enough that the hash isn't collapsing many rows then we emit the
+     *     partial results we have so far and start over with an empty hash. This
+     *     keeps the memory used by high cardinality groupings bounded on the data
+     *     nodes, leaving the merge to the downstream aggregation. Only use this
+     *     when the output is partial and will be merged downstream.
+     * </p>
+     */
+    @SuppressWarnings("this-escape")
+    public HashAggregationOperator(
+        List<GroupingAggregator.Factory> aggregators,
+        Supplier<BlockHash> blockHash,
+        DriverContext driverContext,
+        int partialEmitKeysThreshold,
+        double partialEmitUniquenessThreshold
+    ) {
+        this.aggregatorFactories = aggregators;
+        this.blockHashSupplier = blockHash;
         this.aggregators = new ArrayList<>(aggregators.size());
         this.driverContext = driverContext;
+        this.partialEmitKeysThreshold = partialEmitKeysThreshold;
+        this.partialEmitUniquenessThreshold = partialEmitUniquenessThreshold;
         boolean success = false;
         try {
-            this.blockHash = blockHash.get();
-            for (GroupingAggregator.Factory a : aggregators) {
-                this.aggregators.add(a.apply(driverContext));
-            }
+            initializeHashAndAggregators();
             success = true;
         } finally {
             if (success == false) {
@@ -137,9 +211,16 @@ public class HashAggregationOperator implements Operator {
         }
     }
 
+    private void initializeHashAndAggregators() {
+        this.blockHash = blockHashSupplier.get();
+        for (GroupingAggregator.Factory a : aggregatorFactories) {
+            this.aggregators.add(a.apply(driverContext));
+        }
+    }
+
     @Override
     public boolean needsInput() {
-        return finished == false;
+        return finished == false && output == null;
     }
 
     @Override
@@ -207,7 +288,32 @@ public class HashAggregationOperator implements Operator {
             page.releaseBlocks();
             pagesProcessed++;
             rowsReceived += page.getPositionCount();
+            rowsSinceLastEmit += page.getPositionCount();
+        }
+        if (shouldEmitPartialResults()) {
+            emitPartialResults();
+        }
+    }
+
+    private boolean shouldEmitPartialResults() {
+        if (partialEmitKeysThreshold == Integer.MAX_VALUE || rowsSinceLastEmit == 0) {
+            return false;
         }
+        int numKeys = blockHash.numKeys();
+        return numKeys >= partialEmitKeysThreshold && numKeys >= partialEmitUniquenessThreshold * rowsSinceLastEmit;
+    }
+
+    /**
+     * Emit the partial results collected so far and replace the hash and the
+     * aggregators with empty ones, releasing the memory they held.
+     */
+    private void emitPartialResults() {
+        output = buildOutput();
+        Releasables.close(blockHash, () -> Releasables.close(aggregators));
+        blockHash = null;
+        aggregators.clear();
+        initializeHashAndAggregators();
+        rowsSinceLastEmit = 0;
     }
 
     @Override
@@ -217,6 +323,11 @@ public class HashAggregationOperator implements Operator {
             rowsEmitted += p.getPositionCount();
         }
         output = null;
+        if (finished && finalOutputBuilt == false) {
+            // finish was called while a partial page was pending so build the last page now
+            output = buildOutput();
+            finalOutputBuilt = true;
+        }
         return p;
     }
 
@@ -226,6 +337,13 @@ public class HashAggregationOperator implements Operator {
             return;
         }
         finished = true;
+        if (output == null) {
+            output = buildOutput();
+            finalOutputBuilt = true;
+        }
+    }
+
+    private Page buildOutput() {
         Block[] blocks = null;
         IntVector selected = null;
         long startInNanos = System.nanoTime();
@@ -243,8 +361,9 @@ public class HashAggregationOperator implements Operator {
                 aggregator.evaluate(blocks, offset, selected, evaluationContext);
                 offset += aggBlockCounts[i];
             }
-            output = new Page(blocks);
+            Page page = new Page(blocks);
             success = true;
+            return page;
         } finally {
             // selected should always be closed
             if (selected != null) {
@@ -263,7 +382,7 @@ public class HashAggregationOperator implements Operator {
 
     @Override
     public boolean isFinished() {
-        return finished && output == null;
+        return finished && finalOutputBuilt && output == null;
     }
 
     @Override
@@ -8,11 +8,15 @@
 package org.elasticsearch.compute.operator;
 
 import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.OrdinalMap;
 import org.apache.lucene.index.SortedDocValues;
 import org.apache.lucene.index.SortedSetDocValues;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.BytesRefBuilder;
+import org.apache.lucene.util.LongValues;
 import org.apache.lucene.util.PriorityQueue;
+import org.elasticsearch.common.CheckedIntFunction;
 import org.elasticsearch.common.CheckedSupplier;
 import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.common.util.BitArray;
@@ -33,6 +37,7 @@ import org.elasticsearch.compute.data.IntBlock;
 import org.elasticsearch.compute.data.IntVector;
 import org.elasticsearch.compute.data.Page;
 import org.elasticsearch.compute.lucene.ValuesSourceReaderOperator;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.Releasable;
 import org.elasticsearch.core.Releasables;
 import org.elasticsearch.index.mapper.BlockLoader;
@@ -42,9 +47,11 @@ import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.function.IntFunction;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -54,10 +61,16 @@ import static java.util.stream.Collectors.joining;
 
 /**
  * Unlike {@link HashAggregationOperator}, this hash operator also extracts values or ordinals of the input documents.
+ * <p>
+ *     When a shard provides global ordinals for the grouping field we group all of its segments by
+ *     global ordinal and only resolve each term once, when building the output. Otherwise we group each
+ *     segment by its own ordinals and merge the segments by term at the end.
+ * </p>
  */
 public class OrdinalsGroupingOperator implements Operator {
     public record OrdinalsGroupingOperatorFactory(
         IntFunction<BlockLoader> blockLoaders,
+        IntFunction<OrdinalMap> globalOrdinals,
         List<ValuesSourceReaderOperator.ShardContext> shardContexts,
         ElementType groupingElementType,
         int docChannel,
@@ -70,6 +83,7 @@ public class OrdinalsGroupingOperator implements Operator {
         public Operator get(DriverContext driverContext) {
             return new OrdinalsGroupingOperator(
                 blockLoaders,
+                globalOrdinals,
                 shardContexts,
                 groupingElementType,
                 docChannel,
@@ -87,6 +101,7 @@ public class OrdinalsGroupingOperator implements Operator {
     }
 
     private final IntFunction<BlockLoader> blockLoaders;
+    private final IntFunction<OrdinalMap> globalOrdinals;
     private final List<ValuesSourceReaderOperator.ShardContext> shardContexts;
     private final int docChannel;
     private final String groupingField;
@@ -94,6 +109,8 @@ public class OrdinalsGroupingOperator implements Operator {
     private final List<Factory> aggregatorFactories;
     private final ElementType groupingElementType;
     private final Map<SegmentID, OrdinalSegmentAggregator> ordinalAggregators;
+    private final Map<Integer, GlobalOrdinalsAggregator> globalOrdinalAggregators;
+    private final Set<Integer> shardsWithoutGlobalOrdinals;
 
     private final DriverContext driverContext;
 
@@ -103,8 +120,14 @@ public class OrdinalsGroupingOperator implements Operator {
     private final int maxPageSize;
     private ValuesAggregator valuesAggregator;
 
+    /**
+     * @param globalOrdinals the {@link OrdinalMap} of the grouping field for each shard, or {@code null}
+     *                       if the shard doesn't have global ordinals for it, for example because it
+     *                       only has a single segment
+     */
     public OrdinalsGroupingOperator(
         IntFunction<BlockLoader> blockLoaders,
+        IntFunction<OrdinalMap> globalOrdinals,
         List<ValuesSourceReaderOperator.ShardContext> shardContexts,
         ElementType groupingElementType,
         int docChannel,
@@ -115,12 +138,15 @@ public class OrdinalsGroupingOperator implements Operator {
     ) {
         Objects.requireNonNull(aggregatorFactories);
         this.blockLoaders = blockLoaders;
+        this.globalOrdinals = globalOrdinals;
         this.shardContexts = shardContexts;
         this.groupingElementType = groupingElementType;
         this.docChannel = docChannel;
         this.groupingField = groupingField;
         this.aggregatorFactories = aggregatorFactories;
         this.ordinalAggregators = new HashMap<>();
+        this.globalOrdinalAggregators = new HashMap<>();
+        this.shardsWithoutGlobalOrdinals = new HashSet<>();
         this.maxPageSize = maxPageSize;
         this.driverContext = driverContext;
     }
@@ -142,8 +168,15 @@ public class OrdinalsGroupingOperator implements Operator {
             if (docVector.singleSegmentNonDecreasing() && blockLoader.supportsOrdinals()) {
                 final IntVector segmentIndexVector = docVector.segments();
                 assert segmentIndexVector.isConstant();
+                final int segmentIndex = segmentIndexVector.getInt(0);
+                final GlobalOrdinalsAggregator globalOrdinalsAggregator = globalOrdinalsAggregator(shardIndex, blockLoader);
+                if (globalOrdinalsAggregator != null) {
+                    pagePassed = true;
+                    globalOrdinalsAggregator.addInput(segmentIndex, docVector.docs(), page);
+                    return;
+                }
                 final OrdinalSegmentAggregator ordinalAggregator = this.ordinalAggregators.computeIfAbsent(
-                    new SegmentID(shardIndex, segmentIndexVector.getInt(0)),
+                    new SegmentID(shardIndex, segmentIndex),
                     k -> {
                         try {
                             return new OrdinalSegmentAggregator(
@@ -158,7 +191,7 @@ public class OrdinalsGroupingOperator implements Operator {
                     }
                 );
                 pagePassed = true;
-                ordinalAggregator.addInput(docVector.docs(), page);
+                ordinalAggregator.addInput(segmentIndex, docVector.docs(), page);
             } else {
                 if (valuesAggregator == null) {
                     int channelIndex = page.getBlockCount(); // extractor will append a new block at the end
@@ -184,6 +217,33 @@ public class OrdinalsGroupingOperator implements Operator {
         }
     }
 
+    /**
+     * Returns the aggregator grouping the shard by global ordinals or {@code null} if the shard has no global ordinals.
+     */
+    @Nullable
+    private GlobalOrdinalsAggregator globalOrdinalsAggregator(int shardIndex, BlockLoader blockLoader) {
+        GlobalOrdinalsAggregator aggregator = globalOrdinalAggregators.get(shardIndex);
+        if (aggregator != null || shardsWithoutGlobalOrdinals.contains(shardIndex)) {
+            return aggregator;
+        }
+        final OrdinalMap ordinalMap = globalOrdinals.apply(shardIndex);
+        if (ordinalMap == null) {
+            shardsWithoutGlobalOrdinals.add(shardIndex);
+            return null;
+        }
+        final List<LeafReaderContext> leaves = shardContexts.get(shardIndex).reader().leaves();
+        aggregator = new GlobalOrdinalsAggregator(
+            driverContext.blockFactory(),
+            this::createGroupingAggregators,
+            ordinalMap,
+            leaves.size(),
+            segment -> blockLoader.ordinals(leaves.get(segment)),
+            driverContext.bigArrays()
+        );
+        globalOrdinalAggregators.put(shardIndex, aggregator);
+        return aggregator;
+    }
+
     private List<GroupingAggregator> createGroupingAggregators() {
         boolean success = false;
         List<GroupingAggregator> aggregators = new ArrayList<>(aggregatorFactories.size());
@@ -214,13 +274,18 @@ public class OrdinalsGroupingOperator implements Operator {
                 Releasables.close(aggregator);
             }
         }
-        if (ordinalAggregators.isEmpty() == false) {
+        if (ordinalAggregators.isEmpty() == false || globalOrdinalAggregators.isEmpty() == false) {
             try {
                 return mergeOrdinalsSegmentResults();
             } catch (IOException e) {
                 throw new UncheckedIOException(e);
             } finally {
-                Releasables.close(() -> Releasables.close(ordinalAggregators.values()), ordinalAggregators::clear);
+                Releasables.close(
+                    () -> Releasables.close(ordinalAggregators.values()),
+                    ordinalAggregators::clear,
+                    () -> Releasables.close(globalOrdinalAggregators.values()),
+                    globalOrdinalAggregators::clear
+                );
             }
         }
         return null;
@@ -236,7 +301,9 @@ public class OrdinalsGroupingOperator implements Operator {
 
     private Page mergeOrdinalsSegmentResults() throws IOException {
         // TODO: Should we also combine from the results from ValuesAggregator
-        final PriorityQueue<AggregatedResultIterator> pq = new PriorityQueue<>(ordinalAggregators.size()) {
+        final List<OrdinalsAggregator> ordinalsAggregators = new ArrayList<>(ordinalAggregators.values());
+        ordinalsAggregators.addAll(globalOrdinalAggregators.values());
+        final PriorityQueue<AggregatedResultIterator> pq = new PriorityQueue<>(ordinalsAggregators.size()) {
             @Override
             protected boolean lessThan(AggregatedResultIterator a, AggregatedResultIterator b) {
                 return a.currentTerm.compareTo(b.currentTerm) < 0;
@@ -245,7 +312,7 @@ public class OrdinalsGroupingOperator implements Operator {
         final List<GroupingAggregator> aggregators = createGroupingAggregators();
         try {
             boolean seenNulls = false;
-            for (OrdinalSegmentAggregator agg : ordinalAggregators.values()) {
+            for (OrdinalsAggregator agg : ordinalsAggregators) {
                 if (agg.seenNulls()) {
                     seenNulls = true;
                     for (int i = 0; i < aggregators.size(); i++) {
@@ -253,7 +320,7 @@ public class OrdinalsGroupingOperator implements Operator {
                     }
                 }
             }
-            for (OrdinalSegmentAggregator agg : ordinalAggregators.values()) {
+            for (OrdinalsAggregator agg : ordinalsAggregators) {
                 final AggregatedResultIterator it = agg.getResultIterator();
                 if (it.next()) {
                     pq.add(it);
@@ -311,12 +378,16 @@ public class OrdinalsGroupingOperator implements Operator {
 
     @Override
     public boolean isFinished() {
-        return finished && valuesAggregator == null && ordinalAggregators.isEmpty();
+        return finished && valuesAggregator == null && ordinalAggregators.isEmpty() && globalOrdinalAggregators.isEmpty();
     }
 
     @Override
     public void close() {
-        Releasables.close(() -> Releasables.close(ordinalAggregators.values()), valuesAggregator);
+        Releasables.close(
+            () -> Releasables.close(ordinalAggregators.values()),
+            () -> Releasables.close(globalOrdinalAggregators.values()),
+            valuesAggregator
+        );
     }
 
     private static void checkState(boolean condition, String msg) {
@@ -338,29 +409,27 @@ public class OrdinalsGroupingOperator implements Operator {
 
     }
 
-    static final class OrdinalSegmentAggregator implements Releasable, SeenGroupIds {
-        private final BlockFactory blockFactory;
-        private final List<GroupingAggregator> aggregators;
-        private final CheckedSupplier<SortedSetDocValues, IOException> docValuesSupplier;
+    /**
+     * Groups documents by {@code ordinal + 1}, reserving group {@code 0} for documents without a value.
+     */
+    abstract static class OrdinalsAggregator implements Releasable, SeenGroupIds {
+        protected final BlockFactory blockFactory;
+        protected final List<GroupingAggregator> aggregators;
         private final BitArray visitedOrds;
-        private BlockOrdinalsReader currentReader;
 
-        OrdinalSegmentAggregator(
+        OrdinalsAggregator(
             BlockFactory blockFactory,
             Supplier<List<GroupingAggregator>> aggregatorsSupplier,
-            CheckedSupplier<SortedSetDocValues, IOException> docValuesSupplier,
+            long valueCount,
             BigArrays bigArrays
-        ) throws IOException {
+        ) {
             boolean success = false;
             List<GroupingAggregator> groupingAggregators = null;
             BitArray bitArray = null;
             try {
-                final SortedSetDocValues sortedSetDocValues = docValuesSupplier.get();
-                bitArray = new BitArray(sortedSetDocValues.getValueCount(), bigArrays);
+                bitArray = new BitArray(valueCount, bigArrays);
                 groupingAggregators = aggregatorsSupplier.get();
-                this.currentReader = BlockOrdinalsReader.newReader(blockFactory, sortedSetDocValues);
                 this.blockFactory = blockFactory;
-                this.docValuesSupplier = docValuesSupplier;
                 this.aggregators = groupingAggregators;
                 this.visitedOrds = bitArray;
                 success = true;
@@ -372,17 +441,21 @@ public class OrdinalsGroupingOperator implements Operator {
             }
         }
 
-        void addInput(IntVector docs, Page page) {
+        /**
+         * Read the ordinals, plus one, of the {@code docs} in the segment with the given index.
+         */
+        abstract IntBlock readOrdinalsAdded1(int segmentIndex, IntVector docs) throws IOException;
+
+        abstract AggregatedResultIterator getResultIterator() throws IOException;
+
+        void addInput(int segmentIndex, IntVector docs, Page page) {
             GroupingAggregatorFunction.AddInput[] prepared = new GroupingAggregatorFunction.AddInput[aggregators.size()];
             try {
                 for (int i = 0; i < prepared.length; i++) {
                     prepared[i] = aggregators.get(i).prepareProcessPage(this, page);
                 }
 
-                if (BlockOrdinalsReader.canReuse(currentReader, docs.getInt(0)) == false) {
-                    currentReader = BlockOrdinalsReader.newReader(blockFactory, docValuesSupplier.get());
-                }
-                try (IntBlock ordinals = currentReader.readOrdinalsAdded1(docs)) {
+                try (IntBlock ordinals = readOrdinalsAdded1(segmentIndex, docs)) {
                     final IntVector ordinalsVector = ordinals.asVector();
                     if (ordinalsVector != null) {
                         addOrdinalsInput(ordinalsVector, prepared);
@@ -421,14 +494,14 @@ public class OrdinalsGroupingOperator implements Operator {
             }
         }
 
-        AggregatedResultIterator getResultIterator() throws IOException {
-            return new AggregatedResultIterator(aggregators, visitedOrds, docValuesSupplier.get());
-        }
-
         boolean seenNulls() {
             return visitedOrds.get(0);
         }
 
+        BitArray visitedOrds() {
+            return visitedOrds;
+        }
+
         @Override
         public BitArray seenGroupIds(BigArrays bigArrays) {
             final BitArray seen = new BitArray(0, bigArrays);
@@ -451,17 +524,117 @@ public class OrdinalsGroupingOperator implements Operator {
         }
     }
 
+    /**
+     * Groups the documents of a single segment by their segment ordinals.
+     */
+    static final class OrdinalSegmentAggregator extends OrdinalsAggregator {
+        private final CheckedSupplier<SortedSetDocValues, IOException> docValuesSupplier;
+        private BlockOrdinalsReader currentReader;
+
+        OrdinalSegmentAggregator(
+            BlockFactory blockFactory,
+            Supplier<List<GroupingAggregator>> aggregatorsSupplier,
+            CheckedSupplier<SortedSetDocValues, IOException> docValuesSupplier,
+            BigArrays bigArrays
+        ) throws IOException {
+            this(blockFactory, aggregatorsSupplier, docValuesSupplier, docValuesSupplier.get(), bigArrays);
+        }
+
+        private OrdinalSegmentAggregator(
+            BlockFactory blockFactory,
+            Supplier<List<GroupingAggregator>> aggregatorsSupplier,
+            CheckedSupplier<SortedSetDocValues, IOException> docValuesSupplier,
+            SortedSetDocValues sortedSetDocValues,
+            BigArrays bigArrays
+        ) {
+            super(blockFactory, aggregatorsSupplier, sortedSetDocValues.getValueCount(), bigArrays);
+            this.docValuesSupplier = docValuesSupplier;
+            this.currentReader = BlockOrdinalsReader.newReader(blockFactory, sortedSetDocValues, LongValues.IDENTITY);
+        }
+
+        @Override
+        IntBlock readOrdinalsAdded1(int segmentIndex, IntVector docs) throws IOException {
+            if (BlockOrdinalsReader.canReuse(currentReader, docs.getInt(0)) == false) {
+                currentReader = BlockOrdinalsReader.newReader(blockFactory, docValuesSupplier.get(), LongValues.IDENTITY);
+            }
+            return currentReader.readOrdinalsAdded1(docs);
+        }
+
+        @Override
+        AggregatedResultIterator getResultIterator() throws IOException {
+            return new AggregatedResultIterator(aggregators, visitedOrds(), docValuesSupplier.get()::lookupOrd);
+        }
+    }
+
+    /**
+     * Groups the documents of all segments of a shard by their global ordinals. Global ordinals are
+     * sorted in term order, so we can resolve the terms once, without merging segments by term.
+     */
+    static final class GlobalOrdinalsAggregator extends OrdinalsAggregator {
+        private final OrdinalMap ordinalMap;
+        private final CheckedIntFunction<SortedSetDocValues, IOException> docValuesSupplier;
+        private final BlockOrdinalsReader[] currentReaders;
+
+        GlobalOrdinalsAggregator(
+            BlockFactory blockFactory,
+            Supplier<List<GroupingAggregator>> aggregatorsSupplier,
+            OrdinalMap ordinalMap,
+            int segmentCount,
+            CheckedIntFunction<SortedSetDocValues, IOException> docValuesSupplier,
+            BigArrays bigArrays
+        ) {
+            super(blockFactory, aggregatorsSupplier, ordinalMap.getValueCount(), bigArrays);
+            this.ordinalMap = ordinalMap;
+            this.docValuesSupplier = docValuesSupplier;
+            this.currentReaders = new BlockOrdinalsReader[segmentCount];
+        }
+
+        @Override
+        IntBlock readOrdinalsAdded1(int segmentIndex, IntVector docs) throws IOException {
+            BlockOrdinalsReader reader = currentReaders[segmentIndex];
+            if (BlockOrdinalsReader.canReuse(reader, docs.getInt(0)) == false) {
+                reader = BlockOrdinalsReader.newReader(
+                    blockFactory,
+                    docValuesSupplier.apply(segmentIndex),
+                    ordinalMap.getGlobalOrds(segmentIndex)
+                );
+                currentReaders[segmentIndex] = reader;
+            }
+            return reader.readOrdinalsAdded1(docs);
+        }
+
+        @Override
+        AggregatedResultIterator getResultIterator() {
+            final SortedSetDocValues[] lookups = new SortedSetDocValues[currentReaders.length];
+            return new AggregatedResultIterator(aggregators, visitedOrds(), globalOrd -> {
+                final int segment = ordinalMap.getFirstSegmentNumber(globalOrd);
+                if (lookups[segment] == null) {
+                    lookups[segment] = docValuesSupplier.apply(segment);
+                }
+                return lookups[segment].lookupOrd(ordinalMap.getFirstSegmentOrd(globalOrd));
+            });
+        }
+    }
+
+    /**
+     * Resolves an ordinal into its term.
+     */
+    @FunctionalInterface
+    interface OrdinalLookup {
+        BytesRef lookupOrd(long ord) throws IOException;
+    }
+
     private static class AggregatedResultIterator {
         private BytesRef currentTerm;
         private long currentOrd = 0;
         private final List<GroupingAggregator> aggregators;
         private final BitArray ords;
-        private final SortedSetDocValues dv;
+        private final OrdinalLookup lookup;
 
-        AggregatedResultIterator(List<GroupingAggregator> aggregators, BitArray ords, SortedSetDocValues dv) {
+        AggregatedResultIterator(List<GroupingAggregator> aggregators, BitArray ords, OrdinalLookup lookup) {
             this.aggregators = aggregators;
             this.ords = ords;
-            this.dv = dv;
+            this.lookup = lookup;
         }
 
         int currentPosition() {
@@ -473,7 +646,7 @@ public class OrdinalsGroupingOperator implements Operator {
             currentOrd = ords.nextSetBit(currentOrd + 1);
             assert currentOrd > 0 : currentOrd;
             if (currentOrd < Long.MAX_VALUE) {
-                currentTerm = dv.lookupOrd(currentOrd - 1);
+                currentTerm = lookup.lookupOrd(currentOrd - 1);
                 return true;
             } else {
                 currentTerm = null;
@@ -540,18 +713,24 @@ public class OrdinalsGroupingOperator implements Operator {
     abstract static class BlockOrdinalsReader {
         protected final Thread creationThread;
         protected final BlockFactory blockFactory;
+        protected final LongValues ordinalMapping;
 
-        BlockOrdinalsReader(BlockFactory blockFactory) {
+        BlockOrdinalsReader(BlockFactory blockFactory, LongValues ordinalMapping) {
             this.blockFactory = blockFactory;
+            this.ordinalMapping = ordinalMapping;
             this.creationThread = Thread.currentThread();
         }
 
-        static BlockOrdinalsReader newReader(BlockFactory blockFactory, SortedSetDocValues sortedSetDocValues) {
+        /**
+         * Build a reader that maps each segment ordinal through {@code ordinalMapping}, which is
+         * either {@link LongValues#IDENTITY} or the segment to global ordinal mapping.
+         */
+        static BlockOrdinalsReader newReader(BlockFactory blockFactory, SortedSetDocValues sortedSetDocValues, LongValues ordinalMapping) {
             SortedDocValues singleValues = DocValues.unwrapSingleton(sortedSetDocValues);
             if (singleValues != null) {
-                return new SortedDocValuesBlockOrdinalsReader(blockFactory, singleValues);
+                return new SortedDocValuesBlockOrdinalsReader(blockFactory, singleValues, ordinalMapping);
             } else {
-                return new SortedSetDocValuesBlockOrdinalsReader(blockFactory, sortedSetDocValues);
+                return new SortedSetDocValuesBlockOrdinalsReader(blockFactory, sortedSetDocValues, ordinalMapping);
             }
         }
 
@@ -570,8 +749,8 @@ public class OrdinalsGroupingOperator implements Operator {
     private static class SortedSetDocValuesBlockOrdinalsReader extends BlockOrdinalsReader {
         private final SortedSetDocValues sortedSetDocValues;
 
-        SortedSetDocValuesBlockOrdinalsReader(BlockFactory blockFactory, SortedSetDocValues sortedSetDocValues) {
-            super(blockFactory);
+        SortedSetDocValuesBlockOrdinalsReader(BlockFactory blockFactory, SortedSetDocValues sortedSetDocValues, LongValues ordinalMapping) {
+            super(blockFactory, ordinalMapping);
             this.sortedSetDocValues = sortedSetDocValues;
         }
 
@@ -587,12 +766,12 @@ public class OrdinalsGroupingOperator implements Operator {
                     }
                     int count = sortedSetDocValues.docValueCount();
                     if (count == 1) {
-                        builder.appendInt(Math.toIntExact(sortedSetDocValues.nextOrd() + 1));
+                        builder.appendInt(Math.toIntExact(ordinalMapping.get(sortedSetDocValues.nextOrd()) + 1));
                         continue;
                     }
                     builder.beginPositionEntry();
                     for (int i = 0; i < count; i++) {
-                        builder.appendInt(Math.toIntExact(sortedSetDocValues.nextOrd() + 1));
+                        builder.appendInt(Math.toIntExact(ordinalMapping.get(sortedSetDocValues.nextOrd()) + 1));
                     }
                     builder.endPositionEntry();
                 }
@@ -609,8 +788,8 @@ public class OrdinalsGroupingOperator implements Operator {
     private static class SortedDocValuesBlockOrdinalsReader extends BlockOrdinalsReader {
         private final SortedDocValues sortedDocValues;
 
-        SortedDocValuesBlockOrdinalsReader(BlockFactory blockFactory, SortedDocValues sortedDocValues) {
-            super(blockFactory);
+        SortedDocValuesBlockOrdinalsReader(BlockFactory blockFactory, SortedDocValues sortedDocValues, LongValues ordinalMapping) {
+            super(blockFactory, ordinalMapping);
             this.sortedDocValues = sortedDocValues;
         }
 
@@ -620,7 +799,7 @@ public class OrdinalsGroupingOperator implements Operator {
             try (IntVector.FixedBuilder builder = blockFactory.newIntVectorFixedBuilder(positionCount)) {
                 for (int p = 0; p < positionCount; p++) {
                     if (sortedDocValues.advanceExact(docs.getInt(p))) {
-                        builder.appendInt(p, sortedDocValues.ordValue() + 1);
+                        builder.appendInt(p, Math.toIntExact(ordinalMapping.get(sortedDocValues.ordValue()) + 1));
                     } else {
                         builder.appendInt(p, 0);
                     }
@@ -12,7 +12,6 @@ import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.PriorityQueue;
 import org.apache.lucene.util.RamUsageEstimator;
 import org.elasticsearch.common.breaker.CircuitBreaker;
-import org.elasticsearch.common.collect.Iterators;
 import org.elasticsearch.compute.data.Block;
 import org.elasticsearch.compute.data.BlockFactory;
 import org.elasticsearch.compute.data.ElementType;
@@ -21,13 +20,14 @@ import org.elasticsearch.compute.operator.BreakingBytesRefBuilder;
 import org.elasticsearch.compute.operator.DriverContext;
 import org.elasticsearch.compute.operator.Operator;
 import org.elasticsearch.core.Releasable;
+import org.elasticsearch.core.ReleasableIterator;
 import org.elasticsearch.core.Releasables;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 /**
  * An operator that sorts "rows" of values by encoding the values to sort on, as bytes (using BytesRef). Each data type is encoded
@@ -169,15 +169,7 @@ public class TopNOperator implements Operator, Accountable {
             }
         }
 
-        /**
-         * Fill a {@link Row} for {@code position}.
-         */
-        void row(int position, Row destination) {
-            writeKey(position, destination);
-            writeValues(position, destination.values);
-        }
-
-        private void writeKey(int position, Row row) {
+        void writeKey(int position, Row row) {
             int orderByCompositeKeyCurrentPosition = 0;
             for (int i = 0; i < keyFactories.length; i++) {
                 int valueAsBytesSize = keyFactories[i].extractor.writeKey(row.keys, position);
@@ -187,7 +179,7 @@ public class TopNOperator implements Operator, Accountable {
             }
         }
 
-        private void writeValues(int position, BreakingBytesRefBuilder values) {
+        void writeValues(int position, BreakingBytesRefBuilder values) {
             for (ValueExtractor e : valueExtractors) {
                 e.writeValue(values, position);
             }
@@ -276,7 +268,7 @@ public class TopNOperator implements Operator, Accountable {
     private int spareValuesPreAllocSize = 0;
     private int spareKeysPreAllocSize = 0;
 
-    private Iterator<Page> output;
+    private ReleasableIterator<Page> output;
 
     /**
      * Count of pages that have been received by this operator.
@@ -377,12 +369,16 @@ public class TopNOperator implements Operator, Accountable {
                     spare.keys.clear();
                     spare.values.clear();
                 }
-                rowFiller.row(i, spare);
-
                 // When rows are very long, appending the values one by one can lead to lots of allocations.
                 // To avoid this, pre-allocate at least as much size as in the last seen row.
                 // Let the pre-allocation size decay in case we only have 1 huge row and smaller rows otherwise.
+                rowFiller.writeKey(i, spare);
                 spareKeysPreAllocSize = Math.max(spare.keys.length(), spareKeysPreAllocSize / 2);
+                if (inputQueue.isCompetitive(spare) == false) {
+                    // The queue is full and this row sorts after all of it so there's no need to encode the values.
+                    continue;
+                }
+                rowFiller.writeValues(i, spare.values);
                 spareValuesPreAllocSize = Math.max(spare.values.length(), spareValuesPreAllocSize / 2);
 
                 spare = inputQueue.insertWithOverflow(spare);
@@ -401,99 +397,118 @@ public class TopNOperator implements Operator, Accountable {
         }
     }
 
-    private Iterator<Page> toPages() {
+    private ReleasableIterator<Page> toPages() {
         if (spare != null) {
             // Remove the spare, we're never going to use it again.
             spare.close();
             spare = null;
         }
-        if (inputQueue.size() == 0) {
-            return Collections.emptyIterator();
-        }
         List<Row> list = new ArrayList<>(inputQueue.size());
-        List<Page> result = new ArrayList<>();
-        ResultBuilder[] builders = null;
         boolean success = false;
         try {
             while (inputQueue.size() > 0) {
                 list.add(inputQueue.pop());
             }
             Collections.reverse(list);
+            ReleasableIterator<Page> result = new RowsToPages(list);
+            success = true;
+            return result;
+        } finally {
+            if (success == false) {
+                Releasables.closeExpectNoException(Releasables.wrap(list));
+            }
+        }
+    }
 
-            int p = 0;
-            int size = 0;
-            for (int i = 0; i < list.size(); i++) {
-                if (builders == null) {
-                    size = Math.min(maxPageSize, list.size() - i);
-                    builders = new ResultBuilder[elementTypes.size()];
-                    for (int b = 0; b < builders.length; b++) {
-                        builders[b] = ResultBuilder.resultBuilderFor(
-                            blockFactory,
-                            elementTypes.get(b),
-                            encoders.get(b).toUnsortable(),
-                            channelInKey(sortOrders, b),
-                            size
-                        );
-                    }
-                    p = 0;
-                }
+    /**
+     * Decodes sorted {@link Row}s into {@link Page}s one page at a time. Building
+     * the pages lazily lets us release the memory of each {@link Row} as soon as it's
+     * been decoded and the downstream operators can consume the pages as they are
+     * built rather than holding a copy of every row as both a {@link Row} and a
+     * {@link Page} at once. That's significant for large {@code LIMIT}s.
+     */
+    private class RowsToPages implements ReleasableIterator<Page> {
+        private final List<Row> rows;
+        private int next;
 
-                Row row = list.get(i);
-                BytesRef keys = row.keys.bytesRefView();
-                for (SortOrder so : sortOrders) {
-                    if (keys.bytes[keys.offset] == so.nul()) {
-                        keys.offset++;
-                        keys.length--;
-                        continue;
-                    }
-                    keys.offset++;
-                    keys.length--;
-                    builders[so.channel].decodeKey(keys);
-                }
-                if (keys.length != 0) {
-                    throw new IllegalArgumentException("didn't read all keys");
-                }
+        RowsToPages(List<Row> rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < rows.size();
+        }
 
-                BytesRef values = row.values.bytesRefView();
-                for (ResultBuilder builder : builders) {
-                    builder.decodeValue(values);
+        @Override
+        public Page next() {
+            if (hasNext() == false) {
+                throw new NoSuchElementException();
+            }
+            int size = Math.min(maxPageSize, rows.size() - next);
+            ResultBuilder[] builders = new ResultBuilder[elementTypes.size()];
+            try {
+                for (int b = 0; b < builders.length; b++) {
+                    builders[b] = ResultBuilder.resultBuilderFor(
+                        blockFactory,
+                        elementTypes.get(b),
+                        encoders.get(b).toUnsortable(),
+                        channelInKey(sortOrders, b),
+                        size
+                    );
                 }
-                if (values.length != 0) {
-                    throw new IllegalArgumentException("didn't read all values");
+                for (int p = 0; p < size; p++) {
+                    Row row = rows.get(next);
+                    decodeRow(row, builders);
+                    rows.set(next, null);
+                    next++;
+                    row.close();
                 }
 
-                list.set(i, null);
-                row.close();
-
-                p++;
-                if (p == size) {
-                    Block[] blocks = new Block[builders.length];
-                    try {
-                        for (int b = 0; b < blocks.length; b++) {
-                            blocks[b] = builders[b].build();
-                        }
-                    } finally {
-                        if (blocks[blocks.length - 1] == null) {
-                            Releasables.closeExpectNoException(blocks);
-                        }
+                Block[] blocks = new Block[builders.length];
+                try {
+                    for (int b = 0; b < blocks.length; b++) {
+                        blocks[b] = builders[b].build();
+                    }
+                } finally {
+                    if (blocks[blocks.length - 1] == null) {
+                        Releasables.closeExpectNoException(blocks);
                     }
-                    result.add(new Page(blocks));
-                    Releasables.closeExpectNoException(builders);
-                    builders = null;
                 }
+                return new Page(blocks);
+            } finally {
+                Releasables.closeExpectNoException(builders);
             }
-            assert builders == null;
-            success = true;
-            return result.iterator();
-        } finally {
-            if (success == false) {
-                List<Releasable> close = new ArrayList<>(list);
-                for (Page p : result) {
-                    close.add(p::releaseBlocks);
+        }
+
+        private void decodeRow(Row row, ResultBuilder[] builders) {
+            BytesRef keys = row.keys.bytesRefView();
+            for (SortOrder so : sortOrders) {
+                if (keys.bytes[keys.offset] == so.nul()) {
+                    keys.offset++;
+                    keys.length--;
+                    continue;
                 }
-                Collections.addAll(close, builders);
-                Releasables.closeExpectNoException(Releasables.wrap(close));
+                keys.offset++;
+                keys.length--;
+                builders[so.channel].decodeKey(keys);
+            }
+            if (keys.length != 0) {
+                throw new IllegalArgumentException("didn't read all keys");
             }
+
+            BytesRef values = row.values.bytesRefView();
+            for (ResultBuilder builder : builders) {
+                builder.decodeValue(values);
+            }
+            if (values.length != 0) {
+                throw new IllegalArgumentException("didn't read all values");
+            }
+        }
+
+        @Override
+        public void close() {
+            Releasables.closeExpectNoException(Releasables.wrap(rows.subList(next, rows.size())));
         }
     }
 
@@ -532,7 +547,7 @@ public class TopNOperator implements Operator, Accountable {
         Releasables.closeExpectNoException(
             spare,
             inputQueue == null ? null : Releasables.wrap(inputQueue),
-            output == null ? null : Releasables.wrap(() -> Iterators.map(output, p -> p::releaseBlocks))
+            output
         );
     }
 
@@ -590,6 +605,17 @@ public class TopNOperator implements Operator, Accountable {
             return compareRows(r1, r2) < 0;
         }
 
+        /**
+         * Would {@link #insertWithOverflow} keep {@code row}? Only the sort key of
+         * {@code row} needs to be filled in to check.
+         */
+        boolean isCompetitive(Row row) {
+            if (size() < maxSize) {
+                return true;
+            }
+            return maxSize > 0 && lessThan(row, top()) == false;
+        }
+
         @Override
         public String toString() {
             return size() + "/" + maxSize;
@@ -12,8 +12,11 @@ import org.apache.lucene.document.Field;
 import org.apache.lucene.document.LongPoint;
 import org.apache.lucene.document.SortedSetDocValuesField;
 import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.DocValues;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.OrdinalMap;
+import org.apache.lucene.index.SortedSetDocValues;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.search.Collector;
 import org.apache.lucene.search.IndexSearcher;
@@ -26,6 +29,7 @@ import org.apache.lucene.store.Directory;
 import org.apache.lucene.tests.index.RandomIndexWriter;
 import org.apache.lucene.tests.store.BaseDirectoryWrapper;
 import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.packed.PackedInts;
 import org.elasticsearch.common.breaker.CircuitBreakingException;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeValue;
@@ -160,6 +164,14 @@ public class OperatorTests extends MapperServiceTestCase {
     }
 
     public void testGroupingWithOrdinals() throws Exception {
+        testGroupingWithOrdinals(false);
+    }
+
+    public void testGroupingWithGlobalOrdinals() throws Exception {
+        testGroupingWithOrdinals(true);
+    }
+
+    private void testGroupingWithOrdinals(boolean globalOrdinals) throws Exception {
         DriverContext driverContext = driverContext();
         BlockFactory blockFactory = driverContext.blockFactory();
 
@@ -180,6 +192,7 @@ public class OperatorTests extends MapperServiceTestCase {
             Map<BytesRef, Long> actualCounts = new HashMap<>();
 
             try (DirectoryReader reader = writer.getReader()) {
+                OrdinalMap ordinalMap = globalOrdinals ? buildOrdinalMap(reader, gField) : null;
                 List<Operator> operators = new ArrayList<>();
                 if (randomBoolean()) {
                     operators.add(new ShuffleDocsOperator(blockFactory));
@@ -198,6 +211,7 @@ public class OperatorTests extends MapperServiceTestCase {
                 operators.add(
                     new OrdinalsGroupingOperator(
                         shardIdx -> new KeywordFieldMapper.KeywordFieldType("g").blockLoader(mockBlContext()),
+                        shardIdx -> ordinalMap,
                         List.of(new ValuesSourceReaderOperator.ShardContext(reader, () -> SourceLoader.FROM_STORED_SOURCE, 0.2)),
                         ElementType.BYTES_REF,
                         0,
@@ -243,6 +257,14 @@ public class OperatorTests extends MapperServiceTestCase {
         assertThat(blockFactory.breaker().getUsed(), equalTo(0L));
     }
 
+    private static OrdinalMap buildOrdinalMap(IndexReader reader, String field) throws IOException {
+        SortedSetDocValues[] values = new SortedSetDocValues[reader.leaves().size()];
+        for (LeafReaderContext leaf : reader.leaves()) {
+            values[leaf.ord] = DocValues.getSortedSet(leaf.reader(), field);
+        }
+        return OrdinalMap.build(null, values, PackedInts.DEFAULT);
+    }
+
     public void testLimitOperator() {
         var positions = 100;
         var limit = randomIntBetween(90, 101);
@@ -1540,6 +1540,7 @@ public class BlockHashTests extends BlockHashTestCase {
                     for (int p = 0; p < result.nonEmpty.getPositionCount(); p++) {
                         allowedOrds.add(result.nonEmpty.getInt(p));
                     }
+                    assertThat(blockHash.numKeys(), equalTo(result.nonEmpty.getPositionCount()));
                     for (int p = 0; p < result.ords.getPositionCount(); p++) {
                         if (result.ords.isNull(p)) {
                             continue;
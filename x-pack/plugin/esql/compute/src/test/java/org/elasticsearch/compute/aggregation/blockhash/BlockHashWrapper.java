@@ -52,6 +52,11 @@ public abstract class BlockHashWrapper extends BlockHash {
         return blockHash.nonEmpty();
     }
 
+    @Override
+    public int numKeys() {
+        return blockHash.numKeys();
+    }
+
     @Override
     public BitArray seenGroupIds(BigArrays bigArrays) {
         return blockHash.seenGroupIds(bigArrays);
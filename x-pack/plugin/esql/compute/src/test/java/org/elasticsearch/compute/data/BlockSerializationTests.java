@@ -12,6 +12,7 @@ import org.elasticsearch.TransportVersion;
 import org.elasticsearch.TransportVersions;
 import org.elasticsearch.common.breaker.CircuitBreaker;
 import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.common.util.BytesRefHash;
@@ -33,6 +34,7 @@ import java.util.stream.IntStream;
 
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 
 public class BlockSerializationTests extends SerializationTestCase {
 
@@ -373,6 +375,38 @@ public class BlockSerializationTests extends SerializationTestCase {
         }
     }
 
+    public void testPackedLongVector() throws IOException {
+        int positions = between(2, 8192);
+        long min = randomLong();
+        int bits = between(0, 64);
+        long[] values = new long[positions];
+        for (int i = 0; i < positions; i++) {
+            long offset = bits == 64 ? randomLong() : randomLongBetween(0, (1L << bits) - 1);
+            values[i] = min + offset;
+        }
+        // Make sure the vector isn't constant
+        values[1] = values[0] + 1;
+        try (LongVector vector = blockFactory.newLongArrayVector(values, positions)) {
+            try (LongBlock deserBlock = serializeDeserializeBlockWithVersion(vector.asBlock(), TransportVersion.current())) {
+                assertThat(deserBlock.asVector(), equalTo(vector));
+            }
+            try (BytesStreamOutput out = new BytesStreamOutput()) {
+                out.setTransportVersion(TransportVersion.current());
+                vector.writeTo(out);
+                long maxBytes = (long) positions * Math.max(bits, 1) / Byte.SIZE + Long.BYTES + 32;
+                assertThat(out.bytes().length(), lessThanOrEqualTo((int) maxBytes));
+            }
+        }
+    }
+
+    public void testEmptyPackedLongVector() throws IOException {
+        try (LongVector vector = blockFactory.newLongArrayVector(new long[0], 0)) {
+            try (LongBlock deserBlock = serializeDeserializeBlockWithVersion(vector.asBlock(), TransportVersion.current())) {
+                assertThat(deserBlock.getPositionCount(), equalTo(0));
+            }
+        }
+    }
+
     public void testCompositeBlock() throws Exception {
         final int numBlocks = randomIntBetween(1, 10);
         final int positionCount = randomIntBetween(1, 1000);
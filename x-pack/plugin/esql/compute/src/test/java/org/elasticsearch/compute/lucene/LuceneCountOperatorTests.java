@@ -9,7 +9,10 @@ package org.elasticsearch.compute.lucene;
 
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.index.NoMergePolicy;
 import org.apache.lucene.search.MatchAllDocsQuery;
 import org.apache.lucene.search.Query;
@@ -37,6 +40,8 @@ import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Supplier;
 
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.hamcrest.Matchers.matchesRegex;
@@ -139,6 +144,67 @@ public class LuceneCountOperatorTests extends AnyOperatorTestCase {
         }
     }
 
+    /**
+     * One driver loads the only slice and another steals half of it before the first one counts anything.
+     * Without deletions both use the segment wide count shortcut, with deletions they count the docs.
+     */
+    public void testIdleDriverStealsFromStraggler() throws IOException {
+        int numDocs = between(LuceneSliceQueue.MIN_DOCS_TO_STEAL * 2, LuceneSliceQueue.MIN_DOCS_TO_STEAL * 5);
+        int deleted = randomBoolean() ? 0 : between(1, numDocs / 2);
+        try (IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig())) {
+            for (int d = 0; d < numDocs; d++) {
+                var doc = new Document();
+                doc.add(new LongPoint("s", d));
+                writer.addDocument(doc);
+            }
+            writer.forceMerge(1);
+            if (deleted > 0) {
+                writer.deleteDocuments(LongPoint.newRangeQuery("s", 0, deleted - 1));
+            }
+            reader = DirectoryReader.open(writer);
+        }
+        assertThat(reader.leaves(), hasSize(1));
+
+        LuceneCountOperator.Factory factory = new LuceneCountOperator.Factory(
+            List.of(new LuceneSourceOperatorTests.MockShardContext(reader, 0)),
+            c -> new MatchAllDocsQuery(),
+            DataPartitioning.SHARD,
+            2,
+            Integer.MAX_VALUE
+        );
+        DriverContext driverContext = driverContext();
+        LuceneCountOperator straggler = (LuceneCountOperator) factory.get(driverContext);
+        LuceneCountOperator idle = (LuceneCountOperator) factory.get(driverContext);
+        long totalCount = 0;
+        try {
+            // The straggler takes the only slice
+            assertNotNull(straggler.getCurrentOrLoadNextScorer());
+            // So the idle driver must steal
+            while (idle.isFinished() == false) {
+                totalCount += readCount(idle.getOutput());
+            }
+            assertThat(idle.processedSlices, greaterThanOrEqualTo(1));
+            while (straggler.isFinished() == false) {
+                totalCount += readCount(straggler.getOutput());
+            }
+        } finally {
+            IOUtils.close(straggler, idle);
+        }
+        assertThat(totalCount, equalTo((long) numDocs - deleted));
+    }
+
+    private static long readCount(Page page) {
+        if (page == null) {
+            return 0;
+        }
+        try {
+            LongBlock count = page.getBlock(0);
+            return count.getLong(0);
+        } finally {
+            page.releaseBlocks();
+        }
+    }
+
     private void testEmpty(Supplier<DriverContext> contexts) {
         int limit = randomBoolean() ? between(10, 10000) : Integer.MAX_VALUE;
         testCount(contexts, 0, limit);
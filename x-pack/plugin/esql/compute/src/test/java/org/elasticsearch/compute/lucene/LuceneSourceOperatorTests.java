@@ -16,8 +16,10 @@ import org.apache.lucene.search.MatchAllDocsQuery;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.tests.index.RandomIndexWriter;
+import org.apache.lucene.util.FixedBitSet;
 import org.elasticsearch.common.breaker.CircuitBreakingException;
 import org.elasticsearch.compute.data.DocBlock;
+import org.elasticsearch.compute.data.DocVector;
 import org.elasticsearch.compute.data.DoubleBlock;
 import org.elasticsearch.compute.data.ElementType;
 import org.elasticsearch.compute.data.LongBlock;
@@ -55,6 +57,7 @@ import java.util.function.Function;
 
 import static org.hamcrest.Matchers.both;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.lessThan;
@@ -228,6 +231,69 @@ public class LuceneSourceOperatorTests extends AnyOperatorTestCase {
         }
     }
 
+    public void testIdleDriverStealsFromStraggler() throws IOException {
+        int numDocs = between(LuceneSliceQueue.MIN_DOCS_TO_STEAL * 2, LuceneSliceQueue.MIN_DOCS_TO_STEAL * 5);
+        try (RandomIndexWriter writer = new RandomIndexWriter(random(), directory)) {
+            for (int d = 0; d < numDocs; d++) {
+                writer.addDocument(List.of(new SortedNumericDocValuesField("s", d)));
+            }
+            writer.forceMerge(1);
+            reader = writer.getReader();
+        }
+        // A single segment read by a single slice so only stealing can share the work
+        LuceneSourceOperator.Factory factory = new LuceneSourceOperator.Factory(
+            List.of(new MockShardContext(reader, 0)),
+            c -> new MatchAllDocsQuery(),
+            DataPartitioning.SHARD,
+            2,
+            between(10, 1000),
+            LuceneOperator.NO_LIMIT,
+            false
+        );
+        DriverContext driverContext = driverContext();
+        SourceOperator straggler = factory.get(driverContext);
+        SourceOperator idle = factory.get(driverContext);
+        FixedBitSet seen = new FixedBitSet(numDocs);
+        int stolen = 0;
+        try {
+            // The straggler takes the only slice
+            assertThat(readPage(straggler, seen), greaterThan(0));
+            // So the idle driver must steal
+            while (idle.isFinished() == false) {
+                stolen += readPage(idle, seen);
+            }
+            while (straggler.isFinished() == false) {
+                readPage(straggler, seen);
+            }
+            // Stolen slices count towards the total
+            LuceneOperator.Status stragglerStatus = (LuceneOperator.Status) straggler.status();
+            LuceneOperator.Status idleStatus = (LuceneOperator.Status) idle.status();
+            assertThat(idleStatus.totalSlices(), greaterThan(1));
+            assertThat(stragglerStatus.processedSlices() + idleStatus.processedSlices(), equalTo(idleStatus.totalSlices()));
+        } finally {
+            IOUtils.close(straggler, idle);
+        }
+        assertThat(stolen, greaterThanOrEqualTo(LuceneSliceQueue.MIN_DOCS_TO_STEAL));
+        assertThat(seen.cardinality(), equalTo(numDocs));
+    }
+
+    private static int readPage(SourceOperator operator, FixedBitSet seen) {
+        Page page = operator.getOutput();
+        if (page == null) {
+            return 0;
+        }
+        try {
+            DocVector docs = page.<DocBlock>getBlock(0).asVector();
+            for (int p = 0; p < page.getPositionCount(); p++) {
+                int doc = docs.docs().getInt(p);
+                assertFalse("doc [" + doc + "] read twice", seen.getAndSet(doc));
+            }
+            return page.getPositionCount();
+        } finally {
+            page.releaseBlocks();
+        }
+    }
+
     private void testSimple(DriverContext ctx, DataPartitioning partitioning, int size, int limit) {
         LuceneSourceOperator.Factory factory = simple(partitioning, size, limit, scoring);
         Operator.OperatorFactory readS = ValuesSourceReaderOperatorTests.factory(reader, S_FIELD, ElementType.LONG);
@@ -8,7 +8,10 @@
 package org.elasticsearch.compute.lucene;
 
 import org.apache.lucene.document.SortedNumericDocValuesField;
+import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.index.IndexableField;
 import org.apache.lucene.index.NoMergePolicy;
 import org.apache.lucene.search.MatchAllDocsQuery;
@@ -21,12 +24,14 @@ import org.apache.lucene.store.Directory;
 import org.apache.lucene.tests.index.RandomIndexWriter;
 import org.elasticsearch.common.breaker.CircuitBreakingException;
 import org.elasticsearch.compute.data.DocBlock;
+import org.elasticsearch.compute.data.DocVector;
 import org.elasticsearch.compute.data.DoubleBlock;
 import org.elasticsearch.compute.data.ElementType;
 import org.elasticsearch.compute.data.LongBlock;
 import org.elasticsearch.compute.data.Page;
 import org.elasticsearch.compute.operator.DriverContext;
 import org.elasticsearch.compute.operator.Operator;
+import org.elasticsearch.compute.operator.SourceOperator;
 import org.elasticsearch.compute.test.AnyOperatorTestCase;
 import org.elasticsearch.compute.test.OperatorTestCase;
 import org.elasticsearch.compute.test.TestDriverFactory;
@@ -47,6 +52,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.function.Function;
+import java.util.stream.LongStream;
 
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasSize;
@@ -209,6 +215,104 @@ public class LuceneTopNSourceOperatorTests extends AnyOperatorTestCase {
         assertThat(results, hasSize(pages));
     }
 
+    public void testIdleDriverStealsFromStraggler() throws IOException {
+        testStealing(true);
+    }
+
+    public void testWorkStealingDisabled() throws IOException {
+        testStealing(false);
+    }
+
+    /**
+     * Two drivers with one half of a single segment each. The smallest values sit at the end of the
+     * first half so the second driver only finds them by stealing from the first one. The stolen range
+     * is behind the docs the second driver has already collected from the same segment.
+     */
+    private void testStealing(boolean workStealing) throws IOException {
+        int numDocs = between(LuceneSliceQueue.MIN_DOCS_TO_STEAL * 5, LuceneSliceQueue.MIN_DOCS_TO_STEAL * 6);
+        int half = numDocs / 2;
+        // a single flush keeps the docs in a single segment, in the order we added them
+        try (IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig())) {
+            for (int d = 0; d < numDocs; d++) {
+                writer.addDocument(List.of(new SortedNumericDocValuesField("s", sValue(d, half, numDocs))));
+            }
+            reader = DirectoryReader.open(writer);
+        }
+        assertThat(reader.leaves(), hasSize(1));
+
+        ShardContext ctx = new LuceneSourceOperatorTests.MockShardContext(reader, 0) {
+            @Override
+            public Optional<SortAndFormats> buildSort(List<SortBuilder<?>> sorts) {
+                SortField field = new SortedNumericSortField("s", SortField.Type.LONG, false, SortedNumericSelector.Type.MIN);
+                return Optional.of(new SortAndFormats(new Sort(field), new DocValueFormat[] { null }));
+            }
+        };
+        int limit = 10;
+        LuceneTopNSourceOperator.Factory factory = new LuceneTopNSourceOperator.Factory(
+            List.of(ctx),
+            c -> new MatchAllDocsQuery(),
+            DataPartitioning.DOC,
+            2,
+            between(10, 100),
+            limit,
+            List.of(new FieldSortBuilder("s")),
+            false,
+            workStealing
+        );
+        DriverContext driverContext = driverContext();
+        SourceOperator straggler = factory.get(driverContext);
+        SourceOperator idle = factory.get(driverContext);
+        List<Integer> stragglerDocs = new ArrayList<>();
+        List<Integer> idleDocs = new ArrayList<>();
+        try {
+            // The straggler takes the first half and collects a single page of it
+            assertNull(straggler.getOutput());
+            // The other driver takes the second half and then steals from the first one
+            while (idle.isFinished() == false) {
+                readDocs(idle.getOutput(), idleDocs);
+            }
+            while (straggler.isFinished() == false) {
+                readDocs(straggler.getOutput(), stragglerDocs);
+            }
+        } finally {
+            IOUtils.close(straggler, idle);
+        }
+        OperatorTestCase.assertDriverContext(driverContext);
+
+        assertThat(idleDocs.stream().anyMatch(d -> d < half), equalTo(workStealing));
+        List<Long> top = new ArrayList<>();
+        for (int d : stragglerDocs) {
+            top.add(sValue(d, half, numDocs));
+        }
+        for (int d : idleDocs) {
+            top.add(sValue(d, half, numDocs));
+        }
+        top = top.stream().sorted().limit(limit).toList();
+        assertThat(top, equalTo(LongStream.rangeClosed(1, limit).boxed().toList()));
+    }
+
+    /**
+     * Values that count down to {@code 1} over the first half of the docs and are all bigger than
+     * that over the second half.
+     */
+    private static long sValue(int doc, int half, int numDocs) {
+        return doc < half ? half - doc : numDocs + doc;
+    }
+
+    private static void readDocs(Page page, List<Integer> docs) {
+        if (page == null) {
+            return;
+        }
+        try {
+            DocVector docVector = page.<DocBlock>getBlock(0).asVector();
+            for (int p = 0; p < page.getPositionCount(); p++) {
+                docs.add(docVector.docs().getInt(p));
+            }
+        } finally {
+            page.releaseBlocks();
+        }
+    }
+
     // Scores are not interesting to this test, but enabled conditionally and effectively ignored just for coverage.
     private final boolean scoring = randomBoolean();
 
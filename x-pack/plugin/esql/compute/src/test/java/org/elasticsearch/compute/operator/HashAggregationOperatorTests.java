@@ -20,6 +20,9 @@ import org.elasticsearch.compute.data.BlockFactory;
 import org.elasticsearch.compute.data.ElementType;
 import org.elasticsearch.compute.data.LongBlock;
 import org.elasticsearch.compute.data.Page;
+import org.elasticsearch.compute.test.BlockTestUtils;
+import org.elasticsearch.compute.test.CannedSourceOperator;
+import org.elasticsearch.compute.test.TestBlockFactory;
 import org.elasticsearch.core.Tuple;
 import org.hamcrest.Matcher;
 
@@ -42,6 +45,13 @@ public class HashAggregationOperatorTests extends ForkingOperatorTestCase {
 
     @Override
     protected Operator.OperatorFactory simpleWithMode(SimpleOptions options, AggregatorMode mode) {
+        if (randomBoolean()) {
+            return simpleWithMode(mode, Integer.MAX_VALUE, 1.0);
+        }
+        return simpleWithMode(mode, between(1, 5), randomDoubleBetween(0.0, 1.0, true));
+    }
+
+    private Operator.OperatorFactory simpleWithMode(AggregatorMode mode, int partialEmitKeysThreshold, double partialEmitUniqueness) {
         List<Integer> sumChannels, maxChannels;
         if (mode.isInputPartial()) {
             int sumChannelCount = SumLongAggregatorFunction.intermediateStateDesc().size();
@@ -60,8 +70,42 @@ public class HashAggregationOperatorTests extends ForkingOperatorTestCase {
                 new MaxLongAggregatorFunctionSupplier().groupingAggregatorFactory(mode, maxChannels)
             ),
             randomPageSize(),
-            null
+            null,
+            partialEmitKeysThreshold,
+            partialEmitUniqueness
+        );
+    }
+
+    public void testEmitPartialResultsEarly() {
+        DriverContext driverContext = driverContext();
+        List<Page> input = CannedSourceOperator.collectPages(simpleInput(driverContext.blockFactory(), between(1_000, 10_000)));
+        int inputPages = input.size();
+        List<Page> origInput = BlockTestUtils.deepCopyOf(input, TestBlockFactory.getNonBreakingInstance());
+        List<Page> partials = drive(simpleWithMode(AggregatorMode.INITIAL, 1, 0.0).get(driverContext), input.iterator(), driverContext);
+        // One page of partial results per input page. The empty final page is dropped by the driver.
+        assertThat(partials, hasSize(inputPages));
+
+        List<Page> results = drive(
+            simpleWithMode(AggregatorMode.FINAL, 1, 0.0).get(driverContext),
+            partials.iterator(),
+            driverContext
         );
+        assertSimpleOutput(origInput, results);
+        assertDriverContext(driverContext);
+    }
+
+    public void testNoEarlyEmitWhenKeysCollapse() {
+        DriverContext driverContext = driverContext();
+        List<Page> input = CannedSourceOperator.collectPages(simpleInput(driverContext.blockFactory(), between(1_000, 10_000)));
+        // Only 5 keys in thousands of rows - the hash is collapsing plenty so we should keep it
+        List<Page> partials = drive(simpleWithMode(AggregatorMode.INITIAL, 1, 0.5).get(driverContext), input.iterator(), driverContext);
+        try {
+            assertThat(partials, hasSize(1));
+            assertThat(partials.get(0).getPositionCount(), equalTo(5));
+        } finally {
+            partials.forEach(Page::releaseBlocks);
+        }
+        assertDriverContext(driverContext);
     }
 
     @Override
@@ -17,6 +17,7 @@ import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.util.MockBigArrays;
 import org.elasticsearch.compute.data.Block;
 import org.elasticsearch.compute.data.BlockFactory;
+import org.elasticsearch.compute.data.BytesRefBlock;
 import org.elasticsearch.compute.data.ElementType;
 import org.elasticsearch.compute.data.IntBlock;
 import org.elasticsearch.compute.data.LongBlock;
@@ -458,7 +459,8 @@ public class TopNOperatorTests extends OperatorTestCase {
             page
         );
         TopNOperator.Row row = new TopNOperator.Row(nonBreakingBigArrays().breakerService().getBreaker("request"), sortOrders, 0, 0);
-        rf.row(position, row);
+        rf.writeKey(position, row);
+        rf.writeValues(position, row.values);
         return row;
     }
 
@@ -1447,6 +1449,105 @@ public class TopNOperatorTests extends OperatorTestCase {
         }
     }
 
+    public void testSkipValuesOfRowsLosingToTopN() {
+        int topCount = 10;
+        CircuitBreaker breaker = new MockBigArrays.LimitedBreaker(CircuitBreaker.REQUEST, ByteSizeValue.ofGb(1));
+        try (
+            TopNOperator op = new TopNOperator(
+                driverContext().blockFactory(),
+                breaker,
+                topCount,
+                List.of(LONG, BYTES_REF),
+                List.of(DEFAULT_SORTABLE, UTF8),
+                List.of(new TopNOperator.SortOrder(0, true, randomBoolean())),
+                randomPageSize()
+            )
+        ) {
+            // one row more than fits so the operator holds on to a spare row
+            op.addInput(keysAndValues(0, topCount + 1, 1));
+            long used = breaker.getUsed();
+
+            // every one of these rows sorts after the top n so their big values are never encoded
+            op.addInput(keysAndValues(topCount + 1, topCount * 10, 10_000));
+            assertThat(breaker.getUsed(), equalTo(used));
+
+            // a competitive row with the same big value does grow the spare row
+            op.addInput(keysAndValues(-1, 0, 10_000));
+            assertThat(breaker.getUsed(), greaterThan(used));
+
+            op.finish();
+            List<List<Object>> actual = new ArrayList<>();
+            Page page;
+            while ((page = op.getOutput()) != null) {
+                readInto(actual, page);
+            }
+            List<Object> expectedKeys = new ArrayList<>();
+            for (long k = -1; k < topCount - 1; k++) {
+                expectedKeys.add(k);
+            }
+            assertThat(actual.get(0), equalTo(expectedKeys));
+            assertThat(((BytesRef) actual.get(1).get(0)).length, equalTo(10_000));
+        }
+    }
+
+    /**
+     * Builds a page with the keys from {@code from} to {@code to} and a value of {@code valueLength} bytes per row.
+     */
+    private Page keysAndValues(long from, long to, int valueLength) {
+        int positions = Math.toIntExact(to - from);
+        BytesRef value = new BytesRef("a".repeat(valueLength));
+        try (
+            LongBlock.Builder keys = blockFactory().newLongBlockBuilder(positions);
+            BytesRefBlock.Builder values = blockFactory().newBytesRefBlockBuilder(positions)
+        ) {
+            for (long k = from; k < to; k++) {
+                keys.appendLong(k);
+                values.appendBytesRef(value);
+            }
+            return new Page(keys.build(), values.build());
+        }
+    }
+
+    public void testBuildPagesLazily() {
+        int maxPageSize = between(1, 20);
+        int topCount = maxPageSize * between(2, 5) + between(0, maxPageSize - 1);
+        List<Long> inputValues = randomList(topCount, topCount * 5, ESTestCase::randomLong);
+        boolean asc = randomBoolean();
+        List<Long> expected = inputValues.stream().sorted(asc ? naturalOrder() : reverseOrder()).limit(topCount).toList();
+
+        try (
+            TopNOperator op = new TopNOperator(
+                driverContext().blockFactory(),
+                nonBreakingBigArrays().breakerService().getBreaker("request"),
+                topCount,
+                List.of(LONG),
+                List.of(DEFAULT_SORTABLE),
+                List.of(new TopNOperator.SortOrder(0, asc, randomBoolean())),
+                maxPageSize
+            )
+        ) {
+            try (LongBlock.Builder builder = blockFactory().newLongBlockBuilder(inputValues.size())) {
+                inputValues.forEach(builder::appendLong);
+                op.addInput(new Page(builder.build()));
+            }
+            op.finish();
+
+            List<Object> actual = new ArrayList<>();
+            int remaining = expected.size();
+            while (remaining > 0) {
+                assertFalse(op.isFinished());
+                Page page = op.getOutput();
+                assertThat(page.getPositionCount(), equalTo(Math.min(maxPageSize, remaining)));
+                remaining -= page.getPositionCount();
+                readInto(actual, page.getBlock(0));
+                page.releaseBlocks();
+            }
+            assertTrue(op.isFinished());
+            assertNull(op.getOutput());
+            assertThat(actual, equalTo(expected));
+        }
+    }
+
     @SuppressWarnings({ "unchecked", "rawtypes" })
     private static void readAsRows(List<List<List<Object>>> values, Page page) {
         if (page.getBlockCount() == 0) {
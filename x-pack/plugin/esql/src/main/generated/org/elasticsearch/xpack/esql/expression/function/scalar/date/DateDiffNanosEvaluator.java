@@ -12,6 +12,7 @@ import org.elasticsearch.compute.data.Block;
 import org.elasticsearch.compute.data.BytesRefBlock;
 import org.elasticsearch.compute.data.BytesRefVector;
 import org.elasticsearch.compute.data.IntBlock;
+import org.elasticsearch.compute.data.IntVector;
 import org.elasticsearch.compute.data.LongBlock;
 import org.elasticsearch.compute.data.LongVector;
 import org.elasticsearch.compute.data.Page;
@@ -123,9 +124,32 @@ public final class DateDiffNanosEvaluator implements EvalOperator.ExpressionEval
 
   public IntBlock eval(int positionCount, BytesRefVector unitVector,
       LongVector startTimestampVector, LongVector endTimestampVector) {
-    try(IntBlock.Builder result = driverContext.blockFactory().newIntBlockBuilder(positionCount)) {
+    try(IntVector.FixedBuilder result = driverContext.blockFactory().newIntVectorFixedBuilder(positionCount)) {
       BytesRef unitScratch = new BytesRef();
       position: for (int p = 0; p < positionCount; p++) {
+        try {
+          result.appendInt(p, DateDiff.processNanos(unitVector.getBytesRef(p, unitScratch), startTimestampVector.getLong(p), endTimestampVector.getLong(p)));
+        } catch (IllegalArgumentException | InvalidArgumentException e) {
+          try(IntVector computed = result.build()) {
+            return evalWithWarnings(positionCount, p, e, computed, unitVector, startTimestampVector, endTimestampVector);
+          }
+        }
+      }
+      return result.build().asBlock();
+    }
+  }
+
+  private IntBlock evalWithWarnings(int positionCount, int failedPosition, Exception failure,
+      IntVector computed, BytesRefVector unitVector, LongVector startTimestampVector,
+      LongVector endTimestampVector) {
+    try(IntBlock.Builder result = driverContext.blockFactory().newIntBlockBuilder(positionCount)) {
+      BytesRef unitScratch = new BytesRef();
+      for (int p = 0; p < failedPosition; p++) {
+        result.appendInt(computed.getInt(p));
+      }
+      warnings().registerException(failure);
+      result.appendNull();
+      position: for (int p = failedPosition + 1; p < positionCount; p++) {
         try {
           result.appendInt(DateDiff.processNanos(unitVector.getBytesRef(p, unitScratch), startTimestampVector.getLong(p), endTimestampVector.getLong(p)));
         } catch (IllegalArgumentException | InvalidArgumentException e) {
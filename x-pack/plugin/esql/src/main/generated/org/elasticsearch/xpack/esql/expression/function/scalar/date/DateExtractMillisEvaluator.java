@@ -103,9 +103,31 @@ public final class DateExtractMillisEvaluator implements EvalOperator.Expression
 
   public LongBlock eval(int positionCount, LongVector valueVector,
       BytesRefVector chronoFieldVector) {
-    try(LongBlock.Builder result = driverContext.blockFactory().newLongBlockBuilder(positionCount)) {
+    try(LongVector.FixedBuilder result = driverContext.blockFactory().newLongVectorFixedBuilder(positionCount)) {
       BytesRef chronoFieldScratch = new BytesRef();
       position: for (int p = 0; p < positionCount; p++) {
+        try {
+          result.appendLong(p, DateExtract.processMillis(valueVector.getLong(p), chronoFieldVector.getBytesRef(p, chronoFieldScratch), this.zone));
+        } catch (IllegalArgumentException e) {
+          try(LongVector computed = result.build()) {
+            return evalWithWarnings(positionCount, p, e, computed, valueVector, chronoFieldVector);
+          }
+        }
+      }
+      return result.build().asBlock();
+    }
+  }
+
+  private LongBlock evalWithWarnings(int positionCount, int failedPosition, Exception failure,
+      LongVector computed, LongVector valueVector, BytesRefVector chronoFieldVector) {
+    try(LongBlock.Builder result = driverContext.blockFactory().newLongBlockBuilder(positionCount)) {
+      BytesRef chronoFieldScratch = new BytesRef();
+      for (int p = 0; p < failedPosition; p++) {
+        result.appendLong(computed.getLong(p));
+      }
+      warnings().registerException(failure);
+      result.appendNull();
+      position: for (int p = failedPosition + 1; p < positionCount; p++) {
         try {
           result.appendLong(DateExtract.processMillis(valueVector.getLong(p), chronoFieldVector.getBytesRef(p, chronoFieldScratch), this.zone));
         } catch (IllegalArgumentException e) {
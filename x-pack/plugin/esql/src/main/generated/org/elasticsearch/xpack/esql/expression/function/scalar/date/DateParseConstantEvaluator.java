@@ -13,6 +13,7 @@ import org.elasticsearch.compute.data.Block;
 import org.elasticsearch.compute.data.BytesRefBlock;
 import org.elasticsearch.compute.data.BytesRefVector;
 import org.elasticsearch.compute.data.LongBlock;
+import org.elasticsearch.compute.data.LongVector;
 import org.elasticsearch.compute.data.Page;
 import org.elasticsearch.compute.operator.DriverContext;
 import org.elasticsearch.compute.operator.EvalOperator;
@@ -81,9 +82,31 @@ public final class DateParseConstantEvaluator implements EvalOperator.Expression
   }
 
   public LongBlock eval(int positionCount, BytesRefVector valVector) {
-    try(LongBlock.Builder result = driverContext.blockFactory().newLongBlockBuilder(positionCount)) {
+    try(LongVector.FixedBuilder result = driverContext.blockFactory().newLongVectorFixedBuilder(positionCount)) {
       BytesRef valScratch = new BytesRef();
       position: for (int p = 0; p < positionCount; p++) {
+        try {
+          result.appendLong(p, DateParse.process(valVector.getBytesRef(p, valScratch), this.formatter));
+        } catch (IllegalArgumentException e) {
+          try(LongVector computed = result.build()) {
+            return evalWithWarnings(positionCount, p, e, computed, valVector);
+          }
+        }
+      }
+      return result.build().asBlock();
+    }
+  }
+
+  private LongBlock evalWithWarnings(int positionCount, int failedPosition, Exception failure,
+      LongVector computed, BytesRefVector valVector) {
+    try(LongBlock.Builder result = driverContext.blockFactory().newLongBlockBuilder(positionCount)) {
+      BytesRef valScratch = new BytesRef();
+      for (int p = 0; p < failedPosition; p++) {
+        result.appendLong(computed.getLong(p));
+      }
+      warnings().registerException(failure);
+      result.appendNull();
+      position: for (int p = failedPosition + 1; p < positionCount; p++) {
         try {
           result.appendLong(DateParse.process(valVector.getBytesRef(p, valScratch), this.formatter));
         } catch (IllegalArgumentException e) {
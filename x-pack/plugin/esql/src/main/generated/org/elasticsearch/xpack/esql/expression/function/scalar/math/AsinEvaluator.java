@@ -75,8 +75,29 @@ public final class AsinEvaluator implements EvalOperator.ExpressionEvaluator {
   }
 
   public DoubleBlock eval(int positionCount, DoubleVector valVector) {
-    try(DoubleBlock.Builder result = driverContext.blockFactory().newDoubleBlockBuilder(positionCount)) {
+    try(DoubleVector.FixedBuilder result = driverContext.blockFactory().newDoubleVectorFixedBuilder(positionCount)) {
       position: for (int p = 0; p < positionCount; p++) {
+        try {
+          result.appendDouble(p, Asin.process(valVector.getDouble(p)));
+        } catch (ArithmeticException e) {
+          try(DoubleVector computed = result.build()) {
+            return evalWithWarnings(positionCount, p, e, computed, valVector);
+          }
+        }
+      }
+      return result.build().asBlock();
+    }
+  }
+
+  private DoubleBlock evalWithWarnings(int positionCount, int failedPosition, Exception failure,
+      DoubleVector computed, DoubleVector valVector) {
+    try(DoubleBlock.Builder result = driverContext.blockFactory().newDoubleBlockBuilder(positionCount)) {
+      for (int p = 0; p < failedPosition; p++) {
+        result.appendDouble(computed.getDouble(p));
+      }
+      warnings().registerException(failure);
+      result.appendNull();
+      position: for (int p = failedPosition + 1; p < positionCount; p++) {
         try {
           result.appendDouble(Asin.process(valVector.getDouble(p)));
         } catch (ArithmeticException e) {
@@ -10,6 +10,7 @@ import java.lang.Override;
 import java.lang.String;
 import org.elasticsearch.compute.data.Block;
 import org.elasticsearch.compute.data.DoubleBlock;
+import org.elasticsearch.compute.data.DoubleVector;
 import org.elasticsearch.compute.data.IntBlock;
 import org.elasticsearch.compute.data.IntVector;
 import org.elasticsearch.compute.data.Page;
@@ -76,8 +77,29 @@ public final class CbrtIntEvaluator implements EvalOperator.ExpressionEvaluator
   }
 
   public DoubleBlock eval(int positionCount, IntVector valVector) {
-    try(DoubleBlock.Builder result = driverContext.blockFactory().newDoubleBlockBuilder(positionCount)) {
+    try(DoubleVector.FixedBuilder result = driverContext.blockFactory().newDoubleVectorFixedBuilder(positionCount)) {
       position: for (int p = 0; p < positionCount; p++) {
+        try {
+          result.appendDouble(p, Cbrt.process(valVector.getInt(p)));
+        } catch (ArithmeticException e) {
+          try(DoubleVector computed = result.build()) {
+            return evalWithWarnings(positionCount, p, e, computed, valVector);
+          }
+        }
+      }
+      return result.build().asBlock();
+    }
+  }
+
+  private DoubleBlock evalWithWarnings(int positionCount, int failedPosition, Exception failure,
+      DoubleVector computed, IntVector valVector) {
+    try(DoubleBlock.Builder result = driverContext.blockFactory().newDoubleBlockBuilder(positionCount)) {
+      for (int p = 0; p < failedPosition; p++) {
+        result.appendDouble(computed.getDouble(p));
+      }
+      warnings().registerException(failure);
+      result.appendNull();
+      position: for (int p = failedPosition + 1; p < positionCount; p++) {
         try {
           result.appendDouble(Cbrt.process(valVector.getInt(p)));
         } catch (ArithmeticException e) {
@@ -95,8 +95,29 @@ public final class RoundUnsignedLongEvaluator implements EvalOperator.Expression
   }
 
   public LongBlock eval(int positionCount, LongVector valVector, LongVector decimalsVector) {
-    try(LongBlock.Builder result = driverContext.blockFactory().newLongBlockBuilder(positionCount)) {
+    try(LongVector.FixedBuilder result = driverContext.blockFactory().newLongVectorFixedBuilder(positionCount)) {
       position: for (int p = 0; p < positionCount; p++) {
+        try {
+          result.appendLong(p, Round.processUnsignedLong(valVector.getLong(p), decimalsVector.getLong(p)));
+        } catch (ArithmeticException e) {
+          try(LongVector computed = result.build()) {
+            return evalWithWarnings(positionCount, p, e, computed, valVector, decimalsVector);
+          }
+        }
+      }
+      return result.build().asBlock();
+    }
+  }
+
+  private LongBlock evalWithWarnings(int positionCount, int failedPosition, Exception failure,
+      LongVector computed, LongVector valVector, LongVector decimalsVector) {
+    try(LongBlock.Builder result = driverContext.blockFactory().newLongBlockBuilder(positionCount)) {
+      for (int p = 0; p < failedPosition; p++) {
+        result.appendLong(computed.getLong(p));
+      }
+      warnings().registerException(failure);
+      result.appendNull();
+      position: for (int p = failedPosition + 1; p < positionCount; p++) {
         try {
           result.appendLong(Round.processUnsignedLong(valVector.getLong(p), decimalsVector.getLong(p)));
         } catch (ArithmeticException e) {
@@ -13,6 +13,7 @@ import org.elasticsearch.compute.data.Block;
 import org.elasticsearch.compute.data.BytesRefBlock;
 import org.elasticsearch.compute.data.BytesRefVector;
 import org.elasticsearch.compute.data.IntBlock;
+import org.elasticsearch.compute.data.IntVector;
 import org.elasticsearch.compute.data.Page;
 import org.elasticsearch.compute.operator.DriverContext;
 import org.elasticsearch.compute.operator.EvalOperator;
@@ -78,9 +79,31 @@ public final class BitLengthEvaluator implements EvalOperator.ExpressionEvaluato
   }
 
   public IntBlock eval(int positionCount, BytesRefVector valVector) {
-    try(IntBlock.Builder result = driverContext.blockFactory().newIntBlockBuilder(positionCount)) {
+    try(IntVector.FixedBuilder result = driverContext.blockFactory().newIntVectorFixedBuilder(positionCount)) {
       BytesRef valScratch = new BytesRef();
       position: for (int p = 0; p < positionCount; p++) {
+        try {
+          result.appendInt(p, BitLength.process(valVector.getBytesRef(p, valScratch)));
+        } catch (ArithmeticException e) {
+          try(IntVector computed = result.build()) {
+            return evalWithWarnings(positionCount, p, e, computed, valVector);
+          }
+        }
+      }
+      return result.build().asBlock();
+    }
+  }
+
+  private IntBlock evalWithWarnings(int positionCount, int failedPosition, Exception failure,
+      IntVector computed, BytesRefVector valVector) {
+    try(IntBlock.Builder result = driverContext.blockFactory().newIntBlockBuilder(positionCount)) {
+      BytesRef valScratch = new BytesRef();
+      for (int p = 0; p < failedPosition; p++) {
+        result.appendInt(computed.getInt(p));
+      }
+      warnings().registerException(failure);
+      result.appendNull();
+      position: for (int p = failedPosition + 1; p < positionCount; p++) {
         try {
           result.appendInt(BitLength.process(valVector.getBytesRef(p, valScratch)));
         } catch (ArithmeticException e) {
@@ -95,8 +95,29 @@ public final class AddIntsEvaluator implements EvalOperator.ExpressionEvaluator
   }
 
   public IntBlock eval(int positionCount, IntVector lhsVector, IntVector rhsVector) {
-    try(IntBlock.Builder result = driverContext.blockFactory().newIntBlockBuilder(positionCount)) {
+    try(IntVector.FixedBuilder result = driverContext.blockFactory().newIntVectorFixedBuilder(positionCount)) {
       position: for (int p = 0; p < positionCount; p++) {
+        try {
+          result.appendInt(p, Add.processInts(lhsVector.getInt(p), rhsVector.getInt(p)));
+        } catch (ArithmeticException e) {
+          try(IntVector computed = result.build()) {
+            return evalWithWarnings(positionCount, p, e, computed, lhsVector, rhsVector);
+          }
+        }
+      }
+      return result.build().asBlock();
+    }
+  }
+
+  private IntBlock evalWithWarnings(int positionCount, int failedPosition, Exception failure,
+      IntVector computed, IntVector lhsVector, IntVector rhsVector) {
+    try(IntBlock.Builder result = driverContext.blockFactory().newIntBlockBuilder(positionCount)) {
+      for (int p = 0; p < failedPosition; p++) {
+        result.appendInt(computed.getInt(p));
+      }
+      warnings().registerException(failure);
+      result.appendNull();
+      position: for (int p = failedPosition + 1; p < positionCount; p++) {
         try {
           result.appendInt(Add.processInts(lhsVector.getInt(p), rhsVector.getInt(p)));
         } catch (ArithmeticException e) {
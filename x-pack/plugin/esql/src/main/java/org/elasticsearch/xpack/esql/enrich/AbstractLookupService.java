@@ -122,7 +122,7 @@ import java.util.stream.IntStream;
 public abstract class AbstractLookupService<R extends AbstractLookupService.Request, T extends AbstractLookupService.TransportRequest> {
     private final String actionName;
     protected final ClusterService clusterService;
-    private final LookupShardContextFactory lookupShardContextFactory;
+    protected final LookupShardContextFactory lookupShardContextFactory;
     protected final TransportService transportService;
     protected final Executor executor;
     private final BigArrays bigArrays;
@@ -213,26 +213,39 @@ public abstract class AbstractLookupService<R extends AbstractLookupService.Requ
      * Perform the actual lookup.
      */
     public final void lookupAsync(R request, CancellableTask parentTask, ActionListener<List<Page>> outListener) {
+        final TargetShard target;
+        try {
+            target = targetShard(request.index);
+        } catch (Exception e) {
+            outListener.onFailure(e);
+            return;
+        }
+        T transportRequest = transportRequest(request, target.shardId());
+        // TODO: handle retry and avoid forking for the local lookup
+        sendChildRequest(parentTask, outListener, target.node(), transportRequest);
+    }
+
+    /**
+     * Find the single shard of the lookup {@code index} and the node that holds it.
+     */
+    protected final TargetShard targetShard(String index) {
         ClusterState clusterState = clusterService.state();
         List<ShardIterator> shardIterators = clusterService.operationRouting()
-            .searchShards(clusterState.projectState(), new String[] { request.index }, Map.of(), "_local");
+            .searchShards(clusterState.projectState(), new String[] { index }, Map.of(), "_local");
         if (shardIterators.size() != 1) {
-            outListener.onFailure(new EsqlIllegalArgumentException("target index {} has more than one shard", request.index));
-            return;
+            throw new EsqlIllegalArgumentException("target index {} has more than one shard", index);
         }
         ShardIterator shardIt = shardIterators.get(0);
         ShardRouting shardRouting = shardIt.nextOrNull();
         ShardId shardId = shardIt.shardId();
         if (shardRouting == null) {
-            outListener.onFailure(new UnavailableShardsException(shardId, "target index is not available"));
-            return;
+            throw new UnavailableShardsException(shardId, "target index is not available");
         }
-        DiscoveryNode targetNode = clusterState.nodes().get(shardRouting.currentNodeId());
-        T transportRequest = transportRequest(request, shardId);
-        // TODO: handle retry and avoid forking for the local lookup
-        sendChildRequest(parentTask, outListener, targetNode, transportRequest);
+        return new TargetShard(clusterState.nodes().get(shardRouting.currentNodeId()), shardId);
     }
 
+    protected record TargetShard(DiscoveryNode node, ShardId shardId) {}
+
     protected void sendChildRequest(
         CancellableTask parentTask,
         ActionListener<List<Page>> delegate,
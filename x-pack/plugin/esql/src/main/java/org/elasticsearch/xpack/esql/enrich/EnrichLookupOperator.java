@@ -16,7 +16,6 @@ import org.elasticsearch.compute.data.Page;
 import org.elasticsearch.compute.operator.AsyncOperator;
 import org.elasticsearch.compute.operator.DriverContext;
 import org.elasticsearch.compute.operator.Operator;
-import org.elasticsearch.core.CheckedFunction;
 import org.elasticsearch.tasks.CancellableTask;
 import org.elasticsearch.xcontent.XContentBuilder;
 import org.elasticsearch.xpack.esql.core.expression.NamedExpression;
@@ -126,13 +125,7 @@ public final class EnrichLookupOperator extends AsyncOperator<Page> {
             enrichFields,
             source
         );
-        CheckedFunction<List<Page>, Page, Exception> handleResponse = pages -> {
-            if (pages.size() != 1) {
-                throw new UnsupportedOperationException("ENRICH should only return a single page");
-            }
-            return inputPage.appendPage(pages.getFirst());
-        };
-        enrichLookupService.lookupAsync(request, parentTask, listener.map(handleResponse));
+        enrichLookupService.cachedLookupAsync(request, parentTask, listener.map(inputPage::appendPage));
     }
 
     @Override
@@ -7,12 +7,16 @@
 
 package org.elasticsearch.xpack.esql.enrich;
 
+import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.TransportVersions;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.ActionListenerResponseHandler;
 import org.elasticsearch.action.support.ContextPreservingActionListener;
+import org.elasticsearch.action.support.RefCountingListener;
+import org.elasticsearch.action.support.SubscribableListener;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.breaker.CircuitBreaker;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.settings.Settings;
@@ -21,6 +25,8 @@ import org.elasticsearch.common.util.concurrent.ThreadContext;
 import org.elasticsearch.compute.data.Block;
 import org.elasticsearch.compute.data.BlockFactory;
 import org.elasticsearch.compute.data.BlockStreamInput;
+import org.elasticsearch.compute.data.BytesRefBlock;
+import org.elasticsearch.compute.data.ElementType;
 import org.elasticsearch.compute.data.Page;
 import org.elasticsearch.compute.operator.Warnings;
 import org.elasticsearch.compute.operator.lookup.QueryList;
@@ -53,7 +59,11 @@ import org.elasticsearch.xpack.esql.io.stream.PlanStreamInput;
 import org.elasticsearch.xpack.esql.io.stream.PlanStreamOutput;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -64,6 +74,9 @@ import java.util.stream.Collectors;
 public class EnrichLookupService extends AbstractLookupService<EnrichLookupService.Request, EnrichLookupService.TransportRequest> {
     public static final String LOOKUP_ACTION_NAME = EsqlQueryAction.NAME + "/lookup";
 
+    private final BlockFactory blockFactory;
+    private final EnrichResultCache resultCache;
+
     public EnrichLookupService(
         ClusterService clusterService,
         LookupShardContextFactory lookupShardContextFactory,
@@ -81,6 +94,217 @@ public class EnrichLookupService extends AbstractLookupService<EnrichLookupServi
             true,
             TransportRequest::readFrom
         );
+        this.blockFactory = blockFactory;
+        // The cache outlives the queries that fill it so we charge it to the node's accounting breaker
+        this.resultCache = new EnrichResultCache(
+            clusterService.getSettings(),
+            bigArrays.breakerService().getBreaker(CircuitBreaker.ACCOUNTING)
+        );
+    }
+
+    /**
+     * Look up a page of keys, reading the keys that we've recently looked up from the
+     * {@link EnrichResultCache} and sharing the lookups of keys that other drivers of the
+     * same query are already looking up. Responds with a single page of enrich fields.
+     */
+    public void cachedLookupAsync(Request request, CancellableTask parentTask, ActionListener<Page> listener) {
+        List<EnrichResultCache.Field> fields = request.inputPage.getBlock(0) instanceof BytesRefBlock
+            ? resultCache.fields(request.matchType, request.inputDataType, request.extractFields)
+            : null;
+        if (fields == null) {
+            lookupAsync(request, parentTask, listener.map(EnrichLookupService::singlePage));
+            return;
+        }
+        // We check the privileges even if all keys are cached
+        hasEnrichPrivilege(listener.delegateFailureAndWrap((l, ignored) -> new CachedLookup(request, fields, parentTask).run(l)));
+    }
+
+    private static Page singlePage(List<Page> pages) {
+        if (pages.size() != 1) {
+            throw new UnsupportedOperationException("ENRICH should only return a single page");
+        }
+        return pages.getFirst();
+    }
+
+    /**
+     * A lookup that reads from the {@link EnrichResultCache}. Positions with a single key
+     * come from the cache, from a lookup of another driver, or from our lookup. We look up
+     * multivalued keys every time.
+     */
+    private class CachedLookup {
+        private final Request request;
+        private final List<EnrichResultCache.Field> fields;
+        private final CancellableTask parentTask;
+        private final BytesRefBlock keys;
+        /**
+         * The row for each position that we read from the cache or from another driver's lookup.
+         */
+        private final EnrichResultCache.Row[] rows;
+        /**
+         * The row of our lookup's response for each position or {@code -1} if we didn't look it up.
+         */
+        private final int[] responseRows;
+        private final List<EnrichResultCache.Key> lookingUp = new ArrayList<>();
+        private Page response;
+
+        CachedLookup(Request request, List<EnrichResultCache.Field> fields, CancellableTask parentTask) {
+            this.request = request;
+            this.fields = fields;
+            this.parentTask = parentTask;
+            this.keys = request.inputPage.getBlock(0);
+            this.rows = new EnrichResultCache.Row[keys.getPositionCount()];
+            this.responseRows = new int[keys.getPositionCount()];
+            Arrays.fill(responseRows, -1);
+        }
+
+        void run(ActionListener<Page> listener) {
+            ActionListener<Void> done = ActionListener.runAfter(listener.map(ignored -> buildOutput()), () -> {
+                if (response != null) {
+                    response.releaseBlocks();
+                }
+            });
+            try (RefCountingListener refs = new RefCountingListener(done)) {
+                List<Integer> multivalued;
+                try {
+                    multivalued = readKeys(refs);
+                } catch (Exception e) {
+                    // Make sure other drivers don't wait on the keys we registered
+                    failLookingUp(e);
+                    refs.acquire().onFailure(e);
+                    return;
+                }
+                if (lookingUp.isEmpty() && multivalued.isEmpty()) {
+                    return;
+                }
+                lookup(multivalued, refs.acquire());
+            }
+        }
+
+        /**
+         * Read each single valued key from the cache, from another driver's lookup, or register
+         * it for our lookup. Returns the multivalued positions which we always look up.
+         */
+        private List<Integer> readKeys(RefCountingListener refs) {
+            Map<EnrichResultCache.Key, Integer> lookingUpRows = new HashMap<>();
+            List<Integer> multivalued = new ArrayList<>();
+            BytesRef scratch = new BytesRef();
+            for (int p = 0; p < keys.getPositionCount(); p++) {
+                switch (keys.getValueCount(p)) {
+                    case 0 -> {
+                        // null keys never match
+                    }
+                    case 1 -> {
+                        BytesRef value = BytesRef.deepCopyOf(keys.getBytesRef(keys.getFirstValueIndex(p), scratch));
+                        var key = new EnrichResultCache.Key(
+                            request.index,
+                            request.matchType,
+                            request.matchField,
+                            request.inputDataType,
+                            fields,
+                            value
+                        );
+                        Integer row = lookingUpRows.get(key);
+                        if (row != null) {
+                            responseRows[p] = row;
+                            continue;
+                        }
+                        rows[p] = resultCache.get(key);
+                        if (rows[p] != null) {
+                            continue;
+                        }
+                        SubscribableListener<EnrichResultCache.Row> other = resultCache.startLookup(request.sessionId, key);
+                        if (other == null) {
+                            responseRows[p] = lookingUp.size();
+                            lookingUpRows.put(key, lookingUp.size());
+                            lookingUp.add(key);
+                        } else {
+                            int position = p;
+                            other.addListener(refs.acquire(r -> rows[position] = r));
+                        }
+                    }
+                    default -> multivalued.add(p);
+                }
+            }
+            // Multivalued keys go after the single valued ones in our lookup
+            for (int i = 0; i < multivalued.size(); i++) {
+                responseRows[multivalued.get(i)] = lookingUp.size() + i;
+            }
+            return multivalued;
+        }
+
+        /**
+         * Look up the keys that no one else is looking up, and the multivalued keys.
+         */
+        private void lookup(List<Integer> multivalued, ActionListener<Void> listener) {
+            Page lookupPage;
+            try (BytesRefBlock.Builder builder = blockFactory.newBytesRefBlockBuilder(lookingUp.size() + multivalued.size())) {
+                for (EnrichResultCache.Key key : lookingUp) {
+                    builder.appendBytesRef(key.value());
+                }
+                for (int p : multivalued) {
+                    builder.copyFrom(keys, p, p + 1);
+                }
+                lookupPage = new Page(builder.build());
+            } catch (Exception e) {
+                failLookingUp(e);
+                listener.onFailure(e);
+                return;
+            }
+            Request lookupRequest = new Request(
+                request.sessionId,
+                request.index,
+                request.inputDataType,
+                request.matchType,
+                request.matchField,
+                lookupPage,
+                request.extractFields,
+                request.source
+            );
+            lookupAsync(lookupRequest, parentTask, ActionListener.runAfter(ActionListener.wrap(pages -> {
+                response = singlePage(pages);
+                for (int i = 0; i < lookingUp.size(); i++) {
+                    resultCache.completeLookup(request.sessionId, lookingUp.get(i), EnrichResultCache.Row.read(response, i));
+                }
+                listener.onResponse(null);
+            }, e -> {
+                failLookingUp(e);
+                listener.onFailure(e);
+            }), lookupPage::releaseBlocks));
+        }
+
+        private void failLookingUp(Exception e) {
+            for (EnrichResultCache.Key key : lookingUp) {
+                resultCache.failLookup(request.sessionId, key, e);
+            }
+        }
+
+        private Page buildOutput() {
+            Block[] blocks = new Block[fields.size()];
+            try {
+                for (int f = 0; f < fields.size(); f++) {
+                    ElementType elementType = fields.get(f).elementType();
+                    try (Block.Builder builder = elementType.newBlockBuilder(rows.length, blockFactory)) {
+                        for (int p = 0; p < rows.length; p++) {
+                            if (responseRows[p] >= 0) {
+                                builder.copyFrom(response.getBlock(f), responseRows[p], responseRows[p] + 1);
+                            } else if (rows[p] != null) {
+                                rows[p].append(builder, f, elementType);
+                            } else {
+                                builder.appendNull();
+                            }
+                        }
+                        blocks[f] = builder.build();
+                    }
+                }
+                Page page = new Page(blocks);
+                blocks = null;
+                return page;
+            } finally {
+                if (blocks != null) {
+                    Releasables.closeExpectNoException(blocks);
+                }
+            }
+        }
     }
 
     @Override
@@ -0,0 +1,229 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.xpack.esql.enrich;
+
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.elasticsearch.action.support.SubscribableListener;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.elasticsearch.common.cache.Cache;
+import org.elasticsearch.common.cache.CacheBuilder;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.compute.data.Block;
+import org.elasticsearch.compute.data.BlockUtils;
+import org.elasticsearch.compute.data.ElementType;
+import org.elasticsearch.compute.data.Page;
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.xpack.esql.core.expression.Alias;
+import org.elasticsearch.xpack.esql.core.expression.NamedExpression;
+import org.elasticsearch.xpack.esql.core.type.DataType;
+import org.elasticsearch.xpack.esql.planner.PlannerUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A node level cache of the enrich fields that {@code ENRICH} found for a single key.
+ * There is one instance of this cache shared by all policies.
+ * <p>
+ *     Enrich indices never change once the policy has been executed and each execution
+ *     creates a new enrich index. So the name of the concrete enrich index identifies the
+ *     version of the data that we cached. Like the ingest {@code EnrichCache} we never clear
+ *     the entries for old enrich indices, they are evicted because no one reads them.
+ * </p>
+ * <p>
+ *     The cached values are charged to the {@code accounting} circuit breaker, like other memory
+ *     that the node holds on to between requests. If the breaker is full we just don't cache.
+ * </p>
+ * <p>
+ *     This also tracks the keys that each query is looking up right now so drivers of the
+ *     same query can share a lookup instead of sending the same key to the enrich index twice.
+ * </p>
+ */
+public final class EnrichResultCache {
+    /**
+     * The maximum memory used by the cache. Set to {@code 0} to disable the cache.
+     */
+    public static final Setting<ByteSizeValue> SIZE_SETTING = Setting.memorySizeSetting(
+        "esql.enrich.cache.size",
+        "1%",
+        Setting.Property.NodeScope
+    );
+
+    @Nullable
+    private final Cache<Key, Row> cache;
+    private final CircuitBreaker breaker;
+    private final Map<PendingKey, SubscribableListener<Row>> pending = ConcurrentCollections.newConcurrentMap();
+
+    EnrichResultCache(Settings settings, CircuitBreaker breaker) {
+        this.breaker = breaker;
+        long size = SIZE_SETTING.get(settings).getBytes();
+        if (size <= 0) {
+            this.cache = null;
+            return;
+        }
+        this.cache = CacheBuilder.<Key, Row>builder()
+            .setMaximumWeight(size)
+            .weigher((k, v) -> k.ramBytesUsed() + v.ramBytesUsed)
+            .removalListener(notification -> {
+                breaker.addWithoutBreaking(-(notification.getKey().ramBytesUsed() + notification.getValue().ramBytesUsed));
+            })
+            .build();
+    }
+
+    /**
+     * The fields that a lookup loads, without the {@link NamedExpression#id()}s so we can share
+     * entries across queries. Or {@code null} if we can't cache this lookup.
+     * <p>
+     *     We only cache lookups that can't emit warnings because we wouldn't emit them again
+     *     when we read from the cache. {@code match} policies always map their match field as
+     *     {@code keyword}. {@code range} policies can fail to parse strings, but not {@code ip}s.
+     * </p>
+     */
+    @Nullable
+    List<Field> fields(String matchType, DataType inputDataType, List<NamedExpression> extractFields) {
+        if (cache == null) {
+            return null;
+        }
+        boolean canCache = switch (matchType) {
+            case "match" -> true;
+            case "range" -> inputDataType == DataType.IP;
+            default -> false;
+        };
+        if (canCache == false) {
+            return null;
+        }
+        List<Field> fields = new ArrayList<>(extractFields.size());
+        for (NamedExpression extractField : extractFields) {
+            ElementType elementType = PlannerUtils.toElementType(extractField.dataType());
+            switch (elementType) {
+                case BOOLEAN, BYTES_REF, DOUBLE, FLOAT, INT, LONG, NULL -> {
+                }
+                default -> {
+                    return null;
+                }
+            }
+            String name = extractField instanceof Alias a ? ((NamedExpression) a.child()).name() : extractField.name();
+            fields.add(new Field(name, extractField.dataType(), elementType));
+        }
+        return fields;
+    }
+
+    @Nullable
+    Row get(Key key) {
+        return cache.get(key);
+    }
+
+    /**
+     * Register that a query is about to look up {@code key}. Returns {@code null} if the caller
+     * should look it up and then call {@link #completeLookup} or {@link #failLookup}. Otherwise
+     * returns a listener for the same lookup by another driver of the query.
+     */
+    @Nullable
+    SubscribableListener<Row> startLookup(String sessionId, Key key) {
+        return pending.putIfAbsent(new PendingKey(sessionId, key), new SubscribableListener<>());
+    }
+
+    /**
+     * Cache the {@link Row} of a key that the caller registered with {@link #startLookup}.
+     */
+    void completeLookup(String sessionId, Key key, Row row) {
+        long bytes = key.ramBytesUsed() + row.ramBytesUsed;
+        try {
+            breaker.addEstimateBytesAndMaybeBreak(bytes, "esql enrich cache");
+            cache.put(key, row);
+        } catch (CircuitBreakingException e) {
+            // Fine, we just don't cache it
+        }
+        pending.remove(new PendingKey(sessionId, key)).onResponse(row);
+    }
+
+    void failLookup(String sessionId, Key key, Exception e) {
+        pending.remove(new PendingKey(sessionId, key)).onFailure(e);
+    }
+
+    /**
+     * The key that we look up and the policy that we look it up in.
+     */
+    record Key(String index, String matchType, String matchField, DataType inputDataType, List<Field> fields, BytesRef value) {
+        private static final long SHALLOW_SIZE = RamUsageEstimator.shallowSizeOfInstance(Key.class) + RamUsageEstimator
+            .shallowSizeOfInstance(BytesRef.class) + RamUsageEstimator.NUM_BYTES_ARRAY_HEADER;
+
+        long ramBytesUsed() {
+            // The strings and the fields are shared by all entries for the same lookup
+            return SHALLOW_SIZE + value.length;
+        }
+    }
+
+    record Field(String name, DataType dataType, ElementType elementType) {}
+
+    private record PendingKey(String sessionId, Key key) {}
+
+    /**
+     * The values of the enrich fields for a single key. {@code null} values mean the field
+     * had no value or the key matched nothing.
+     */
+    static final class Row {
+        private final Object[] values;
+        private final long ramBytesUsed;
+
+        private Row(Object[] values, long ramBytesUsed) {
+            this.values = values;
+            this.ramBytesUsed = ramBytesUsed;
+        }
+
+        /**
+         * Read the values at {@code position} of a lookup response.
+         */
+        static Row read(Page page, int position) {
+            Object[] values = new Object[page.getBlockCount()];
+            long ramBytesUsed = RamUsageEstimator.shallowSizeOfInstance(Row.class) + RamUsageEstimator.shallowSizeOf(values);
+            for (int b = 0; b < values.length; b++) {
+                values[b] = BlockUtils.toJavaObject(page.getBlock(b), position);
+                ramBytesUsed += ramBytesUsed(values[b]);
+            }
+            return new Row(values, ramBytesUsed);
+        }
+
+        private static long ramBytesUsed(Object value) {
+            return switch (value) {
+                case null -> 0;
+                case BytesRef b -> RamUsageEstimator.shallowSizeOf(b) + RamUsageEstimator.sizeOf(b.bytes);
+                case List<?> l -> {
+                    long size = RamUsageEstimator.shallowSizeOf(l) + (long) l.size() * RamUsageEstimator.NUM_BYTES_OBJECT_REF;
+                    for (Object v : l) {
+                        size += ramBytesUsed(v);
+                    }
+                    yield size;
+                }
+                default -> RamUsageEstimator.sizeOfObject(value);
+            };
+        }
+
+        /**
+         * Append the value of the {@code field}th enrich field to a builder.
+         */
+        void append(Block.Builder builder, int field, ElementType elementType) {
+            Object value = values[field];
+            if (value instanceof List<?> l) {
+                builder.beginPositionEntry();
+                for (Object v : l) {
+                    BlockUtils.appendValue(builder, v, elementType);
+                }
+                builder.endPositionEntry();
+            } else {
+                BlockUtils.appendValue(builder, value, elementType);
+            }
+        }
+    }
+}
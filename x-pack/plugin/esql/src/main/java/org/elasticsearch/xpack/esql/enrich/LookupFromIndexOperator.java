@@ -7,18 +7,23 @@
 
 package org.elasticsearch.xpack.esql.enrich;
 
+import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.common.collect.Iterators;
 import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.util.SetBackedScalingCuckooFilter;
 import org.elasticsearch.compute.data.Block;
+import org.elasticsearch.compute.data.BlockFactory;
+import org.elasticsearch.compute.data.BytesRefBlock;
 import org.elasticsearch.compute.data.Page;
 import org.elasticsearch.compute.operator.AsyncOperator;
 import org.elasticsearch.compute.operator.DriverContext;
 import org.elasticsearch.compute.operator.IsBlockedResult;
 import org.elasticsearch.compute.operator.Operator;
 import org.elasticsearch.compute.operator.lookup.RightChunkedLeftJoin;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.Releasable;
 import org.elasticsearch.core.Releasables;
 import org.elasticsearch.tasks.CancellableTask;
@@ -28,6 +33,7 @@ import org.elasticsearch.xpack.esql.core.tree.Source;
 import org.elasticsearch.xpack.esql.core.type.DataType;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
@@ -82,6 +88,7 @@ public final class LookupFromIndexOperator extends AsyncOperator<LookupFromIndex
     }
 
     private final LookupFromIndexService lookupService;
+    private final BlockFactory blockFactory;
     private final String sessionId;
     private final CancellableTask parentTask;
     private final int inputChannel;
@@ -91,6 +98,13 @@ public final class LookupFromIndexOperator extends AsyncOperator<LookupFromIndex
     private final List<NamedExpression> loadFields;
     private final Source source;
     private long totalTerms = 0L;
+    /**
+     * Filter of the values of the {@link #matchField} in the lookup index, shared with the other
+     * drivers of the query, or {@code null} if we haven't requested one or can't use one.
+     * Pages sent before it arrives aren't filtered.
+     */
+    private LookupFromIndexService.SharedKeyFilter keyFilter;
+    private boolean keyFilterRequested;
     /**
      * Total number of pages emitted by this {@link Operator}.
      */
@@ -118,6 +132,7 @@ public final class LookupFromIndexOperator extends AsyncOperator<LookupFromIndex
         this.parentTask = parentTask;
         this.inputChannel = inputChannel;
         this.lookupService = lookupService;
+        this.blockFactory = driverContext.blockFactory();
         this.inputDataType = inputDataType;
         this.lookupIndex = lookupIndex;
         this.matchField = matchField;
@@ -129,12 +144,26 @@ public final class LookupFromIndexOperator extends AsyncOperator<LookupFromIndex
     protected void performAsync(Page inputPage, ActionListener<OngoingJoin> listener) {
         final Block inputBlock = inputPage.getBlock(inputChannel);
         totalTerms += inputBlock.getTotalValueCount();
+        Block keys = inputBlock;
+        SetBackedScalingCuckooFilter filter = keyFilter();
+        if (filter != null) {
+            keys = filterKeys((BytesRefBlock) inputBlock, filter);
+            if (keys == null) {
+                // None of the keys can match so every row joins to nulls
+                listener.onResponse(new OngoingJoin(new RightChunkedLeftJoin(inputPage, loadFields.size()), Collections.emptyIterator()));
+                return;
+            }
+        }
+        Page keysPage = new Page(keys);
+        if (keys != inputBlock) {
+            listener = ActionListener.runAfter(listener, () -> releasePageOnAnyThread(keysPage));
+        }
         LookupFromIndexService.Request request = new LookupFromIndexService.Request(
             sessionId,
             lookupIndex,
             inputDataType,
             matchField,
-            new Page(inputBlock),
+            keysPage,
             loadFields,
             source
         );
@@ -145,6 +174,61 @@ public final class LookupFromIndexOperator extends AsyncOperator<LookupFromIndex
         );
     }
 
+    /**
+     * The filter of the keys in the lookup index. We start fetching it with the first page
+     * but don't wait for it, so the first few pages are looked up without it.
+     */
+    @Nullable
+    private SetBackedScalingCuckooFilter keyFilter() {
+        if (keyFilterRequested == false) {
+            keyFilterRequested = true;
+            if (inputDataType == DataType.KEYWORD || inputDataType == DataType.TEXT) {
+                keyFilter = lookupService.acquireKeyFilter(sessionId, lookupIndex, matchField, parentTask);
+            }
+            return null;
+        }
+        return keyFilter == null ? null : keyFilter.get();
+    }
+
+    /**
+     * Replace the keys that the {@code filter} says can't be in the lookup index with {@code null}
+     * so we don't send them or query for them. Multivalued keys are left alone so the lookup can
+     * warn about them. Returns the {@code keys} if they all might match or {@code null} if none can.
+     */
+    @Nullable
+    private Block filterKeys(BytesRefBlock keys, SetBackedScalingCuckooFilter filter) {
+        int positionCount = keys.getPositionCount();
+        boolean[] skip = new boolean[positionCount];
+        int skipped = 0;
+        int lookedUp = 0;
+        BytesRef scratch = new BytesRef();
+        for (int p = 0; p < positionCount; p++) {
+            int valueCount = keys.getValueCount(p);
+            if (valueCount == 1 && filter.mightContain(keys.getBytesRef(keys.getFirstValueIndex(p), scratch)) == false) {
+                skip[p] = true;
+                skipped++;
+            } else if (valueCount > 0) {
+                lookedUp++;
+            }
+        }
+        if (lookedUp == 0) {
+            return null;
+        }
+        if (skipped == 0) {
+            return keys;
+        }
+        try (BytesRefBlock.Builder builder = blockFactory.newBytesRefBlockBuilder(positionCount)) {
+            for (int p = 0; p < positionCount; p++) {
+                if (skip[p]) {
+                    builder.appendNull();
+                } else {
+                    builder.copyFrom(keys, p, scratch);
+                }
+            }
+            return builder.build();
+        }
+    }
+
     @Override
     public Page getOutput() {
         if (ongoing == null) {
@@ -213,7 +297,7 @@ public final class LookupFromIndexOperator extends AsyncOperator<LookupFromIndex
     protected void doClose() {
         // TODO: Maybe create a sub-task as the parent task of all the lookup tasks
         // then cancel it when this operator terminates early (e.g., have enough result).
-        Releasables.close(ongoing);
+        Releasables.close(ongoing, keyFilter);
     }
 
     @Override
@@ -7,22 +7,48 @@
 
 package org.elasticsearch.xpack.esql.enrich;
 
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.TransportVersions;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.ActionListenerResponseHandler;
+import org.elasticsearch.action.IndicesRequest;
+import org.elasticsearch.action.support.ChannelActionListener;
+import org.elasticsearch.action.support.IndicesOptions;
 import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.Randomness;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.CircuitBreakingException;
 import org.elasticsearch.common.collect.Iterators;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.SetBackedScalingCuckooFilter;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.compute.data.Block;
 import org.elasticsearch.compute.data.BlockFactory;
 import org.elasticsearch.compute.data.BlockStreamInput;
 import org.elasticsearch.compute.data.Page;
 import org.elasticsearch.compute.operator.Warnings;
 import org.elasticsearch.compute.operator.lookup.QueryList;
+import org.elasticsearch.core.AbstractRefCounted;
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.core.RefCounted;
+import org.elasticsearch.core.Releasable;
 import org.elasticsearch.core.Releasables;
+import org.elasticsearch.index.mapper.KeywordFieldMapper;
 import org.elasticsearch.index.query.SearchExecutionContext;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.tasks.CancellableTask;
+import org.elasticsearch.tasks.Task;
 import org.elasticsearch.tasks.TaskId;
+import org.elasticsearch.transport.AbstractTransportRequest;
+import org.elasticsearch.transport.Transport;
+import org.elasticsearch.transport.TransportRequestOptions;
+import org.elasticsearch.transport.TransportResponse;
 import org.elasticsearch.transport.TransportService;
 import org.elasticsearch.xpack.esql.action.EsqlQueryAction;
 import org.elasticsearch.xpack.esql.core.expression.NamedExpression;
@@ -33,6 +59,7 @@ import org.elasticsearch.xpack.esql.io.stream.PlanStreamOutput;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 import static java.lang.System.in;
@@ -44,6 +71,28 @@ import static java.lang.System.in;
  */
 public class LookupFromIndexService extends AbstractLookupService<LookupFromIndexService.Request, LookupFromIndexService.TransportRequest> {
     public static final String LOOKUP_ACTION_NAME = EsqlQueryAction.NAME + "/lookup_from_index";
+    public static final String KEY_FILTER_ACTION_NAME = LOOKUP_ACTION_NAME + "/key_filter";
+
+    /**
+     * Don't build a key filter for lookup fields with more terms than this. Most keys will
+     * pass such a large filter anyway.
+     */
+    static final int MAX_KEY_FILTER_TERMS = 1_000_000;
+    /**
+     * Key filters track exact hashes up to this many terms and switch to cuckoo filters after.
+     */
+    private static final int KEY_FILTER_EXACT_THRESHOLD = 10_000;
+    private static final double KEY_FILTER_FPP = 0.01;
+    /**
+     * Check the breaker for the memory of a key filter every time we've added this many terms to it.
+     */
+    private static final int KEY_FILTER_BREAKER_INTERVAL = 1024;
+
+    private final CircuitBreaker breaker;
+    /**
+     * Key filters shared by all drivers of a query that look up the same field.
+     */
+    private final Map<KeyFilterKey, SharedKeyFilter> keyFilters = ConcurrentCollections.newConcurrentMap();
 
     public LookupFromIndexService(
         ClusterService clusterService,
@@ -62,6 +111,152 @@ public class LookupFromIndexService extends AbstractLookupService<LookupFromInde
             false,
             TransportRequest::readFrom
         );
+        this.breaker = blockFactory.breaker();
+        transportService.registerRequestHandler(
+            KEY_FILTER_ACTION_NAME,
+            executor,
+            KeyFilterRequest::new,
+            (request, channel, task) -> ActionListener.run(new ChannelActionListener<KeyFilterResponse>(channel), l -> {
+                LookupShardContext shardContext = lookupShardContextFactory.create(request.shardId);
+                SetBackedScalingCuckooFilter filter;
+                try (Releasable ignored = shardContext.release()) {
+                    IndexReader reader = shardContext.context().searcher().getIndexReader();
+                    filter = buildKeyFilter(shardContext.executionContext(), reader, request.matchField, breaker);
+                }
+                ActionListener.respondAndRelease(l, new KeyFilterResponse(filter, breaker));
+            })
+        );
+    }
+
+    /**
+     * Acquire the filter of all values of the {@code matchField} in the lookup index so we can
+     * skip looking up keys that can't match. All drivers of a query share one filter, so we only
+     * fetch it and hold it in memory once per query. Close the returned filter when done with it.
+     */
+    public SharedKeyFilter acquireKeyFilter(String sessionId, String index, String matchField, CancellableTask parentTask) {
+        KeyFilterKey key = new KeyFilterKey(sessionId, index, matchField);
+        boolean[] created = new boolean[1];
+        SharedKeyFilter filter = keyFilters.compute(key, (k, existing) -> {
+            if (existing != null && existing.tryIncRef()) {
+                return existing;
+            }
+            created[0] = true;
+            return new SharedKeyFilter(k);
+        });
+        if (created[0]) {
+            keyFilterAsync(index, matchField, parentTask, ActionListener.wrap(filter::set, e -> {
+                // The lookups will run without a filter and report any real problem with the lookup index
+            }));
+        }
+        return filter;
+    }
+
+    /**
+     * Fetch a filter of all values of the {@code matchField} in the lookup index. Responds with
+     * {@code null} if we can't build a filter for the field or the node holding the lookup index
+     * doesn't know how to. Use {@link #acquireKeyFilter} to share the filter across drivers.
+     */
+    protected void keyFilterAsync(
+        String index,
+        String matchField,
+        CancellableTask parentTask,
+        ActionListener<SetBackedScalingCuckooFilter> listener
+    ) {
+        final Transport.Connection connection;
+        final ShardId shardId;
+        try {
+            TargetShard target = targetShard(index);
+            connection = transportService.getConnection(target.node());
+            shardId = target.shardId();
+        } catch (Exception e) {
+            listener.onFailure(e);
+            return;
+        }
+        if (connection.getTransportVersion().before(TransportVersions.ESQL_LOOKUP_JOIN_KEY_FILTER)) {
+            listener.onResponse(null);
+            return;
+        }
+        transportService.sendChildRequest(
+            connection,
+            KEY_FILTER_ACTION_NAME,
+            new KeyFilterRequest(shardId, matchField),
+            parentTask,
+            TransportRequestOptions.EMPTY,
+            new ActionListenerResponseHandler<>(listener.map(KeyFilterResponse::filter), KeyFilterResponse::new, executor)
+        );
+    }
+
+    /**
+     * Build a filter of all terms in an indexed {@code keyword} field. Other fields, and
+     * {@code keyword} fields with a normalizer, return {@code null} because their terms
+     * aren't the same bytes as the keys we look up. The memory of the filter is reserved
+     * from the {@code breaker} as it grows and stays reserved until the caller releases
+     * {@link SetBackedScalingCuckooFilter#getSizeInBytes()} bytes.
+     */
+    @Nullable
+    static SetBackedScalingCuckooFilter buildKeyFilter(
+        SearchExecutionContext context,
+        IndexReader reader,
+        String matchField,
+        CircuitBreaker breaker
+    ) throws IOException {
+        if (context.getFieldType(matchField) instanceof KeywordFieldMapper.KeywordFieldType keyword
+            && keyword.isIndexed()
+            && keyword.hasNormalizer() == false) {
+            return buildKeyFilter(reader, keyword.name(), breaker);
+        }
+        return null;
+    }
+
+    @Nullable
+    private static SetBackedScalingCuckooFilter buildKeyFilter(IndexReader reader, String field, CircuitBreaker breaker)
+        throws IOException {
+        SetBackedScalingCuckooFilter filter = new SetBackedScalingCuckooFilter(
+            KEY_FILTER_EXACT_THRESHOLD,
+            Randomness.get(),
+            KEY_FILTER_FPP
+        );
+        long reserved = 0;
+        boolean success = false;
+        try {
+            int count = 0;
+            for (LeafReaderContext leaf : reader.leaves()) {
+                Terms terms = leaf.reader().terms(field);
+                if (terms == null) {
+                    continue;
+                }
+                TermsEnum termsEnum = terms.iterator();
+                for (BytesRef term = termsEnum.next(); term != null; term = termsEnum.next()) {
+                    if (++count > MAX_KEY_FILTER_TERMS) {
+                        return null;
+                    }
+                    filter.add(term);
+                    if (count % KEY_FILTER_BREAKER_INTERVAL == 0) {
+                        reserved = reserveKeyFilterBytes(breaker, filter, reserved);
+                    }
+                }
+            }
+            reserved = reserveKeyFilterBytes(breaker, filter, reserved);
+            success = true;
+            return filter;
+        } finally {
+            if (success == false) {
+                breaker.addWithoutBreaking(-reserved);
+            }
+        }
+    }
+
+    /**
+     * Bring the bytes reserved for a key filter up to date with its size, returning the new reservation.
+     */
+    private static long reserveKeyFilterBytes(CircuitBreaker breaker, SetBackedScalingCuckooFilter filter, long reserved) {
+        long bytes = filter.getSizeInBytes();
+        if (bytes > reserved) {
+            breaker.addEstimateBytesAndMaybeBreak(bytes - reserved, "lookup key filter");
+        } else {
+            breaker.addWithoutBreaking(bytes - reserved);
+        }
+        return bytes;
     }
 
     @Override
@@ -196,6 +391,162 @@ public class LookupFromIndexService extends AbstractLookupService<LookupFromInde
         }
     }
 
+    static class KeyFilterRequest extends AbstractTransportRequest implements IndicesRequest {
+        private final ShardId shardId;
+        private final String matchField;
+
+        KeyFilterRequest(ShardId shardId, String matchField) {
+            this.shardId = shardId;
+            this.matchField = matchField;
+        }
+
+        KeyFilterRequest(StreamInput in) throws IOException {
+            super(in);
+            this.shardId = new ShardId(in);
+            this.matchField = in.readString();
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            super.writeTo(out);
+            shardId.writeTo(out);
+            out.writeString(matchField);
+        }
+
+        @Override
+        public String[] indices() {
+            return new String[] { shardId.getIndexName() };
+        }
+
+        @Override
+        public IndicesOptions indicesOptions() {
+            return IndicesOptions.strictSingleIndexNoExpandForbidClosed();
+        }
+
+        @Override
+        public Task createTask(long id, String type, String action, TaskId parentTaskId, Map<String, String> headers) {
+            return new CancellableTask(id, type, action, "", parentTaskId, headers);
+        }
+
+        @Override
+        public String getDescription() {
+            return "LOOKUP_KEY_FILTER( shard=" + shardId + " ,match_field=" + matchField + ")";
+        }
+    }
+
+    static class KeyFilterResponse extends TransportResponse {
+        private final RefCounted refs = AbstractRefCounted.of(this::release);
+        @Nullable
+        private final SetBackedScalingCuckooFilter filter;
+        /**
+         * The breaker holding the memory of the {@link #filter} we built or {@code null} if
+         * we read the filter from the wire and its memory isn't tracked by this response.
+         */
+        @Nullable
+        private final CircuitBreaker breaker;
+
+        KeyFilterResponse(@Nullable SetBackedScalingCuckooFilter filter, @Nullable CircuitBreaker breaker) {
+            this.filter = filter;
+            this.breaker = breaker;
+        }
+
+        KeyFilterResponse(StreamInput in) throws IOException {
+            this.filter = in.readOptionalWriteable(i -> new SetBackedScalingCuckooFilter(i, Randomness.get()));
+            this.breaker = null;
+        }
+
+        private void release() {
+            if (filter != null && breaker != null) {
+                breaker.addWithoutBreaking(-filter.getSizeInBytes());
+            }
+        }
+
+        @Override
+        public void incRef() {
+            refs.incRef();
+        }
+
+        @Override
+        public boolean tryIncRef() {
+            return refs.tryIncRef();
+        }
+
+        @Override
+        public boolean decRef() {
+            return refs.decRef();
+        }
+
+        @Override
+        public boolean hasReferences() {
+            return refs.hasReferences();
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            out.writeOptionalWriteable(filter);
+        }
+
+        @Nullable
+        SetBackedScalingCuckooFilter filter() {
+            return filter;
+        }
+    }
+
+    private record KeyFilterKey(String sessionId, String index, String matchField) {}
+
+    /**
+     * A key filter shared by all drivers of a query that look up the same field. It's empty until
+     * the filter arrives and stays empty if we can't build it or can't fit it under the breaker.
+     * Its memory is reserved from the request breaker once and released when the last driver closes it.
+     */
+    public final class SharedKeyFilter extends AbstractRefCounted implements Releasable {
+        private final KeyFilterKey key;
+        private volatile SetBackedScalingCuckooFilter filter;
+        private long reservedBytes;
+        private boolean closed;
+
+        private SharedKeyFilter(KeyFilterKey key) {
+            this.key = key;
+        }
+
+        private synchronized void set(@Nullable SetBackedScalingCuckooFilter filter) {
+            if (filter == null || closed) {
+                return;
+            }
+            long bytes = filter.getSizeInBytes();
+            try {
+                breaker.addEstimateBytesAndMaybeBreak(bytes, "lookup key filter");
+            } catch (CircuitBreakingException e) {
+                // The lookups will run without a filter
+                return;
+            }
+            reservedBytes = bytes;
+            this.filter = filter;
+        }
+
+        /**
+         * The filter or {@code null} if we don't have one yet or can't build one.
+         */
+        @Nullable
+        public SetBackedScalingCuckooFilter get() {
+            return filter;
+        }
+
+        @Override
+        public void close() {
+            decRef();
+        }
+
+        @Override
+        protected synchronized void closeInternal() {
+            closed = true;
+            filter = null;
+            keyFilters.remove(key, this);
+            breaker.addWithoutBreaking(-reservedBytes);
+            reservedBytes = 0;
+        }
+    }
+
     protected static class LookupResponse extends AbstractLookupService.LookupResponse {
         private List<Page> pages;
 
@@ -22,6 +22,7 @@ import org.elasticsearch.core.Nullable;
 import org.elasticsearch.xpack.esql.Column;
 import org.elasticsearch.xpack.esql.core.InvalidArgumentException;
 import org.elasticsearch.xpack.esql.core.expression.Attribute;
+import org.elasticsearch.xpack.esql.core.expression.NameId;
 import org.elasticsearch.xpack.esql.core.type.EsField;
 import org.elasticsearch.xpack.esql.session.Configuration;
 
@@ -76,12 +77,29 @@ public final class PlanStreamOutput extends StreamOutput implements org.elastics
 
     private final int maxSerializedAttributes;
 
+    /**
+     * Maps each {@link NameId} to the order in which it first appeared if we're
+     * normalizing the plan, {@code null} otherwise.
+     */
+    @Nullable
+    private final Map<Long, Long> normalizedNameIds;
+
     public PlanStreamOutput(StreamOutput delegate, @Nullable Configuration configuration) throws IOException {
         this(delegate, configuration, MAX_SERIALIZED_ATTRIBUTES);
     }
 
     public PlanStreamOutput(StreamOutput delegate, @Nullable Configuration configuration, int maxSerializedAttributes) throws IOException {
+        this(delegate, configuration, maxSerializedAttributes, false);
+    }
+
+    private PlanStreamOutput(
+        StreamOutput delegate,
+        @Nullable Configuration configuration,
+        int maxSerializedAttributes,
+        boolean normalizeNameIds
+    ) throws IOException {
         this.delegate = delegate;
+        this.normalizedNameIds = normalizeNameIds ? new HashMap<>() : null;
         if (configuration != null) {
             for (Map.Entry<String, Map<String, Column>> table : configuration.tables().entrySet()) {
                 for (Map.Entry<String, Column> column : table.getValue().entrySet()) {
@@ -92,6 +110,15 @@ public final class PlanStreamOutput extends StreamOutput implements org.elastics
         this.maxSerializedAttributes = maxSerializedAttributes;
     }
 
+    /**
+     * Build a stream that writes each {@link NameId} as the order in which it first appeared
+     * rather than its value. Plans built from the same query write the same bytes to this
+     * stream even though their {@link NameId}s differ so those bytes can be used as a cache key.
+     */
+    public static PlanStreamOutput normalizingNameIds(StreamOutput delegate, @Nullable Configuration configuration) throws IOException {
+        return new PlanStreamOutput(delegate, configuration, MAX_SERIALIZED_ATTRIBUTES, true);
+    }
+
     @Override
     public void writeByte(byte b) throws IOException {
         delegate.writeByte(b);
@@ -152,6 +179,14 @@ public final class PlanStreamOutput extends StreamOutput implements org.elastics
         nextCachedBlock++;
     }
 
+    @Override
+    public long mapNameId(long id) {
+        if (normalizedNameIds == null) {
+            return id;
+        }
+        return normalizedNameIds.computeIfAbsent(id, k -> (long) normalizedNameIds.size());
+    }
+
     @Override
     public boolean writeAttributeCacheHeader(Attribute attribute) throws IOException {
         if (getTransportVersion().onOrAfter(TransportVersions.V_8_15_2)) {
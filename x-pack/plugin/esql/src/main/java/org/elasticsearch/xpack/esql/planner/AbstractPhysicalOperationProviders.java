@@ -199,7 +199,9 @@ public abstract class AbstractPhysicalOperationProviders implements PhysicalOper
                     aggregatorMode,
                     aggregatorFactories,
                     context.pageSize(aggregateExec.estimatedRowSize()),
-                    analysisRegistry
+                    analysisRegistry,
+                    context.queryPragmas().partialAggregationEmitKeysThreshold(),
+                    context.queryPragmas().partialAggregationEmitUniquenessThreshold()
                 );
             }
         }
@@ -7,7 +7,9 @@
 
 package org.elasticsearch.xpack.esql.planner;
 
+import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.OrdinalMap;
 import org.apache.lucene.index.SortedSetDocValues;
 import org.apache.lucene.search.BooleanClause;
 import org.apache.lucene.search.BooleanQuery;
@@ -33,6 +35,8 @@ import org.elasticsearch.core.Nullable;
 import org.elasticsearch.index.IndexMode;
 import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.analysis.AnalysisRegistry;
+import org.elasticsearch.index.fielddata.IndexFieldData;
+import org.elasticsearch.index.fielddata.IndexOrdinalsFieldData;
 import org.elasticsearch.index.mapper.BlockLoader;
 import org.elasticsearch.index.mapper.FieldNamesFieldMapper;
 import org.elasticsearch.index.mapper.KeywordFieldMapper;
@@ -109,16 +113,19 @@ public class EsPhysicalOperationProviders extends AbstractPhysicalOperationProvi
 
     private final List<ShardContext> shardContexts;
     private final DataPartitioning defaultDataPartitioning;
+    private final boolean workStealing;
 
     public EsPhysicalOperationProviders(
         FoldContext foldContext,
         List<ShardContext> shardContexts,
         AnalysisRegistry analysisRegistry,
-        DataPartitioning defaultDataPartitioning
+        DataPartitioning defaultDataPartitioning,
+        boolean workStealing
     ) {
         super(foldContext, analysisRegistry);
         this.shardContexts = shardContexts;
         this.defaultDataPartitioning = defaultDataPartitioning;
+        this.workStealing = workStealing;
     }
 
     @Override
@@ -166,6 +173,22 @@ public class EsPhysicalOperationProviders extends AbstractPhysicalOperationProvi
         return blockLoader;
     }
 
+    /**
+     * Load the global ordinals for grouping by {@code attr} or {@code null} if the shard
+     * doesn't have them, in which case we'll group each segment by its own ordinals.
+     */
+    @Nullable
+    private OrdinalMap getGlobalOrdinalsFor(int shardId, Attribute attr) {
+        if (attr instanceof FieldAttribute fa && fa.field() instanceof PotentiallyUnmappedKeywordEsField) {
+            return null;
+        }
+        if (findUnionTypes(attr) != null) {
+            return null;
+        }
+        DefaultShardContext shardContext = (DefaultShardContext) shardContexts.get(shardId);
+        return shardContext.globalOrdinals(getFieldName(attr));
+    }
+
     /** A hack to pretend an unmapped field still exists. */
     private static class DefaultShardContextForUnmappedField extends DefaultShardContext {
         private final KeywordEsField unmappedEsField;
@@ -223,7 +246,8 @@ public class EsPhysicalOperationProviders extends AbstractPhysicalOperationProvi
                 context.pageSize(rowEstimatedSize),
                 limit,
                 sortBuilders,
-                scoring
+                scoring,
+                workStealing
             );
         } else {
             luceneFactory = new LuceneSourceOperator.Factory(
@@ -233,7 +257,8 @@ public class EsPhysicalOperationProviders extends AbstractPhysicalOperationProvi
                 context.queryPragmas().taskConcurrency(),
                 context.pageSize(rowEstimatedSize),
                 limit,
-                scoring
+                scoring,
+                workStealing
             );
         }
         Layout.Builder layout = new Layout.Builder();
@@ -288,7 +313,8 @@ public class EsPhysicalOperationProviders extends AbstractPhysicalOperationProvi
             querySupplier(queryBuilder),
             context.queryPragmas().dataPartitioning(defaultDataPartitioning),
             context.queryPragmas().taskConcurrency(),
-            limit == null ? NO_LIMIT : (Integer) limit.fold(context.foldCtx())
+            limit == null ? NO_LIMIT : (Integer) limit.fold(context.foldCtx()),
+            workStealing
         );
     }
 
@@ -316,6 +342,7 @@ public class EsPhysicalOperationProviders extends AbstractPhysicalOperationProvi
         // Costin: why are they ready and not already exposed in the layout?
         return new OrdinalsGroupingOperator.OrdinalsGroupingOperatorFactory(
             shardIdx -> getBlockLoaderFor(shardIdx, attrSource, NONE),
+            shardIdx -> getGlobalOrdinalsFor(shardIdx, attrSource),
             vsShardContexts,
             groupElementType,
             docChannel,
@@ -458,6 +485,26 @@ public class EsPhysicalOperationProviders extends AbstractPhysicalOperationProvi
             return loader;
         }
 
+        /**
+         * The global ordinals of a {@code keyword} field, loaded through the field data cache so
+         * they are shared between queries. Returns {@code null} if the field has no doc values or
+         * if the shard has a single segment and doesn't need global ordinals.
+         */
+        @Nullable
+        public OrdinalMap globalOrdinals(String name) {
+            MappedFieldType fieldType = fieldType(name);
+            if (fieldType instanceof KeywordFieldMapper.KeywordFieldType == false || fieldType.hasDocValues() == false) {
+                return null;
+            }
+            if (ctx.searcher().getIndexReader() instanceof DirectoryReader reader) {
+                IndexFieldData<?> fieldData = ctx.getForField(fieldType, MappedFieldType.FielddataOperation.SEARCH);
+                if (fieldData instanceof IndexOrdinalsFieldData ordinals && ordinals.supportsGlobalOrdinalsMapping()) {
+                    return ordinals.loadGlobal(reader).getOrdinalMap();
+                }
+            }
+            return null;
+        }
+
         protected @Nullable MappedFieldType fieldType(String name) {
             return ctx.getFieldType(name);
         }
@@ -27,6 +27,7 @@ import org.elasticsearch.compute.operator.exchange.ExchangeService;
 import org.elasticsearch.compute.operator.exchange.ExchangeSink;
 import org.elasticsearch.compute.operator.exchange.ExchangeSinkHandler;
 import org.elasticsearch.compute.operator.exchange.ExchangeSourceHandler;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.Releasable;
 import org.elasticsearch.core.Releasables;
 import org.elasticsearch.core.Tuple;
@@ -139,6 +140,7 @@ public class ComputeService {
     private final ExchangeService exchangeService;
 
     private volatile DataPartitioning defaultDataPartitioning;
+    private volatile boolean luceneWorkStealing;
 
     @SuppressWarnings("this-escape")
     public ComputeService(
@@ -168,6 +170,8 @@ public class ComputeService {
             searchService,
             transportService,
             exchangeService,
+            transportActionServices.shardResultCache(),
+            blockFactory,
             esqlExecutor
         );
         this.clusterComputeHandler = new ClusterComputeHandler(
@@ -178,6 +182,7 @@ public class ComputeService {
             dataNodeComputeHandler
         );
         clusterService.getClusterSettings().initializeAndWatch(EsqlPlugin.DEFAULT_DATA_PARTITIONING, v -> this.defaultDataPartitioning = v);
+        clusterService.getClusterSettings().initializeAndWatch(EsqlPlugin.LUCENE_WORK_STEALING, v -> this.luceneWorkStealing = v);
     }
 
     public void execute(
@@ -519,8 +524,25 @@ public class ComputeService {
     }
 
     void runCompute(CancellableTask task, ComputeContext context, PhysicalPlan plan, ActionListener<DriverCompletionInfo> listener) {
+        runCompute(task, context, plan, null, listener);
+    }
+
+    /**
+     * Run a compute.
+     * @param cacheable if not {@code null} this is set, before completing the {@code listener}, to whether
+     *                  the results depend only on the plan and the shards' readers. Queries that use the
+     *                  current time can't be cached, for example.
+     */
+    void runCompute(
+        CancellableTask task,
+        ComputeContext context,
+        PhysicalPlan plan,
+        @Nullable AtomicBoolean cacheable,
+        ActionListener<DriverCompletionInfo> listener
+    ) {
         listener = ActionListener.runBefore(listener, () -> Releasables.close(context.searchContexts()));
         List<EsPhysicalOperationProviders.ShardContext> contexts = new ArrayList<>(context.searchContexts().size());
+        List<SearchExecutionContext> searchExecutionContexts = new ArrayList<>(context.searchContexts().size());
         for (int i = 0; i < context.searchContexts().size(); i++) {
             SearchContext searchContext = context.searchContexts().get(i);
             var searchExecutionContext = new SearchExecutionContext(searchContext.getSearchExecutionContext()) {
@@ -532,6 +554,7 @@ public class ComputeService {
 
                 }
             };
+            searchExecutionContexts.add(searchExecutionContext);
             contexts.add(
                 new EsPhysicalOperationProviders.DefaultShardContext(i, searchExecutionContext, searchContext.request().getAliasFilter())
             );
@@ -540,7 +563,8 @@ public class ComputeService {
             context.foldCtx(),
             contexts,
             searchService.getIndicesService().getAnalysis(),
-            defaultDataPartitioning
+            defaultDataPartitioning,
+            luceneWorkStealing
         );
         final List<Driver> drivers;
         try {
@@ -581,6 +605,9 @@ public class ComputeService {
             return;
         }
         ActionListener<Void> listenerCollectingStatus = listener.map(ignored -> {
+            if (cacheable != null) {
+                cacheable.set(searchExecutionContexts.stream().allMatch(SearchExecutionContext::isCacheable));
+            }
             if (context.configuration().profile()) {
                 return DriverCompletionInfo.includingProfiles(drivers);
             } else {
@@ -18,13 +18,19 @@ import org.elasticsearch.action.support.RefCountingRunnable;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.project.ProjectResolver;
 import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
+import org.elasticsearch.compute.data.BlockFactory;
+import org.elasticsearch.compute.data.Page;
 import org.elasticsearch.compute.operator.DriverCompletionInfo;
 import org.elasticsearch.compute.operator.exchange.ExchangeService;
 import org.elasticsearch.compute.operator.exchange.ExchangeSink;
 import org.elasticsearch.compute.operator.exchange.ExchangeSinkHandler;
 import org.elasticsearch.compute.operator.exchange.ExchangeSourceHandler;
 import org.elasticsearch.core.IOUtils;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.Releasable;
+import org.elasticsearch.core.Releasables;
 import org.elasticsearch.index.Index;
 import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.shard.ShardId;
@@ -72,6 +78,8 @@ final class DataNodeComputeHandler implements TransportRequestHandler<DataNodeRe
     private final ProjectResolver projectResolver;
     private final TransportService transportService;
     private final ExchangeService exchangeService;
+    private final ShardResultCache shardResultCache;
+    private final BlockFactory blockFactory;
     private final Executor esqlExecutor;
     private final ThreadPool threadPool;
 
@@ -82,6 +90,8 @@ final class DataNodeComputeHandler implements TransportRequestHandler<DataNodeRe
         SearchService searchService,
         TransportService transportService,
         ExchangeService exchangeService,
+        ShardResultCache shardResultCache,
+        BlockFactory blockFactory,
         Executor esqlExecutor
     ) {
         this.computeService = computeService;
@@ -90,6 +100,8 @@ final class DataNodeComputeHandler implements TransportRequestHandler<DataNodeRe
         this.searchService = searchService;
         this.transportService = transportService;
         this.exchangeService = exchangeService;
+        this.shardResultCache = shardResultCache;
+        this.blockFactory = blockFactory;
         this.esqlExecutor = esqlExecutor;
         this.threadPool = transportService.getThreadPool();
         transportService.registerRequestHandler(ComputeService.DATA_ACTION_NAME, esqlExecutor, DataNodeRequest::new, this);
@@ -227,6 +239,8 @@ final class DataNodeComputeHandler implements TransportRequestHandler<DataNodeRe
         private final ExchangeSink blockingSink; // block until we have completed on all shards or the coordinator has enough data
         private final boolean failFastOnShardFailure;
         private final Map<ShardId, Exception> shardLevelFailures;
+        @Nullable
+        private final BytesReference planCacheKey; // non-null if we can serve shards from the ShardResultCache
 
         DataNodeRequestExecutor(
             DataNodeRequest request,
@@ -235,6 +249,7 @@ final class DataNodeComputeHandler implements TransportRequestHandler<DataNodeRe
             int maxConcurrentShards,
             boolean failFastOnShardFailure,
             Map<ShardId, Exception> shardLevelFailures,
+            @Nullable BytesReference planCacheKey,
             ComputeListener computeListener
         ) {
             this.request = request;
@@ -244,6 +259,7 @@ final class DataNodeComputeHandler implements TransportRequestHandler<DataNodeRe
             this.maxConcurrentShards = maxConcurrentShards;
             this.failFastOnShardFailure = failFastOnShardFailure;
             this.shardLevelFailures = shardLevelFailures;
+            this.planCacheKey = planCacheKey;
             this.blockingSink = exchangeSink.createExchangeSink(() -> {});
         }
 
@@ -296,6 +312,14 @@ final class DataNodeComputeHandler implements TransportRequestHandler<DataNodeRe
                     batchListener.onResponse(DriverCompletionInfo.EMPTY);
                     return;
                 }
+                if (planCacheKey != null) {
+                    try (var shardsListener = new ComputeListener(threadPool, () -> {}, batchListener)) {
+                        for (SearchContext searchContext : searchContexts) {
+                            runCachedShard(searchContext, pagesProduced, shardsListener.acquireCompute());
+                        }
+                    }
+                    return;
+                }
                 var computeContext = new ComputeContext(
                     sessionId,
                     "data",
@@ -310,6 +334,82 @@ final class DataNodeComputeHandler implements TransportRequestHandler<DataNodeRe
             }, batchListener::onFailure));
         }
 
+        /**
+         * Serve a shard from the {@link ShardResultCache} or run it in its own compute so we can cache its output.
+         * The shards of a batch still run concurrently, each in a compute of its own. A hit reports the documents
+         * found, the values loaded and the warnings of the run that we cached.
+         */
+        private void runCachedShard(
+            SearchContext searchContext,
+            AtomicInteger pagesProduced,
+            ActionListener<DriverCompletionInfo> listener
+        ) {
+            final ThreadContext threadContext = threadPool.getThreadContext();
+            final ShardResultCache.Key key;
+            try {
+                key = shardResultCache.key(planCacheKey, request.configuration(), searchContext, threadContext);
+                final ShardResultCache.Hit hit = key == null ? null : shardResultCache.get(key, blockFactory);
+                if (hit != null) {
+                    final ExchangeSink sink = exchangeSink.createExchangeSink(pagesProduced::incrementAndGet);
+                    for (Page page : hit.pages()) {
+                        sink.addPage(page);
+                    }
+                    sink.finish();
+                    Releasables.close(searchContext);
+                    // only the listener should see the replayed headers, not the other shards of the batch
+                    try (ThreadContext.StoredContext ignored = threadContext.newStoredContext()) {
+                        for (Map.Entry<String, List<String>> header : hit.responseHeaders().entrySet()) {
+                            for (String value : header.getValue()) {
+                                threadContext.addResponseHeader(header.getKey(), value);
+                            }
+                        }
+                        listener.onResponse(hit.completionInfo());
+                    }
+                    return;
+                }
+            } catch (Exception e) {
+                Releasables.close(searchContext);
+                listener.onFailure(e);
+                return;
+            }
+            final ShardResultCache.Collector collector = key == null ? null : shardResultCache.collector(key);
+            final var computeContext = new ComputeContext(
+                request.sessionId(),
+                "data",
+                request.clusterAlias(),
+                List.of(searchContext),
+                request.configuration(),
+                request.configuration().newFoldContext(),
+                null,
+                () -> {
+                    final ExchangeSink sink = exchangeSink.createExchangeSink(pagesProduced::incrementAndGet);
+                    return collector == null ? sink : collector.wrap(sink);
+                }
+            );
+            final AtomicBoolean cacheable = new AtomicBoolean();
+            // the compute's thread context starts out with this thread's response headers
+            final Map<String, List<String>> headersBefore = threadContext.getResponseHeaders();
+            computeService.runCompute(parentTask, computeContext, request.plan(), cacheable, listener.map(info -> {
+                // a finished exchange means the coordinator stopped reading early so we might not have seen all pages
+                if (collector != null && cacheable.get() && exchangeSink.isFinished() == false) {
+                    collector.cache(info, addedResponseHeaders(headersBefore, threadContext.getResponseHeaders()));
+                }
+                return info;
+            }));
+        }
+
+        private Map<String, List<String>> addedResponseHeaders(Map<String, List<String>> before, Map<String, List<String>> after) {
+            Map<String, List<String>> added = new HashMap<>();
+            for (Map.Entry<String, List<String>> header : after.entrySet()) {
+                List<String> existing = before.getOrDefault(header.getKey(), List.of());
+                List<String> values = header.getValue().stream().filter(v -> existing.contains(v) == false).toList();
+                if (values.isEmpty() == false) {
+                    added.put(header.getKey(), values);
+                }
+            }
+            return added;
+        }
+
         private void acquireSearchContexts(
             String clusterAlias,
             List<ShardId> shardIds,
@@ -427,6 +527,7 @@ final class DataNodeComputeHandler implements TransportRequestHandler<DataNodeRe
                     request.configuration().pragmas().maxConcurrentShardsPerNode(),
                     failFastOnShardFailure,
                     shardLevelFailures,
+                    shardResultCache.planKey(request.plan(), request.configuration()),
                     computeListener
                 );
                 dataNodeRequestExecutor.start();
@@ -67,6 +67,7 @@ import org.elasticsearch.xpack.esql.action.RestEsqlListQueriesAction;
 import org.elasticsearch.xpack.esql.action.RestEsqlQueryAction;
 import org.elasticsearch.xpack.esql.action.RestEsqlStopAsyncAction;
 import org.elasticsearch.xpack.esql.enrich.EnrichLookupOperator;
+import org.elasticsearch.xpack.esql.enrich.EnrichResultCache;
 import org.elasticsearch.xpack.esql.enrich.LookupFromIndexOperator;
 import org.elasticsearch.xpack.esql.execution.PlanExecutor;
 import org.elasticsearch.xpack.esql.expression.ExpressionWritables;
@@ -164,6 +165,17 @@ public class EsqlPlugin extends Plugin implements ActionPlugin {
         Setting.Property.Dynamic
     );
 
+    /**
+     * Let drivers that run out of slices steal unread docs from drivers that are still
+     * working through a large segment. Turn this off to go back to fixed slices.
+     */
+    public static final Setting<Boolean> LUCENE_WORK_STEALING = Setting.boolSetting(
+        "esql.lucene_work_stealing",
+        true,
+        Setting.Property.NodeScope,
+        Setting.Property.Dynamic
+    );
+
     /**
      * Tuning parameter for deciding when to use the "merge" stored field loader.
      * Think of it as "how similar to a sequential block of documents do I have to
@@ -212,7 +224,8 @@ public class EsqlPlugin extends Plugin implements ActionPlugin {
                 ThreadPool.Names.SEARCH,
                 blockFactoryProvider.blockFactory()
             ),
-            blockFactoryProvider
+            blockFactoryProvider,
+            new ShardResultCache(settings)
         );
     }
 
@@ -251,7 +264,10 @@ public class EsqlPlugin extends Plugin implements ActionPlugin {
             ESQL_QUERYLOG_THRESHOLD_WARN_SETTING,
             ESQL_QUERYLOG_INCLUDE_USER_SETTING,
             DEFAULT_DATA_PARTITIONING,
-            STORED_FIELDS_SEQUENTIAL_PROPORTION
+            LUCENE_WORK_STEALING,
+            STORED_FIELDS_SEQUENTIAL_PROPORTION,
+            ShardResultCache.SIZE_SETTING,
+            EnrichResultCache.SIZE_SETTING
         );
     }
 
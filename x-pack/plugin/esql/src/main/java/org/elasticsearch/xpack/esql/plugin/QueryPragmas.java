@@ -79,6 +79,28 @@ public final class QueryPragmas implements Writeable {
         MappedFieldType.FieldExtractPreference.NONE
     );
 
+    /**
+     * The minimum number of keys a data node's partial {@code STATS ... BY} must collect
+     * before it flushes its partial results early and starts over with an empty hash.
+     */
+    public static final Setting<Integer> PARTIAL_AGGREGATION_EMIT_KEYS_THRESHOLD = Setting.intSetting(
+        "partial_aggregation_emit_keys_threshold",
+        100_000,
+        1
+    );
+
+    /**
+     * The minimum ratio of keys to rows received before a data node's partial
+     * {@code STATS ... BY} flushes early. Grouping that collapses many rows into
+     * each key is worth keeping in memory.
+     */
+    public static final Setting<Double> PARTIAL_AGGREGATION_EMIT_UNIQUENESS_THRESHOLD = Setting.doubleSetting(
+        "partial_aggregation_emit_uniqueness_threshold",
+        0.1,
+        0.0,
+        1.0
+    );
+
     public static final QueryPragmas EMPTY = new QueryPragmas(Settings.EMPTY);
 
     private final Settings settings;
@@ -196,6 +218,22 @@ public final class QueryPragmas implements Writeable {
         return FIELD_EXTRACT_PREFERENCE.get(settings);
     }
 
+    /**
+     * The minimum number of keys a partial grouping aggregation on the data node collects before
+     * it emits its partial results early, bounding the memory it holds.
+     */
+    public int partialAggregationEmitKeysThreshold() {
+        return PARTIAL_AGGREGATION_EMIT_KEYS_THRESHOLD.get(settings);
+    }
+
+    /**
+     * The minimum ratio of keys to rows received before a partial grouping aggregation on the
+     * data node emits its partial results early.
+     */
+    public double partialAggregationEmitUniquenessThreshold() {
+        return PARTIAL_AGGREGATION_EMIT_UNIQUENESS_THRESHOLD.get(settings);
+    }
+
     public boolean isEmpty() {
         return settings.isEmpty();
     }
@@ -0,0 +1,364 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.xpack.esql.plugin;
+
+import org.apache.lucene.index.DirectoryReader;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.cache.Cache;
+import org.elasticsearch.common.cache.CacheBuilder;
+import org.elasticsearch.common.cache.RemovalNotification;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.lucene.index.ElasticsearchDirectoryReader;
+import org.elasticsearch.common.metrics.CounterMetric;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
+import org.elasticsearch.compute.data.BlockFactory;
+import org.elasticsearch.compute.data.BlockStreamInput;
+import org.elasticsearch.compute.data.Page;
+import org.elasticsearch.compute.operator.DriverCompletionInfo;
+import org.elasticsearch.compute.operator.IsBlockedResult;
+import org.elasticsearch.compute.operator.exchange.ExchangeSink;
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.index.mapper.MappingLookup;
+import org.elasticsearch.indices.ESCacheHelper;
+import org.elasticsearch.indices.IndicesRequestCache;
+import org.elasticsearch.search.internal.AliasFilter;
+import org.elasticsearch.search.internal.SearchContext;
+import org.elasticsearch.xpack.core.security.authz.AuthorizationServiceField;
+import org.elasticsearch.xpack.core.security.authz.accesscontrol.IndicesAccessControl;
+import org.elasticsearch.xpack.core.watcher.common.stats.Counters;
+import org.elasticsearch.xpack.esql.core.expression.NameId;
+import org.elasticsearch.xpack.esql.expression.function.scalar.date.Now;
+import org.elasticsearch.xpack.esql.io.stream.PlanStreamOutput;
+import org.elasticsearch.xpack.esql.plan.logical.Aggregate;
+import org.elasticsearch.xpack.esql.plan.logical.Enrich;
+import org.elasticsearch.xpack.esql.plan.logical.Sample;
+import org.elasticsearch.xpack.esql.plan.logical.inference.InferencePlan;
+import org.elasticsearch.xpack.esql.plan.logical.join.Join;
+import org.elasticsearch.xpack.esql.plan.physical.ExchangeSinkExec;
+import org.elasticsearch.xpack.esql.plan.physical.FragmentExec;
+import org.elasticsearch.xpack.esql.plan.physical.PhysicalPlan;
+import org.elasticsearch.xpack.esql.session.Configuration;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Caches the output of the data node plan for a single shard so the same query, like the ones
+ * dashboards send over and over again, doesn't have to recompute shards that haven't changed.
+ * Entries are keyed on the plan, serialized with normalized {@link NameId}s, and on the key of
+ * the shard's reader. Like the {@link IndicesRequestCache} the cache is bounded by the size of
+ * the cached pages and we drop the entries for a reader when it is closed.
+ * <p>
+ *     We only cache plans that aggregate because their output is small, and only plans that
+ *     don't read anything but the shard itself. So no {@code ENRICH} or {@code LOOKUP JOIN}.
+ *     Nor plans that use {@code NOW()}, which we fold into a new literal for every query.
+ * </p>
+ * <p>
+ *     Along with the pages we keep the documents found, the values loaded and the response
+ *     headers, like warnings, of the run that we cached so a hit reports them again.
+ * </p>
+ */
+public final class ShardResultCache {
+    /**
+     * The maximum memory used by the cache. Defaults to {@code 0} which disables the cache.
+     */
+    public static final Setting<ByteSizeValue> SIZE_SETTING = Setting.memorySizeSetting(
+        "esql.result_cache.size",
+        ByteSizeValue.ZERO,
+        Setting.Property.NodeScope
+    );
+
+    /**
+     * Entries larger than {@code 1 / MAX_ENTRY_FRACTION} of the cache would evict too many
+     * other entries to be worth caching.
+     */
+    private static final int MAX_ENTRY_FRACTION = 20;
+
+    private static final Pattern NOW = Pattern.compile("\\bnow\\s*\\(", Pattern.CASE_INSENSITIVE);
+
+    @Nullable
+    private final Cache<Key, Value> cache;
+    private final long maxEntrySize;
+    private final Set<Object> registeredClosedListeners = ConcurrentCollections.newConcurrentSet();
+    private final CounterMetric hits = new CounterMetric();
+    private final CounterMetric misses = new CounterMetric();
+    private final CounterMetric evictions = new CounterMetric();
+
+    public ShardResultCache(Settings settings) {
+        long size = SIZE_SETTING.get(settings).getBytes();
+        this.maxEntrySize = size / MAX_ENTRY_FRACTION;
+        if (size <= 0) {
+            this.cache = null;
+            return;
+        }
+        this.cache = CacheBuilder.<Key, Value>builder()
+            .setMaximumWeight(size)
+            .weigher((k, v) -> k.plan.length() + v.ramBytesUsed())
+            .removalListener(notification -> {
+                if (notification.getRemovalReason() == RemovalNotification.RemovalReason.EVICTED) {
+                    evictions.inc();
+                }
+            })
+            .build();
+    }
+
+    /**
+     * Serialize the plan into the part of the key that is shared by all shards, or {@code null}
+     * if the cache is disabled or we can't cache the results of this plan. We never serve profiled
+     * queries from the cache because they'd report the profile of drivers that didn't run.
+     */
+    @Nullable
+    BytesReference planKey(PhysicalPlan plan, Configuration configuration) throws IOException {
+        if (cache == null || configuration.profile() || usesNow(configuration) || isCacheable(plan) == false) {
+            return null;
+        }
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            PlanStreamOutput.normalizingNameIds(out, configuration).writeNamedWriteable(plan);
+            return out.bytes();
+        }
+    }
+
+    static boolean isCacheable(PhysicalPlan plan) {
+        if (plan instanceof ExchangeSinkExec sink && sink.child() instanceof FragmentExec fragment) {
+            return fragment.fragment().anyMatch(p -> p instanceof Aggregate)
+                && fragment.fragment()
+                    .anyMatch(p -> p instanceof Enrich || p instanceof Join || p instanceof InferencePlan || p instanceof Sample) == false
+                && fragment.fragment().anyMatch(p -> p.expressions().stream().anyMatch(e -> e.anyMatch(Now.class::isInstance))) == false;
+        }
+        return false;
+    }
+
+    /**
+     * Does the query call {@code NOW()}? By the time the plan gets to the data node we have
+     * usually folded {@code NOW()} into a literal that is different for every query so the
+     * entry could never be hit. We can't see that in the plan so we look at the query text.
+     */
+    static boolean usesNow(Configuration configuration) {
+        return configuration.query() != null && NOW.matcher(configuration.query()).find();
+    }
+
+    /**
+     * Build the key for running the plan against a single shard, or {@code null} if we can't
+     * cache that shard. We don't cache shards with document or field level security because
+     * security wraps their reader without changing its cache key.
+     */
+    @Nullable
+    Key key(BytesReference planKey, Configuration configuration, SearchContext context, ThreadContext threadContext) {
+        DirectoryReader reader = context.searcher().getDirectoryReader();
+        if (ElasticsearchDirectoryReader.getElasticsearchDirectoryReader(reader) == null
+            || hasDocumentOrFieldLevelSecurity(threadContext, context.request().shardId().getIndexName())) {
+            return null;
+        }
+        ESCacheHelper cacheHelper = ElasticsearchDirectoryReader.getESReaderCacheHelper(reader);
+        Key key = new Key(
+            planKey,
+            cacheHelper.getKey(),
+            context.getSearchExecutionContext().mappingCacheKey(),
+            context.request().getAliasFilter(),
+            configuration.zoneId(),
+            configuration.locale()
+        );
+        if (registeredClosedListeners.add(key.readerKey)) {
+            cacheHelper.addClosedListener(this::onReaderClosed);
+        }
+        return key;
+    }
+
+    private static boolean hasDocumentOrFieldLevelSecurity(ThreadContext threadContext, String index) {
+        IndicesAccessControl indicesAccessControl = threadContext.getTransient(AuthorizationServiceField.INDICES_PERMISSIONS_KEY);
+        if (indicesAccessControl == null) {
+            return false;
+        }
+        IndicesAccessControl.IndexAccessControl indexAccessControl = indicesAccessControl.getIndexPermissions(index);
+        return indexAccessControl != null
+            && (indexAccessControl.getFieldPermissions().hasFieldLevelSecurity()
+                || indexAccessControl.getDocumentPermissions().hasDocumentLevelPermissions());
+    }
+
+    /**
+     * Read the cached result for a shard or {@code null} if it isn't cached.
+     */
+    @Nullable
+    Hit get(Key key, BlockFactory blockFactory) throws IOException {
+        Value value = cache.get(key);
+        if (value == null) {
+            misses.inc();
+            return null;
+        }
+        hits.inc();
+        List<Page> pages = new ArrayList<>(value.pageCount);
+        boolean success = false;
+        try (BlockStreamInput in = new BlockStreamInput(value.pages.streamInput(), blockFactory)) {
+            for (int i = 0; i < value.pageCount; i++) {
+                pages.add(new Page(in));
+            }
+            success = true;
+            return new Hit(pages, value.completionInfo, value.responseHeaders);
+        } finally {
+            if (success == false) {
+                for (Page page : pages) {
+                    page.releaseBlocks();
+                }
+            }
+        }
+    }
+
+    /**
+     * Start collecting the pages that a compute sends for a shard.
+     */
+    Collector collector(Key key) {
+        return new Collector(key);
+    }
+
+    private void onReaderClosed(Object readerKey) {
+        registeredClosedListeners.remove(readerKey);
+        for (Iterator<Key> keys = cache.keys().iterator(); keys.hasNext();) {
+            if (keys.next().readerKey == readerKey) {
+                keys.remove();
+            }
+        }
+    }
+
+    /**
+     * Add the cache's stats to the ESQL stats.
+     */
+    void stats(Counters counters) {
+        counters.inc("result_cache.hits", hits.count());
+        counters.inc("result_cache.misses", misses.count());
+        counters.inc("result_cache.evictions", evictions.count());
+        counters.inc("result_cache.entries", cache == null ? 0 : cache.count());
+        counters.inc("result_cache.memory_size_in_bytes", cache == null ? 0 : cache.weight());
+    }
+
+    record Key(
+        BytesReference plan,
+        Object readerKey,
+        MappingLookup.CacheKey mappingKey,
+        AliasFilter aliasFilter,
+        ZoneId zoneId,
+        Locale locale
+    ) {}
+
+    /**
+     * A cached result.
+     * @param pages the pages the shard produced, they belong to the caller now
+     * @param completionInfo the documents found and values loaded by the run we cached, without profiles
+     * @param responseHeaders the response headers, like warnings, the run we cached added
+     */
+    record Hit(List<Page> pages, DriverCompletionInfo completionInfo, Map<String, List<String>> responseHeaders) {}
+
+    private record Value(
+        int pageCount,
+        BytesReference pages,
+        DriverCompletionInfo completionInfo,
+        Map<String, List<String>> responseHeaders
+    ) {
+        long ramBytesUsed() {
+            long size = pages.length();
+            for (Map.Entry<String, List<String>> e : responseHeaders.entrySet()) {
+                for (String v : e.getValue()) {
+                    size += e.getKey().length() + v.length();
+                }
+            }
+            return size;
+        }
+    }
+
+    /**
+     * Collects the pages that a compute sends for a shard so we can cache them once it completes.
+     */
+    final class Collector {
+        private final Key key;
+        private final BytesStreamOutput pages = new BytesStreamOutput();
+        private int pageCount;
+        private boolean tooLarge;
+
+        private Collector(Key key) {
+            this.key = key;
+        }
+
+        /**
+         * Wrap the sink that sends the pages to the exchange, capturing every page before we send it.
+         */
+        ExchangeSink wrap(ExchangeSink delegate) {
+            return new ExchangeSink() {
+                @Override
+                public void addPage(Page page) {
+                    collect(page);
+                    delegate.addPage(page);
+                }
+
+                @Override
+                public void finish() {
+                    delegate.finish();
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return delegate.isFinished();
+                }
+
+                @Override
+                public void addCompletionListener(ActionListener<Void> listener) {
+                    delegate.addCompletionListener(listener);
+                }
+
+                @Override
+                public IsBlockedResult waitForWriting() {
+                    return delegate.waitForWriting();
+                }
+            };
+        }
+
+        private synchronized void collect(Page page) {
+            if (tooLarge) {
+                return;
+            }
+            try {
+                page.writeTo(pages);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            pageCount++;
+            if (pages.size() > maxEntrySize) {
+                tooLarge = true;
+                pages.reset();
+            }
+        }
+
+        /**
+         * Cache the collected pages. Only call this once the compute has completed successfully,
+         * without being stopped early.
+         * @param completionInfo what the compute reports on completion, we only keep its counters
+         * @param responseHeaders the response headers, like warnings, that the compute added
+         */
+        synchronized void cache(DriverCompletionInfo completionInfo, Map<String, List<String>> responseHeaders) {
+            if (tooLarge == false) {
+                DriverCompletionInfo counters = new DriverCompletionInfo(
+                    completionInfo.documentsFound(),
+                    completionInfo.valuesLoaded(),
+                    List.of()
+                );
+                cache.put(key, new Value(pageCount, pages.copyBytes(), counters, Map.copyOf(responseHeaders)));
+            }
+        }
+    }
+}
@@ -24,5 +24,6 @@ public record TransportActionServices(
     ProjectResolver projectResolver,
     IndexNameExpressionResolver indexNameExpressionResolver,
     UsageService usageService,
-    InferenceRunner inferenceRunner
+    InferenceRunner inferenceRunner,
+    ShardResultCache shardResultCache
 ) {}
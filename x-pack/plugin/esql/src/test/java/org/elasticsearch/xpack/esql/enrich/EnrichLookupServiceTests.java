@@ -0,0 +1,254 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.xpack.esql.enrich;
+
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.support.PlainActionFuture;
+import org.elasticsearch.action.support.replication.ClusterStateCreationUtils;
+import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.cluster.node.DiscoveryNodeUtils;
+import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
+import org.elasticsearch.compute.data.BlockFactory;
+import org.elasticsearch.compute.data.BytesRefBlock;
+import org.elasticsearch.compute.data.Page;
+import org.elasticsearch.core.Releasables;
+import org.elasticsearch.indices.breaker.CircuitBreakerService;
+import org.elasticsearch.tasks.CancellableTask;
+import org.elasticsearch.tasks.TaskId;
+import org.elasticsearch.test.ClusterServiceUtils;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.test.transport.MockTransport;
+import org.elasticsearch.threadpool.FixedExecutorBuilder;
+import org.elasticsearch.threadpool.TestThreadPool;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.transport.TransportService;
+import org.elasticsearch.xpack.esql.core.expression.NamedExpression;
+import org.elasticsearch.xpack.esql.core.expression.ReferenceAttribute;
+import org.elasticsearch.xpack.esql.core.tree.Source;
+import org.elasticsearch.xpack.esql.core.type.DataType;
+import org.elasticsearch.xpack.esql.plugin.EsqlPlugin;
+import org.junit.After;
+import org.junit.Before;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class EnrichLookupServiceTests extends ESTestCase {
+    private static final String INDEX = ".enrich-hosts-1";
+
+    private final CircuitBreaker breaker = newLimitedBreaker(ByteSizeValue.ofMb(1));
+    private final CircuitBreaker accountingBreaker = newLimitedBreaker(ByteSizeValue.ofMb(1));
+    private final BlockFactory blockFactory = BlockFactory.getInstance(breaker, BigArrays.NON_RECYCLING_INSTANCE);
+    private final CancellableTask parentTask = new CancellableTask(0, "test", "test", "test", TaskId.EMPTY_TASK_ID, Map.of());
+    private ThreadPool threadPool;
+    private ClusterService clusterService;
+    private MockTransport transport;
+    private TransportService transportService;
+    private PendingLookupService lookupService;
+
+    @Before
+    public void setUpLookupService() {
+        threadPool = new TestThreadPool(
+            getTestName(),
+            new FixedExecutorBuilder(
+                Settings.EMPTY,
+                EsqlPlugin.ESQL_WORKER_THREAD_POOL_NAME,
+                1,
+                1024,
+                "esql",
+                EsExecutors.TaskTrackingConfig.DEFAULT
+            )
+        );
+        DiscoveryNode localNode = DiscoveryNodeUtils.create("node", "node");
+        clusterService = ClusterServiceUtils.createClusterService(
+            threadPool,
+            localNode,
+            Settings.EMPTY,
+            ClusterSettings.createBuiltInClusterSettings()
+        );
+        ClusterServiceUtils.setState(clusterService, ClusterStateCreationUtils.state(INDEX, 1, 1));
+        transport = new MockTransport();
+        transportService = transport.createTransportService(
+            Settings.EMPTY,
+            threadPool,
+            TransportService.NOOP_TRANSPORT_INTERCEPTOR,
+            boundAddress -> clusterService.localNode(),
+            clusterService.getClusterSettings(),
+            Set.of()
+        );
+        CircuitBreakerService breakerService = mock(CircuitBreakerService.class);
+        when(breakerService.getBreaker(CircuitBreaker.REQUEST)).thenReturn(breaker);
+        when(breakerService.getBreaker(CircuitBreaker.ACCOUNTING)).thenReturn(accountingBreaker);
+        BigArrays bigArrays = new BigArrays(null, breakerService, CircuitBreaker.REQUEST);
+        lookupService = new PendingLookupService(clusterService, transportService, bigArrays, blockFactory);
+    }
+
+    @After
+    public void tearDownLookupService() {
+        Releasables.close(transportService, transport, clusterService::stop, () -> terminate(threadPool));
+    }
+
+    public void testShareInFlightKeys() {
+        PlainActionFuture<Page> first = lookup("s1", "a", "b");
+        assertThat(lookupService.pending, hasSize(1));
+        assertThat(lookupService.pending.get(0).keys, equalTo(List.of("a", "b")));
+
+        // Another driver of the same query waits for b and only looks up c, once
+        PlainActionFuture<Page> second = lookup("s1", "b", "c", "b", null);
+        assertThat(lookupService.pending, hasSize(2));
+        assertThat(lookupService.pending.get(1).keys, equalTo(List.of("c")));
+
+        // Other queries don't share lookups
+        PlainActionFuture<Page> otherQuery = lookup("s2", "b");
+        assertThat(lookupService.pending, hasSize(3));
+        assertThat(lookupService.pending.get(2).keys, equalTo(List.of("b")));
+
+        lookupService.respond(1, "owner-c");
+        assertFalse("still waiting for the first driver's lookup of b", second.isDone());
+        lookupService.respond(0, "owner-a", "owner-b");
+        lookupService.respond(2, "owner-b");
+
+        assertThat(owners(first), equalTo(List.of("owner-a", "owner-b")));
+        assertThat(owners(second), equalTo(Arrays.asList("owner-b", "owner-c", "owner-b", null)));
+        assertThat(owners(otherQuery), equalTo(List.of("owner-b")));
+
+        // Now every key comes from the cache
+        PlainActionFuture<Page> cached = lookup("s3", "c", "a");
+        assertThat(lookupService.pending, hasSize(3));
+        assertThat(owners(cached), equalTo(List.of("owner-c", "owner-a")));
+
+        // The cache is charged to the accounting breaker, the pages we return to the request breaker
+        assertThat(accountingBreaker.getUsed(), greaterThan(0L));
+        assertThat(breaker.getUsed(), equalTo(0L));
+    }
+
+    public void testFailInFlightKeys() {
+        PlainActionFuture<Page> first = lookup("s1", "a");
+        PlainActionFuture<Page> second = lookup("s1", "a", "b");
+        assertThat(lookupService.pending, hasSize(2));
+        assertThat(lookupService.pending.get(1).keys, equalTo(List.of("b")));
+
+        lookupService.respond(1, "owner-b");
+        assertFalse(second.isDone());
+        lookupService.pending.get(0).listener.onFailure(new IllegalStateException("boom"));
+
+        assertThat(expectThrows(IllegalStateException.class, first::actionGet).getMessage(), equalTo("boom"));
+        assertThat(expectThrows(IllegalStateException.class, second::actionGet).getMessage(), equalTo("boom"));
+        assertThat(breaker.getUsed(), equalTo(0L));
+
+        // Failed lookups aren't cached and aren't in flight anymore
+        PlainActionFuture<Page> retry = lookup("s1", "a");
+        assertThat(lookupService.pending, hasSize(3));
+        lookupService.respond(2, "owner-a");
+        assertThat(owners(retry), equalTo(List.of("owner-a")));
+    }
+
+    private PlainActionFuture<Page> lookup(String sessionId, String... keys) {
+        Page inputPage;
+        try (BytesRefBlock.Builder builder = blockFactory.newBytesRefBlockBuilder(keys.length)) {
+            for (String key : keys) {
+                if (key == null) {
+                    builder.appendNull();
+                } else {
+                    builder.appendBytesRef(new BytesRef(key));
+                }
+            }
+            inputPage = new Page(builder.build());
+        }
+        List<NamedExpression> extractFields = List.of(new ReferenceAttribute(Source.EMPTY, "owner", DataType.KEYWORD));
+        EnrichLookupService.Request request = new EnrichLookupService.Request(
+            sessionId,
+            INDEX,
+            DataType.KEYWORD,
+            "match",
+            "host",
+            inputPage,
+            extractFields,
+            Source.EMPTY
+        );
+        PlainActionFuture<Page> future = new PlainActionFuture<>();
+        lookupService.cachedLookupAsync(request, parentTask, ActionListener.runAfter(future, inputPage::releaseBlocks));
+        return future;
+    }
+
+    private static List<String> owners(PlainActionFuture<Page> future) {
+        Page page = future.actionGet();
+        try {
+            BytesRefBlock owners = page.getBlock(0);
+            List<String> values = new ArrayList<>();
+            for (int p = 0; p < owners.getPositionCount(); p++) {
+                values.add(owners.isNull(p) ? null : owners.getBytesRef(owners.getFirstValueIndex(p), new BytesRef()).utf8ToString());
+            }
+            return values;
+        } finally {
+            page.releaseBlocks();
+        }
+    }
+
+    /**
+     * Holds on to the lookups it sends to the enrich index so the test can respond to them.
+     */
+    private static class PendingLookupService extends EnrichLookupService {
+        private final BlockFactory blockFactory;
+        private final List<PendingLookup> pending = Collections.synchronizedList(new ArrayList<>());
+
+        PendingLookupService(
+            ClusterService clusterService,
+            TransportService transportService,
+            BigArrays bigArrays,
+            BlockFactory blockFactory
+        ) {
+            // We never send the lookups so we never need the shard
+            super(clusterService, null, transportService, bigArrays, blockFactory);
+            this.blockFactory = blockFactory;
+        }
+
+        @Override
+        protected void sendChildRequest(
+            CancellableTask parentTask,
+            ActionListener<List<Page>> delegate,
+            DiscoveryNode targetNode,
+            TransportRequest transportRequest
+        ) {
+            BytesRefBlock keys = transportRequest.inputPage.getBlock(0);
+            List<String> values = new ArrayList<>();
+            for (int p = 0; p < keys.getPositionCount(); p++) {
+                values.add(keys.getBytesRef(keys.getFirstValueIndex(p), new BytesRef()).utf8ToString());
+            }
+            pending.add(new PendingLookup(values, delegate));
+        }
+
+        void respond(int lookup, String... owners) {
+            try (BytesRefBlock.Builder builder = blockFactory.newBytesRefBlockBuilder(owners.length)) {
+                for (String owner : owners) {
+                    builder.appendBytesRef(new BytesRef(owner));
+                }
+                pending.get(lookup).listener.onResponse(List.of(new Page(builder.build())));
+            }
+        }
+    }
+
+    private record PendingLookup(List<String> keys, ActionListener<List<Page>> listener) {}
+}
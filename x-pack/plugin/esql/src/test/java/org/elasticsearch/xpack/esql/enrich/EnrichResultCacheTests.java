@@ -0,0 +1,120 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.xpack.esql.enrich;
+
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.action.support.PlainActionFuture;
+import org.elasticsearch.action.support.SubscribableListener;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.compute.data.Block;
+import org.elasticsearch.compute.data.BlockFactory;
+import org.elasticsearch.compute.data.BytesRefBlock;
+import org.elasticsearch.compute.data.ElementType;
+import org.elasticsearch.compute.data.Page;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.xpack.esql.core.expression.NamedExpression;
+import org.elasticsearch.xpack.esql.core.expression.ReferenceAttribute;
+import org.elasticsearch.xpack.esql.core.tree.Source;
+import org.elasticsearch.xpack.esql.core.type.DataType;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class EnrichResultCacheTests extends ESTestCase {
+    private final CircuitBreaker breaker = newLimitedBreaker(ByteSizeValue.ofMb(1));
+    private final BlockFactory blockFactory = BlockFactory.getInstance(breaker, BigArrays.NON_RECYCLING_INSTANCE);
+
+    public void testFields() {
+        EnrichResultCache cache = new EnrichResultCache(Settings.EMPTY, breaker);
+        List<EnrichResultCache.Field> fields = cache.fields("match", DataType.KEYWORD, extractFields());
+        assertThat(
+            fields,
+            equalTo(
+                List.of(
+                    new EnrichResultCache.Field("owner", DataType.KEYWORD, ElementType.BYTES_REF),
+                    new EnrichResultCache.Field("risk", DataType.LONG, ElementType.LONG)
+                )
+            )
+        );
+        // The ids of the fields change from query to query
+        assertThat(cache.fields("match", DataType.KEYWORD, extractFields()), equalTo(fields));
+
+        assertThat(cache.fields("range", DataType.IP, extractFields()), equalTo(fields));
+        // Parsing strings might emit warnings
+        assertThat(cache.fields("range", DataType.KEYWORD, extractFields()), nullValue());
+        assertThat(cache.fields("geo_match", DataType.GEO_POINT, extractFields()), nullValue());
+
+        EnrichResultCache disabled = new EnrichResultCache(Settings.builder().put("esql.enrich.cache.size", "0b").build(), breaker);
+        assertThat(disabled.fields("match", DataType.KEYWORD, extractFields()), nullValue());
+    }
+
+    public void testLookup() {
+        EnrichResultCache cache = new EnrichResultCache(Settings.EMPTY, breaker);
+        List<EnrichResultCache.Field> fields = cache.fields("match", DataType.KEYWORD, extractFields());
+        EnrichResultCache.Key key = new EnrichResultCache.Key(
+            ".enrich-hosts-1",
+            "match",
+            "ip",
+            DataType.KEYWORD,
+            fields,
+            new BytesRef("10.0.0.1")
+        );
+        assertThat(cache.get(key), nullValue());
+
+        assertThat(cache.startLookup("s1", key), nullValue());
+        SubscribableListener<EnrichResultCache.Row> otherDriver = cache.startLookup("s1", key);
+        assertNotNull(otherDriver);
+        // Other queries look up the key on their own
+        assertThat(cache.startLookup("s2", key), nullValue());
+        cache.failLookup("s2", key, new IllegalStateException("test"));
+
+        EnrichResultCache.Row row;
+        Page response = new Page(
+            blockFactory.newConstantBytesRefBlockWith(new BytesRef("alice"), 1),
+            blockFactory.newConstantNullBlock(1)
+        );
+        try {
+            row = EnrichResultCache.Row.read(response, 0);
+        } finally {
+            response.releaseBlocks();
+        }
+        cache.completeLookup("s1", key, row);
+        assertThat(breaker.getUsed(), greaterThan(0L));
+        assertThat(cache.get(key), sameInstance(row));
+        PlainActionFuture<EnrichResultCache.Row> future = new PlainActionFuture<>();
+        otherDriver.addListener(future);
+        assertThat(future.actionGet(), sameInstance(row));
+
+        try (Block.Builder builder = ElementType.BYTES_REF.newBlockBuilder(1, blockFactory)) {
+            row.append(builder, 0, ElementType.BYTES_REF);
+            try (BytesRefBlock block = (BytesRefBlock) builder.build()) {
+                assertThat(block.getBytesRef(0, new BytesRef()).utf8ToString(), equalTo("alice"));
+            }
+        }
+        try (Block.Builder builder = ElementType.LONG.newBlockBuilder(1, blockFactory)) {
+            row.append(builder, 1, ElementType.LONG);
+            try (Block block = builder.build()) {
+                assertTrue(block.isNull(0));
+            }
+        }
+    }
+
+    private static List<NamedExpression> extractFields() {
+        return List.of(
+            new ReferenceAttribute(Source.EMPTY, "owner", DataType.KEYWORD),
+            new ReferenceAttribute(Source.EMPTY, "risk", DataType.LONG)
+        );
+    }
+}
@@ -11,19 +11,26 @@ import org.apache.lucene.document.Field;
 import org.apache.lucene.document.IntField;
 import org.apache.lucene.document.LongField;
 import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.tests.index.RandomIndexWriter;
 import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.support.replication.ClusterStateCreationUtils;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.node.DiscoveryNodeUtils;
 import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
 import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.SetBackedScalingCuckooFilter;
 import org.elasticsearch.common.util.concurrent.EsExecutors;
 import org.elasticsearch.compute.data.BlockFactory;
+import org.elasticsearch.compute.data.BlockUtils;
 import org.elasticsearch.compute.data.BytesRefBlock;
 import org.elasticsearch.compute.data.BytesRefVector;
 import org.elasticsearch.compute.data.IntBlock;
@@ -43,6 +50,7 @@ import org.elasticsearch.index.mapper.KeywordFieldMapper;
 import org.elasticsearch.index.mapper.MapperService;
 import org.elasticsearch.index.mapper.MapperServiceTestCase;
 import org.elasticsearch.index.query.SearchExecutionContext;
+import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.indices.CrankyCircuitBreakerService;
 import org.elasticsearch.search.internal.AliasFilter;
 import org.elasticsearch.tasks.CancellableTask;
@@ -66,13 +74,19 @@ import org.junit.Before;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.LongStream;
 
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.matchesPattern;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.sameInstance;
 
 public class LookupFromIndexOperatorTests extends OperatorTestCase {
     private static final int LOOKUP_SIZE = 1000;
@@ -163,19 +177,7 @@ public class LookupFromIndexOperatorTests extends OperatorTestCase {
 
     private LookupFromIndexService lookupService(DriverContext mainContext) {
         boolean beCranky = mainContext.bigArrays().breakerService() instanceof CrankyCircuitBreakerService;
-        DiscoveryNode localNode = DiscoveryNodeUtils.create("node", "node");
-        ClusterService clusterService = ClusterServiceUtils.createClusterService(
-            threadPool,
-            localNode,
-            Settings.builder()
-                // Reserve 0 bytes in the sub-driver so we are more likely to hit the cranky breaker in it.
-                .put(BlockFactory.LOCAL_BREAKER_OVER_RESERVED_SIZE_SETTING, ByteSizeValue.ofKb(0))
-                .put(BlockFactory.LOCAL_BREAKER_OVER_RESERVED_MAX_SIZE_SETTING, ByteSizeValue.ofKb(0))
-                .build(),
-            ClusterSettings.createBuiltInClusterSettings()
-        );
-        releasables.add(clusterService::stop);
-        ClusterServiceUtils.setState(clusterService, ClusterStateCreationUtils.state("idx", 1, 1));
+        ClusterService clusterService = clusterService();
         if (beCranky) {
             logger.info("building a cranky lookup");
         }
@@ -191,6 +193,23 @@ public class LookupFromIndexOperatorTests extends OperatorTestCase {
         );
     }
 
+    private ClusterService clusterService() {
+        DiscoveryNode localNode = DiscoveryNodeUtils.create("node", "node");
+        ClusterService clusterService = ClusterServiceUtils.createClusterService(
+            threadPool,
+            localNode,
+            Settings.builder()
+                // Reserve 0 bytes in the sub-driver so we are more likely to hit the cranky breaker in it.
+                .put(BlockFactory.LOCAL_BREAKER_OVER_RESERVED_SIZE_SETTING, ByteSizeValue.ofKb(0))
+                .put(BlockFactory.LOCAL_BREAKER_OVER_RESERVED_MAX_SIZE_SETTING, ByteSizeValue.ofKb(0))
+                .build(),
+            ClusterSettings.createBuiltInClusterSettings()
+        );
+        releasables.add(clusterService::stop);
+        ClusterServiceUtils.setState(clusterService, ClusterStateCreationUtils.state("idx", 1, 1));
+        return clusterService;
+    }
+
     private ThreadPool threadPool() {
         return new TestThreadPool(
             getTestClass().getSimpleName(),
@@ -261,6 +280,244 @@ public class LookupFromIndexOperatorTests extends OperatorTestCase {
         Releasables.close(Releasables.wrap(releasables.reversed()), () -> terminate(threadPool));
     }
 
+    public void testBuildKeyFilter() throws IOException {
+        AbstractLookupService.LookupShardContext shardContext = lookupShardContextFactory().create(new ShardId("idx", "n/a", 0));
+        try (Releasable ignored = shardContext.release()) {
+            IndexReader reader = shardContext.context().searcher().getIndexReader();
+            CircuitBreaker breaker = new NoopCircuitBreaker("test");
+            SetBackedScalingCuckooFilter filter = LookupFromIndexService.buildKeyFilter(
+                shardContext.executionContext(),
+                reader,
+                "lkwd",
+                breaker
+            );
+            assertNotNull(filter);
+            for (int i = 0; i < LOOKUP_SIZE; i++) {
+                assertTrue(filter.mightContain(new BytesRef("l" + i)));
+            }
+            assertFalse(filter.mightContain(new BytesRef("l" + LOOKUP_SIZE)));
+            // We can only filter on keyword fields
+            assertNull(LookupFromIndexService.buildKeyFilter(shardContext.executionContext(), reader, "match", breaker));
+            assertNull(LookupFromIndexService.buildKeyFilter(shardContext.executionContext(), reader, "missing", breaker));
+        }
+    }
+
+    public void testFilterKeys() {
+        List<List<String>> keys = new ArrayList<>();
+        int pageCount = between(3, 10);
+        for (int i = 0; i < pageCount; i++) {
+            List<String> page = new ArrayList<>();
+            int positions = between(1, 300);
+            // make sure we get a page after the first one where none of the keys can match
+            boolean allMissing = i == 1;
+            for (int p = 0; p < positions; p++) {
+                page.add(allMissing || randomBoolean() ? "missing" + between(0, LOOKUP_SIZE) : "l" + between(0, LOOKUP_SIZE - 1));
+            }
+            keys.add(page);
+        }
+
+        KeyRecordingLookupService filtered = keyRecordingLookupService(true);
+        List<List<Object>> filteredRows = lookupKeyword(filtered, keys);
+        KeyRecordingLookupService unfiltered = keyRecordingLookupService(false);
+        List<List<Object>> unfilteredRows = lookupKeyword(unfiltered, keys);
+
+        assertThat(filteredRows, equalTo(unfilteredRows));
+        List<List<Object>> expectedRows = new ArrayList<>();
+        for (List<String> page : keys) {
+            for (String key : page) {
+                if (key.startsWith("missing")) {
+                    expectedRows.add(Arrays.asList(key, null, null));
+                } else {
+                    int i = Integer.parseInt(key.substring(1));
+                    expectedRows.add(List.of(key, (long) i, -i));
+                }
+            }
+        }
+        assertThat(filteredRows, equalTo(expectedRows));
+
+        // The filter is only fetched with the first page so that one is sent as is
+        List<String> expectedSentKeys = new ArrayList<>(keys.get(0));
+        for (List<String> page : keys.subList(1, keys.size())) {
+            page.stream().filter(k -> k.startsWith("missing") == false).forEach(expectedSentKeys::add);
+        }
+        assertThat(filtered.sentKeys, equalTo(expectedSentKeys));
+        assertThat(unfiltered.sentKeys, equalTo(keys.stream().flatMap(List::stream).toList()));
+    }
+
+    public void testKeyFilterSharedByQuery() {
+        KeyRecordingLookupService lookupService = keyRecordingLookupService(true);
+        CancellableTask task = new CancellableTask(0, "test", "test", "test", TaskId.EMPTY_TASK_ID, Map.of());
+        CircuitBreaker breaker = lookupService.breaker;
+        long before = breaker.getUsed();
+        try (
+            LookupFromIndexService.SharedKeyFilter first = lookupService.acquireKeyFilter("test", "idx", "lkwd", task);
+            LookupFromIndexService.SharedKeyFilter second = lookupService.acquireKeyFilter("test", "idx", "lkwd", task)
+        ) {
+            assertThat(second, sameInstance(first));
+            assertThat(lookupService.keyFilterRequests.get(), equalTo(1));
+            assertThat(first.get().mightContain(new BytesRef("l0")), equalTo(true));
+            // The shared filter is charged to the breaker only once
+            assertThat(breaker.getUsed() - before, equalTo(first.get().getSizeInBytes()));
+
+            try (LookupFromIndexService.SharedKeyFilter other = lookupService.acquireKeyFilter("other", "idx", "lkwd", task)) {
+                assertThat(other, not(sameInstance(first)));
+                assertThat(lookupService.keyFilterRequests.get(), equalTo(2));
+            }
+        }
+        assertThat(breaker.getUsed(), equalTo(before));
+
+        // Once every driver released the filter we fetch a new one
+        try (LookupFromIndexService.SharedKeyFilter again = lookupService.acquireKeyFilter("test", "idx", "lkwd", task)) {
+            assertThat(again.get(), notNullValue());
+            assertThat(lookupService.keyFilterRequests.get(), equalTo(3));
+        }
+        assertThat(breaker.getUsed(), equalTo(before));
+    }
+
+    public void testBuildKeyFilterChecksBreaker() throws IOException {
+        AbstractLookupService.LookupShardContext shardContext = lookupShardContextFactory().create(new ShardId("idx", "n/a", 0));
+        try (Releasable ignored = shardContext.release()) {
+            IndexReader reader = shardContext.context().searcher().getIndexReader();
+            CircuitBreaker tiny = newLimitedBreaker(ByteSizeValue.ofBytes(1));
+            expectThrows(
+                CircuitBreakingException.class,
+                () -> LookupFromIndexService.buildKeyFilter(shardContext.executionContext(), reader, "lkwd", tiny)
+            );
+            assertThat(tiny.getUsed(), equalTo(0L));
+
+            CircuitBreaker breaker = newLimitedBreaker(ByteSizeValue.ofMb(1));
+            SetBackedScalingCuckooFilter filter = LookupFromIndexService.buildKeyFilter(
+                shardContext.executionContext(),
+                reader,
+                "lkwd",
+                breaker
+            );
+            assertThat(breaker.getUsed(), equalTo(filter.getSizeInBytes()));
+            breaker.addWithoutBreaking(-filter.getSizeInBytes());
+        }
+    }
+
+    /**
+     * Join the {@code keys} against the {@code lkwd} field of the lookup index and return the rows.
+     */
+    private List<List<Object>> lookupKeyword(LookupFromIndexService lookupService, List<List<String>> keys) {
+        DriverContext driverContext = driverContext();
+        List<Page> input = new ArrayList<>();
+        for (List<String> page : keys) {
+            try (BytesRefBlock.Builder builder = driverContext.blockFactory().newBytesRefBlockBuilder(page.size())) {
+                for (String key : page) {
+                    builder.appendBytesRef(new BytesRef(key));
+                }
+                input.add(new Page(builder.build()));
+            }
+        }
+        Operator operator = new LookupFromIndexOperator.Factory(
+            "test",
+            new CancellableTask(0, "test", "test", "test", TaskId.EMPTY_TASK_ID, Map.of()),
+            1,
+            0,
+            ctx -> lookupService,
+            DataType.KEYWORD,
+            "idx",
+            "lkwd",
+            List.of(
+                new ReferenceAttribute(Source.EMPTY, "match", DataType.LONG),
+                new ReferenceAttribute(Source.EMPTY, "lint", DataType.INTEGER)
+            ),
+            Source.EMPTY
+        ).get(driverContext);
+        List<Page> results = drive(operator, input.iterator(), driverContext);
+        List<List<Object>> rows = new ArrayList<>();
+        for (Page page : results) {
+            for (int p = 0; p < page.getPositionCount(); p++) {
+                List<Object> row = new ArrayList<>();
+                for (int b = 0; b < page.getBlockCount(); b++) {
+                    Object value = BlockUtils.toJavaObject(page.getBlock(b), p);
+                    row.add(value instanceof BytesRef bytes ? bytes.utf8ToString() : value);
+                }
+                rows.add(row);
+            }
+            page.releaseBlocks();
+        }
+        assertDriverContext(driverContext);
+        return rows;
+    }
+
+    private KeyRecordingLookupService keyRecordingLookupService(boolean filterKeys) {
+        ClusterService clusterService = clusterService();
+        DriverContext ctx = driverContext();
+        return new KeyRecordingLookupService(
+            clusterService,
+            lookupShardContextFactory(),
+            transportService(clusterService),
+            ctx.bigArrays(),
+            ctx.blockFactory(),
+            filterKeys
+        );
+    }
+
+    /**
+     * Records the keys we send to the lookup index and builds the key filter without
+     * going over the transport so it is ready before the second page.
+     */
+    private static class KeyRecordingLookupService extends LookupFromIndexService {
+        private final boolean filterKeys;
+        private final List<String> sentKeys = Collections.synchronizedList(new ArrayList<>());
+        private final AtomicInteger keyFilterRequests = new AtomicInteger();
+        private final CircuitBreaker breaker;
+
+        KeyRecordingLookupService(
+            ClusterService clusterService,
+            LookupShardContextFactory lookupShardContextFactory,
+            TransportService transportService,
+            BigArrays bigArrays,
+            BlockFactory blockFactory,
+            boolean filterKeys
+        ) {
+            super(clusterService, lookupShardContextFactory, transportService, bigArrays, blockFactory);
+            this.filterKeys = filterKeys;
+            this.breaker = blockFactory.breaker();
+        }
+
+        @Override
+        protected void keyFilterAsync(
+            String index,
+            String matchField,
+            CancellableTask parentTask,
+            ActionListener<SetBackedScalingCuckooFilter> listener
+        ) {
+            keyFilterRequests.incrementAndGet();
+            if (filterKeys == false) {
+                listener.onResponse(null);
+                return;
+            }
+            ActionListener.completeWith(listener, () -> {
+                LookupShardContext shardContext = lookupShardContextFactory.create(targetShard(index).shardId());
+                try (Releasable ignored = shardContext.release()) {
+                    IndexReader reader = shardContext.context().searcher().getIndexReader();
+                    return buildKeyFilter(shardContext.executionContext(), reader, matchField, new NoopCircuitBreaker("test"));
+                }
+            });
+        }
+
+        @Override
+        protected void sendChildRequest(
+            CancellableTask parentTask,
+            ActionListener<List<Page>> delegate,
+            DiscoveryNode targetNode,
+            TransportRequest transportRequest
+        ) {
+            BytesRefBlock keys = transportRequest.inputPage.getBlock(0);
+            BytesRef scratch = new BytesRef();
+            for (int p = 0; p < keys.getPositionCount(); p++) {
+                if (keys.isNull(p) == false) {
+                    sentKeys.add(keys.getBytesRef(keys.getFirstValueIndex(p), scratch).utf8ToString());
+                }
+            }
+            super.sendChildRequest(parentTask, delegate, targetNode, transportRequest);
+        }
+    }
+
     @Override
     public void testOperatorStatus() {
         assumeFalse("not yet standardized", true);
@@ -0,0 +1,113 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.xpack.esql.expression.predicate.operator.arithmetic;
+
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.MockBigArrays;
+import org.elasticsearch.common.util.PageCacheRecycler;
+import org.elasticsearch.compute.data.BlockFactory;
+import org.elasticsearch.compute.data.IntBlock;
+import org.elasticsearch.compute.data.Page;
+import org.elasticsearch.compute.operator.DriverContext;
+import org.elasticsearch.compute.operator.EvalOperator;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.xpack.esql.core.type.DataType;
+import org.elasticsearch.xpack.esql.expression.function.AbstractFunctionTestCase;
+import org.junit.After;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.elasticsearch.xpack.esql.expression.function.AbstractFunctionTestCase.field;
+import static org.elasticsearch.xpack.esql.expression.function.TestCaseSupplier.TEST_SOURCE;
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ * Tests the generated vector path of an evaluator that may warn, which computes into a
+ * fixed size vector and falls back to {@code evalWithWarnings} on the first exception.
+ */
+public class AddIntsEvaluatorTests extends ESTestCase {
+    private static final String OVERFLOW_WARNING = "Line 1:1: java.lang.ArithmeticException: integer overflow";
+
+    private final List<CircuitBreaker> breakers = Collections.synchronizedList(new ArrayList<>());
+
+    public void testNoOverflow() {
+        assertThat(add(new int[] { 1, 2, 3 }, new int[] { 1, 1, 1 }), equalTo(Arrays.asList(2, 3, 4)));
+    }
+
+    public void testOverflowResumesAtFailedPosition() {
+        int[] lhs = new int[] { 1, Integer.MAX_VALUE, 2, Integer.MAX_VALUE, 3 };
+        int[] rhs = new int[] { 1, 1, 1, 1, 1 };
+        assertThat(add(lhs, rhs), equalTo(Arrays.asList(2, null, 3, null, 4)));
+        assertWarnings(
+            "Line 1:1: evaluation of [source] failed, treating result as null. Only first 20 failures recorded.",
+            OVERFLOW_WARNING
+        );
+    }
+
+    public void testOverflowAtFirstPosition() {
+        int[] lhs = new int[] { Integer.MAX_VALUE, 1, 2 };
+        int[] rhs = new int[] { 1, 1, 1 };
+        assertThat(add(lhs, rhs), equalTo(Arrays.asList(null, 2, 3)));
+        assertWarnings(
+            "Line 1:1: evaluation of [source] failed, treating result as null. Only first 20 failures recorded.",
+            OVERFLOW_WARNING
+        );
+    }
+
+    public void testOverflowAtLastPosition() {
+        int[] lhs = new int[] { 1, 2, Integer.MAX_VALUE };
+        int[] rhs = new int[] { 1, 1, 1 };
+        assertThat(add(lhs, rhs), equalTo(Arrays.asList(2, 3, null)));
+        assertWarnings(
+            "Line 1:1: evaluation of [source] failed, treating result as null. Only first 20 failures recorded.",
+            OVERFLOW_WARNING
+        );
+    }
+
+    private List<Integer> add(int[] lhs, int[] rhs) {
+        DriverContext driverContext = driverContext();
+        BlockFactory blockFactory = driverContext.blockFactory();
+        Add add = new Add(TEST_SOURCE, field("lhs", DataType.INTEGER), field("rhs", DataType.INTEGER));
+        Page page = new Page(
+            blockFactory.newIntArrayVector(lhs, lhs.length).asBlock(),
+            blockFactory.newIntArrayVector(rhs, rhs.length).asBlock()
+        );
+        try (
+            EvalOperator.ExpressionEvaluator eval = add.toEvaluator(AbstractFunctionTestCase.toEvaluator()).get(driverContext);
+            IntBlock block = (IntBlock) eval.eval(page)
+        ) {
+            assertThat(eval.toString(), equalTo("AddIntsEvaluator[lhs=Attribute[channel=0], rhs=Attribute[channel=1]]"));
+            List<Integer> result = new ArrayList<>(block.getPositionCount());
+            for (int p = 0; p < block.getPositionCount(); p++) {
+                result.add(block.isNull(p) ? null : block.getInt(block.getFirstValueIndex(p)));
+            }
+            return result;
+        } finally {
+            page.releaseBlocks();
+        }
+    }
+
+    private DriverContext driverContext() {
+        BigArrays bigArrays = new MockBigArrays(PageCacheRecycler.NON_RECYCLING_INSTANCE, ByteSizeValue.ofMb(256)).withCircuitBreaking();
+        CircuitBreaker breaker = bigArrays.breakerService().getBreaker(CircuitBreaker.REQUEST);
+        breakers.add(breaker);
+        return new DriverContext(bigArrays, new BlockFactory(breaker, bigArrays));
+    }
+
+    @After
+    public void allMemoryReleased() {
+        for (CircuitBreaker breaker : breakers) {
+            assertThat(breaker.getUsed(), equalTo(0L));
+        }
+    }
+}
@@ -216,6 +216,31 @@ public class PlanStreamOutputTests extends ESTestCase {
         }
     }
 
+    public void testNormalizingNameIds() throws IOException {
+        Configuration configuration = randomConfiguration();
+        Attribute one = randomAttribute();
+        Attribute two = randomAttribute();
+        try (
+            BytesStreamOutput out = new BytesStreamOutput();
+            BytesStreamOutput renamedOut = new BytesStreamOutput();
+            PlanStreamOutput planStream = PlanStreamOutput.normalizingNameIds(out, configuration);
+            PlanStreamOutput renamedPlanStream = PlanStreamOutput.normalizingNameIds(renamedOut, configuration)
+        ) {
+            planStream.writeNamedWriteable(one);
+            planStream.writeNamedWriteable(two);
+            renamedPlanStream.writeNamedWriteable(one.withId(new NameId()));
+            renamedPlanStream.writeNamedWriteable(two.withId(new NameId()));
+
+            assertThat(out.bytes(), equalTo(renamedOut.bytes()));
+
+            try (PlanStreamInput in = new PlanStreamInput(out.bytes().streamInput(), REGISTRY, configuration)) {
+                Attribute oneCopy = in.readNamedWriteable(Attribute.class);
+                Attribute twoCopy = in.readNamedWriteable(Attribute.class);
+                assertThat(oneCopy.id(), not(equalTo(twoCopy.id())));
+            }
+        }
+    }
+
     public void testWriteMultipleEsFields() throws IOException {
         Configuration configuration = randomConfiguration();
         try (BytesStreamOutput out = new BytesStreamOutput(); PlanStreamOutput planStream = new PlanStreamOutput(out, configuration)) {
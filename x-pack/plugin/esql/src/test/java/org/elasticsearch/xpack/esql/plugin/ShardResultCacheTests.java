@@ -0,0 +1,327 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.xpack.esql.plugin;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.tests.index.RandomIndexWriter;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.lucene.index.ElasticsearchDirectoryReader;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
+import org.elasticsearch.compute.data.BlockFactory;
+import org.elasticsearch.compute.data.IntBlock;
+import org.elasticsearch.compute.data.Page;
+import org.elasticsearch.compute.operator.DriverCompletionInfo;
+import org.elasticsearch.compute.operator.IsBlockedResult;
+import org.elasticsearch.compute.operator.Operator;
+import org.elasticsearch.compute.operator.exchange.ExchangeSink;
+import org.elasticsearch.index.mapper.MappingLookup;
+import org.elasticsearch.index.query.SearchExecutionContext;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.search.internal.AliasFilter;
+import org.elasticsearch.search.internal.ContextIndexSearcher;
+import org.elasticsearch.search.internal.SearchContext;
+import org.elasticsearch.search.internal.ShardSearchRequest;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.xpack.core.security.authz.AuthorizationServiceField;
+import org.elasticsearch.xpack.core.security.authz.accesscontrol.IndicesAccessControl;
+import org.elasticsearch.xpack.core.security.authz.permission.DocumentPermissions;
+import org.elasticsearch.xpack.core.security.authz.permission.FieldPermissions;
+import org.elasticsearch.xpack.core.security.authz.permission.FieldPermissionsDefinition;
+import org.elasticsearch.xpack.core.watcher.common.stats.Counters;
+import org.elasticsearch.xpack.esql.core.expression.Alias;
+import org.elasticsearch.xpack.esql.core.tree.Source;
+import org.elasticsearch.xpack.esql.expression.function.scalar.date.Now;
+import org.elasticsearch.xpack.esql.plan.logical.Aggregate;
+import org.elasticsearch.xpack.esql.plan.logical.LogicalPlan;
+import org.elasticsearch.xpack.esql.plan.physical.ExchangeSinkExec;
+import org.elasticsearch.xpack.esql.plan.physical.FragmentExec;
+import org.elasticsearch.xpack.esql.plan.physical.PhysicalPlan;
+import org.elasticsearch.xpack.esql.session.Configuration;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.elasticsearch.xpack.esql.EsqlTestUtils.TEST_CFG;
+import static org.elasticsearch.xpack.esql.EsqlTestUtils.configuration;
+import static org.elasticsearch.xpack.esql.EsqlTestUtils.relation;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ShardResultCacheTests extends ESTestCase {
+    private static final Settings ENABLED = Settings.builder().put(ShardResultCache.SIZE_SETTING.getKey(), "1mb").build();
+
+    private final CircuitBreaker breaker = newLimitedBreaker(ByteSizeValue.ofMb(1));
+    private final BlockFactory blockFactory = BlockFactory.getInstance(breaker, BigArrays.NON_RECYCLING_INSTANCE);
+    private final ShardId shardId = new ShardId("idx", "_na_", 0);
+    private final ThreadContext threadContext = new ThreadContext(Settings.EMPTY);
+
+    public void testDisabledByDefault() throws IOException {
+        ShardResultCache cache = new ShardResultCache(Settings.EMPTY);
+        assertThat(cache.planKey(aggregatingPlan(), TEST_CFG), nullValue());
+    }
+
+    public void testPlanKey() throws IOException {
+        ShardResultCache cache = new ShardResultCache(ENABLED);
+        BytesReference planKey = cache.planKey(aggregatingPlan(), TEST_CFG);
+        assertNotNull(planKey);
+        // the same plan with fresh name ids gets the same key
+        assertThat(cache.planKey(aggregatingPlan(), TEST_CFG), equalTo(planKey));
+
+        assertThat(cache.planKey(plan(relation()), TEST_CFG), nullValue());
+        assertThat(cache.planKey(aggregatingPlan(), profiled()), nullValue());
+    }
+
+    public void testSkipNow() throws IOException {
+        ShardResultCache cache = new ShardResultCache(ENABLED);
+        // NOW() is usually folded into a literal by the time we see the plan
+        String query = "FROM idx | WHERE @timestamp > " + randomFrom("NOW()", "now ()", "Now()") + " - 1 hour | STATS COUNT(*)";
+        assertThat(cache.planKey(aggregatingPlan(), configuration(query)), nullValue());
+        assertNotNull(cache.planKey(aggregatingPlan(), configuration("FROM idx | STATS COUNT(*) BY snow")));
+
+        Alias now = new Alias(Source.EMPTY, "now", new Now(Source.EMPTY, TEST_CFG));
+        assertThat(cache.planKey(plan(new Aggregate(Source.EMPTY, relation(), List.of(), List.of(now))), TEST_CFG), nullValue());
+    }
+
+    public void testMissThenHit() throws IOException {
+        ShardResultCache cache = new ShardResultCache(ENABLED);
+        try (Directory dir = newDirectory(); DirectoryReader reader = openReader(dir)) {
+            ShardResultCache.Key key = cache.key(new BytesArray("plan"), TEST_CFG, searchContext(reader), threadContext);
+            assertNotNull("readers wrapped by the searcher should be cacheable", key);
+            assertThat(cache.get(key, blockFactory), nullValue());
+
+            Map<String, List<String>> warnings = Map.of("Warning", List.of("299 Elasticsearch-\"warning\""));
+            collectAndCache(cache, key, new DriverCompletionInfo(10, 20, List.of()), warnings, 1, 2, 3);
+            assertThat(breaker.getUsed(), equalTo(0L));
+
+            ShardResultCache.Hit hit = cache.get(key, blockFactory);
+            // a hit reports what the run we cached found and warned about
+            assertThat(hit.completionInfo().documentsFound(), equalTo(10L));
+            assertThat(hit.completionInfo().valuesLoaded(), equalTo(20L));
+            assertThat(hit.responseHeaders(), equalTo(warnings));
+            List<Page> pages = hit.pages();
+            assertThat(pages, hasSize(3));
+            for (int i = 0; i < pages.size(); i++) {
+                IntBlock block = pages.get(i).getBlock(0);
+                assertThat(block.getInt(0), equalTo(i + 1));
+            }
+            // the pages we read from the cache belong to the query that asked for them
+            assertThat(breaker.getUsed(), greaterThan(0L));
+            releasePages(pages);
+            assertThat(breaker.getUsed(), equalTo(0L));
+
+            Counters counters = new Counters();
+            cache.stats(counters);
+            assertThat(counters.get("result_cache.hits"), equalTo(1L));
+            assertThat(counters.get("result_cache.misses"), equalTo(1L));
+            assertThat(counters.get("result_cache.entries"), equalTo(1L));
+            assertThat(counters.get("result_cache.memory_size_in_bytes"), greaterThan(0L));
+        }
+    }
+
+    public void testKeyIncludesPlan() throws IOException {
+        ShardResultCache cache = new ShardResultCache(ENABLED);
+        try (Directory dir = newDirectory(); DirectoryReader reader = openReader(dir)) {
+            SearchContext context = searchContext(reader);
+            ShardResultCache.Key key = cache.key(new BytesArray("plan"), TEST_CFG, context, threadContext);
+            collectAndCache(cache, key, 1);
+
+            assertThat(cache.get(cache.key(new BytesArray("other plan"), TEST_CFG, context, threadContext), blockFactory), nullValue());
+        }
+    }
+
+    public void testInvalidateOnReaderClose() throws IOException {
+        ShardResultCache cache = new ShardResultCache(ENABLED);
+        try (Directory dir = newDirectory()) {
+            DirectoryReader reader = openReader(dir);
+            ShardResultCache.Key key;
+            try {
+                key = cache.key(new BytesArray("plan"), TEST_CFG, searchContext(reader), threadContext);
+                collectAndCache(cache, key, 1);
+                List<Page> pages = cache.get(key, blockFactory).pages();
+                assertThat(pages, hasSize(1));
+                releasePages(pages);
+            } finally {
+                reader.close();
+            }
+            assertThat(cache.get(key, blockFactory), nullValue());
+            Counters counters = new Counters();
+            cache.stats(counters);
+            assertThat(counters.get("result_cache.entries"), equalTo(0L));
+        }
+    }
+
+    public void testDontCacheLargeEntries() throws IOException {
+        ShardResultCache cache = new ShardResultCache(
+            Settings.builder().put(ShardResultCache.SIZE_SETTING.getKey(), "400b").build()
+        );
+        try (Directory dir = newDirectory(); DirectoryReader reader = openReader(dir)) {
+            ShardResultCache.Key key = cache.key(new BytesArray("plan"), TEST_CFG, searchContext(reader), threadContext);
+            collectAndCache(cache, key, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+            assertThat(cache.get(key, blockFactory), nullValue());
+        }
+    }
+
+    public void testSkipDocumentAndFieldLevelSecurity() throws IOException {
+        ShardResultCache cache = new ShardResultCache(ENABLED);
+        try (Directory dir = newDirectory(); DirectoryReader reader = openReader(dir)) {
+            SearchContext context = searchContext(reader);
+            try (ThreadContext.StoredContext ignored = threadContext.stashContext()) {
+                putIndexAccessControl(IndicesAccessControl.IndexAccessControl.ALLOW_ALL);
+                assertNotNull(cache.key(new BytesArray("plan"), TEST_CFG, context, threadContext));
+            }
+            try (ThreadContext.StoredContext ignored = threadContext.stashContext()) {
+                putIndexAccessControl(
+                    new IndicesAccessControl.IndexAccessControl(
+                        FieldPermissions.DEFAULT,
+                        DocumentPermissions.filteredBy(Set.of(new BytesArray("{\"term\":{\"public\":true}}")))
+                    )
+                );
+                assertThat(cache.key(new BytesArray("plan"), TEST_CFG, context, threadContext), nullValue());
+            }
+            try (ThreadContext.StoredContext ignored = threadContext.stashContext()) {
+                putIndexAccessControl(
+                    new IndicesAccessControl.IndexAccessControl(
+                        new FieldPermissions(new FieldPermissionsDefinition(new String[] { "public*" }, null)),
+                        DocumentPermissions.allowAll()
+                    )
+                );
+                assertThat(cache.key(new BytesArray("plan"), TEST_CFG, context, threadContext), nullValue());
+            }
+        }
+    }
+
+    private void putIndexAccessControl(IndicesAccessControl.IndexAccessControl indexAccessControl) {
+        threadContext.putTransient(
+            AuthorizationServiceField.INDICES_PERMISSIONS_KEY,
+            new IndicesAccessControl(true, Map.of(shardId.getIndexName(), indexAccessControl))
+        );
+    }
+
+    private void collectAndCache(ShardResultCache cache, ShardResultCache.Key key, int... values) {
+        collectAndCache(cache, key, DriverCompletionInfo.EMPTY, Map.of(), values);
+    }
+
+    private void collectAndCache(
+        ShardResultCache cache,
+        ShardResultCache.Key key,
+        DriverCompletionInfo completionInfo,
+        Map<String, List<String>> responseHeaders,
+        int... values
+    ) {
+        ShardResultCache.Collector collector = cache.collector(key);
+        ExchangeSink sink = collector.wrap(new ReleasingSink());
+        for (int value : values) {
+            sink.addPage(new Page(blockFactory.newConstantIntBlockWith(value, 1)));
+        }
+        sink.finish();
+        collector.cache(completionInfo, responseHeaders);
+    }
+
+    private static void releasePages(List<Page> pages) {
+        for (Page page : pages) {
+            page.releaseBlocks();
+        }
+    }
+
+    private DirectoryReader openReader(Directory dir) throws IOException {
+        try (RandomIndexWriter writer = new RandomIndexWriter(random(), dir)) {
+            writer.addDocument(new Document());
+        }
+        return ElasticsearchDirectoryReader.wrap(DirectoryReader.open(dir), shardId);
+    }
+
+    private SearchContext searchContext(DirectoryReader reader) throws IOException {
+        // wrap the reader like IndexShard and the searcher do so we can see that we find the key of the shard's reader
+        ContextIndexSearcher searcher = new ContextIndexSearcher(
+            reader,
+            IndexSearcher.getDefaultSimilarity(),
+            IndexSearcher.getDefaultQueryCache(),
+            IndexSearcher.getDefaultQueryCachingPolicy(),
+            true
+        );
+        SearchExecutionContext searchExecutionContext = mock(SearchExecutionContext.class);
+        when(searchExecutionContext.mappingCacheKey()).thenReturn(MappingLookup.EMPTY.cacheKey());
+        SearchContext context = mock(SearchContext.class);
+        when(context.searcher()).thenReturn(searcher);
+        when(context.getSearchExecutionContext()).thenReturn(searchExecutionContext);
+        when(context.request()).thenReturn(new ShardSearchRequest(shardId, 0, AliasFilter.EMPTY));
+        return context;
+    }
+
+    private static PhysicalPlan aggregatingPlan() {
+        return plan(new Aggregate(Source.EMPTY, relation(), List.of(), List.of()));
+    }
+
+    private static PhysicalPlan plan(LogicalPlan fragment) {
+        return new ExchangeSinkExec(Source.EMPTY, List.of(), false, new FragmentExec(fragment));
+    }
+
+    private static Configuration profiled() {
+        return new Configuration(
+            TEST_CFG.zoneId(),
+            TEST_CFG.locale(),
+            TEST_CFG.username(),
+            TEST_CFG.clusterName(),
+            TEST_CFG.pragmas(),
+            TEST_CFG.resultTruncationMaxSize(),
+            TEST_CFG.resultTruncationDefaultSize(),
+            TEST_CFG.query(),
+            true,
+            TEST_CFG.tables(),
+            TEST_CFG.getQueryStartTimeNanos(),
+            TEST_CFG.allowPartialResults()
+        );
+    }
+
+    /**
+     * Stands in for the exchange, which releases the pages once it has sent them.
+     */
+    private static class ReleasingSink implements ExchangeSink {
+        private boolean finished;
+
+        @Override
+        public void addPage(Page page) {
+            page.releaseBlocks();
+        }
+
+        @Override
+        public void finish() {
+            finished = true;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return finished;
+        }
+
+        @Override
+        public void addCompletionListener(ActionListener<Void> listener) {
+            listener.onResponse(null);
+        }
+
+        @Override
+        public IsBlockedResult waitForWriting() {
+            return Operator.NOT_BLOCKED;
+        }
+    }
+}